@@ -0,0 +1,24 @@
+package com.mse.personal.finance.db;
+
+/**
+ * Names of the Hibernate second-level cache regions
+ * (each of them is configured as a separate cache in ehcache.xml).
+ *
+ * @author dvt32
+ */
+public final class CacheRegions {
+
+	public static final String USERS = "users";
+	public static final String ACCOUNTS = "accounts";
+	public static final String CATEGORIES = "categories";
+	public static final String USER_SETTINGS = "user-settings";
+
+	/**
+	 * Region of the cached results of the per-owner queries
+	 * (e.g. all accounts/categories/settings of a user).
+	 */
+	public static final String PER_OWNER_QUERIES = "per-owner-queries";
+
+	private CacheRegions() {}
+
+}
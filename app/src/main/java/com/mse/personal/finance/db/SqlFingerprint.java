@@ -0,0 +1,147 @@
+package com.mse.personal.finance.db;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Normalizes SQL statements to fingerprints, so the executions of the same statement
+ * with different values can be counted together (see {@link SqlStatistics}), e.g.:
+ *
+ * <pre>
+ * SELECT * FROM accounts WHERE id IN (1, 2, 3) AND name = 'Cash'
+ * </pre>
+ *
+ * becomes:
+ *
+ * <pre>
+ * select * from accounts where id in (?) and name = ?
+ * </pre>
+ *
+ * Literals are replaced by "?", lists of "?" are collapsed into one,
+ * whitespace is collapsed and everything outside of quoted identifiers is lower-cased.
+ *
+ * The fingerprints are cached, because the application issues a limited set of distinct statements.
+ *
+ * @author dvt32
+ */
+public final class SqlFingerprint {
+
+	private static final int MAX_CACHED_FINGERPRINTS = 10_000;
+
+	private static final Map<String, String> CACHED_FINGERPRINTS = new ConcurrentHashMap<>();
+
+	private SqlFingerprint() {
+
+	}
+
+	/**
+	 * Returns the fingerprint of the passed SQL statement.
+	 */
+	public static String of(String sql) {
+		String fingerprint = CACHED_FINGERPRINTS.get(sql);
+		if (fingerprint == null) {
+			fingerprint = normalize(sql);
+			// Statements with varying text (e.g. literal values) stop being cached once the cache is full
+			if (CACHED_FINGERPRINTS.size() < MAX_CACHED_FINGERPRINTS) {
+				CACHED_FINGERPRINTS.put(sql, fingerprint);
+			}
+		}
+
+		return fingerprint;
+	}
+
+	private static String normalize(String sql) {
+		StringBuilder fingerprint = new StringBuilder( sql.length() );
+
+		int length = sql.length();
+		int i = 0;
+		while (i < length) {
+			char c = sql.charAt(i);
+
+			if ( Character.isWhitespace(c) ) {
+				while ( i < length && Character.isWhitespace( sql.charAt(i) ) ) {
+					i++;
+				}
+				if ( fingerprint.length() > 0 && i < length ) {
+					fingerprint.append(' ');
+				}
+			}
+			else if (c == '\'') {
+				i = skipQuoted(sql, i, '\'');
+				appendPlaceholder(fingerprint);
+			}
+			else if (c == '"') {
+				int end = skipQuoted(sql, i, '"');
+				fingerprint.append(sql, i, end);
+				i = end;
+			}
+			else if (c == '?') {
+				i++;
+				appendPlaceholder(fingerprint);
+			}
+			else if ( Character.isDigit(c) && !isIdentifierPart(fingerprint) ) {
+				while ( i < length && ( Character.isDigit( sql.charAt(i) ) || sql.charAt(i) == '.' ) ) {
+					i++;
+				}
+				appendPlaceholder(fingerprint);
+			}
+			else {
+				fingerprint.append( Character.toLowerCase(c) );
+				i++;
+			}
+		}
+
+		return fingerprint.toString();
+	}
+
+	/**
+	 * Returns the index after the quoted literal/identifier starting at the passed index
+	 * (doubled quotes are escaped quotes).
+	 */
+	private static int skipQuoted(String sql, int start, char quote) {
+		int i = start + 1;
+		while ( i < sql.length() ) {
+			if ( sql.charAt(i) == quote ) {
+				boolean escapedQuote = ( i + 1 < sql.length() && sql.charAt(i + 1) == quote );
+				if (!escapedQuote) {
+					return i + 1;
+				}
+				i++;
+			}
+			i++;
+		}
+
+		return sql.length();
+	}
+
+	/**
+	 * Appends "?", unless it continues a list of "?" (e.g. "(?, ?" becomes "(?").
+	 */
+	private static void appendPlaceholder(StringBuilder fingerprint) {
+		int end = fingerprint.length();
+		while ( end > 0 && fingerprint.charAt(end - 1) == ' ' ) {
+			end--;
+		}
+
+		boolean continuesList = ( end >= 2 && fingerprint.charAt(end - 1) == ',' && fingerprint.charAt(end - 2) == '?' );
+		if (continuesList) {
+			fingerprint.setLength(end - 1);
+			return;
+		}
+
+		fingerprint.append('?');
+	}
+
+	/**
+	 * Checks if the last appended character is part of an identifier (e.g. the "1" in "accounts1_").
+	 */
+	private static boolean isIdentifierPart(StringBuilder fingerprint) {
+		if (fingerprint.length() == 0) {
+			return false;
+		}
+
+		char last = fingerprint.charAt( fingerprint.length() - 1 );
+		return Character.isLetterOrDigit(last) || last == '_' || last == '$';
+	}
+
+}
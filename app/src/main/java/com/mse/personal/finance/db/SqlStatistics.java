@@ -0,0 +1,231 @@
+package com.mse.personal.finance.db;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.mse.personal.finance.tracing.RequestTrace;
+
+/**
+ * Statistics of the executed SQL statements, grouped by their fingerprints (see {@link SqlFingerprint}).
+ *
+ * For every fingerprint it keeps the number of executions, an HDR histogram of their latencies
+ * and how many times the statement was executed per HTTP request (so N+1 loads, which execute
+ * the same statement many times in one request, stand out).
+ *
+ * The executions are recorded by the data source's proxy (see {@link SqlTimingDataSourcePostProcessor})
+ * and the per-request counts when the request's trace ends.
+ * The number of fingerprints is limited by the "sql-statistics.max-fingerprints" property -
+ * the statements with new fingerprints above the limit are counted together as "(other)".
+ *
+ * @author dvt32
+ */
+@Component
+public class SqlStatistics {
+
+	static final String OTHER_FINGERPRINT = "(other)";
+
+	/**
+	 * The histograms track latencies up to a minute in microseconds with 2 significant digits.
+	 */
+	private static final long HIGHEST_TRACKABLE_TIME_MICROS = TimeUnit.MINUTES.toMicros(1);
+	private static final int SIGNIFICANT_DIGITS = 2;
+
+	/**
+	 * The orders of the fingerprints in the report.
+	 */
+	public enum Order {
+		TOTAL_TIME( Comparator.comparingLong(FingerprintReport::getTotalTimeMicros) ),
+		EXECUTIONS( Comparator.comparingLong(FingerprintReport::getExecutionCount) ),
+		EXECUTIONS_PER_REQUEST( Comparator.comparingLong(FingerprintReport::getMaxExecutionsPerRequest) ),
+		P99( Comparator.comparingLong(FingerprintReport::getP99TimeMicros) );
+
+		private final Comparator<FingerprintReport> comparator;
+
+		Order(Comparator<FingerprintReport> comparator) {
+			this.comparator = comparator;
+		}
+	}
+
+	private final int maxFingerprints;
+	private final Map<String, FingerprintStatistics> statisticsByFingerprint = new ConcurrentHashMap<>();
+
+	@Autowired
+	public SqlStatistics(@Value("${sql-statistics.max-fingerprints:1000}") int maxFingerprints) {
+		this.maxFingerprints = maxFingerprints;
+	}
+
+	/**
+	 * Records an execution of the passed SQL statement
+	 * (also in the trace of the current request - see {@link RequestTrace}).
+	 */
+	public void recordExecution(String sql, long timeNanos) {
+		String fingerprint = SqlFingerprint.of(sql);
+		getStatistics(fingerprint).recordExecution(timeNanos);
+		RequestTrace.recordSqlStatement(fingerprint, timeNanos);
+	}
+
+	/**
+	 * Records the numbers of executions of the statements of an ended request.
+	 */
+	public void recordRequest(RequestTrace requestTrace) {
+		requestTrace.getSqlExecutionCounts().forEach(
+			(fingerprint, executionCount) -> getStatistics(fingerprint).recordRequest(executionCount)
+		);
+	}
+
+	/**
+	 * Returns the reports of the top fingerprints in the passed order (descending).
+	 */
+	public List<FingerprintReport> getTopFingerprints(int top, Order order) {
+		List<FingerprintReport> reports = new ArrayList<>( statisticsByFingerprint.size() );
+		statisticsByFingerprint.forEach( (fingerprint, statistics) -> reports.add( statistics.toReport(fingerprint) ) );
+
+		reports.sort( order.comparator.reversed() );
+		return ( reports.size() > top ) ? new ArrayList<>( reports.subList(0, top) ) : reports;
+	}
+
+	/**
+	 * Removes all recorded statistics (e.g. before a load test).
+	 */
+	public void reset() {
+		statisticsByFingerprint.clear();
+	}
+
+	private FingerprintStatistics getStatistics(String fingerprint) {
+		FingerprintStatistics statistics = statisticsByFingerprint.get(fingerprint);
+		if (statistics != null) {
+			return statistics;
+		}
+
+		String statisticsFingerprint = ( statisticsByFingerprint.size() < maxFingerprints ) ? fingerprint : OTHER_FINGERPRINT;
+		return statisticsByFingerprint.computeIfAbsent( statisticsFingerprint, newFingerprint -> new FingerprintStatistics() );
+	}
+
+	/**
+	 * The recorded executions of a fingerprint (updated concurrently by all threads).
+	 */
+	private static final class FingerprintStatistics {
+
+		private final ConcurrentHistogram latencyHistogram = new ConcurrentHistogram(HIGHEST_TRACKABLE_TIME_MICROS, SIGNIFICANT_DIGITS);
+		private final LongAdder executionCount = new LongAdder();
+		private final LongAdder totalTimeNanos = new LongAdder();
+		private final LongAdder requestCount = new LongAdder();
+		private final LongAdder requestExecutionCount = new LongAdder();
+		private final LongAccumulator maxExecutionsPerRequest = new LongAccumulator(Math::max, 0L);
+
+		private void recordExecution(long timeNanos) {
+			long timeMicros = Math.min( TimeUnit.NANOSECONDS.toMicros(timeNanos), HIGHEST_TRACKABLE_TIME_MICROS );
+			latencyHistogram.recordValue(timeMicros);
+			executionCount.increment();
+			totalTimeNanos.add(timeNanos);
+		}
+
+		private void recordRequest(int executionCount) {
+			requestCount.increment();
+			requestExecutionCount.add(executionCount);
+			maxExecutionsPerRequest.accumulate(executionCount);
+		}
+
+		private FingerprintReport toReport(String fingerprint) {
+			// Percentiles are read from a copy, which is not changed by concurrent recordings
+			Histogram latencyHistogramCopy = latencyHistogram.copy();
+
+			FingerprintReport report = new FingerprintReport();
+			report.fingerprint = fingerprint;
+			report.executionCount = executionCount.sum();
+			report.totalTimeMicros = TimeUnit.NANOSECONDS.toMicros( totalTimeNanos.sum() );
+			report.meanTimeMicros = latencyHistogramCopy.getMean();
+			report.p50TimeMicros = latencyHistogramCopy.getValueAtPercentile(50.0d);
+			report.p95TimeMicros = latencyHistogramCopy.getValueAtPercentile(95.0d);
+			report.p99TimeMicros = latencyHistogramCopy.getValueAtPercentile(99.0d);
+			report.maxTimeMicros = latencyHistogramCopy.getMaxValue();
+			report.requestCount = requestCount.sum();
+			report.maxExecutionsPerRequest = maxExecutionsPerRequest.get();
+			long requests = report.requestCount;
+			report.averageExecutionsPerRequest = (requests > 0) ? (double) requestExecutionCount.sum() / requests : 0.0d;
+			return report;
+		}
+
+	}
+
+	/**
+	 * The statistics of a fingerprint (times in microseconds).
+	 * The per-request numbers only include the executions within HTTP requests.
+	 */
+	public static final class FingerprintReport {
+
+		private String fingerprint;
+		private long executionCount;
+		private long totalTimeMicros;
+		private double meanTimeMicros;
+		private long p50TimeMicros;
+		private long p95TimeMicros;
+		private long p99TimeMicros;
+		private long maxTimeMicros;
+		private long requestCount;
+		private long maxExecutionsPerRequest;
+		private double averageExecutionsPerRequest;
+
+		private FingerprintReport() {
+
+		}
+
+		public String getFingerprint() {
+			return this.fingerprint;
+		}
+
+		public long getExecutionCount() {
+			return this.executionCount;
+		}
+
+		public long getTotalTimeMicros() {
+			return this.totalTimeMicros;
+		}
+
+		public double getMeanTimeMicros() {
+			return this.meanTimeMicros;
+		}
+
+		public long getP50TimeMicros() {
+			return this.p50TimeMicros;
+		}
+
+		public long getP95TimeMicros() {
+			return this.p95TimeMicros;
+		}
+
+		public long getP99TimeMicros() {
+			return this.p99TimeMicros;
+		}
+
+		public long getMaxTimeMicros() {
+			return this.maxTimeMicros;
+		}
+
+		public long getRequestCount() {
+			return this.requestCount;
+		}
+
+		public long getMaxExecutionsPerRequest() {
+			return this.maxExecutionsPerRequest;
+		}
+
+		public double getAverageExecutionsPerRequest() {
+			return this.averageExecutionsPerRequest;
+		}
+
+	}
+
+}
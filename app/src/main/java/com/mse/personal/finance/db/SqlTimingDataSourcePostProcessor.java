@@ -0,0 +1,217 @@
+package com.mse.personal.finance.db;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.stereotype.Component;
+
+/**
+ * Wraps the data source, so the execution time of every SQL statement is recorded
+ * in the {@link SqlStatistics} (by the statement's fingerprint) and in the trace of the current request.
+ *
+ * The data source, its connections and their statements are wrapped in JDK proxies,
+ * which time the statements' "execute*" methods (remembering the SQL of the prepared statements)
+ * and delegate all other calls
+ * (including unwrap(), so the pool is still found by its metrics & health checks).
+ *
+ * @author dvt32
+ */
+@Component
+public class SqlTimingDataSourcePostProcessor
+	implements BeanPostProcessor
+{
+
+	private final ObjectProvider<SqlStatistics> sqlStatisticsProvider;
+
+	/**
+	 * The statistics are resolved when the data source is wrapped,
+	 * because post-processors are created before the other beans.
+	 */
+	@Autowired
+	public SqlTimingDataSourcePostProcessor(ObjectProvider<SqlStatistics> sqlStatisticsProvider) {
+		this.sqlStatisticsProvider = sqlStatisticsProvider;
+	}
+
+	@Override
+	public Object postProcessAfterInitialization(Object bean, String beanName) {
+		if ( !(bean instanceof DataSource) || Proxy.isProxyClass( bean.getClass() ) ) {
+			return bean;
+		}
+
+		SqlStatistics sqlStatistics = sqlStatisticsProvider.getObject();
+		return createProxy( DataSource.class, new DataSourceHandler( (DataSource) bean, sqlStatistics ) );
+	}
+
+	private static <T> T createProxy(Class<T> proxyInterface, InvocationHandler handler) {
+		Object proxy = Proxy.newProxyInstance( SqlTimingDataSourcePostProcessor.class.getClassLoader(), new Class<?>[] { proxyInterface }, handler );
+		return proxyInterface.cast(proxy);
+	}
+
+	/**
+	 * Base of the handlers, which delegate the calls to the wrapped JDBC object.
+	 */
+	private abstract static class DelegatingHandler
+		implements InvocationHandler
+	{
+
+		private final Object delegate;
+
+		DelegatingHandler(Object delegate) {
+			this.delegate = delegate;
+		}
+
+		@Override
+		public Object invoke(Object proxy, Method method, Object[] args)
+			throws Throwable
+		{
+			switch ( method.getName() ) {
+				case "equals":
+					return (proxy == args[0]);
+				case "hashCode":
+					return System.identityHashCode(proxy);
+				default:
+					return handle(method, args);
+			}
+		}
+
+		protected abstract Object handle(Method method, Object[] args)
+			throws Throwable;
+
+		protected Object delegate(Method method, Object[] args)
+			throws Throwable
+		{
+			try {
+				return method.invoke(delegate, args);
+			}
+			catch (InvocationTargetException e) {
+				throw e.getTargetException();
+			}
+		}
+
+	}
+
+	private static final class DataSourceHandler
+		extends DelegatingHandler
+	{
+
+		private final SqlStatistics sqlStatistics;
+
+		DataSourceHandler(DataSource dataSource, SqlStatistics sqlStatistics) {
+			super(dataSource);
+			this.sqlStatistics = sqlStatistics;
+		}
+
+		@Override
+		protected Object handle(Method method, Object[] args)
+			throws Throwable
+		{
+			Object result = delegate(method, args);
+			if ( "getConnection".equals( method.getName() ) ) {
+				return createProxy( Connection.class, new ConnectionHandler( (Connection) result, sqlStatistics ) );
+			}
+
+			return result;
+		}
+
+	}
+
+	private static final class ConnectionHandler
+		extends DelegatingHandler
+	{
+
+		private final SqlStatistics sqlStatistics;
+
+		ConnectionHandler(Connection connection, SqlStatistics sqlStatistics) {
+			super(connection);
+			this.sqlStatistics = sqlStatistics;
+		}
+
+		@Override
+		protected Object handle(Method method, Object[] args)
+			throws Throwable
+		{
+			Object result = delegate(method, args);
+			switch ( method.getName() ) {
+				case "createStatement":
+					return createProxy( Statement.class, new StatementHandler( (Statement) result, null, sqlStatistics ) );
+				case "prepareStatement":
+					return createProxy( PreparedStatement.class, new StatementHandler( (Statement) result, (String) args[0], sqlStatistics ) );
+				case "prepareCall":
+					return createProxy( CallableStatement.class, new StatementHandler( (Statement) result, (String) args[0], sqlStatistics ) );
+				default:
+					return result;
+			}
+		}
+
+	}
+
+	private static final class StatementHandler
+		extends DelegatingHandler
+	{
+
+		private final String preparedSql;
+		private final SqlStatistics sqlStatistics;
+		private String batchSql;
+
+		/**
+		 * @param preparedSql the SQL of a prepared statement (null for plain statements, whose SQL is passed on execution)
+		 */
+		StatementHandler(Statement statement, String preparedSql, SqlStatistics sqlStatistics) {
+			super(statement);
+			this.preparedSql = preparedSql;
+			this.sqlStatistics = sqlStatistics;
+		}
+
+		@Override
+		protected Object handle(Method method, Object[] args)
+			throws Throwable
+		{
+			String methodName = method.getName();
+			if ( !methodName.startsWith("execute") ) {
+				// The batch of a plain statement is recorded with the SQL of its first statement
+				if ( "addBatch".equals(methodName) && batchSql == null && args != null && args[0] instanceof String ) {
+					batchSql = (String) args[0];
+				}
+				return delegate(method, args);
+			}
+
+			String sql = getExecutedSql(methodName, args);
+			long startTime = System.nanoTime();
+			try {
+				return delegate(method, args);
+			}
+			finally {
+				sqlStatistics.recordExecution( sql, System.nanoTime() - startTime );
+			}
+		}
+
+		private String getExecutedSql(String methodName, Object[] args) {
+			if ( args != null && args.length > 0 && args[0] instanceof String ) {
+				return (String) args[0];
+			}
+			if (preparedSql != null) {
+				return preparedSql;
+			}
+			if ( methodName.startsWith("executeBatch") || methodName.startsWith("executeLargeBatch") ) {
+				String executedBatchSql = (batchSql != null) ? batchSql : "";
+				batchSql = null;
+				return executedBatchSql;
+			}
+
+			return "";
+		}
+
+	}
+
+}
@@ -3,6 +3,7 @@ package com.mse.personal.finance.db.entity;
 import java.util.List;
 import java.util.Objects;
 
+import javax.persistence.Cacheable;
 import javax.persistence.CascadeType;
 import javax.persistence.Column;
 import javax.persistence.Entity;
@@ -16,18 +17,31 @@ import javax.persistence.Table;
 import javax.validation.constraints.NotBlank;
 import javax.validation.constraints.NotNull;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+
+import com.mse.personal.finance.db.CacheRegions;
 import com.mse.personal.finance.model.AccountType;
+import com.mse.personal.finance.model.Money;
 
 /**
  * Persistence entity for a user balance account in the finance system.
  * 
  * Contains the needed information for user balance accounts.
+ * 
+ * Accounts are kept in the second-level cache. Their balance is changed 
+ * with {@link com.mse.personal.finance.db.repository.AccountRepository#addToBalanceById},
+ * which evicts only the updated account from the cache (and not the whole cache region).
+ * 
+ * The balance & goal are stored in minor units (see {@link Money}).
  *
  * @author D. Dimitrov
  * @author dvt32
  */
 @Entity
 @Table(name = "accounts")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = CacheRegions.ACCOUNTS)
 public class AccountEntity 
 	extends BaseEntity 
 {
@@ -38,10 +52,10 @@ public class AccountEntity
 
 	@Column(name = "balance", nullable = false)
 	@NotNull(message = "Account balance must not be null!")
-	private Double balance;
+	private Long balance;
 
 	@Column(name = "goal")
-	private Double goal;
+	private Long goal;
 
 	@Column(name = "type", nullable = false)
 	@Enumerated(EnumType.STRING)
@@ -77,8 +91,8 @@ public class AccountEntity
 		List<UserEntity> sharedUsers) 
 	{
 		this.name = name;
-		this.balance = balance;
-		this.goal = goal;
+		this.balance = Money.toNullableMinorUnits(balance);
+		this.goal = Money.toNullableMinorUnits(goal);
 		this.type = type;
 		this.owner = owner;
 		this.sharedUsers = sharedUsers;
@@ -93,11 +107,15 @@ public class AccountEntity
 	}
 
 	public Double getBalance() {
+		return Money.toNullableAmount(this.balance);
+	}
+
+	public Long getBalanceInMinorUnits() {
 		return this.balance;
 	}
 
 	public Double getGoal() {
-		return this.goal;
+		return Money.toNullableAmount(this.goal);
 	}
 
 	public AccountType getType() {
@@ -118,12 +136,12 @@ public class AccountEntity
 	}
 
 	public AccountEntity setBalance(Double balance) {
-		this.balance = balance;
+		this.balance = Money.toNullableMinorUnits(balance);
 		return this;
 	}
 
 	public AccountEntity setGoal(Double goal) {
-		this.goal = goal;
+		this.goal = Money.toNullableMinorUnits(goal);
 		return this;
 	}
 
@@ -4,11 +4,17 @@ import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
 import javax.persistence.Id;
 import javax.persistence.MappedSuperclass;
+import javax.persistence.SequenceGenerator;
 import java.io.Serializable;
 import java.util.Objects;
 
 /**
  * Base persistence entity taking care of primary identifier generation.
+ * 
+ * Identifiers are generated from a shared sequence (instead of identity columns),
+ * so that Hibernate knows the identifiers before inserting the rows
+ * and can group the inserts into JDBC batches.
+ * The allocation size allows fetching 50 identifiers with a single sequence call.
  *
  * @author T. Dossev
  */
@@ -18,7 +24,8 @@ public abstract class BaseEntity
 {
 
 	@Id
-	@GeneratedValue(strategy = GenerationType.IDENTITY)
+	@GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "pfm_id_generator")
+	@SequenceGenerator(name = "pfm_id_generator", sequenceName = "pfm_id_seq", allocationSize = 50)
 	private Long id;
 
 	/*
@@ -2,27 +2,46 @@ package com.mse.personal.finance.db.entity;
 
 import java.util.Objects;
 
+import javax.persistence.Cacheable;
 import javax.persistence.Column;
 import javax.persistence.Entity;
 import javax.persistence.EnumType;
 import javax.persistence.Enumerated;
+import javax.persistence.Index;
 import javax.persistence.JoinColumn;
 import javax.persistence.ManyToOne;
 import javax.persistence.Table;
 import javax.validation.constraints.NotBlank;
 import javax.validation.constraints.NotNull;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+
+import com.mse.personal.finance.db.CacheRegions;
 import com.mse.personal.finance.model.CategoryType;
+import com.mse.personal.finance.model.Money;
 
 /**
  * Persistence entity for user categories in the finance system.
  * Contains the needed information for user categories.
+ * 
+ * Categories are kept in the second-level cache. Their current period sum is changed 
+ * with {@link com.mse.personal.finance.db.repository.CategoryRepository#addToCurrentPeriodSumById},
+ * which evicts only the updated category from the cache (and not the whole cache region).
+ * 
+ * The current period sum is stored in minor units (see {@link Money}).
  *
  * @author D. Dimitrov
  * @author dvt32
  */
 @Entity
-@Table(name = "categories")
+@Table(
+	name = "categories",
+	// Listing of the non-system categories & lookup of the system categories of a user
+	indexes = @Index(name = "idx_categories_owner_system", columnList = "owner_id, system_category")
+)
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = CacheRegions.CATEGORIES)
 public class CategoryEntity 
 	extends BaseEntity 
 {
@@ -38,11 +57,18 @@ public class CategoryEntity
 
 	@Column(name = "current_period_sum", nullable = false)
 	@NotNull(message = "Category current period sum must not be null!")
-	private Double currentPeriodSum;
+	private Long currentPeriodSum;
 
 	@Column(name = "category_limit")
 	private String limit;
 
+	/**
+	 * True for the system categories (SYS_INCOME & SYS_EXPENSES),
+	 * which are created for each user on registration and are not shown to the user.
+	 */
+	@Column(name = "system_category", nullable = false)
+	private boolean system;
+
 	@ManyToOne
 	@JoinColumn(name = "owner_id")
 	private UserEntity owner;
@@ -62,7 +88,7 @@ public class CategoryEntity
 	{
 		this.name = name;
 		this.type = type;
-		this.currentPeriodSum = currentPeriodSum;
+		this.currentPeriodSum = Money.toNullableMinorUnits(currentPeriodSum);
 		this.limit = limit;
 		this.owner = owner;
 	}
@@ -80,6 +106,10 @@ public class CategoryEntity
 	}
 
 	public Double getCurrentPeriodSum() {
+		return Money.toNullableAmount(this.currentPeriodSum);
+	}
+
+	public Long getCurrentPeriodSumInMinorUnits() {
 		return this.currentPeriodSum;
 	}
 
@@ -91,6 +121,10 @@ public class CategoryEntity
 		return this.owner;
 	}
 
+	public boolean isSystem() {
+		return this.system;
+	}
+
 	public CategoryEntity setName(String name) {
 		this.name = name;
 		return this;
@@ -102,7 +136,7 @@ public class CategoryEntity
 	}
 
 	public CategoryEntity setCurrentPeriodSum(Double currentPeriodSum) {
-		this.currentPeriodSum = currentPeriodSum;
+		this.currentPeriodSum = Money.toNullableMinorUnits(currentPeriodSum);
 		return this;
 	}
 
@@ -116,6 +150,11 @@ public class CategoryEntity
 		return this;
 	}
 
+	public CategoryEntity setSystem(boolean system) {
+		this.system = system;
+		return this;
+	}
+
 	/*
 	 * Other methods
 	 */
@@ -0,0 +1,113 @@
+package com.mse.personal.finance.db.entity;
+
+import java.util.Date;
+import java.util.Objects;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Table;
+import javax.persistence.Temporal;
+import javax.persistence.TemporalType;
+import javax.persistence.UniqueConstraint;
+
+/**
+ * Persistence entity for the locks of scheduled jobs, which should run on one application instance at a time
+ * (see JobLockService).
+ *
+ * A job is locked by an instance until the lock's expiration time.
+ *
+ * @author dvt32
+ */
+@Entity
+@Table(
+	name = "job_locks",
+	uniqueConstraints = @UniqueConstraint(name = "uk_job_locks_name", columnNames = "name")
+)
+public class JobLockEntity
+	extends BaseEntity
+{
+
+	@Column(name = "name", nullable = false, updatable = false, length = 64)
+	private String name;
+
+	@Column(name = "locked_until", nullable = false)
+	@Temporal(TemporalType.TIMESTAMP)
+	private Date lockedUntil;
+
+	@Column(name = "locked_by", nullable = false)
+	private String lockedBy;
+
+	/*
+	 * Constructors
+	 */
+
+	public JobLockEntity() {}
+
+	public JobLockEntity(String name, Date lockedUntil, String lockedBy) {
+		this.name = name;
+		this.lockedUntil = lockedUntil;
+		this.lockedBy = lockedBy;
+	}
+
+	/*
+	 * Getters & setters
+	 */
+
+	public String getName() {
+		return this.name;
+	}
+
+	public Date getLockedUntil() {
+		return this.lockedUntil;
+	}
+
+	public String getLockedBy() {
+		return this.lockedBy;
+	}
+
+	public JobLockEntity setName(String name) {
+		this.name = name;
+		return this;
+	}
+
+	public JobLockEntity setLockedUntil(Date lockedUntil) {
+		this.lockedUntil = lockedUntil;
+		return this;
+	}
+
+	public JobLockEntity setLockedBy(String lockedBy) {
+		this.lockedBy = lockedBy;
+		return this;
+	}
+
+	/*
+	 * Other methods
+	 */
+
+	@Override
+	public boolean equals(Object o) {
+		if (this == o) {
+			return true;
+		}
+		if (o == null || getClass() != o.getClass()) {
+			return false;
+		}
+		if (!super.equals(o)) {
+			return false;
+		}
+		JobLockEntity that = (JobLockEntity) o;
+		return Objects.equals(name, that.name) &&
+				Objects.equals(lockedUntil, that.lockedUntil) &&
+				Objects.equals(lockedBy, that.lockedBy);
+	}
+
+	@Override
+	public int hashCode() {
+		return Objects.hash(super.hashCode(), name, lockedUntil, lockedBy);
+	}
+
+	public String toString() {
+		return "JobLockEntity(name=" + this.getName() + ", lockedUntil=" + this.getLockedUntil() + ", lockedBy=" + this.getLockedBy() + ")";
+	}
+
+}
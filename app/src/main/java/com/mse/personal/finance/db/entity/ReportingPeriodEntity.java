@@ -13,9 +13,13 @@ import javax.persistence.TemporalType;
 import javax.validation.constraints.FutureOrPresent;
 import javax.validation.constraints.NotNull;
 
+import com.mse.personal.finance.model.Money;
+
 /**
  * Persistence entity for users' reporting periods in the finance system.
  * Contains the needed information for user reporting periods.
+ * 
+ * The end sum is stored in minor units (see {@link Money}).
  *
  * @author D. Dimitrov
  * @author dvt32
@@ -34,7 +38,7 @@ public class ReportingPeriodEntity
 
 	@Column(name = "end_sum", nullable = false)
 	@NotNull(message = "Reporting period end sum must not be null!")
-	private Double endSum;
+	private Long endSum;
 
 	@ManyToOne
 	@JoinColumn(name = "user_id")
@@ -55,7 +59,7 @@ public class ReportingPeriodEntity
 	}
 
 	public Double getEndSum() {
-		return this.endSum;
+		return Money.toNullableAmount(this.endSum);
 	}
 
 	public UserEntity getUser() {
@@ -68,7 +72,7 @@ public class ReportingPeriodEntity
 	}
 
 	public ReportingPeriodEntity setEndSum(Double endSum) {
-		this.endSum = endSum;
+		this.endSum = Money.toNullableMinorUnits(endSum);
 		return this;
 	}
 
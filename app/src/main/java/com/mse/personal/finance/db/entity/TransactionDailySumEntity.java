@@ -0,0 +1,220 @@
+package com.mse.personal.finance.db.entity;
+
+import java.util.Date;
+import java.util.Objects;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.EnumType;
+import javax.persistence.Enumerated;
+import javax.persistence.Table;
+import javax.persistence.Temporal;
+import javax.persistence.TemporalType;
+import javax.persistence.UniqueConstraint;
+
+import com.mse.personal.finance.model.Money;
+import com.mse.personal.finance.model.TransactionFromType;
+import com.mse.personal.finance.model.TransactionToType;
+
+/**
+ * Persistence entity for the daily sums of user transactions.
+ *
+ * Contains the total sum and number of a user's transactions
+ * made on the same day with the same from/to data.
+ * The sums are updated whenever a transaction is created, updated or deleted,
+ * so that the total transaction sums can be calculated
+ * without reading all of the user's transactions.
+ *
+ * The total sum is stored in minor units (see {@link Money}).
+ *
+ * The user is referenced by ID only (no relation is mapped),
+ * because the entity is never loaded together with the user.
+ *
+ * @author dvt32
+ */
+@Entity
+@Table(
+	name = "transaction_daily_sums",
+	uniqueConstraints = @UniqueConstraint(
+		name = "uk_transaction_daily_sums_key",
+		columnNames = { "user_id", "transaction_day", "from_type", "from_id", "to_type", "to_id" }
+	)
+)
+public class TransactionDailySumEntity
+	extends BaseEntity
+{
+
+	@Column(name = "user_id", nullable = false)
+	private Long userId;
+
+	@Column(name = "transaction_day", nullable = false)
+	@Temporal(TemporalType.DATE)
+	private Date day;
+
+	@Column(name = "from_type", nullable = false)
+	@Enumerated(EnumType.STRING)
+	private TransactionFromType fromType;
+
+	@Column(name = "from_id", nullable = false)
+	private Long fromId;
+
+	@Column(name = "to_type", nullable = false)
+	@Enumerated(EnumType.STRING)
+	private TransactionToType toType;
+
+	@Column(name = "to_id", nullable = false)
+	private Long toId;
+
+	@Column(name = "total_sum", nullable = false)
+	private Long totalSum;
+
+	@Column(name = "transaction_count", nullable = false)
+	private Long transactionCount;
+
+	/*
+	 * Constructors
+	 */
+
+	public TransactionDailySumEntity() {}
+
+	public TransactionDailySumEntity(
+		Long userId,
+		Date day,
+		TransactionFromType fromType,
+		Long fromId,
+		TransactionToType toType,
+		Long toId,
+		Long totalSumInMinorUnits,
+		Long transactionCount)
+	{
+		this.userId = userId;
+		this.day = day;
+		this.fromType = fromType;
+		this.fromId = fromId;
+		this.toType = toType;
+		this.toId = toId;
+		this.totalSum = totalSumInMinorUnits;
+		this.transactionCount = transactionCount;
+	}
+
+	/*
+	 * Getters & setters
+	 */
+
+	public Long getUserId() {
+		return this.userId;
+	}
+
+	public Date getDay() {
+		return this.day;
+	}
+
+	public TransactionFromType getFromType() {
+		return this.fromType;
+	}
+
+	public Long getFromId() {
+		return this.fromId;
+	}
+
+	public TransactionToType getToType() {
+		return this.toType;
+	}
+
+	public Long getToId() {
+		return this.toId;
+	}
+
+	public Double getTotalSum() {
+		return Money.toNullableAmount(this.totalSum);
+	}
+
+	public Long getTotalSumInMinorUnits() {
+		return this.totalSum;
+	}
+
+	public Long getTransactionCount() {
+		return this.transactionCount;
+	}
+
+	public TransactionDailySumEntity setUserId(Long userId) {
+		this.userId = userId;
+		return this;
+	}
+
+	public TransactionDailySumEntity setDay(Date day) {
+		this.day = day;
+		return this;
+	}
+
+	public TransactionDailySumEntity setFromType(TransactionFromType fromType) {
+		this.fromType = fromType;
+		return this;
+	}
+
+	public TransactionDailySumEntity setFromId(Long fromId) {
+		this.fromId = fromId;
+		return this;
+	}
+
+	public TransactionDailySumEntity setToType(TransactionToType toType) {
+		this.toType = toType;
+		return this;
+	}
+
+	public TransactionDailySumEntity setToId(Long toId) {
+		this.toId = toId;
+		return this;
+	}
+
+	public TransactionDailySumEntity setTotalSum(Double totalSum) {
+		this.totalSum = Money.toNullableMinorUnits(totalSum);
+		return this;
+	}
+
+	public TransactionDailySumEntity setTotalSumInMinorUnits(Long totalSumInMinorUnits) {
+		this.totalSum = totalSumInMinorUnits;
+		return this;
+	}
+
+	public TransactionDailySumEntity setTransactionCount(Long transactionCount) {
+		this.transactionCount = transactionCount;
+		return this;
+	}
+
+	/*
+	 * Other methods
+	 */
+
+	@Override
+	public boolean equals(Object o) {
+		if (this == o) {
+			return true;
+		}
+		if (o == null || getClass() != o.getClass()) {
+			return false;
+		}
+		if (!super.equals(o)) {
+			return false;
+		}
+		TransactionDailySumEntity that = (TransactionDailySumEntity) o;
+		return Objects.equals(userId, that.userId) &&
+				Objects.equals(day, that.day) &&
+				Objects.equals(fromType, that.fromType) &&
+				Objects.equals(fromId, that.fromId) &&
+				Objects.equals(toType, that.toType) &&
+				Objects.equals(toId, that.toId) &&
+				Objects.equals(totalSum, that.totalSum) &&
+				Objects.equals(transactionCount, that.transactionCount);
+	}
+
+	@Override
+	public int hashCode() {
+		return Objects.hash(super.hashCode(), userId, day, fromType, fromId, toType, toId, totalSum, transactionCount);
+	}
+
+	public String toString() {
+		return "TransactionDailySumEntity(userId=" + this.getUserId() + ", day=" + this.getDay() + ", fromType=" + this.getFromType() + ", fromId=" + this.getFromId() + ", toType=" + this.getToType() + ", toId=" + this.getToId() + ", totalSum=" + this.getTotalSum() + ", transactionCount=" + this.getTransactionCount() + ")";
+	}
+
+}
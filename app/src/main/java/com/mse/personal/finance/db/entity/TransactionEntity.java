@@ -7,25 +7,54 @@ import javax.persistence.Column;
 import javax.persistence.Entity;
 import javax.persistence.EnumType;
 import javax.persistence.Enumerated;
+import javax.persistence.Index;
 import javax.persistence.JoinColumn;
 import javax.persistence.ManyToOne;
 import javax.persistence.Table;
 import javax.persistence.Temporal;
 import javax.persistence.TemporalType;
+import javax.persistence.UniqueConstraint;
 import javax.validation.constraints.NotNull;
 
+import com.mse.personal.finance.model.Money;
 import com.mse.personal.finance.model.TransactionFromType;
 import com.mse.personal.finance.model.TransactionToType;
 
 /**
  * Persistence entity for user transactions in the finance system.
  * Contains the needed information for user transactions.
+ * 
+ * The indexes match the access paths of the TransactionRepository queries
+ * (all queries filter by user and most of them by type/date range or from/to data).
+ * They are only declared here and are created together with the table, which is generated by Hibernate.
+ * 
+ * The sum is stored in minor units (see {@link Money}).
+ * 
+ * Recurring transactions, which should be automatically executed, have the date of their next execution
+ * (see {@link com.mse.personal.finance.service.RecurringTransactionService}).
+ * The transactions created by these executions have a unique idempotency key,
+ * so that an execution is never repeated.
  *
  * @author D. Dimitrov
  * @author dvt32
  */
 @Entity
-@Table(name = "transactions")
+@Table(
+	name = "transactions",
+	indexes = {
+		// Listing of all user transactions (ordered by date of completion & ID)
+		@Index(name = "idx_transactions_user_date", columnList = "user_id, date_of_completion, id"),
+		// Income/expense/transfer listings & total sums (the sum is included, so the total sums are computed from the index only)
+		@Index(name = "idx_transactions_user_type_date", columnList = "user_id, from_type, to_type, date_of_completion, id, sum"),
+		// Listing by from-data & account/category sums by from-ID
+		@Index(name = "idx_transactions_user_from_data", columnList = "user_id, from_type, from_id, date_of_completion, id"),
+		// Listing by to-data & account/category sums by to-ID
+		@Index(name = "idx_transactions_user_to_data", columnList = "user_id, to_type, to_id, date_of_completion, id"),
+		// Claiming of the due recurring transactions (ordered by next execution date & ID)
+		@Index(name = "idx_transactions_next_execution_date", columnList = "next_execution_date, id")
+	},
+	uniqueConstraints = @UniqueConstraint(name = "uk_transactions_idempotency_key", columnNames = "idempotency_key")
+)
 public class TransactionEntity 
 	extends BaseEntity 
 {
@@ -55,7 +84,7 @@ public class TransactionEntity
 
 	@Column(name = "sum", nullable = false)
 	@NotNull(message = "Transaction sum must not be null!")
-	private Double sum;
+	private Long sum;
 
 	@Column(name = "recurring")
 	private String recurring;
@@ -67,6 +96,17 @@ public class TransactionEntity
 	@NotNull(message = "Must specify if transaction should be automatically executed!")
 	private Boolean shouldBeAutomaticallyExecuted;
 
+	@Column(name = "next_execution_date")
+	@Temporal(TemporalType.DATE)
+	private Date nextExecutionDate;
+
+	@Column(name = "idempotency_key", length = 128)
+	private String idempotencyKey;
+
+	@Column(name = "execution_retry_time")
+	@Temporal(TemporalType.TIMESTAMP)
+	private Date executionRetryTime;
+
 	@ManyToOne
 	@JoinColumn(name = "user_id")
 	private UserEntity user;
@@ -102,6 +142,10 @@ public class TransactionEntity
 	}
 
 	public Double getSum() {
+		return Money.toNullableAmount(this.sum);
+	}
+
+	public Long getSumInMinorUnits() {
 		return this.sum;
 	}
 
@@ -117,6 +161,18 @@ public class TransactionEntity
 		return this.shouldBeAutomaticallyExecuted;
 	}
 
+	public Date getNextExecutionDate() {
+		return this.nextExecutionDate;
+	}
+
+	public String getIdempotencyKey() {
+		return this.idempotencyKey;
+	}
+
+	public Date getExecutionRetryTime() {
+		return this.executionRetryTime;
+	}
+
 	public UserEntity getUser() {
 		return this.user;
 	}
@@ -147,7 +203,7 @@ public class TransactionEntity
 	}
 
 	public TransactionEntity setSum(Double sum) {
-		this.sum = sum;
+		this.sum = Money.toNullableMinorUnits(sum);
 		return this;
 	}
 
@@ -166,6 +222,21 @@ public class TransactionEntity
 		return this;
 	}
 
+	public TransactionEntity setNextExecutionDate(Date nextExecutionDate) {
+		this.nextExecutionDate = nextExecutionDate;
+		return this;
+	}
+
+	public TransactionEntity setIdempotencyKey(String idempotencyKey) {
+		this.idempotencyKey = idempotencyKey;
+		return this;
+	}
+
+	public TransactionEntity setExecutionRetryTime(Date executionRetryTime) {
+		this.executionRetryTime = executionRetryTime;
+		return this;
+	}
+
 	public TransactionEntity setUser(UserEntity user) {
 		this.user = user;
 		return this;
@@ -3,6 +3,7 @@ package com.mse.personal.finance.db.entity;
 import java.util.List;
 import java.util.Objects;
 
+import javax.persistence.Cacheable;
 import javax.persistence.CascadeType;
 import javax.persistence.Column;
 import javax.persistence.ElementCollection;
@@ -18,6 +19,10 @@ import javax.validation.constraints.NotBlank;
 import javax.validation.constraints.NotNull;
 import javax.validation.constraints.Size;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+
+import com.mse.personal.finance.db.CacheRegions;
 import com.mse.personal.finance.db.validation.ValidEmail;
 import com.mse.personal.finance.model.FamilyStatusType;
 import com.mse.personal.finance.model.GenderType;
@@ -30,6 +35,8 @@ import com.mse.personal.finance.model.GenderType;
  */
 @Entity
 @Table(name = "users")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = CacheRegions.USERS)
 public class UserEntity 
 	extends BaseEntity 
 {
@@ -2,6 +2,7 @@ package com.mse.personal.finance.db.entity;
 
 import java.util.Objects;
 
+import javax.persistence.Cacheable;
 import javax.persistence.Column;
 import javax.persistence.Entity;
 import javax.persistence.EnumType;
@@ -12,6 +13,10 @@ import javax.persistence.Table;
 import javax.validation.constraints.NotBlank;
 import javax.validation.constraints.NotNull;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+
+import com.mse.personal.finance.db.CacheRegions;
 import com.mse.personal.finance.model.UserSettingKey;
 
 /**
@@ -23,6 +28,8 @@ import com.mse.personal.finance.model.UserSettingKey;
 
 @Entity
 @Table(name = "user_settings")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = CacheRegions.USER_SETTINGS)
 public class UserSettingEntity 
 	extends BaseEntity 
 {
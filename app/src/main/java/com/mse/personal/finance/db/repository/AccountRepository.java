@@ -1,35 +1,79 @@
 package com.mse.personal.finance.db.repository;
 
 import java.util.List;
+import java.util.Optional;
+
+import javax.persistence.QueryHint;
 
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import com.mse.personal.finance.db.CacheRegions;
 import com.mse.personal.finance.db.entity.AccountEntity;
 import com.mse.personal.finance.db.entity.UserEntity;
 import com.mse.personal.finance.model.AccountType;
 
 /**
  * Persistence DAO for performing CRUD operations upon {@link AccountEntity}.
+ * 
+ * The results of the per-owner queries are kept in the query cache (in the {@link CacheRegions#PER_OWNER_QUERIES} region).
+ * The total balances are exact sums of minor units (see {@link com.mse.personal.finance.model.Money}).
  *
  * @author D. Dimitrov
  * @author dvt32
  */
 @Repository
 public interface AccountRepository 
-	extends JpaRepository<AccountEntity, Long> 
+	extends JpaRepository<AccountEntity, Long>, AccountRepositoryCustom 
 {
 	
+	@QueryHints({
+		@QueryHint(name = org.hibernate.jpa.QueryHints.HINT_CACHEABLE, value = "true"),
+		@QueryHint(name = org.hibernate.jpa.QueryHints.HINT_CACHE_REGION, value = CacheRegions.PER_OWNER_QUERIES)
+	})
 	@Query("SELECT a FROM AccountEntity a WHERE a.type != 'DELETED' AND owner_id = :ownerId")
 	List<AccountEntity> findAllNonDeletedAccountsByOwner(@Param("ownerId") Long ownerId);
 	
+	@QueryHints({
+		@QueryHint(name = org.hibernate.jpa.QueryHints.HINT_CACHEABLE, value = "true"),
+		@QueryHint(name = org.hibernate.jpa.QueryHints.HINT_CACHE_REGION, value = CacheRegions.PER_OWNER_QUERIES)
+	})
 	List<AccountEntity> findAllByTypeAndOwner(AccountType type, UserEntity owner);
 	
+	/**
+	 * Returns the account with the passed ID, if it belongs to the passed owner
+	 * (uses the primary key index, the owner is only checked against the found row).
+	 */
+	@QueryHints({
+		@QueryHint(name = org.hibernate.jpa.QueryHints.HINT_CACHEABLE, value = "true"),
+		@QueryHint(name = org.hibernate.jpa.QueryHints.HINT_CACHE_REGION, value = CacheRegions.PER_OWNER_QUERIES)
+	})
+	Optional<AccountEntity> findByIdAndOwnerId(Long id, Long ownerId);
+	
 	boolean existsByNameAndOwner(String name, UserEntity owner);
 	
 	@Query(value = "SELECT sum(balance) FROM AccountEntity WHERE type = 'ACTIVATED' AND owner_id = :ownerId")
-    Double getTotalBalanceOfActivatedAccounts(@Param("ownerId") Long ownerId);
+    Long getTotalBalanceOfActivatedAccounts(@Param("ownerId") Long ownerId);
+	
+	/**
+	 * Returns the owner's account & category totals in a single row:
+	 * the total balance of the activated accounts, 
+	 * the total current period sum of the income categories
+	 * and the total current period sum of the expense categories
+	 * (the system categories are excluded, as in {@link CategoryRepository}).
+	 * The totals are in minor units (null if there was nothing to sum).
+	 */
+	@Query(
+		"SELECT " +
+			"(SELECT sum(a.balance) FROM AccountEntity a WHERE a.type = 'ACTIVATED' AND a.owner.id = u.id), " +
+			"(SELECT sum(ic.currentPeriodSum) FROM CategoryEntity ic WHERE ic.type = 'INCOME' AND ic.owner.id = u.id AND ic.system = false), " +
+			"(SELECT sum(ec.currentPeriodSum) FROM CategoryEntity ec WHERE ec.type = 'EXPENSES' AND ec.owner.id = u.id AND ec.system = false) " +
+		"FROM UserEntity u " +
+		"WHERE u.id = :ownerId"
+	)
+	List<Object[]> getAccountAndCategoryTotals(@Param("ownerId") Long ownerId);
 	
 }
\ No newline at end of file
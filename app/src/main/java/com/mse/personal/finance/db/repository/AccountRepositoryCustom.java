@@ -0,0 +1,26 @@
+package com.mse.personal.finance.db.repository;
+
+import com.mse.personal.finance.db.entity.AccountEntity;
+
+/**
+ * Custom persistence operations upon {@link AccountEntity}
+ * (implemented by {@link AccountRepositoryImpl} and exposed by {@link AccountRepository}).
+ *
+ * @author dvt32
+ */
+public interface AccountRepositoryCustom {
+
+	/**
+	 * Atomically adds the passed delta in minor units (which can be negative) to an account's balance
+	 * with a single UPDATE statement, so that concurrent operations upon the same account
+	 * do not overwrite each other's changes.
+	 *
+	 * The persistence context is flushed before the update and the updated account is refreshed after it (if it is managed),
+	 * so that it is not returned stale by subsequent reads.
+	 * Only the updated account is evicted from the second-level cache.
+	 *
+	 * @return the number of updated accounts (0 if the account does not exist)
+	 */
+	int addToBalanceById(Long id, long deltaInMinorUnits);
+
+}
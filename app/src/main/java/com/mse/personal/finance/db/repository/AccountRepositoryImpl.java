@@ -0,0 +1,28 @@
+package com.mse.personal.finance.db.repository;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+
+import org.springframework.transaction.annotation.Transactional;
+
+import com.mse.personal.finance.db.entity.AccountEntity;
+
+/**
+ * Implementation of the {@link AccountRepositoryCustom} operations.
+ *
+ * @author dvt32
+ */
+public class AccountRepositoryImpl
+	implements AccountRepositoryCustom
+{
+
+	@PersistenceContext
+	private EntityManager entityManager;
+
+	@Override
+	@Transactional
+	public int addToBalanceById(Long id, long deltaInMinorUnits) {
+		return CachedEntityColumnUpdates.addToColumnById(entityManager, AccountEntity.class, "accounts", "balance", id, deltaInMinorUnits);
+	}
+
+}
@@ -0,0 +1,98 @@
+package com.mse.personal.finance.db.repository;
+
+import javax.persistence.Cache;
+import javax.persistence.EntityManager;
+
+import org.hibernate.engine.spi.EntityKey;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.persister.entity.EntityPersister;
+import org.hibernate.query.NativeQuery;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.mse.personal.finance.db.entity.BaseEntity;
+
+/**
+ * Atomic updates of numeric columns of entities, which are kept in the second-level cache
+ * (e.g. account balances and category sums).
+ *
+ * The column is updated with a single native UPDATE statement,
+ * so that concurrent updates of the same entity do not overwrite each other's changes.
+ *
+ * A JPQL bulk update would make Hibernate evict the entity's whole cache region (i.e. the entities of all users).
+ * Instead, the statement is synchronized with a query space of its own (so Hibernate evicts nothing)
+ * and only the updated entity is evicted - right after the update and again after the transaction completes
+ * (the same way Hibernate does it for bulk updates, so that a state loaded by another transaction
+ * before the commit is not left in the cache).
+ *
+ * The cached query results of the entity's table are not invalidated either,
+ * because they only contain entity IDs, so none of the cached queries may filter or sort by the updated column.
+ *
+ * @author dvt32
+ */
+final class CachedEntityColumnUpdates {
+
+	private CachedEntityColumnUpdates() {}
+
+	/**
+	 * Adds the passed delta (which can be negative) to an integer column of the entity with the passed ID
+	 * (e.g. an amount in minor units).
+	 *
+	 * The persistence context is flushed before the update and the updated entity is refreshed after it
+	 * (if it is managed), so that it is not returned stale by subsequent reads.
+	 * The other managed entities are left as they are.
+	 * Must be called in a transaction.
+	 *
+	 * @return the number of updated entities (0 if the entity does not exist)
+	 */
+	static int addToColumnById(
+		EntityManager entityManager,
+		Class<? extends BaseEntity> entityClass,
+		String tableName,
+		String columnName,
+		Long id,
+		long delta)
+	{
+		entityManager.flush();
+
+		String updateSql = "UPDATE " + tableName + " SET " + columnName + " = " + columnName + " + :delta WHERE id = :id";
+		NativeQuery<?> updateQuery = entityManager.createNativeQuery(updateSql).unwrap(NativeQuery.class);
+		int updatedEntities = updateQuery
+			.addSynchronizedQuerySpace(tableName + "." + columnName)
+			.setParameter("delta", delta)
+			.setParameter("id", id)
+			.executeUpdate();
+
+		// Refreshed before the eviction, so that the state it loads is not left in the cache
+		refreshManagedEntity(entityManager, entityClass, id);
+
+		Cache cache = entityManager.getEntityManagerFactory().getCache();
+		cache.evict(entityClass, id);
+		if ( TransactionSynchronizationManager.isSynchronizationActive() ) {
+			TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+				@Override
+				public void afterCompletion(int status) {
+					cache.evict(entityClass, id);
+				}
+			});
+		}
+
+		return updatedEntities;
+	}
+
+	/**
+	 * Refreshes the entity with the passed ID from the database, if it is managed by the persistence context
+	 * (without loading it otherwise).
+	 */
+	private static void refreshManagedEntity(EntityManager entityManager, Class<? extends BaseEntity> entityClass, Long id) {
+		SessionImplementor session = entityManager.unwrap(SessionImplementor.class);
+		EntityPersister entityPersister = session.getFactory().getMetamodel().entityPersister(entityClass);
+		EntityKey entityKey = session.generateEntityKey(id, entityPersister);
+
+		Object managedEntity = session.getPersistenceContext().getEntity(entityKey);
+		if (managedEntity != null) {
+			entityManager.refresh(managedEntity);
+		}
+	}
+
+}
@@ -1,34 +1,73 @@
 package com.mse.personal.finance.db.repository;
 
 import java.util.List;
+import java.util.Optional;
+
+import javax.persistence.QueryHint;
 
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import com.mse.personal.finance.db.CacheRegions;
 import com.mse.personal.finance.db.entity.CategoryEntity;
 import com.mse.personal.finance.db.entity.UserEntity;
 import com.mse.personal.finance.model.CategoryType;
 
 /**
  * Persistence DAO for performing CRUD operations upon {@link CategoryEntity}.
+ * 
+ * The results of the per-owner queries are kept in the query cache (in the {@link CacheRegions#PER_OWNER_QUERIES} region).
+ * The total current period sums are exact sums of minor units (see {@link com.mse.personal.finance.model.Money}).
  *
  * @author D. Dimitrov
  * @author dvt32
  */
 @Repository
 public interface CategoryRepository 
-	extends JpaRepository<CategoryEntity, Long> 
+	extends JpaRepository<CategoryEntity, Long>, CategoryRepositoryCustom 
 {
 	
+	/**
+	 * Returns all categories of the passed owner (including the system categories).
+	 */
+	@QueryHints({
+		@QueryHint(name = org.hibernate.jpa.QueryHints.HINT_CACHEABLE, value = "true"),
+		@QueryHint(name = org.hibernate.jpa.QueryHints.HINT_CACHE_REGION, value = CacheRegions.PER_OWNER_QUERIES)
+	})
 	List<CategoryEntity> findAllByOwner(UserEntity owner);
 	
-	List<CategoryEntity> findAllByTypeAndOwner(CategoryType type, UserEntity owner);
+	@QueryHints({
+		@QueryHint(name = org.hibernate.jpa.QueryHints.HINT_CACHEABLE, value = "true"),
+		@QueryHint(name = org.hibernate.jpa.QueryHints.HINT_CACHE_REGION, value = CacheRegions.PER_OWNER_QUERIES)
+	})
+	List<CategoryEntity> findAllByOwnerAndSystemFalse(UserEntity owner);
 	
-	boolean existsByNameAndOwner(String name, UserEntity owner);
+	@QueryHints({
+		@QueryHint(name = org.hibernate.jpa.QueryHints.HINT_CACHEABLE, value = "true"),
+		@QueryHint(name = org.hibernate.jpa.QueryHints.HINT_CACHE_REGION, value = CacheRegions.PER_OWNER_QUERIES)
+	})
+	List<CategoryEntity> findAllByTypeAndOwnerAndSystemFalse(CategoryType type, UserEntity owner);
+	
+	/**
+	 * Returns the system categories of the passed owner
+	 * (uses the owner & system marker index).
+	 */
+	List<CategoryEntity> findAllByOwnerIdAndSystemTrue(Long ownerId);
 	
-	CategoryEntity findByNameAndOwner(String name, UserEntity owner);
+	/**
+	 * Returns the category with the passed ID, if it belongs to the passed owner
+	 * (uses the primary key index, the owner is only checked against the found row).
+	 */
+	@QueryHints({
+		@QueryHint(name = org.hibernate.jpa.QueryHints.HINT_CACHEABLE, value = "true"),
+		@QueryHint(name = org.hibernate.jpa.QueryHints.HINT_CACHE_REGION, value = CacheRegions.PER_OWNER_QUERIES)
+	})
+	Optional<CategoryEntity> findByIdAndOwnerId(Long id, Long ownerId);
+	
+	boolean existsByNameAndOwner(String name, UserEntity owner);
 	
 	@Query(
 		"SELECT sum(currentPeriodSum) " + 
@@ -36,9 +75,9 @@ public interface CategoryRepository
 		"WHERE " + 
 			"type = 'INCOME' AND " +
 			"owner_id = :ownerId AND " +
-			"name != 'SYS_INCOME'"
+			"system = false"
 	)
-    Double getTotalCurrentPeriodSumOfIncomeCategories(@Param("ownerId") Long ownerId);
+    Long getTotalCurrentPeriodSumOfIncomeCategories(@Param("ownerId") Long ownerId);
 	
 	@Query(
 		"SELECT sum(currentPeriodSum) " + 
@@ -46,8 +85,8 @@ public interface CategoryRepository
 		"WHERE " + 
 			"type = 'EXPENSES' AND " +
 			"owner_id = :ownerId AND " +
-			"name != 'SYS_EXPENSES'"
+			"system = false"
 	)
-    Double getTotalCurrentPeriodSumOfExpenseCategories(@Param("ownerId") Long ownerId);
+    Long getTotalCurrentPeriodSumOfExpenseCategories(@Param("ownerId") Long ownerId);
 	
 }
\ No newline at end of file
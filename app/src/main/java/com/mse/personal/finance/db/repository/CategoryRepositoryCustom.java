@@ -0,0 +1,26 @@
+package com.mse.personal.finance.db.repository;
+
+import com.mse.personal.finance.db.entity.CategoryEntity;
+
+/**
+ * Custom persistence operations upon {@link CategoryEntity}
+ * (implemented by {@link CategoryRepositoryImpl} and exposed by {@link CategoryRepository}).
+ *
+ * @author dvt32
+ */
+public interface CategoryRepositoryCustom {
+
+	/**
+	 * Atomically adds the passed delta in minor units (which can be negative) to a category's current period sum
+	 * with a single UPDATE statement, so that concurrent operations upon the same category
+	 * do not overwrite each other's changes.
+	 *
+	 * The persistence context is flushed before the update and the updated category is refreshed after it (if it is managed),
+	 * so that it is not returned stale by subsequent reads.
+	 * Only the updated category is evicted from the second-level cache.
+	 *
+	 * @return the number of updated categories (0 if the category does not exist)
+	 */
+	int addToCurrentPeriodSumById(Long id, long deltaInMinorUnits);
+
+}
@@ -0,0 +1,28 @@
+package com.mse.personal.finance.db.repository;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+
+import org.springframework.transaction.annotation.Transactional;
+
+import com.mse.personal.finance.db.entity.CategoryEntity;
+
+/**
+ * Implementation of the {@link CategoryRepositoryCustom} operations.
+ *
+ * @author dvt32
+ */
+public class CategoryRepositoryImpl
+	implements CategoryRepositoryCustom
+{
+
+	@PersistenceContext
+	private EntityManager entityManager;
+
+	@Override
+	@Transactional
+	public int addToCurrentPeriodSumById(Long id, long deltaInMinorUnits) {
+		return CachedEntityColumnUpdates.addToColumnById(entityManager, CategoryEntity.class, "categories", "current_period_sum", id, deltaInMinorUnits);
+	}
+
+}
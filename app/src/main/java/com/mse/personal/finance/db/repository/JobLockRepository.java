@@ -0,0 +1,45 @@
+package com.mse.personal.finance.db.repository;
+
+import java.util.Date;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.mse.personal.finance.db.entity.JobLockEntity;
+
+/**
+ * Persistence DAO for performing CRUD operations upon {@link JobLockEntity}.
+ *
+ * @author dvt32
+ */
+@Repository
+public interface JobLockRepository
+	extends JpaRepository<JobLockEntity, Long>
+{
+
+	/**
+	 * Atomically locks the job with the passed name, if its lock has expired at the passed time.
+	 *
+	 * @return the number of locked jobs (0 if the job is locked or its lock does not exist yet)
+	 */
+	@Transactional
+	@Modifying(flushAutomatically = true)
+	@Query(
+		"UPDATE JobLockEntity j " +
+		"SET j.lockedUntil = :lockedUntil, j.lockedBy = :lockedBy " +
+		"WHERE j.name = :name AND j.lockedUntil <= :now"
+	)
+	int lockIfExpired(
+		@Param("name") String name,
+		@Param("lockedUntil") Date lockedUntil,
+		@Param("lockedBy") String lockedBy,
+		@Param("now") Date now
+	);
+
+	boolean existsByName(String name);
+
+}
@@ -1,6 +1,7 @@
 package com.mse.personal.finance.db.repository;
 
 import java.util.List;
+import java.util.Optional;
 
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
@@ -21,4 +22,10 @@ public interface ReportingPeriodRepository
 	
 	List<ReportingPeriodEntity> findAllByUser(UserEntity user);
 	
+	/**
+	 * Returns the reporting period with the passed ID, if it belongs to the passed user
+	 * (uses the primary key index, the user is only checked against the found row).
+	 */
+	Optional<ReportingPeriodEntity> findByIdAndUserId(Long id, Long userId);
+	
 }
\ No newline at end of file
@@ -0,0 +1,201 @@
+package com.mse.personal.finance.db.repository;
+
+import java.util.Date;
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.mse.personal.finance.db.entity.TransactionDailySumEntity;
+import com.mse.personal.finance.model.TransactionFromType;
+import com.mse.personal.finance.model.TransactionToType;
+
+/**
+ * Persistence DAO for performing CRUD operations upon {@link TransactionDailySumEntity}.
+ *
+ * The total sum queries are equivalent to the ones in {@link TransactionRepository},
+ * but read one row per day (and from/to data) instead of one row per transaction.
+ * All sums (and sum deltas) are in minor units (see {@link com.mse.personal.finance.model.Money}).
+ *
+ * @author dvt32
+ */
+@Repository
+public interface TransactionDailySumRepository
+	extends JpaRepository<TransactionDailySumEntity, Long>, TransactionDailySumRepositoryCustom
+{
+
+	/**
+	 * Atomically adds the passed deltas (which can be negative)
+	 * to the daily sum with the passed key.
+	 *
+	 * @return the number of updated daily sums (0 if the daily sum does not exist yet)
+	 */
+	@Transactional
+	@Modifying(flushAutomatically = true)
+	@Query(
+		"UPDATE TransactionDailySumEntity d " +
+		"SET d.totalSum = d.totalSum + :sumDelta, d.transactionCount = d.transactionCount + :countDelta " +
+		"WHERE d.userId = :userId AND d.day = :day " +
+		"AND d.fromType = :fromType AND d.fromId = :fromId AND d.toType = :toType AND d.toId = :toId"
+	)
+	int addToDailySum(
+		@Param("userId") Long userId,
+		@Param("day") Date day,
+		@Param("fromType") TransactionFromType fromType,
+		@Param("fromId") Long fromId,
+		@Param("toType") TransactionToType toType,
+		@Param("toId") Long toId,
+		@Param("sumDelta") long sumDelta,
+		@Param("countDelta") Long countDelta
+	);
+
+	/**
+	 * Deletes the daily sum with the passed key, if it does not contain any transactions anymore
+	 * (so that the total sum queries do not return a zero sum for a day without transactions).
+	 *
+	 * @return the number of deleted daily sums
+	 */
+	@Transactional
+	@Modifying(flushAutomatically = true)
+	@Query(
+		"DELETE FROM TransactionDailySumEntity d " +
+		"WHERE d.userId = :userId AND d.day = :day " +
+		"AND d.fromType = :fromType AND d.fromId = :fromId AND d.toType = :toType AND d.toId = :toId " +
+		"AND d.transactionCount <= 0"
+	)
+	int deleteDailySumIfEmpty(
+		@Param("userId") Long userId,
+		@Param("day") Date day,
+		@Param("fromType") TransactionFromType fromType,
+		@Param("fromId") Long fromId,
+		@Param("toType") TransactionToType toType,
+		@Param("toId") Long toId
+	);
+
+	@Transactional
+	@Modifying
+	@Query("DELETE FROM TransactionDailySumEntity d WHERE d.userId = :userId")
+	int deleteAllByUserId(@Param("userId") Long userId);
+
+	List<TransactionDailySumEntity> findAllByUserId(Long userId);
+
+	/**
+	 * Returns the daily sums calculated from all existing transactions of a user
+	 * (used to reconcile the user's daily sums).
+	 */
+	@Query(
+		"SELECT NEW com.mse.personal.finance.db.entity.TransactionDailySumEntity(" +
+			"t.user.id, t.dateOfCompletion, t.fromType, t.fromId, t.toType, t.toId, sum(t.sum), count(t)" +
+		") " +
+		"FROM TransactionEntity t " +
+		"WHERE t.user.id = :userId " +
+		"GROUP BY t.user.id, t.dateOfCompletion, t.fromType, t.fromId, t.toType, t.toId"
+	)
+	List<TransactionDailySumEntity> getDailySumsOfTransactionsOfUser(@Param("userId") Long userId);
+
+	@Query("SELECT DISTINCT t.user.id FROM TransactionEntity t")
+	List<Long> findIdsOfUsersWithTransactions();
+
+	@Query("SELECT DISTINCT d.userId FROM TransactionDailySumEntity d")
+	List<Long> findIdsOfUsersWithDailySums();
+
+	/*
+	 * Total sums grouped by from/to type (i.e. by transaction type - income/expense/transfer)
+	 */
+
+	/**
+	 * Returns the total sums of all of a user's transactions grouped by from/to type.
+	 * Each row contains: from-type, to-type, total sum.
+	 */
+	@Query(
+		"SELECT d.fromType, d.toType, sum(d.totalSum) " +
+		"FROM TransactionDailySumEntity d " +
+		"WHERE d.userId = :userId " +
+		"GROUP BY d.fromType, d.toType"
+	)
+	List<Object[]> getTotalSumsGroupedByType(@Param("userId") Long userId);
+
+	/**
+	 * Returns the total sums of a user's transactions, which were made between two dates (inclusive),
+	 * grouped by from/to type.
+	 * Each row contains: from-type, to-type, total sum.
+	 */
+	@Query(
+		"SELECT d.fromType, d.toType, sum(d.totalSum) " +
+		"FROM TransactionDailySumEntity d " +
+		"WHERE d.userId = :userId AND d.day BETWEEN :startDate AND :endDate " +
+		"GROUP BY d.fromType, d.toType"
+	)
+	List<Object[]> getTotalSumsGroupedByTypeBetweenDates(
+		@Param("userId") Long userId,
+		@Param("startDate") Date startDate,
+		@Param("endDate") Date endDate
+	);
+
+	/*
+	 * Account-specific operations
+	 */
+
+	// Note: income/expenses from transfer transactions are also included in the total sums.
+
+	@Query(
+		"SELECT sum(d.totalSum) " +
+		"FROM TransactionDailySumEntity d " +
+		"WHERE d.userId = :userId AND d.day BETWEEN :startDate AND :endDate " +
+		"AND d.toType = 'ACCOUNT' AND d.toId = :accountId"
+	)
+	Long getTotalIncomeSumBetweenDatesForAccountById(
+		@Param("userId") Long userId,
+		@Param("startDate") Date startDate,
+		@Param("endDate") Date endDate,
+		@Param("accountId") Long accountId
+	);
+
+	@Query(
+		"SELECT sum(d.totalSum) " +
+		"FROM TransactionDailySumEntity d " +
+		"WHERE d.userId = :userId AND d.day BETWEEN :startDate AND :endDate " +
+		"AND d.fromType = 'ACCOUNT' AND d.fromId = :accountId"
+	)
+	Long getTotalExpenseSumBetweenDatesForAccountById(
+		@Param("userId") Long userId,
+		@Param("startDate") Date startDate,
+		@Param("endDate") Date endDate,
+		@Param("accountId") Long accountId
+	);
+
+	/*
+	 * Category-specific operations
+	 */
+
+	@Query(
+		"SELECT sum(d.totalSum) " +
+		"FROM TransactionDailySumEntity d " +
+		"WHERE d.userId = :userId AND d.day BETWEEN :startDate AND :endDate " +
+		"AND d.fromType = 'CATEGORY' AND d.toType = 'ACCOUNT' AND d.fromId = :categoryId"
+	)
+	Long getTotalAddedSumBetweenDatesForIncomeCategoryById(
+		@Param("userId") Long userId,
+		@Param("startDate") Date startDate,
+		@Param("endDate") Date endDate,
+		@Param("categoryId") Long categoryId
+	);
+
+	@Query(
+		"SELECT sum(d.totalSum) " +
+		"FROM TransactionDailySumEntity d " +
+		"WHERE d.userId = :userId AND d.day BETWEEN :startDate AND :endDate " +
+		"AND d.fromType = 'ACCOUNT' AND d.toType = 'CATEGORY' AND d.toId = :categoryId"
+	)
+	Long getTotalAddedSumBetweenDatesForExpenseCategoryById(
+		@Param("userId") Long userId,
+		@Param("startDate") Date startDate,
+		@Param("endDate") Date endDate,
+		@Param("categoryId") Long categoryId
+	);
+
+}
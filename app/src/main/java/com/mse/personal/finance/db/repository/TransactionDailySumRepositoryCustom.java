@@ -0,0 +1,39 @@
+package com.mse.personal.finance.db.repository;
+
+import java.util.Date;
+
+import com.mse.personal.finance.db.entity.TransactionDailySumEntity;
+import com.mse.personal.finance.model.TransactionFromType;
+import com.mse.personal.finance.model.TransactionToType;
+
+/**
+ * Custom persistence operations upon {@link TransactionDailySumEntity}
+ * (implemented by {@link TransactionDailySumRepositoryImpl} and exposed by {@link TransactionDailySumRepository}).
+ *
+ * @author dvt32
+ */
+public interface TransactionDailySumRepositoryCustom {
+
+	/**
+	 * Inserts the daily sum with the passed key and values (the total sum is in minor units), unless it already exists
+	 * (e.g. it was inserted by a concurrent transaction, whose commit the insert waits for).
+	 *
+	 * In PostgreSQL the insert is a single INSERT ... ON CONFLICT DO NOTHING statement, so it does not fail
+	 * because of the daily sums' unique constraint (and does not abort the calling transaction).
+	 * Other databases (e.g. H2 in the tests) use an INSERT ... WHERE NOT EXISTS statement instead,
+	 * which only skips daily sums, which were committed before it (a concurrent insert fails with a constraint violation).
+	 *
+	 * @return the number of inserted daily sums (0 if the daily sum already exists)
+	 */
+	int insertDailySumIfAbsent(
+		Long userId,
+		Date day,
+		TransactionFromType fromType,
+		Long fromId,
+		TransactionToType toType,
+		Long toId,
+		long totalSumInMinorUnits,
+		Long transactionCount
+	);
+
+}
@@ -0,0 +1,102 @@
+package com.mse.personal.finance.db.repository;
+
+import java.io.Serializable;
+import java.util.Date;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.TemporalType;
+
+import org.hibernate.dialect.PostgreSQL81Dialect;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.persister.entity.EntityPersister;
+import org.hibernate.query.NativeQuery;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.mse.personal.finance.db.entity.TransactionDailySumEntity;
+import com.mse.personal.finance.model.TransactionFromType;
+import com.mse.personal.finance.model.TransactionToType;
+
+/**
+ * Implementation of the {@link TransactionDailySumRepositoryCustom} operations.
+ *
+ * @author dvt32
+ */
+public class TransactionDailySumRepositoryImpl
+	implements TransactionDailySumRepositoryCustom
+{
+
+	private static final String INSERT_COLUMNS =
+		"INSERT INTO transaction_daily_sums (id, user_id, transaction_day, from_type, from_id, to_type, to_id, total_sum, transaction_count) ";
+
+	/**
+	 * PostgreSQL only - waits for a concurrent insert of the same daily sum and then does nothing.
+	 */
+	private static final String INSERT_ON_CONFLICT_DO_NOTHING_SQL =
+		INSERT_COLUMNS +
+		"VALUES (:id, :userId, :day, :fromType, :fromId, :toType, :toId, :totalSum, :transactionCount) " +
+		"ON CONFLICT DO NOTHING";
+
+	/**
+	 * Other databases (e.g. the tests' H2 database) - a concurrent insert of the same daily sum
+	 * fails with a unique constraint violation (and rolls back the calling transaction).
+	 */
+	private static final String INSERT_IF_NOT_EXISTS_SQL =
+		INSERT_COLUMNS +
+		"SELECT :id, :userId, :day, :fromType, :fromId, :toType, :toId, :totalSum, :transactionCount " +
+		"WHERE NOT EXISTS (" +
+			"SELECT 1 FROM transaction_daily_sums d " +
+			"WHERE d.user_id = :userId AND d.transaction_day = :day " +
+			"AND d.from_type = :fromType AND d.from_id = :fromId AND d.to_type = :toType AND d.to_id = :toId" +
+		")";
+
+	@PersistenceContext
+	private EntityManager entityManager;
+
+	@Override
+	@Transactional
+	public int insertDailySumIfAbsent(
+		Long userId,
+		Date day,
+		TransactionFromType fromType,
+		Long fromId,
+		TransactionToType toType,
+		Long toId,
+		long totalSumInMinorUnits,
+		Long transactionCount)
+	{
+		entityManager.flush();
+
+		SessionImplementor session = entityManager.unwrap(SessionImplementor.class);
+		String insertSql = (session.getJdbcServices().getDialect() instanceof PostgreSQL81Dialect)
+			? INSERT_ON_CONFLICT_DO_NOTHING_SQL
+			: INSERT_IF_NOT_EXISTS_SQL;
+
+		// Synchronized with the daily sums only, so that Hibernate does not evict the whole second-level cache
+		NativeQuery<?> insertQuery = entityManager.createNativeQuery(insertSql).unwrap(NativeQuery.class);
+		return insertQuery
+			.addSynchronizedEntityClass(TransactionDailySumEntity.class)
+			.setParameter( "id", generateId(session) )
+			.setParameter("userId", userId)
+			.setParameter("day", day, TemporalType.DATE)
+			.setParameter("fromType", fromType.name())
+			.setParameter("fromId", fromId)
+			.setParameter("toType", toType.name())
+			.setParameter("toId", toId)
+			.setParameter("totalSum", totalSumInMinorUnits)
+			.setParameter("transactionCount", transactionCount)
+			.executeUpdate();
+	}
+
+	/**
+	 * Generates the ID of a new daily sum with the entity's ID generator
+	 * (i.e. from the IDs allocated by Hibernate, instead of taking a value of the shared sequence,
+	 * which the generator's pooled optimizer treats as the upper bound of a block of IDs).
+	 * The ID is not used again, if the daily sum is not inserted.
+	 */
+	private static Serializable generateId(SessionImplementor session) {
+		EntityPersister entityPersister = session.getFactory().getMetamodel().entityPersister(TransactionDailySumEntity.class);
+		return entityPersister.getIdentifierGenerator().generate( session, new TransactionDailySumEntity() );
+	}
+
+}
@@ -1,11 +1,22 @@
 package com.mse.personal.finance.db.repository;
 
 import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
+import javax.persistence.LockModeType;
+import javax.persistence.QueryHint;
+
+import org.hibernate.LockOptions;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
@@ -16,6 +27,8 @@ import com.mse.personal.finance.model.TransactionToType;
 
 /**
  * Persistence DAO for performing CRUD operations upon {@link TransactionEntity}.
+ * 
+ * The total sums are exact sums of minor units (see {@link com.mse.personal.finance.model.Money}).
  *
  * @author dvt32
  */
@@ -30,6 +43,139 @@ public interface TransactionRepository
 	
 	Page<TransactionEntity> findAllByUserAndToTypeAndToId(UserEntity user, TransactionToType toType, Long toId, Pageable pageable);
 	
+	/**
+	 * Returns the transaction with the passed ID, if it belongs to the passed user
+	 * (uses the primary key index, the user is only checked against the found row).
+	 */
+	Optional<TransactionEntity> findByIdAndUserId(Long id, Long userId);
+	
+	/**
+	 * Returns a stream of all transactions of a user (ordered by date of completion).
+	 * 
+	 * The rows are fetched from the database in chunks (by setting the JDBC fetch size),
+	 * so the whole result set is never loaded in memory.
+	 * The returned entities are read-only and the stream must be consumed 
+	 * inside a transaction and closed after that.
+	 */
+	@QueryHints({
+		@QueryHint(name = org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE, value = "500"),
+		@QueryHint(name = org.hibernate.jpa.QueryHints.HINT_READONLY, value = "true")
+	})
+	@Query(
+		"SELECT t " + 
+		"FROM TransactionEntity t " + 
+		"WHERE user_id = :userId " + 
+		"ORDER BY t.dateOfCompletion, t.id"
+	)
+	Stream<TransactionEntity> streamAllByUserId(@Param("userId") Long userId);
+	
+	/*
+	 * Cursor-based (keyset) listing operations
+	 * 
+	 * The transactions are ordered by date of completion & ID (both descending)
+	 * and each slice starts right after the passed cursor's position.
+	 * 
+	 * A Slice (not a Page) is returned, so no COUNT query is executed.
+	 * The counts are retrieved separately (only when requested).
+	 */
+	
+	@Query(
+		"SELECT t " + 
+		"FROM TransactionEntity t " + 
+		"WHERE user_id = :userId " + 
+		"AND (t.dateOfCompletion < :cursorDate OR (t.dateOfCompletion = :cursorDate AND t.id < :cursorId)) " + 
+		"ORDER BY t.dateOfCompletion DESC, t.id DESC"
+	)
+	Slice<TransactionEntity> findAllByUserAfterCursor(
+		@Param("userId") Long userId, 
+		@Param("cursorDate") Date cursorDate,
+		@Param("cursorId") Long cursorId,
+		Pageable pageable
+	);
+	
+	@Query(
+		"SELECT t " + 
+		"FROM TransactionEntity t " + 
+		"WHERE user_id = :userId AND fromType = :fromType AND toType = :toType " + 
+		"AND (t.dateOfCompletion < :cursorDate OR (t.dateOfCompletion = :cursorDate AND t.id < :cursorId)) " + 
+		"ORDER BY t.dateOfCompletion DESC, t.id DESC"
+	)
+	Slice<TransactionEntity> findAllByTypeAfterCursor(
+		@Param("userId") Long userId, 
+		@Param("fromType") TransactionFromType fromType,
+		@Param("toType") TransactionToType toType,
+		@Param("cursorDate") Date cursorDate,
+		@Param("cursorId") Long cursorId,
+		Pageable pageable
+	);
+	
+	@Query(
+		"SELECT t " + 
+		"FROM TransactionEntity t " + 
+		"WHERE user_id = :userId AND fromType = :fromType AND toType = :toType " + 
+		"AND dateOfCompletion BETWEEN :startDate AND :endDate " + 
+		"AND (t.dateOfCompletion < :cursorDate OR (t.dateOfCompletion = :cursorDate AND t.id < :cursorId)) " + 
+		"ORDER BY t.dateOfCompletion DESC, t.id DESC"
+	)
+	Slice<TransactionEntity> findAllByTypeBetweenDatesAfterCursor(
+		@Param("userId") Long userId, 
+		@Param("fromType") TransactionFromType fromType,
+		@Param("toType") TransactionToType toType,
+		@Param("startDate") Date startDate,
+		@Param("endDate") Date endDate,
+		@Param("cursorDate") Date cursorDate,
+		@Param("cursorId") Long cursorId,
+		Pageable pageable
+	);
+	
+	@Query(
+		"SELECT t " + 
+		"FROM TransactionEntity t " + 
+		"WHERE user_id = :userId AND fromType = :fromType AND fromId = :fromId " + 
+		"AND (t.dateOfCompletion < :cursorDate OR (t.dateOfCompletion = :cursorDate AND t.id < :cursorId)) " + 
+		"ORDER BY t.dateOfCompletion DESC, t.id DESC"
+	)
+	Slice<TransactionEntity> findAllByFromDataAfterCursor(
+		@Param("userId") Long userId, 
+		@Param("fromType") TransactionFromType fromType,
+		@Param("fromId") Long fromId,
+		@Param("cursorDate") Date cursorDate,
+		@Param("cursorId") Long cursorId,
+		Pageable pageable
+	);
+	
+	@Query(
+		"SELECT t " + 
+		"FROM TransactionEntity t " + 
+		"WHERE user_id = :userId AND toType = :toType AND toId = :toId " + 
+		"AND (t.dateOfCompletion < :cursorDate OR (t.dateOfCompletion = :cursorDate AND t.id < :cursorId)) " + 
+		"ORDER BY t.dateOfCompletion DESC, t.id DESC"
+	)
+	Slice<TransactionEntity> findAllByToDataAfterCursor(
+		@Param("userId") Long userId, 
+		@Param("toType") TransactionToType toType,
+		@Param("toId") Long toId,
+		@Param("cursorDate") Date cursorDate,
+		@Param("cursorId") Long cursorId,
+		Pageable pageable
+	);
+	
+	long countByUser(UserEntity user);
+	
+	long countByUserAndFromTypeAndToType(UserEntity user, TransactionFromType fromType, TransactionToType toType);
+	
+	long countByUserAndFromTypeAndToTypeAndDateOfCompletionBetween(
+		UserEntity user, 
+		TransactionFromType fromType, 
+		TransactionToType toType, 
+		Date startDate, 
+		Date endDate
+	);
+	
+	long countByUserAndFromTypeAndFromId(UserEntity user, TransactionFromType fromType, Long fromId);
+	
+	long countByUserAndToTypeAndToId(UserEntity user, TransactionToType toType, Long toId);
+	
 	/*
 	 * General income transaction operations
 	 */
@@ -46,7 +192,7 @@ public interface TransactionRepository
 		"FROM TransactionEntity t " + 
 		"WHERE fromType = 'CATEGORY' AND toType = 'ACCOUNT' AND user_id = :userId"
 	)
-	Double getTotalIncomeTransactionsSum(@Param("userId") Long userId);
+	Long getTotalIncomeTransactionsSum(@Param("userId") Long userId);
 	
 	@Query(
 		"SELECT t " + 
@@ -67,7 +213,7 @@ public interface TransactionRepository
 		"WHERE fromType = 'CATEGORY' AND toType = 'ACCOUNT' AND user_id = :userId "
 		+ "AND dateOfCompletion BETWEEN :startDate AND :endDate"
 	)
-	Double getTotalIncomeTransactionsSumBetweenDates(
+	Long getTotalIncomeTransactionsSumBetweenDates(
 		@Param("userId") Long userId, 
 		@Param("startDate") Date startDate,
 		@Param("endDate") Date endDate
@@ -89,7 +235,7 @@ public interface TransactionRepository
 		"FROM TransactionEntity t " + 
 		"WHERE fromType = 'ACCOUNT' AND toType = 'CATEGORY' AND user_id = :userId"
 	)
-	Double getTotalExpenseTransactionsSum(@Param("userId") Long userId);
+	Long getTotalExpenseTransactionsSum(@Param("userId") Long userId);
 	
 	@Query(
 		"SELECT t " + 
@@ -110,7 +256,7 @@ public interface TransactionRepository
 		"WHERE fromType = 'ACCOUNT' AND toType = 'CATEGORY' AND user_id = :userId "
 		+ "AND dateOfCompletion BETWEEN :startDate AND :endDate"
 	)
-	Double getTotalExpenseTransactionsSumBetweenDates(
+	Long getTotalExpenseTransactionsSumBetweenDates(
 		@Param("userId") Long userId, 
 		@Param("startDate") Date startDate,
 		@Param("endDate") Date endDate
@@ -132,7 +278,7 @@ public interface TransactionRepository
 		"FROM TransactionEntity t " + 
 		"WHERE fromType = 'ACCOUNT' AND toType = 'ACCOUNT' AND user_id = :userId"
 	)
-	Double getTotalTransferTransactionsSum(@Param("userId") Long userId);
+	Long getTotalTransferTransactionsSum(@Param("userId") Long userId);
 	
 	@Query(
 		"SELECT t " + 
@@ -153,7 +299,7 @@ public interface TransactionRepository
 		"WHERE fromType = 'ACCOUNT' AND toType = 'ACCOUNT' AND user_id = :userId "
 		+ "AND dateOfCompletion BETWEEN :startDate AND :endDate"
 	)
-	Double getTotalTransferTransactionsSumBetweenDates(
+	Long getTotalTransferTransactionsSumBetweenDates(
 		@Param("userId") Long userId, 
 		@Param("startDate") Date startDate,
 		@Param("endDate") Date endDate
@@ -174,7 +320,7 @@ public interface TransactionRepository
 		+ "(fromType = 'ACCOUNT' AND toType = 'ACCOUNT' AND toId = :accountId)"
 		+ ")"
 	)
-	Double getTotalIncomeSumBetweenDatesForAccountById(
+	Long getTotalIncomeSumBetweenDatesForAccountById(
 		@Param("userId") Long userId, 
 		@Param("startDate") Date startDate,
 		@Param("endDate") Date endDate,
@@ -190,7 +336,7 @@ public interface TransactionRepository
 			+ "(fromType = 'ACCOUNT' AND toType = 'ACCOUNT' AND fromId = :accountId)"
 		+ ")"
 	)
-	Double getTotalExpenseSumBetweenDatesForAccountById(
+	Long getTotalExpenseSumBetweenDatesForAccountById(
 		@Param("userId") Long userId, 
 		@Param("startDate") Date startDate,
 		@Param("endDate") Date endDate,
@@ -207,7 +353,7 @@ public interface TransactionRepository
 		"WHERE user_id = :userId AND dateOfCompletion BETWEEN :startDate AND :endDate " 
 		+ "AND fromType = 'CATEGORY' AND toType = 'ACCOUNT' AND fromId = :categoryId"
 	)
-	Double getTotalAddedSumBetweenDatesForIncomeCategoryById(
+	Long getTotalAddedSumBetweenDatesForIncomeCategoryById(
 		@Param("userId") Long userId, 
 		@Param("startDate") Date startDate,
 		@Param("endDate") Date endDate,
@@ -220,11 +366,61 @@ public interface TransactionRepository
 		"WHERE user_id = :userId AND dateOfCompletion BETWEEN :startDate AND :endDate " 
 		+ "AND fromType = 'ACCOUNT' AND toType = 'CATEGORY' AND toId = :categoryId"
 	)
-	Double getTotalAddedSumBetweenDatesForExpenseCategoryById(
+	Long getTotalAddedSumBetweenDatesForExpenseCategoryById(
 		@Param("userId") Long userId, 
 		@Param("startDate") Date startDate,
 		@Param("endDate") Date endDate,
 		@Param("categoryId") Long categoryId
 	);
 	
-}
\ No newline at end of file
+	/*
+	 * Recurring transaction operations
+	 */
+	
+	/**
+	 * Claims (locks) the recurring transactions, whose next execution date is on or before the passed date
+	 * (at most one page of them, the earliest first).
+	 * The transactions, whose failed execution should not be retried before the passed time, are not claimed.
+	 * 
+	 * The locked rows are skipped (FOR UPDATE SKIP LOCKED), so several instances/workers
+	 * can claim due transactions at the same time without waiting for each other
+	 * (on databases without SKIP LOCKED support, e.g. H2, the rows are only locked).
+	 * The locks are held until the calling transaction completes.
+	 */
+	@Lock(LockModeType.PESSIMISTIC_WRITE)
+	@QueryHints(@QueryHint(name = "javax.persistence.lock.timeout", value = "" + LockOptions.SKIP_LOCKED))
+	@Query(
+		"SELECT t " +
+		"FROM TransactionEntity t " +
+		"WHERE t.nextExecutionDate <= :date " +
+		"AND (t.executionRetryTime IS NULL OR t.executionRetryTime <= :time) " +
+		"ORDER BY t.nextExecutionDate, t.id"
+	)
+	List<TransactionEntity> findDueRecurringTransactions(@Param("date") Date date, @Param("time") Date time, Pageable pageable);
+	
+	/**
+	 * Sets the next execution date of a recurring transaction (and clears its retry time).
+	 */
+	@Modifying(flushAutomatically = true)
+	@Query("UPDATE TransactionEntity t SET t.nextExecutionDate = :nextExecutionDate, t.executionRetryTime = NULL WHERE t.id = :id")
+	int updateNextExecutionDateById(@Param("id") Long id, @Param("nextExecutionDate") Date nextExecutionDate);
+	
+	@Modifying(flushAutomatically = true)
+	@Query("UPDATE TransactionEntity t SET t.executionRetryTime = :executionRetryTime WHERE t.id = :id")
+	int updateExecutionRetryTimeById(@Param("id") Long id, @Param("executionRetryTime") Date executionRetryTime);
+	
+	boolean existsByIdempotencyKey(String idempotencyKey);
+	
+	/**
+	 * Returns the date of the last executed occurrence of a recurring transaction
+	 * (the latest date of the transactions, whose idempotency keys start with the passed prefix),
+	 * or null if no occurrence has been executed.
+	 */
+	@Query(
+		"SELECT MAX(t.dateOfCompletion) " +
+		"FROM TransactionEntity t " +
+		"WHERE t.idempotencyKey LIKE CONCAT(:idempotencyKeyPrefix, '%')"
+	)
+	Date findLastOccurrenceDate(@Param("idempotencyKeyPrefix") String idempotencyKeyPrefix);
+	
+}
@@ -2,15 +2,21 @@ package com.mse.personal.finance.db.repository;
 
 import java.util.List;
 
+import javax.persistence.QueryHint;
+
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
+import com.mse.personal.finance.db.CacheRegions;
 import com.mse.personal.finance.db.entity.UserEntity;
 import com.mse.personal.finance.db.entity.UserSettingEntity;
 import com.mse.personal.finance.model.UserSettingKey;
 
 /**
  * Persistence DAO for performing CRUD operations upon {@link UserSettingEntity}.
+ * 
+ * The results of the per-owner queries are kept in the query cache (in the {@link CacheRegions#PER_OWNER_QUERIES} region).
  *
  * @author D. Dimitrov
  * @author dvt32
@@ -20,8 +26,16 @@ public interface UserSettingRepository
 	extends JpaRepository<UserSettingEntity, Long> 
 {
 	
+	@QueryHints({
+		@QueryHint(name = org.hibernate.jpa.QueryHints.HINT_CACHEABLE, value = "true"),
+		@QueryHint(name = org.hibernate.jpa.QueryHints.HINT_CACHE_REGION, value = CacheRegions.PER_OWNER_QUERIES)
+	})
 	List<UserSettingEntity> findAllByUser(UserEntity user);
 	
+	@QueryHints({
+		@QueryHint(name = org.hibernate.jpa.QueryHints.HINT_CACHEABLE, value = "true"),
+		@QueryHint(name = org.hibernate.jpa.QueryHints.HINT_CACHE_REGION, value = CacheRegions.PER_OWNER_QUERIES)
+	})
 	UserSettingEntity findByKeyAndUser(UserSettingKey key, UserEntity user);
 	
 	boolean existsByKeyAndUser(UserSettingKey key, UserEntity user);
@@ -0,0 +1,172 @@
+package com.mse.personal.finance.metrics;
+
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import com.mse.personal.finance.security.BoundedPasswordEncoder;
+import com.mse.personal.finance.security.jwt.JwtAuthenticationCache;
+import com.mse.personal.finance.security.jwt.JwtSessionManager;
+import com.mse.personal.finance.service.LoginLimitService;
+import com.mse.personal.finance.service.RecurringTransactionScheduler;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * Registers the metrics of the application's components (their "Metrics" getters) as Micrometer meters,
+ * which are exposed (with the built-in HTTP, JVM & HikariCP pool metrics) on the actuator's "prometheus" endpoint.
+ *
+ * The meters only read the components' counters on a scrape, so they add no work to the requests.
+ * The timings of the REST endpoints, the repository methods (see {@link RepositoryMetricsPostProcessor})
+ * and the JWT authentication (see {@link com.mse.personal.finance.security.jwt.JwtTokenFilter}) are recorded separately.
+ *
+ * @author dvt32
+ */
+@Component
+public class ApplicationMetrics
+	implements MeterBinder
+{
+
+	private final JwtSessionManager jwtSessionManager;
+	private final JwtAuthenticationCache jwtAuthenticationCache;
+	private final LoginLimitService loginLimitService;
+	private final BoundedPasswordEncoder boundedPasswordEncoder;
+	private final ObjectProvider<RecurringTransactionScheduler> recurringTransactionSchedulerProvider;
+
+	@Autowired
+	public ApplicationMetrics(
+		JwtSessionManager jwtSessionManager,
+		JwtAuthenticationCache jwtAuthenticationCache,
+		LoginLimitService loginLimitService,
+		BoundedPasswordEncoder boundedPasswordEncoder,
+		ObjectProvider<RecurringTransactionScheduler> recurringTransactionSchedulerProvider)
+	{
+		this.jwtSessionManager = jwtSessionManager;
+		this.jwtAuthenticationCache = jwtAuthenticationCache;
+		this.loginLimitService = loginLimitService;
+		this.boundedPasswordEncoder = boundedPasswordEncoder;
+		this.recurringTransactionSchedulerProvider = recurringTransactionSchedulerProvider;
+	}
+
+	@Override
+	public void bindTo(MeterRegistry meterRegistry) {
+		bindSessionMetrics(meterRegistry);
+		bindLoginLimitMetrics(meterRegistry);
+		bindPasswordHashingMetrics(meterRegistry);
+
+		// The scheduler is disabled on instances, which only serve requests
+		RecurringTransactionScheduler recurringTransactionScheduler = recurringTransactionSchedulerProvider.getIfAvailable();
+		if (recurringTransactionScheduler != null) {
+			bindRecurringTransactionMetrics(meterRegistry, recurringTransactionScheduler);
+		}
+	}
+
+	private void bindSessionMetrics(MeterRegistry meterRegistry) {
+		Gauge.builder("security.jwt.sessions", jwtSessionManager, JwtSessionManager::getSessionCount)
+			.description("Stored JWT sessions (including expired ones, which have not been pruned yet)")
+			.register(meterRegistry);
+
+		Gauge.builder("security.jwt.authentication.cache.size", jwtAuthenticationCache, JwtAuthenticationCache::getSize)
+			.description("Tokens whose users are cached")
+			.register(meterRegistry);
+		FunctionCounter.builder("security.jwt.authentication.cache.gets", jwtAuthenticationCache, JwtAuthenticationCache::getHitCount)
+			.tag("result", "hit")
+			.register(meterRegistry);
+		FunctionCounter.builder("security.jwt.authentication.cache.gets", jwtAuthenticationCache, JwtAuthenticationCache::getMissCount)
+			.tag("result", "miss")
+			.register(meterRegistry);
+		FunctionCounter.builder("security.jwt.authentication.cache.evictions", jwtAuthenticationCache, JwtAuthenticationCache::getEvictionCount)
+			.description("Least recently used tokens, which were evicted from the cache")
+			.register(meterRegistry);
+	}
+
+	private void bindLoginLimitMetrics(MeterRegistry meterRegistry) {
+		Gauge.builder("security.login.limit.tracked.keys", loginLimitService, LoginLimitService::getTrackedIpAddressCount)
+			.description("IPs & accounts whose failed logins are tracked")
+			.tag("type", "ip")
+			.register(meterRegistry);
+		Gauge.builder("security.login.limit.tracked.keys", loginLimitService, LoginLimitService::getTrackedAccountCount)
+			.description("IPs & accounts whose failed logins are tracked")
+			.tag("type", "account")
+			.register(meterRegistry);
+		FunctionCounter.builder("security.login.limit.evictions", loginLimitService, LoginLimitService::getEvictedKeyCount)
+			.description("Least recently used IPs & accounts, which were evicted from the tracked ones")
+			.register(meterRegistry);
+
+		FunctionCounter.builder("security.login.attempts", loginLimitService, LoginLimitService::getAllowedLoginAttemptCount)
+			.tag("result", "allowed")
+			.register(meterRegistry);
+		FunctionCounter.builder("security.login.attempts", loginLimitService, LoginLimitService::getBlockedLoginAttemptCount)
+			.tag("result", "blocked")
+			.register(meterRegistry);
+	}
+
+	private void bindPasswordHashingMetrics(MeterRegistry meterRegistry) {
+		Gauge.builder("security.password.hashing.queue.depth", boundedPasswordEncoder, BoundedPasswordEncoder::getQueueDepth)
+			.description("Logins/registrations waiting for password hashing")
+			.register(meterRegistry);
+		Gauge.builder("security.password.hashing.active", boundedPasswordEncoder, BoundedPasswordEncoder::getActiveHashCount)
+			.description("Passwords being hashed")
+			.register(meterRegistry);
+		FunctionCounter.builder("security.password.hashing.rejected", boundedPasswordEncoder, BoundedPasswordEncoder::getRejectedHashCount)
+			.description("Logins/registrations rejected, because the hashing queue was full")
+			.register(meterRegistry);
+
+		FunctionTimer.builder(
+			"security.password.hashing",
+			boundedPasswordEncoder,
+			BoundedPasswordEncoder::getHashCount,
+			BoundedPasswordEncoder::getTotalHashTimeNanos,
+			TimeUnit.NANOSECONDS
+		)
+			.description("Password hashing (without the time in the queue)")
+			.register(meterRegistry);
+		FunctionTimer.builder(
+			"security.password.hashing.queue.wait",
+			boundedPasswordEncoder,
+			BoundedPasswordEncoder::getHashCount,
+			BoundedPasswordEncoder::getTotalQueueWaitTimeNanos,
+			TimeUnit.NANOSECONDS
+		)
+			.description("Time spent waiting for password hashing")
+			.register(meterRegistry);
+	}
+
+	private void bindRecurringTransactionMetrics(MeterRegistry meterRegistry, RecurringTransactionScheduler recurringTransactionScheduler) {
+		Gauge.builder("transactions.recurring.workers.active", recurringTransactionScheduler, RecurringTransactionScheduler::getActiveWorkerCount)
+			.register(meterRegistry);
+
+		FunctionTimer.builder(
+			"transactions.recurring.batches",
+			recurringTransactionScheduler,
+			scheduler -> scheduler.getBatchCount() + scheduler.getFailedBatchCount(),
+			RecurringTransactionScheduler::getTotalBatchTimeNanos,
+			TimeUnit.NANOSECONDS
+		)
+			.description("Batches of claimed & executed recurring transactions (including the failed ones)")
+			.register(meterRegistry);
+		FunctionCounter.builder("transactions.recurring.batches.failed", recurringTransactionScheduler, RecurringTransactionScheduler::getFailedBatchCount)
+			.register(meterRegistry);
+		FunctionCounter.builder("transactions.recurring.claimed", recurringTransactionScheduler, RecurringTransactionScheduler::getClaimedTransactionCount)
+			.register(meterRegistry);
+		FunctionCounter.builder("transactions.recurring.failed", recurringTransactionScheduler, RecurringTransactionScheduler::getFailedTransactionCount)
+			.register(meterRegistry);
+
+		FunctionCounter.builder("transactions.recurring.occurrences", recurringTransactionScheduler, RecurringTransactionScheduler::getExecutedOccurrenceCount)
+			.tag("result", "executed")
+			.register(meterRegistry);
+		FunctionCounter.builder("transactions.recurring.occurrences", recurringTransactionScheduler, RecurringTransactionScheduler::getSkippedOccurrenceCount)
+			.tag("result", "skipped")
+			.register(meterRegistry);
+		FunctionCounter.builder("transactions.recurring.occurrences", recurringTransactionScheduler, RecurringTransactionScheduler::getInvalidOccurrenceCount)
+			.tag("result", "invalid")
+			.register(meterRegistry);
+	}
+
+}
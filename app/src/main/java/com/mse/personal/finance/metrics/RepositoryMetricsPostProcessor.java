@@ -0,0 +1,127 @@
+package com.mse.personal.finance.metrics;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.aop.framework.AopProxyUtils;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.data.repository.Repository;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Times the invocations of the application's Spring Data repositories
+ * (the "repository.invocations" timer, tagged with the repository, the method and the outcome),
+ * so the latency & invocation count of every query method can be followed.
+ *
+ * Each repository is wrapped in a proxy (implementing the same interfaces),
+ * whose interceptor records the time of the repository's own proxy (including its transaction, if it starts one).
+ *
+ * @author dvt32
+ */
+@Component
+public class RepositoryMetricsPostProcessor
+	implements BeanPostProcessor
+{
+
+	private static final String REPOSITORY_PACKAGE = "com.mse.personal.finance.db.repository";
+
+	private final ObjectProvider<MeterRegistry> meterRegistryProvider;
+
+	/**
+	 * The meter registry is resolved on the first invocation,
+	 * because post-processors are created before the other beans (including the registry).
+	 */
+	@Autowired
+	public RepositoryMetricsPostProcessor(ObjectProvider<MeterRegistry> meterRegistryProvider) {
+		this.meterRegistryProvider = meterRegistryProvider;
+	}
+
+	@Override
+	public Object postProcessAfterInitialization(Object bean, String beanName) {
+		if ( !(bean instanceof Repository) ) {
+			return bean;
+		}
+
+		Class<?> repositoryInterface = findRepositoryInterface(bean);
+		if (repositoryInterface == null) {
+			return bean;
+		}
+
+		ProxyFactory proxyFactory = new ProxyFactory();
+		proxyFactory.setTarget(bean);
+		proxyFactory.setInterfaces( AopProxyUtils.proxiedUserInterfaces(bean) );
+		proxyFactory.addAdvice( new RepositoryTimingInterceptor( repositoryInterface.getSimpleName() ) );
+		return proxyFactory.getProxy( repositoryInterface.getClassLoader() );
+	}
+
+	/**
+	 * Returns the application's repository interface, which is implemented by the passed repository
+	 * (null for repositories of libraries).
+	 */
+	private static Class<?> findRepositoryInterface(Object repository) {
+		for ( Class<?> userInterface : AopProxyUtils.proxiedUserInterfaces(repository) ) {
+			boolean isApplicationRepository = Repository.class.isAssignableFrom(userInterface)
+				&& userInterface.getName().startsWith(REPOSITORY_PACKAGE);
+			if (isApplicationRepository) {
+				return userInterface;
+			}
+		}
+
+		return null;
+	}
+
+	/**
+	 * Records the time of a repository's invocations.
+	 * The timers of successful invocations are cached per method (the failed ones are rare).
+	 */
+	private final class RepositoryTimingInterceptor
+		implements MethodInterceptor
+	{
+
+		private final String repositoryName;
+		private final Map<Method, Timer> successTimers = new ConcurrentHashMap<>();
+
+		private RepositoryTimingInterceptor(String repositoryName) {
+			this.repositoryName = repositoryName;
+		}
+
+		@Override
+		public Object invoke(MethodInvocation invocation)
+			throws Throwable
+		{
+			Method method = invocation.getMethod();
+			long startTime = System.nanoTime();
+			try {
+				Object result = invocation.proceed();
+				successTimers.computeIfAbsent( method, successMethod -> createTimer(successMethod, "success") )
+					.record(System.nanoTime() - startTime, TimeUnit.NANOSECONDS);
+				return result;
+			}
+			catch (Throwable e) {
+				createTimer(method, "error").record(System.nanoTime() - startTime, TimeUnit.NANOSECONDS);
+				throw e;
+			}
+		}
+
+		private Timer createTimer(Method method, String outcome) {
+			return Timer.builder("repository.invocations")
+				.description("Invocations of the repositories' methods")
+				.tag("repository", repositoryName)
+				.tag("method", method.getName())
+				.tag("outcome", outcome)
+				.register( meterRegistryProvider.getObject() );
+		}
+
+	}
+
+}
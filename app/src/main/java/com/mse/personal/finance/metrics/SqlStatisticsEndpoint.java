@@ -0,0 +1,42 @@
+package com.mse.personal.finance.metrics;
+
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import com.mse.personal.finance.db.SqlStatistics;
+
+/**
+ * Actuator endpoint ("/actuator/sql"), which reports the top SQL statement fingerprints
+ * (see {@link SqlStatistics}), e.g. "/actuator/sql?top=10&amp;orderBy=EXECUTIONS_PER_REQUEST".
+ *
+ * The statements are ordered by their total time by default.
+ *
+ * @author dvt32
+ */
+@Component
+@Endpoint(id = "sql")
+public class SqlStatisticsEndpoint {
+
+	private static final int DEFAULT_TOP = 20;
+
+	private final SqlStatistics sqlStatistics;
+
+	@Autowired
+	public SqlStatisticsEndpoint(SqlStatistics sqlStatistics) {
+		this.sqlStatistics = sqlStatistics;
+	}
+
+	@ReadOperation
+	public List<SqlStatistics.FingerprintReport> topFingerprints(@Nullable Integer top, @Nullable SqlStatistics.Order orderBy) {
+		return sqlStatistics.getTopFingerprints(
+			(top != null) ? top : DEFAULT_TOP,
+			(orderBy != null) ? orderBy : SqlStatistics.Order.TOTAL_TIME
+		);
+	}
+
+}
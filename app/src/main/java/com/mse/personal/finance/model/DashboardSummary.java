@@ -0,0 +1,111 @@
+package com.mse.personal.finance.model;
+
+import java.util.Date;
+
+/**
+ * DTO for the summary of the currently logged-in user's finances
+ * (shown on the front end's dashboard).
+ *
+ * The transactions' total sums are calculated for the passed date range
+ * (or for all transactions, if no date range was passed),
+ * while the accounts' balance and the categories' current period sums
+ * are always the current ones.
+ *
+ * @author dvt32
+ */
+public class DashboardSummary {
+
+	private Date startDate;
+	private Date endDate;
+	private Double totalIncomeTransactionsSum;
+	private Double totalExpenseTransactionsSum;
+	private Double totalTransferTransactionsSum;
+	private Double totalBalanceOfActivatedAccounts;
+	private Double totalCurrentPeriodSumOfIncomeCategories;
+	private Double totalCurrentPeriodSumOfExpenseCategories;
+
+	/*
+	 * Getters & setters
+	 */
+
+	public Date getStartDate() {
+		return this.startDate;
+	}
+
+	public Date getEndDate() {
+		return this.endDate;
+	}
+
+	public Double getTotalIncomeTransactionsSum() {
+		return this.totalIncomeTransactionsSum;
+	}
+
+	public Double getTotalExpenseTransactionsSum() {
+		return this.totalExpenseTransactionsSum;
+	}
+
+	public Double getTotalTransferTransactionsSum() {
+		return this.totalTransferTransactionsSum;
+	}
+
+	public Double getTotalBalanceOfActivatedAccounts() {
+		return this.totalBalanceOfActivatedAccounts;
+	}
+
+	public Double getTotalCurrentPeriodSumOfIncomeCategories() {
+		return this.totalCurrentPeriodSumOfIncomeCategories;
+	}
+
+	public Double getTotalCurrentPeriodSumOfExpenseCategories() {
+		return this.totalCurrentPeriodSumOfExpenseCategories;
+	}
+
+	public DashboardSummary setStartDate(Date startDate) {
+		this.startDate = startDate;
+		return this;
+	}
+
+	public DashboardSummary setEndDate(Date endDate) {
+		this.endDate = endDate;
+		return this;
+	}
+
+	public DashboardSummary setTotalIncomeTransactionsSum(Double totalIncomeTransactionsSum) {
+		this.totalIncomeTransactionsSum = totalIncomeTransactionsSum;
+		return this;
+	}
+
+	public DashboardSummary setTotalExpenseTransactionsSum(Double totalExpenseTransactionsSum) {
+		this.totalExpenseTransactionsSum = totalExpenseTransactionsSum;
+		return this;
+	}
+
+	public DashboardSummary setTotalTransferTransactionsSum(Double totalTransferTransactionsSum) {
+		this.totalTransferTransactionsSum = totalTransferTransactionsSum;
+		return this;
+	}
+
+	public DashboardSummary setTotalBalanceOfActivatedAccounts(Double totalBalanceOfActivatedAccounts) {
+		this.totalBalanceOfActivatedAccounts = totalBalanceOfActivatedAccounts;
+		return this;
+	}
+
+	public DashboardSummary setTotalCurrentPeriodSumOfIncomeCategories(Double totalCurrentPeriodSumOfIncomeCategories) {
+		this.totalCurrentPeriodSumOfIncomeCategories = totalCurrentPeriodSumOfIncomeCategories;
+		return this;
+	}
+
+	public DashboardSummary setTotalCurrentPeriodSumOfExpenseCategories(Double totalCurrentPeriodSumOfExpenseCategories) {
+		this.totalCurrentPeriodSumOfExpenseCategories = totalCurrentPeriodSumOfExpenseCategories;
+		return this;
+	}
+
+	/*
+	 * Other methods
+	 */
+
+	public String toString() {
+		return "DashboardSummary(startDate=" + this.getStartDate() + ", endDate=" + this.getEndDate() + ", totalIncomeTransactionsSum=" + this.getTotalIncomeTransactionsSum() + ", totalExpenseTransactionsSum=" + this.getTotalExpenseTransactionsSum() + ", totalTransferTransactionsSum=" + this.getTotalTransferTransactionsSum() + ", totalBalanceOfActivatedAccounts=" + this.getTotalBalanceOfActivatedAccounts() + ", totalCurrentPeriodSumOfIncomeCategories=" + this.getTotalCurrentPeriodSumOfIncomeCategories() + ", totalCurrentPeriodSumOfExpenseCategories=" + this.getTotalCurrentPeriodSumOfExpenseCategories() + ")";
+	}
+
+}
@@ -0,0 +1,90 @@
+package com.mse.personal.finance.model;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Fixed-point money amounts, which are represented by a primitive long number of minor units
+ * (amounts have 2 decimal places, so 1 unit = 100 minor units, e.g. 12.34 = 1234).
+ *
+ * The entities store their money amounts in minor units (in BIGINT columns),
+ * so that balances & sums are changed with exact integer arithmetic
+ * and the aggregate queries sum integers instead of floating-point numbers.
+ * The DTOs still contain decimal amounts, which are converted at the entity boundary.
+ *
+ * The arithmetic methods work upon primitives only (they neither box nor allocate)
+ * and throw an ArithmeticException on overflow (instead of silently wrapping around).
+ *
+ * @author dvt32
+ */
+public final class Money {
+
+	/**
+	 * The number of decimal places of the amounts.
+	 */
+	public static final int SCALE = 2;
+
+	/**
+	 * The number of minor units in 1 unit.
+	 */
+	public static final long MINOR_UNITS_PER_UNIT = 100L;
+
+	private Money() {}
+
+	/**
+	 * Converts a decimal amount to minor units
+	 * (an amount with more decimal places is rounded half-up, e.g. 1.005 = 101).
+	 *
+	 * @throws ArithmeticException if the amount does not fit in a long number of minor units
+	 */
+	public static long toMinorUnits(double amount) {
+		return BigDecimal.valueOf(amount)
+			.setScale(SCALE, RoundingMode.HALF_UP)
+			.movePointRight(SCALE)
+			.longValueExact();
+	}
+
+	/**
+	 * Converts a decimal amount to minor units (null if the amount is null).
+	 */
+	public static Long toNullableMinorUnits(Double amount) {
+		return (amount != null) ? toMinorUnits(amount) : null;
+	}
+
+	/**
+	 * Converts minor units to a decimal amount
+	 * (the nearest double to the exact amount, e.g. 1234 = 12.34).
+	 */
+	public static double toAmount(long minorUnits) {
+		return (double) minorUnits / MINOR_UNITS_PER_UNIT;
+	}
+
+	/**
+	 * Converts minor units to a decimal amount (null if the minor units are null, e.g. an empty SQL sum).
+	 */
+	public static Double toNullableAmount(Long minorUnits) {
+		return (minorUnits != null) ? toAmount(minorUnits) : null;
+	}
+
+	/**
+	 * Returns the sum of two amounts in minor units.
+	 */
+	public static long add(long minorUnits, long otherMinorUnits) {
+		return Math.addExact(minorUnits, otherMinorUnits);
+	}
+
+	/**
+	 * Returns the difference of two amounts in minor units.
+	 */
+	public static long subtract(long minorUnits, long otherMinorUnits) {
+		return Math.subtractExact(minorUnits, otherMinorUnits);
+	}
+
+	/**
+	 * Returns the negated amount in minor units.
+	 */
+	public static long negate(long minorUnits) {
+		return Math.negateExact(minorUnits);
+	}
+
+}
@@ -0,0 +1,68 @@
+package com.mse.personal.finance.model;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * DTO for the summary of a bulk transaction import.
+ * 
+ * Contains the total number of imported/failed rows
+ * and the result of each row (in the order of the imported data).
+ *
+ * @author dvt32
+ */
+public class TransactionImportResult {
+
+	private int totalRows;
+	private int importedRows;
+	private int failedRows;
+	private List<TransactionImportRowResult> rows = new ArrayList<>();
+	
+	/*
+	 * Getters & setters
+	 */
+
+	public int getTotalRows() {
+		return this.totalRows;
+	}
+
+	public int getImportedRows() {
+		return this.importedRows;
+	}
+
+	public int getFailedRows() {
+		return this.failedRows;
+	}
+
+	public List<TransactionImportRowResult> getRows() {
+		return this.rows;
+	}
+
+	public TransactionImportResult setRows(List<TransactionImportRowResult> rows) {
+		this.rows = rows;
+		return this;
+	}
+	
+	/*
+	 * Other methods
+	 */
+	
+	/**
+	 * Adds the result of a successfully imported row.
+	 */
+	public void addImportedRow(int rowNumber, Long transactionId) {
+		rows.add( new TransactionImportRowResult(rowNumber, TransactionImportRowStatus.IMPORTED, transactionId, null) );
+		totalRows++;
+		importedRows++;
+	}
+	
+	/**
+	 * Adds the result of a row, which could not be imported.
+	 */
+	public void addFailedRow(int rowNumber, String errorMessage) {
+		rows.add( new TransactionImportRowResult(rowNumber, TransactionImportRowStatus.FAILED, null, errorMessage) );
+		totalRows++;
+		failedRows++;
+	}
+	
+}
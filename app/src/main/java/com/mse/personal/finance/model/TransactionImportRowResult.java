@@ -0,0 +1,74 @@
+package com.mse.personal.finance.model;
+
+/**
+ * DTO for the result of importing a single transaction row
+ * (part of a {@link TransactionImportResult}).
+ *
+ * @author dvt32
+ */
+public class TransactionImportRowResult {
+
+	private Integer rowNumber;
+	private TransactionImportRowStatus status;
+	private Long transactionId;
+	private String errorMessage;
+	
+	/*
+	 * Constructors
+	 */
+	
+	public TransactionImportRowResult() {}
+	
+	public TransactionImportRowResult(
+		Integer rowNumber, 
+		TransactionImportRowStatus status, 
+		Long transactionId, 
+		String errorMessage) 
+	{
+		this.rowNumber = rowNumber;
+		this.status = status;
+		this.transactionId = transactionId;
+		this.errorMessage = errorMessage;
+	}
+	
+	/*
+	 * Getters & setters
+	 */
+
+	public Integer getRowNumber() {
+		return this.rowNumber;
+	}
+
+	public TransactionImportRowStatus getStatus() {
+		return this.status;
+	}
+
+	public Long getTransactionId() {
+		return this.transactionId;
+	}
+
+	public String getErrorMessage() {
+		return this.errorMessage;
+	}
+
+	public TransactionImportRowResult setRowNumber(Integer rowNumber) {
+		this.rowNumber = rowNumber;
+		return this;
+	}
+
+	public TransactionImportRowResult setStatus(TransactionImportRowStatus status) {
+		this.status = status;
+		return this;
+	}
+
+	public TransactionImportRowResult setTransactionId(Long transactionId) {
+		this.transactionId = transactionId;
+		return this;
+	}
+
+	public TransactionImportRowResult setErrorMessage(String errorMessage) {
+		this.errorMessage = errorMessage;
+		return this;
+	}
+	
+}
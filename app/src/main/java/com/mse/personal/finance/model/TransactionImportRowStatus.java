@@ -0,0 +1,22 @@
+package com.mse.personal.finance.model;
+
+/**
+ * An enum for the possible outcomes of importing a single transaction row.
+ */
+public enum TransactionImportRowStatus {
+	
+	IMPORTED("IMPORTED"),
+	FAILED("FAILED");
+	
+	private String label;
+
+	TransactionImportRowStatus(String label) {
+		this.label = label;
+	}
+
+	@Override
+	public String toString() {
+		return this.label;
+	}
+	
+}
@@ -0,0 +1,99 @@
+package com.mse.personal.finance.model;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.Date;
+
+/**
+ * An enum for the recurrence rules of transactions
+ * (the values of the transactions' "recurring" field, case-insensitive).
+ *
+ * A transaction with a recurrence rule, which should be automatically executed,
+ * is executed again every period after its date of completion (see RecurringTransactionService).
+ * Missing, blank and unknown values mean no recurrence.
+ */
+public enum TransactionRecurrence {
+
+	NO(null),
+	DAILY(ChronoUnit.DAYS),
+	WEEKLY(ChronoUnit.WEEKS),
+	MONTHLY(ChronoUnit.MONTHS),
+	YEARLY(ChronoUnit.YEARS);
+
+	private final ChronoUnit period;
+
+	TransactionRecurrence(ChronoUnit period) {
+		this.period = period;
+	}
+
+	/**
+	 * Returns the recurrence with the passed name (case-insensitive) or NO if there is no such recurrence.
+	 */
+	public static TransactionRecurrence fromString(String recurring) {
+		if (recurring == null) {
+			return NO;
+		}
+
+		String name = recurring.trim();
+		for (TransactionRecurrence recurrence : values()) {
+			if (recurrence.name().equalsIgnoreCase(name)) {
+				return recurrence;
+			}
+		}
+
+		return NO;
+	}
+
+	/**
+	 * Returns the date of the first automatic execution of a transaction with the passed data,
+	 * which is not before the passed date (null if the transaction is not recurring or should not be automatically executed).
+	 *
+	 * The periods before that date are not executed (e.g. a monthly transaction from January 15,
+	 * which is created on March 20, is first executed on April 15).
+	 */
+	public static Date getFirstExecutionDate(String recurring, Boolean shouldBeAutomaticallyExecuted, Date dateOfCompletion, Date notBefore) {
+		if ( !Boolean.TRUE.equals(shouldBeAutomaticallyExecuted) || dateOfCompletion == null ) {
+			return null;
+		}
+
+		Date after = dateOfCompletion;
+		LocalDate dayBeforeNotBefore = toLocalDate(notBefore).minusDays(1);
+		if ( dayBeforeNotBefore.isAfter( toLocalDate(dateOfCompletion) ) ) {
+			after = java.sql.Date.valueOf(dayBeforeNotBefore);
+		}
+
+		return fromString(recurring).getNextExecutionDate(dateOfCompletion, after);
+	}
+
+	/**
+	 * Returns the first execution date after the passed date (null for NO).
+	 *
+	 * The execution dates are calculated from the transaction's date of completion,
+	 * so that they do not drift (e.g. a monthly transaction from January 31 is executed
+	 * on February 28/29 and then again on March 31).
+	 */
+	public Date getNextExecutionDate(Date dateOfCompletion, Date after) {
+		if (period == null) {
+			return null;
+		}
+
+		LocalDate firstDate = toLocalDate(dateOfCompletion);
+		LocalDate afterDate = toLocalDate(after);
+
+		long periods = Math.max( period.between(firstDate, afterDate), 0L ) + 1;
+		LocalDate nextDate = firstDate.plus(periods, period);
+		while ( !nextDate.isAfter(afterDate) ) {
+			nextDate = firstDate.plus(++periods, period);
+		}
+
+		return java.sql.Date.valueOf(nextDate);
+	}
+
+	/**
+	 * Converts a date (which may be a java.sql.Date loaded from the database) to a local date.
+	 */
+	public static LocalDate toLocalDate(Date date) {
+		return new java.sql.Date( date.getTime() ).toLocalDate();
+	}
+
+}
@@ -0,0 +1,62 @@
+package com.mse.personal.finance.model;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * DTO for a slice of transactions returned by a cursor-based (keyset) listing.
+ * 
+ * The next slice is requested by passing the returned "nextCursor"
+ * (null if there are no more transactions).
+ * The total number of transactions is only included if it was requested.
+ *
+ * @author dvt32
+ */
+public class TransactionSlice {
+
+	private List<Transaction> content = new ArrayList<>();
+	private String nextCursor;
+	private boolean hasNext;
+	private Long totalElements;
+	
+	/*
+	 * Getters & setters
+	 */
+
+	public List<Transaction> getContent() {
+		return this.content;
+	}
+
+	public String getNextCursor() {
+		return this.nextCursor;
+	}
+
+	public boolean getHasNext() {
+		return this.hasNext;
+	}
+
+	public Long getTotalElements() {
+		return this.totalElements;
+	}
+
+	public TransactionSlice setContent(List<Transaction> content) {
+		this.content = content;
+		return this;
+	}
+
+	public TransactionSlice setNextCursor(String nextCursor) {
+		this.nextCursor = nextCursor;
+		return this;
+	}
+
+	public TransactionSlice setHasNext(boolean hasNext) {
+		this.hasNext = hasNext;
+		return this;
+	}
+
+	public TransactionSlice setTotalElements(Long totalElements) {
+		this.totalElements = totalElements;
+		return this;
+	}
+	
+}
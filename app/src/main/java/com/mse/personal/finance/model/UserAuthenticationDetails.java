@@ -21,15 +21,29 @@ import org.springframework.security.core.userdetails.UserDetails;
 public class UserAuthenticationDetails
 	implements UserDetails
 {
+	private Long id;
 	private String username;
 	private String password;
 	private String displayName;
 	
 	public UserAuthenticationDetails(String username, String password, String displayName) {
+		this(null, username, password, displayName);
+	}
+	
+	public UserAuthenticationDetails(Long id, String username, String password, String displayName) {
+		this.id = id;
 		this.username = username;
 		this.password = password;
 		this.displayName = displayName;
 	}
+	
+	/**
+	 * Returns the ID of the authenticated user
+	 * (or null if the details were not loaded from the database).
+	 */
+	public Long getId() {
+		return id;
+	}
 
 	@Override
 	public String getUsername() {
@@ -0,0 +1,61 @@
+package com.mse.personal.finance.rest;
+
+import java.util.Date;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.mse.personal.finance.model.DashboardSummary;
+import com.mse.personal.finance.rest.exception.InvalidDataException;
+import com.mse.personal.finance.service.DashboardService;
+
+/**
+ * REST controller for retrieving the {@link DashboardSummary} summary
+ * of the currently logged-in user's finances.
+ * 
+ * @author dvt32
+ */
+@RestController
+@RequestMapping(path = "/dashboard")
+public class DashboardController {
+	
+	private final DashboardService dashboardService;
+	
+	@Autowired
+	public DashboardController(DashboardService dashboardService) {
+		this.dashboardService = dashboardService;
+	}
+	
+	/**
+	 * Returns the summary of the currently logged-in user's finances as a JSON object
+	 * (all account, category & transaction totals in a single response).
+	 * 
+	 * The transactions' total sums are calculated for the transactions 
+	 * made between the passed dates (INCLUSIVE), if both dates are passed,
+	 * or for all transactions otherwise.
+	 * 
+	 * @return the summary's data
+	 */
+	@GetMapping("/summary")
+	public DashboardSummary getDashboardSummary(
+		@RequestParam(required = false) @DateTimeFormat(pattern = "dd.MM.yyyy") Date startDate,
+		@RequestParam(required = false) @DateTimeFormat(pattern = "dd.MM.yyyy") Date endDate) 
+	{
+		DashboardSummary dashboardSummary = null;
+		
+		try {
+			dashboardSummary = dashboardService.getDashboardSummary(startDate, endDate);
+		}
+		catch (InvalidDataException e) {
+			String exceptionMessage = e.getMessage();
+			throw new InvalidDataException(exceptionMessage);
+		}
+		
+		return dashboardSummary;
+	}
+	
+}
@@ -1,14 +1,19 @@
 package com.mse.personal.finance.rest;
 
+import java.io.IOException;
 import java.util.Date;
 
+import javax.servlet.http.HttpServletRequest;
 import javax.validation.Valid;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.validation.BindingResult;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -20,14 +25,19 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import com.mse.personal.finance.model.Transaction;
 import com.mse.personal.finance.model.TransactionFromType;
+import com.mse.personal.finance.model.TransactionImportResult;
+import com.mse.personal.finance.model.TransactionSlice;
 import com.mse.personal.finance.model.TransactionToType;
 import com.mse.personal.finance.model.request.TransactionRequest;
 import com.mse.personal.finance.rest.exception.InvalidDataException;
 import com.mse.personal.finance.rest.exception.TransactionNotFoundException;
 import com.mse.personal.finance.rest.exception.UserDoesNotOwnResourceException;
+import com.mse.personal.finance.service.TransactionExportService;
+import com.mse.personal.finance.service.TransactionImportService;
 import com.mse.personal.finance.service.TransactionService;
 
 /**
@@ -42,6 +52,14 @@ import com.mse.personal.finance.service.TransactionService;
  * 	- "size" (number of elements on the page)
  * 	- "sort" (the order of the returned elements).
  * 
+ * 	Most listings also support cursor-based (keyset) paging, 
+ * 	which is used when a "cursor" request parameter is passed:
+ * 	- "cursor" (the "nextCursor" returned with the previous slice, empty for the first slice)
+ * 	- "size" (number of elements in the slice, max. 100)
+ * 	- "includeTotal" (if the total number of elements should be returned, false by default).
+ * 	The slices are ordered by date of completion (newest first) 
+ * 	and retrieving a slice takes the same time regardless of its position.
+ * 
  * @author dvt32
  */
 @RestController
@@ -49,10 +67,18 @@ import com.mse.personal.finance.service.TransactionService;
 public class TransactionController {
 	
 	private final TransactionService transactionService;
+	private final TransactionImportService transactionImportService;
+	private final TransactionExportService transactionExportService;
 
 	@Autowired
-	public TransactionController(TransactionService transactionService) {
+	public TransactionController(
+		TransactionService transactionService,
+		TransactionImportService transactionImportService,
+		TransactionExportService transactionExportService) 
+	{
 		this.transactionService = transactionService;
+		this.transactionImportService = transactionImportService;
+		this.transactionExportService = transactionExportService;
 	}
 	
 	/**
@@ -67,6 +93,31 @@ public class TransactionController {
 		return pageOfTransactions;
 	}
 	
+	/**
+	 * Returns a slice of transactions data as a JSON object
+	 * by passing a cursor in a GET request.
+	 * 
+	 * @return a slice of transactions' data
+	 */
+	@GetMapping(params = "cursor")
+	public TransactionSlice getTransactionsByCursor(
+		@RequestParam String cursor,
+		@RequestParam(required = false) Integer size,
+		@RequestParam(defaultValue = "false") boolean includeTotal) 
+	{
+		TransactionSlice sliceOfTransactions = null;
+		
+		try {
+			sliceOfTransactions = transactionService.getTransactionsByCursor(cursor, size, includeTotal);
+		}
+		catch (InvalidDataException e) {
+			String exceptionMessage = e.getMessage();
+			throw new InvalidDataException(exceptionMessage);
+		}
+		
+		return sliceOfTransactions;
+	}
+	
 	/**
 	 * Returns a page of transactions of a specified type's data as a JSON object
 	 * by passing a paging restriction in a GET request.
@@ -96,6 +147,37 @@ public class TransactionController {
 		return pageOfTransactions;
 	}
 	
+	/**
+	 * Returns a slice of transactions of a specified type's data as a JSON object
+	 * by passing a cursor in a GET request.
+	 * 
+	 * Allowed transaction types (case-insensitive):
+	 * - "INCOME"
+	 * - "EXPENSE"
+	 * - "TRANSFER"
+	 * 
+	 * @return a slice of transactions' data
+	 */
+	@GetMapping(params = { "type", "cursor" })
+	public TransactionSlice getTransactionsByTypeAndCursor(
+		@RequestParam String type, 
+		@RequestParam String cursor,
+		@RequestParam(required = false) Integer size,
+		@RequestParam(defaultValue = "false") boolean includeTotal) 
+	{
+		TransactionSlice sliceOfTransactions = null;
+		
+		try {
+			sliceOfTransactions = transactionService.getTransactionsByTypeAndCursor(type, cursor, size, includeTotal);
+		}
+		catch (InvalidDataException e) {
+			String exceptionMessage = e.getMessage();
+			throw new InvalidDataException(exceptionMessage);
+		}
+		
+		return sliceOfTransactions;
+	}
+	
 	/**
 	 * Returns the total sum for transactions of a specified type.
 	 * 
@@ -153,6 +235,40 @@ public class TransactionController {
 		return pageOfTransactions;
 	}
 	
+	/**
+	 * Returns a slice of transactions of a specified type's data 
+	 * (which were made between two dates - INCLUSIVE), as a JSON object
+	 * by passing a cursor in a GET request.
+	 * 
+	 * Allowed transaction types (case-insensitive):
+	 * - "INCOME"
+	 * - "EXPENSE"
+	 * - "TRANSFER"
+	 * 
+	 * @return a slice of transactions' data
+	 */
+	@GetMapping(path = "/between-dates", params = "cursor")
+	public TransactionSlice getTransactionsBetweenDatesByTypeAndCursor(
+		@RequestParam String type,
+		@RequestParam @DateTimeFormat(pattern = "dd.MM.yyyy") Date startDate,
+		@RequestParam @DateTimeFormat(pattern = "dd.MM.yyyy") Date endDate,
+		@RequestParam String cursor,
+		@RequestParam(required = false) Integer size,
+		@RequestParam(defaultValue = "false") boolean includeTotal) 
+	{
+		TransactionSlice sliceOfTransactions = null;
+		
+		try {
+			sliceOfTransactions = transactionService.getTransactionsBetweenDatesByTypeAndCursor(type, startDate, endDate, cursor, size, includeTotal);
+		}
+		catch (InvalidDataException e) {
+			String exceptionMessage = e.getMessage();
+			throw new InvalidDataException(exceptionMessage);
+		}
+		
+		return sliceOfTransactions;
+	}
+	
 	/**
 	 * Returns the total sum for transactions of a specified type,
 	 * which were made between two dates (inclusive).
@@ -201,6 +317,36 @@ public class TransactionController {
 		return pageOfTransactions;
 	}
 	
+	/**
+	 * Returns a slice of transactions with the passed from-type & from-ID
+	 * by passing a cursor in a GET request.
+	 * 
+	 * @param fromType the transactions-to-be-retrieved's from-type
+	 * @param fromId the transaction-to-be-retrieved's from-ID
+	 * 
+	 * @return a slice of transactions' data
+	 */
+	@GetMapping(path = "/by-from-data", params = "cursor")
+	public TransactionSlice getTransactionsByFromDataAndCursor(
+		@RequestParam TransactionFromType fromType,
+		@RequestParam Long fromId,
+		@RequestParam String cursor,
+		@RequestParam(required = false) Integer size,
+		@RequestParam(defaultValue = "false") boolean includeTotal) 
+	{
+		TransactionSlice sliceOfTransactions = null;
+		
+		try {
+			sliceOfTransactions = transactionService.getTransactionsByFromDataAndCursor(fromType, fromId, cursor, size, includeTotal);
+		}
+		catch (InvalidDataException e) {
+			String exceptionMessage = e.getMessage();
+			throw new InvalidDataException(exceptionMessage);
+		}
+		
+		return sliceOfTransactions;
+	}
+	
 	/**
 	 * Returns a page of transactions with the passed to-type & to-ID.
 	 * 
@@ -219,6 +365,76 @@ public class TransactionController {
 		return pageOfTransactions;
 	}
 	
+	/**
+	 * Returns a slice of transactions with the passed to-type & to-ID
+	 * by passing a cursor in a GET request.
+	 * 
+	 * @param toType the transactions-to-be-retrieved's to-type
+	 * @param toId the transaction-to-be-retrieved's to-ID
+	 * 
+	 * @return a slice of transactions' data
+	 */
+	@GetMapping(path = "/by-to-data", params = "cursor")
+	public TransactionSlice getTransactionsByToDataAndCursor(
+		@RequestParam TransactionToType toType,
+		@RequestParam Long toId,
+		@RequestParam String cursor,
+		@RequestParam(required = false) Integer size,
+		@RequestParam(defaultValue = "false") boolean includeTotal) 
+	{
+		TransactionSlice sliceOfTransactions = null;
+		
+		try {
+			sliceOfTransactions = transactionService.getTransactionsByToDataAndCursor(toType, toId, cursor, size, includeTotal);
+		}
+		catch (InvalidDataException e) {
+			String exceptionMessage = e.getMessage();
+			throw new InvalidDataException(exceptionMessage);
+		}
+		
+		return sliceOfTransactions;
+	}
+	
+	/**
+	 * Returns all transactions of the currently logged-in user as a file.
+	 * 
+	 * The transactions are written directly to the response 
+	 * while they are read from the database, 
+	 * so the whole history is never loaded in memory.
+	 * 
+	 * Allowed formats (case-insensitive):
+	 * - "CSV" (default)
+	 * - "JSON"
+	 * 
+	 * @param format the format of the exported file
+	 * @return the exported transactions' data
+	 */
+	@GetMapping("/export")
+	public ResponseEntity<StreamingResponseBody> exportTransactions(@RequestParam(defaultValue = "CSV") String format) {
+		StreamingResponseBody responseBody = null;
+		MediaType contentType = null;
+		String fileName = null;
+		
+		if (format.equalsIgnoreCase("CSV")) {
+			responseBody = outputStream -> transactionExportService.exportTransactionsAsCsv(outputStream);
+			contentType = MediaType.parseMediaType("text/csv");
+			fileName = "transactions.csv";
+		}
+		else if (format.equalsIgnoreCase("JSON")) {
+			responseBody = outputStream -> transactionExportService.exportTransactionsAsJson(outputStream);
+			contentType = MediaType.APPLICATION_JSON;
+			fileName = "transactions.json";
+		}
+		else {
+			throw new InvalidDataException("Export format is invalid!");
+		}
+		
+		return ResponseEntity.ok()
+			.contentType(contentType)
+			.header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + fileName + "\"")
+			.body(responseBody);
+	}
+	
 	/**
 	 * Returns a specific transaction's data as a JSON object
 	 * 
@@ -276,6 +492,66 @@ public class TransactionController {
 		return createdTransaction;
 	}
 	
+	/**
+	 * This method imports transactions in bulk by passing a JSON array 
+	 * of transactions' data in a POST request's body
+	 * and returns a summary of the import (with the result of each row) as a JSON object.
+	 * 
+	 * The request body is read as a stream, so large imports are not loaded in memory.
+	 * 
+	 * @param request The HTTP request containing the transactions-to-be-imported's data
+	 * 
+	 * @return the import's summary
+	 */
+	@PostMapping(path = "/import", consumes = MediaType.APPLICATION_JSON_VALUE)
+	@ResponseStatus(HttpStatus.CREATED)
+	public TransactionImportResult importTransactionsFromJson(HttpServletRequest request) {
+		TransactionImportResult importResult = null;
+		
+		try {
+			importResult = transactionImportService.importTransactionsFromJson( request.getInputStream() );
+		}
+		catch (InvalidDataException e) {
+			String exceptionMessage = e.getMessage();
+			throw new InvalidDataException(exceptionMessage);
+		}
+		catch (IOException e) {
+			throw new InvalidDataException("Imported transactions data could not be read!");
+		}
+		
+		return importResult;
+	}
+	
+	/**
+	 * This method imports transactions in bulk by passing a CSV file 
+	 * (with a header line) in a POST request's body
+	 * and returns a summary of the import (with the result of each row) as a JSON object.
+	 * 
+	 * The request body is read as a stream, so large imports are not loaded in memory.
+	 * 
+	 * @param request The HTTP request containing the transactions-to-be-imported's data
+	 * 
+	 * @return the import's summary
+	 */
+	@PostMapping(path = "/import", consumes = "text/csv")
+	@ResponseStatus(HttpStatus.CREATED)
+	public TransactionImportResult importTransactionsFromCsv(HttpServletRequest request) {
+		TransactionImportResult importResult = null;
+		
+		try {
+			importResult = transactionImportService.importTransactionsFromCsv( request.getReader() );
+		}
+		catch (InvalidDataException e) {
+			String exceptionMessage = e.getMessage();
+			throw new InvalidDataException(exceptionMessage);
+		}
+		catch (IOException e) {
+			throw new InvalidDataException("Imported transactions data could not be read!");
+		}
+		
+		return importResult;
+	}
+	
 	/**
 	 * This method updates an existing transaction in the database 
 	 * by passing the updated transaction's data in a POST request's body
@@ -0,0 +1,69 @@
+package com.mse.personal.finance.rest;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.embedded.tomcat.TomcatServletWebServerFactory;
+import org.springframework.boot.web.server.WebServerFactoryCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * This class configures Tomcat to serve each request on a new virtual thread
+ * (instead of its fixed pool of platform threads),
+ * so requests waiting for the database do not occupy a platform thread.
+ *
+ * The mode is enabled with the "server.tomcat.virtual-threads" property
+ * (e.g. by activating the "virtual-threads" profile, which also sizes the connection pool)
+ * and requires Java 21 or newer.
+ *
+ * With virtual threads the number of concurrent requests is no longer limited by Tomcat's thread pool,
+ * so the connection pool (and its connection timeout) become the limit of concurrent database access.
+ *
+ * A virtual thread, which blocks inside a synchronized block, pins its carrier thread (so it no longer frees it).
+ * The PostgreSQL driver managed by Spring Boot 2 (42.2.x) synchronizes on every query in its QueryExecutorImpl,
+ * so the application uses the driver's version 42.6.0, which locks with ReentrantLock instead.
+ * The remaining pinning (e.g. in HikariCP or Hibernate) has not been audited yet - it is reported by running
+ * the RequestExecutionModeLoadTest against PostgreSQL with the "-Djdk.tracePinnedThreads=full" JVM option.
+ *
+ * @author dvt32
+ */
+@Configuration
+@ConditionalOnProperty(name = "server.tomcat.virtual-threads", havingValue = "true")
+public class VirtualThreadConfiguration 
+	implements DisposableBean 
+{
+
+	/**
+	 * The executor is not exposed as a bean, so it is not picked up as the application's task executor.
+	 */
+	private final ExecutorService virtualThreadRequestExecutor = createVirtualThreadPerTaskExecutor();
+
+	@Bean
+	public WebServerFactoryCustomizer<TomcatServletWebServerFactory> virtualThreadTomcatCustomizer() {
+		return tomcatServletWebServerFactory -> tomcatServletWebServerFactory.addConnectorCustomizers(
+			connector -> connector.getProtocolHandler().setExecutor(virtualThreadRequestExecutor)
+		);
+	}
+
+	@Override
+	public void destroy() {
+		virtualThreadRequestExecutor.shutdown();
+	}
+
+	private static ExecutorService createVirtualThreadPerTaskExecutor() {
+		// Created reflectively, so the application can still be built & run on older Java versions (without this mode)
+		try {
+			return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+		}
+		catch (NoSuchMethodException e) {
+			throw new IllegalStateException("Virtual threads require Java 21 or newer (disable \"server.tomcat.virtual-threads\")", e);
+		}
+		catch (ReflectiveOperationException e) {
+			throw new IllegalStateException("Could not create virtual thread executor", e);
+		}
+	}
+
+}
@@ -0,0 +1,25 @@
+package com.mse.personal.finance.rest.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * This exception is thrown whenever 
+ * someone attempts to login with a username,
+ * whose logins are still blocked
+ * due to reaching the max number of 
+ * invalid login attempts (from any IP).
+ * 
+ * @author dvt32
+ */
+@SuppressWarnings("serial")
+@ResponseStatus(code = HttpStatus.UNAUTHORIZED)
+public class LoginBlockedException 
+	extends RuntimeException 
+{
+	
+	public LoginBlockedException(String message) {
+		super(message);
+	}
+	
+}
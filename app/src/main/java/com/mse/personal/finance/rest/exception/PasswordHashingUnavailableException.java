@@ -0,0 +1,26 @@
+package com.mse.personal.finance.rest.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * This exception is thrown whenever 
+ * a password cannot be hashed or checked
+ * (e.g. on login or registration),
+ * because the password hashing executor is saturated.
+ * 
+ * The client should retry the request later.
+ * 
+ * @author dvt32
+ */
+@SuppressWarnings("serial")
+@ResponseStatus(code = HttpStatus.SERVICE_UNAVAILABLE)
+public class PasswordHashingUnavailableException 
+	extends RuntimeException 
+{
+	
+	public PasswordHashingUnavailableException(String message) {
+		super(message);
+	}
+	
+}
@@ -7,7 +7,6 @@ import org.springframework.context.ApplicationListener;
 import org.springframework.security.authentication.event.AuthenticationFailureBadCredentialsEvent;
 import org.springframework.stereotype.Component;
 
-import com.mse.personal.finance.rest.exception.IpAddressBlockedException;
 import com.mse.personal.finance.service.LoginLimitService;
 
 /**
@@ -37,25 +36,20 @@ public class AuthenticationFailureListener
      * This method is called when a user tries 
      * to login with invalid credentials.
      * 
-     * If the max consecutive failed login attempts 
-     * has been reached, an exception is thrown.
+     * If the max failed login attempts for the IP or account
+     * have been reached, an exception is thrown.
      * 
      * Otherwise the login limit service increases
-     * the number of consecutive failed login attempts
-     * for the current IP address.
+     * the number of failed login attempts
+     * for the current IP address and account.
      */
 	public void onApplicationEvent(AuthenticationFailureBadCredentialsEvent e) {
 		String clientIpAddress = loginLimitService.getClientIpAddressFromRequest(request);
-		boolean isBlockedIpAddress = loginLimitService.isBlockedIpAddress(clientIpAddress);
-		int blockTimeInMinutes = loginLimitService.getBlockTimeInMinutes();
+		String username = e.getAuthentication().getName();
 		
-		if (isBlockedIpAddress) {
-			throw new IpAddressBlockedException(
-				"IP blocked for " + blockTimeInMinutes + " minutes (max consecutive invalid login attempts reached)!"
-			);
-		}
+		loginLimitService.checkLoginAttempt(clientIpAddress, username);
 		
-		loginLimitService.loginFailed(clientIpAddress);
+		loginLimitService.loginFailed(clientIpAddress, username);
     }
 	
 }
\ No newline at end of file
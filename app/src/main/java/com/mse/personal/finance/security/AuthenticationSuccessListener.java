@@ -7,7 +7,6 @@ import org.springframework.context.ApplicationListener;
 import org.springframework.security.authentication.event.AuthenticationSuccessEvent;
 import org.springframework.stereotype.Component;
 
-import com.mse.personal.finance.rest.exception.IpAddressBlockedException;
 import com.mse.personal.finance.service.LoginLimitService;
 
 /**
@@ -37,26 +36,21 @@ public class AuthenticationSuccessListener
      * This method is called when a user tries 
      * to login with valid credentials.
      * 
-     * If the user's IP is blocked,
+     * If the user's IP or account is blocked,
      * his login attempt is ignored
      * and an exception is thrown.
      * 
      * Otherwise the login limit service
-     * resets the consecutive failed login attempt counter
-     * for the current IP address.
+     * resets the failed login attempt counters
+     * for the current IP address and account.
      */
 	public void onApplicationEvent(AuthenticationSuccessEvent e) {
 		String clientIpAddress = loginLimitService.getClientIpAddressFromRequest(request);
-		boolean isBlockedIpAddress = loginLimitService.isBlockedIpAddress(clientIpAddress);
-		int blockTimeInMinutes = loginLimitService.getBlockTimeInMinutes();
+		String username = e.getAuthentication().getName();
 		
-		if (isBlockedIpAddress) {
-			throw new IpAddressBlockedException(
-				"IP blocked for " + blockTimeInMinutes + " minutes (max consecutive invalid login attempts reached)!"
-			);
-		}
+		loginLimitService.checkLoginAttempt(clientIpAddress, username);
 		
-        loginLimitService.loginSucceeded(clientIpAddress);      
+        loginLimitService.loginSucceeded(clientIpAddress, username);      
     }
 	
 }
\ No newline at end of file
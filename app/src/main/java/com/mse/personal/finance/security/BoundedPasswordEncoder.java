@@ -0,0 +1,180 @@
+package com.mse.personal.finance.security;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import com.mse.personal.finance.rest.exception.PasswordHashingUnavailableException;
+
+/**
+ * {@link PasswordEncoder}, which runs the hashing of another (expensive) encoder, e.g. BCrypt,
+ * on a dedicated executor with a limited number of threads and a bounded queue.
+ *
+ * This way the number of CPUs, which are busy with hashing passwords (e.g. during a login storm), is limited
+ * and the other requests are not starved.
+ * If the executor's queue is full, the hashing is rejected immediately
+ * with a {@link PasswordHashingUnavailableException} (503 Service Unavailable).
+ *
+ * The calling thread waits for the result (while not using any CPU),
+ * because the authentication runs on the request's thread (e.g. the authentication listeners use the request).
+ *
+ * @author dvt32
+ */
+public class BoundedPasswordEncoder
+	implements PasswordEncoder, DisposableBean
+{
+
+	private final PasswordEncoder delegate;
+	private final ThreadPoolExecutor hashingExecutor;
+
+	private final LongAdder hashCount = new LongAdder();
+	private final LongAdder totalHashTimeNanos = new LongAdder();
+	private final LongAdder totalQueueWaitTimeNanos = new LongAdder();
+	private final LongAdder rejectedHashCount = new LongAdder();
+
+	/**
+	 * Creates a new encoder.
+	 *
+	 * @param delegate the encoder, which hashes the passwords
+	 * @param concurrency the max number of passwords hashed at the same time
+	 * @param queueCapacity the max number of passwords waiting to be hashed (0 for no waiting)
+	 */
+	public BoundedPasswordEncoder(PasswordEncoder delegate, int concurrency, int queueCapacity) {
+		this.delegate = delegate;
+
+		BlockingQueue<Runnable> queue = (queueCapacity > 0) ? new ArrayBlockingQueue<>(queueCapacity) : new SynchronousQueue<>();
+		this.hashingExecutor = new ThreadPoolExecutor(
+			concurrency,
+			concurrency,
+			0L,
+			TimeUnit.MILLISECONDS,
+			queue,
+			new HashingThreadFactory(),
+			new ThreadPoolExecutor.AbortPolicy()
+		);
+	}
+
+	@Override
+	public String encode(CharSequence rawPassword) {
+		return hash( () -> delegate.encode(rawPassword) );
+	}
+
+	@Override
+	public boolean matches(CharSequence rawPassword, String encodedPassword) {
+		return hash( () -> delegate.matches(rawPassword, encodedPassword) );
+	}
+
+	@Override
+	public boolean upgradeEncoding(String encodedPassword) {
+		return delegate.upgradeEncoding(encodedPassword);
+	}
+
+	/**
+	 * Runs the passed hashing on the hashing executor and waits for its result.
+	 */
+	private <T> T hash(Supplier<T> hashing) {
+		long submitTime = System.nanoTime();
+
+		Future<T> result;
+		try {
+			result = hashingExecutor.submit( () -> {
+				long startTime = System.nanoTime();
+				totalQueueWaitTimeNanos.add(startTime - submitTime);
+				try {
+					return hashing.get();
+				}
+				finally {
+					totalHashTimeNanos.add(System.nanoTime() - startTime);
+					hashCount.increment();
+				}
+			} );
+		}
+		catch (RejectedExecutionException e) {
+			rejectedHashCount.increment();
+			throw new PasswordHashingUnavailableException("Too many concurrent logins/registrations, please try again later!");
+		}
+
+		try {
+			return result.get();
+		}
+		catch (InterruptedException e) {
+			result.cancel(true);
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Interrupted while waiting for password hashing", e);
+		}
+		catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+			if (cause instanceof RuntimeException) {
+				throw (RuntimeException) cause;
+			}
+			if (cause instanceof Error) {
+				throw (Error) cause;
+			}
+			throw new IllegalStateException(cause);
+		}
+	}
+
+	@Override
+	public void destroy() {
+		hashingExecutor.shutdown();
+	}
+
+	/*
+	 * Metrics
+	 */
+
+	public int getQueueDepth() {
+		return hashingExecutor.getQueue().size();
+	}
+
+	public int getActiveHashCount() {
+		return hashingExecutor.getActiveCount();
+	}
+
+	public long getHashCount() {
+		return hashCount.sum();
+	}
+
+	public long getRejectedHashCount() {
+		return rejectedHashCount.sum();
+	}
+
+	public long getTotalHashTimeNanos() {
+		return totalHashTimeNanos.sum();
+	}
+
+	public long getTotalQueueWaitTimeNanos() {
+		return totalQueueWaitTimeNanos.sum();
+	}
+
+	/**
+	 * Creates the hashing threads (named "password-hashing-N", so they can be recognized in thread dumps).
+	 */
+	private static final class HashingThreadFactory
+		implements ThreadFactory
+	{
+
+		private final AtomicInteger threadCount = new AtomicInteger();
+
+		@Override
+		public Thread newThread(Runnable runnable) {
+			Thread thread = new Thread(runnable, "password-hashing-" + threadCount.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		}
+
+	}
+
+}
@@ -40,11 +40,12 @@ public class DatabaseUserDetailsService
 		}
 		
 		UserEntity userEntity = userRepository.findByEmail(email).get();
+		Long id = userEntity.getId();
 		String username = userEntity.getEmail();
 		String password = userEntity.getPassword();
 		String displayName = userEntity.getName();
 		
-		UserAuthenticationDetails userAuthenticationDetails = new UserAuthenticationDetails(username, password, displayName);
+		UserAuthenticationDetails userAuthenticationDetails = new UserAuthenticationDetails(id, username, password, displayName);
 		
 		return userAuthenticationDetails;
 	}
@@ -1,5 +1,6 @@
 package com.mse.personal.finance.security;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
@@ -7,15 +8,23 @@ import org.springframework.security.crypto.password.PasswordEncoder;
 
 /**
  * Configures {@link BCryptPasswordEncoder} that will be used for hashing user passwords.
+ * 
+ * The hashing runs on a bounded executor (see {@link BoundedPasswordEncoder}),
+ * whose size is set with the "security.password-hashing.*" properties.
  *
  * @author T. Dossev
+ * @author dvt32
  */
 @Configuration
 public class PasswordEncoderConfiguration {
 
 	@Bean
-	public PasswordEncoder passwordEncoder() {
-		return new BCryptPasswordEncoder();
+	public BoundedPasswordEncoder passwordEncoder(
+		@Value("${security.password-hashing.concurrency:#{T(java.lang.Runtime).getRuntime().availableProcessors()}}") int concurrency,
+		@Value("${security.password-hashing.queue-capacity:100}") int queueCapacity) 
+	{
+		PasswordEncoder bCryptPasswordEncoder = new BCryptPasswordEncoder();
+		return new BoundedPasswordEncoder(bCryptPasswordEncoder, concurrency, queueCapacity);
 	}
 
-}
\ No newline at end of file
+}
@@ -13,6 +13,9 @@ import org.springframework.security.config.annotation.web.configuration.WebSecur
 import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
+import io.micrometer.core.instrument.MeterRegistry;
+
+import com.mse.personal.finance.security.jwt.JwtAuthenticationCache;
 import com.mse.personal.finance.security.jwt.JwtSessionManager;
 import com.mse.personal.finance.security.jwt.JwtTokenFilterConfigurer;
 import com.mse.personal.finance.security.jwt.JwtTokenProvider;
@@ -39,19 +42,25 @@ public class SecurityConfiguration
 	private final PasswordEncoder passwordEncoder;
 	private final JwtTokenProvider jwtTokenProvider;
 	private final JwtSessionManager jwtSessionManager;
+	private final JwtAuthenticationCache jwtAuthenticationCache;
 	private final DatabaseUserDetailsService databaseUserDetailsService;
+	private final MeterRegistry meterRegistry;
 	
 	@Autowired
 	public SecurityConfiguration(
 		DatabaseUserDetailsService databaseUserDetailsService,
 		PasswordEncoder passwordEncoder,
 		JwtTokenProvider jwtTokenProvider, 
-		JwtSessionManager jwtSessionManager) 
+		JwtSessionManager jwtSessionManager,
+		JwtAuthenticationCache jwtAuthenticationCache,
+		MeterRegistry meterRegistry) 
 	{
 		this.databaseUserDetailsService = databaseUserDetailsService;
 		this.passwordEncoder = passwordEncoder;
 		this.jwtTokenProvider = jwtTokenProvider;
 		this.jwtSessionManager = jwtSessionManager;
+		this.jwtAuthenticationCache = jwtAuthenticationCache;
+		this.meterRegistry = meterRegistry;
 	}
 
 	@Override
@@ -88,12 +97,16 @@ public class SecurityConfiguration
 				"/webjars/**"
 			)
 				.permitAll()
+			// Allow access to the health, metrics & SQL statistics endpoints to all
+			// (they are served on the management port, which is not exposed publicly)
+			.antMatchers( HttpMethod.GET, "/actuator/health", "/actuator/prometheus", "/actuator/sql" )
+				.permitAll()
 			// Require authentication for any other request
 			.anyRequest()
 				.authenticated();
 
 		// Configure custom filter for JWT authentication
-		JwtTokenFilterConfigurer jwtTokenFilterConfigurer = new JwtTokenFilterConfigurer(jwtTokenProvider, jwtSessionManager);
+		JwtTokenFilterConfigurer jwtTokenFilterConfigurer = new JwtTokenFilterConfigurer(jwtTokenProvider, jwtSessionManager, jwtAuthenticationCache, meterRegistry);
 		http.apply(jwtTokenFilterConfigurer);
 	}
 	
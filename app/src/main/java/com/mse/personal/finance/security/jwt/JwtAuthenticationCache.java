@@ -0,0 +1,250 @@
+package com.mse.personal.finance.security.jwt;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Component;
+
+/**
+ * Bounded cache of the users resolved from JWTs
+ * (used by {@link JwtTokenFilter}, so that the token of an active session
+ * does not have to be parsed & verified and the user does not have to be loaded
+ * from the database on each request).
+ *
+ * The cached user details (not the Authentication objects) are shared between requests,
+ * because each request's Authentication can be modified by the services
+ * (e.g. the user entity is stored as its details).
+ *
+ * The cache is local to the application instance (it is not shared like the "jdbc" session store).
+ * A cached user is only used after its token's session has been found in the session store,
+ * so the sessions removed on any instance (logout, password change, user deletion,
+ * see {@link JwtSessionManager#invalidateUserSessions(String)}) also end the use of their cached users on the others.
+ * Other changes of a user's data are only invalidated on the instance, which made them,
+ * and the other instances may use the old details until their entries expire.
+ *
+ * The entries expire after the session expiration time ("security.jwt.expiration"),
+ * so a cached token is never used longer than its session could be idle.
+ * The tokens are split between striped maps (each guarded by its own lock),
+ * which are bounded by the maximum size: when a stripe is full,
+ * its least recently used token is evicted.
+ *
+ * @author dvt32
+ */
+@Component
+public class JwtAuthenticationCache {
+
+	private static final int STRIPE_COUNT = 16;
+	private static final int STRIPE_SHIFT = Integer.SIZE - Integer.numberOfTrailingZeros(STRIPE_COUNT);
+
+	private final long entryExpirationNanos;
+	private final Stripe[] stripes = new Stripe[STRIPE_COUNT];
+
+	private final LongAdder hitCount = new LongAdder();
+	private final LongAdder missCount = new LongAdder();
+	private final LongAdder evictionCount = new LongAdder();
+
+	@Autowired
+	public JwtAuthenticationCache(
+		@Value("${security.jwt.expiration:#{30*60}}") int sessionExpirationTime,
+		@Value("${security.jwt.authentication-cache.max-size:10000}") int maxSize)
+	{
+		this.entryExpirationNanos = TimeUnit.SECONDS.toNanos(sessionExpirationTime);
+
+		int maxStripeSize = Math.max(1, maxSize / STRIPE_COUNT);
+		for (int i = 0; i < STRIPE_COUNT; i++) {
+			stripes[i] = new Stripe(maxStripeSize);
+		}
+	}
+
+	/**
+	 * Returns the cached user details of the passed JWT
+	 * (null if the token is not cached or its entry has expired).
+	 *
+	 * @param tokenString the JWT string
+	 */
+	public UserDetails get(String tokenString) {
+		Stripe stripe = getStripe(tokenString);
+
+		stripe.lock.lock();
+		try {
+			CachedUserDetails cachedUserDetails = stripe.entries.get(tokenString);
+
+			if (cachedUserDetails == null) {
+				missCount.increment();
+				return null;
+			}
+
+			if ( cachedUserDetails.isExpired( System.nanoTime() ) ) {
+				stripe.entries.remove(tokenString);
+				missCount.increment();
+				return null;
+			}
+
+			hitCount.increment();
+			return cachedUserDetails.userDetails;
+		}
+		finally {
+			stripe.lock.unlock();
+		}
+	}
+
+	/**
+	 * Caches the user details resolved from the passed JWT
+	 * (evicting the least recently used token of its stripe, if the stripe is full).
+	 *
+	 * @param tokenString the JWT string
+	 * @param userDetails the user details resolved from the token
+	 */
+	public void put(String tokenString, UserDetails userDetails) {
+		long expirationTime = System.nanoTime() + entryExpirationNanos;
+		Stripe stripe = getStripe(tokenString);
+
+		stripe.lock.lock();
+		try {
+			stripe.entries.put( tokenString, new CachedUserDetails(userDetails, expirationTime) );
+		}
+		finally {
+			stripe.lock.unlock();
+		}
+	}
+
+	/**
+	 * Removes the cached user details of the passed JWT.
+	 *
+	 * @param tokenString the JWT string
+	 */
+	public void invalidate(String tokenString) {
+		Stripe stripe = getStripe(tokenString);
+
+		stripe.lock.lock();
+		try {
+			stripe.entries.remove(tokenString);
+		}
+		finally {
+			stripe.lock.unlock();
+		}
+	}
+
+	/**
+	 * Removes the cached user details of all tokens of the passed user
+	 * (only on this application instance).
+	 *
+	 * @param username the user's username (email)
+	 */
+	public void invalidateUser(String username) {
+		for (Stripe stripe : stripes) {
+			stripe.lock.lock();
+			try {
+				stripe.entries.values().removeIf( cachedUserDetails -> cachedUserDetails.userDetails.getUsername().equals(username) );
+			}
+			finally {
+				stripe.lock.unlock();
+			}
+		}
+	}
+
+	/**
+	 * Removes all expired entries.
+	 */
+	public void pruneExpiredEntries() {
+		long now = System.nanoTime();
+		for (Stripe stripe : stripes) {
+			stripe.lock.lock();
+			try {
+				stripe.entries.values().removeIf( cachedUserDetails -> cachedUserDetails.isExpired(now) );
+			}
+			finally {
+				stripe.lock.unlock();
+			}
+		}
+	}
+
+	private Stripe getStripe(String tokenString) {
+		int hash = tokenString.hashCode() * 0x9E3779B9;
+		return stripes[hash >>> STRIPE_SHIFT];
+	}
+
+	/*
+	 * Metrics
+	 */
+
+	public long getHitCount() {
+		return hitCount.sum();
+	}
+
+	public long getMissCount() {
+		return missCount.sum();
+	}
+
+	/**
+	 * Returns the number of tokens evicted because of the maximum size.
+	 */
+	public long getEvictionCount() {
+		return evictionCount.sum();
+	}
+
+	public int getSize() {
+		int size = 0;
+		for (Stripe stripe : stripes) {
+			stripe.lock.lock();
+			try {
+				size += stripe.entries.size();
+			}
+			finally {
+				stripe.lock.unlock();
+			}
+		}
+		return size;
+	}
+
+	/**
+	 * A bounded map of cached user details (in access order, so the least recently used one is evicted first).
+	 */
+	private final class Stripe {
+
+		private final Lock lock = new ReentrantLock();
+		private final Map<String, CachedUserDetails> entries;
+
+		@SuppressWarnings("serial")
+		private Stripe(int maxStripeSize) {
+			this.entries = new LinkedHashMap<String, CachedUserDetails>(16, 0.75f, true) {
+				@Override
+				protected boolean removeEldestEntry(Map.Entry<String, CachedUserDetails> eldestEntry) {
+					if (size() > maxStripeSize) {
+						evictionCount.increment();
+						return true;
+					}
+					return false;
+				}
+			};
+		}
+
+	}
+
+	/**
+	 * Cached user details with their expiration time (in System.nanoTime() units).
+	 */
+	private static final class CachedUserDetails {
+
+		private final UserDetails userDetails;
+		private final long expirationTime;
+
+		private CachedUserDetails(UserDetails userDetails, long expirationTime) {
+			this.userDetails = userDetails;
+			this.expirationTime = expirationTime;
+		}
+
+		private boolean isExpired(long now) {
+			return now - expirationTime > 0;
+		}
+
+	}
+
+}
@@ -2,19 +2,28 @@ package com.mse.personal.finance.security.jwt;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
 import java.lang.invoke.MethodHandles;
-import java.time.LocalDateTime;
-import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import com.mse.personal.finance.security.jwt.session.SessionStore;
 
 /**
  * Session manager for JWTs.
+ * 
+ * The sessions are kept in a {@link SessionStore}
+ * (in memory or in the database, depending on the configuration).
+ * 
+ * The cached users of the JWTs ({@link JwtAuthenticationCache}) 
+ * are removed together with their sessions
+ * (and are only used while their sessions exist, so removing a session ends its use on all application instances).
  *
  * @author T. Dossev
+ * @author dvt32
  */
 @Component
 public class JwtSessionManager {
@@ -24,7 +33,20 @@ public class JwtSessionManager {
 	@Value("${security.jwt.expiration:#{30*60}}")
 	private int sessionExpirationTime;
 
-	private final Map<String, LocalDateTime> sessionMap = new ConcurrentHashMap<>();
+	@Value("${security.jwt.session-store.touch-granularity:10000}")
+	private long sessionTouchGranularity;
+
+	private final SessionStore sessionStore;
+	private final JwtAuthenticationCache jwtAuthenticationCache;
+	
+	@Autowired
+	public JwtSessionManager(
+		SessionStore sessionStore, 
+		JwtAuthenticationCache jwtAuthenticationCache) 
+	{
+		this.sessionStore = sessionStore;
+		this.jwtAuthenticationCache = jwtAuthenticationCache;
+	}
 
 	/**
 	 * Checks if given JWT has expired.
@@ -33,9 +55,9 @@ public class JwtSessionManager {
 	 * @return true if expired, otherwise false
 	 */
 	public boolean isExpired(String tokenString) {
-		LocalDateTime lastAccessTime = sessionMap.get(tokenString);
+		long lastAccessTime = sessionStore.getLastAccessTime(tokenString);
 		
-		if (lastAccessTime == null) {
+		if (lastAccessTime == SessionStore.NO_SESSION) {
 			return true;
 		}
 		
@@ -47,17 +69,31 @@ public class JwtSessionManager {
 		return false;
 	}
 
-	private boolean isExpired(LocalDateTime lastAccessTime) {
-		return lastAccessTime.plusSeconds(sessionExpirationTime).isBefore( LocalDateTime.now() );
+	private boolean isExpired(long lastAccessTime) {
+		return lastAccessTime + TimeUnit.SECONDS.toMillis(sessionExpirationTime) < System.currentTimeMillis();
 	}
 
 	/**
 	 * Adds new session or updates existing session's last accessed time.
 	 *
 	 * @param tokenString the JWT string
+	 * @param username the username (email) of the token's user
+	 */
+	public void updateSession(String tokenString, String username) {
+		sessionStore.touch( tokenString, username, System.currentTimeMillis() );
+	}
+
+	/**
+	 * Updates existing session's last accessed time, 
+	 * unless it was updated within the last "security.jwt.session-store.touch-granularity" milliseconds 
+	 * (so a session, which is accessed by many requests, is written at most once per that period).
+	 * 
+	 * Unlike {@link #updateSession(String, String)}, it does not create a session for the JWT.
+	 *
+	 * @param tokenString the JWT string
 	 */
-	public void updateSession(String tokenString) {
-		sessionMap.put( tokenString, LocalDateTime.now() );
+	public void refreshSession(String tokenString) {
+		sessionStore.refresh( tokenString, System.currentTimeMillis(), sessionTouchGranularity );
 	}
 
 	/**
@@ -66,16 +102,47 @@ public class JwtSessionManager {
 	 * @param tokenString the JWT string
 	 */
 	public void invalidateSession(String tokenString) {
-		sessionMap.remove(tokenString);
+		sessionStore.remove(tokenString);
+		jwtAuthenticationCache.invalidate(tokenString);
+	}
+
+	/**
+	 * Invalidates all sessions of the user with given username
+	 * (after the user's password has been changed or the user has been deleted).
+	 * 
+	 * The sessions are removed from the session store, so with the "jdbc" store
+	 * the user's tokens are rejected by all application instances (and not only by this one).
+	 *
+	 * @param username the user's username (email)
+	 */
+	public void invalidateUserSessions(String username) {
+		sessionStore.removeUserSessions(username);
+		jwtAuthenticationCache.invalidateUser(username);
 	}
 
 	/**
-	 * Schedules function which runs on specified interval and prunes expired sessions.
+	 * Schedules function which runs on specified interval and prunes expired sessions
+	 * (the interval can be changed with the "security.jwt.session-store.prune-interval" property).
 	 */
-	@Scheduled(fixedDelay = 600000)
+	@Scheduled(fixedDelayString = "${security.jwt.session-store.prune-interval:60000}")
 	public void pruneExpiredSessions() {
 		LOGGER.debug("Prune expired sessions");
-		sessionMap.entrySet().removeIf( sessionEntry -> isExpired( sessionEntry.getValue() ) );
+		int removedSessions = sessionStore.removeExpiredSessions( System.currentTimeMillis() );
+		LOGGER.debug("Pruned {} expired sessions", removedSessions);
+		jwtAuthenticationCache.pruneExpiredEntries();
+	}
+
+	/*
+	 * Metrics
+	 */
+
+	/**
+	 * Returns the number of stored sessions (including expired ones, which have not been pruned yet).
+	 * 
+	 * For the "jdbc" session store this is a count query.
+	 */
+	public long getSessionCount() {
+		return sessionStore.size();
 	}
 
 }
\ No newline at end of file
@@ -2,6 +2,7 @@ package com.mse.personal.finance.security.jwt;
 
 import java.io.IOException;
 import java.lang.invoke.MethodHandles;
+import java.util.concurrent.TimeUnit;
 
 import javax.servlet.FilterChain;
 import javax.servlet.ServletException;
@@ -10,17 +11,32 @@ import javax.servlet.http.HttpServletResponse;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.slf4j.MDC;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.filter.OncePerRequestFilter;
 
+import com.mse.personal.finance.tracing.RequestTrace;
+import com.mse.personal.finance.tracing.RequestTracingFilter;
+
 import io.jsonwebtoken.JwtException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 
 /**
  * Filter that uses {@link JwtTokenProvider} and {@link JwtSessionManager} to validate JWTs 
  * and sets proper {@link org.springframework.security.core.context.SecurityContext} for requests.
+ * 
+ * The users of the tokens of active sessions are cached in {@link JwtAuthenticationCache},
+ * so the token is only verified (and the user only loaded) on the session's first request.
+ * 
+ * The token validation is timed by its result (the "security.jwt.authentication" timer):
+ * "cached" (user from the cache), "resolved" (token verified & user loaded), "expired" and "invalid".
+ * It is also the authentication phase of the request's trace, and the authenticated user is put in the log's MDC.
  *
  * @author T. Dossev
+ * @author dvt32
  */
 public class JwtTokenFilter 
 	extends OncePerRequestFilter 
@@ -29,10 +45,25 @@ public class JwtTokenFilter
 	private static final Logger LOGGER = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
 	private final JwtTokenProvider jwtTokenProvider;
 	private final JwtSessionManager jwtSessionManager;
+	private final JwtAuthenticationCache jwtAuthenticationCache;
+	private final Timer cachedAuthenticationTimer;
+	private final Timer resolvedAuthenticationTimer;
+	private final Timer expiredAuthenticationTimer;
+	private final Timer invalidAuthenticationTimer;
 
-	public JwtTokenFilter(JwtTokenProvider jwtTokenProvider, JwtSessionManager jwtSessionManager) {
+	public JwtTokenFilter(
+		JwtTokenProvider jwtTokenProvider, 
+		JwtSessionManager jwtSessionManager, 
+		JwtAuthenticationCache jwtAuthenticationCache,
+		MeterRegistry meterRegistry) 
+	{
 		this.jwtTokenProvider = jwtTokenProvider;
 		this.jwtSessionManager = jwtSessionManager;
+		this.jwtAuthenticationCache = jwtAuthenticationCache;
+		this.cachedAuthenticationTimer = createAuthenticationTimer(meterRegistry, "cached");
+		this.resolvedAuthenticationTimer = createAuthenticationTimer(meterRegistry, "resolved");
+		this.expiredAuthenticationTimer = createAuthenticationTimer(meterRegistry, "expired");
+		this.invalidAuthenticationTimer = createAuthenticationTimer(meterRegistry, "invalid");
 	}
 
 	@Override
@@ -48,20 +79,46 @@ public class JwtTokenFilter
 	}
 
 	private void validateToken(String tokenString) {
+		long startTime = System.nanoTime();
+		RequestTrace.PhaseTimer phaseTimer = RequestTrace.startPhase(RequestTrace.Phase.AUTHENTICATION);
+		Timer authenticationTimer = invalidAuthenticationTimer;
 		try {
 			if (jwtSessionManager.isExpired(tokenString)) {
 				jwtSessionManager.invalidateSession(tokenString);
+				authenticationTimer = expiredAuthenticationTimer;
 			} 
 			else {
-				Authentication authentication = jwtTokenProvider.resolveAuthenticationFromTokenString(tokenString);
-				jwtSessionManager.updateSession(tokenString);
+				// The cache is only used after the session has been checked, 
+				// so a token of an ended session is never authenticated from the cache
+				UserDetails userDetails = jwtAuthenticationCache.get(tokenString);
+				boolean cached = (userDetails != null);
+				if (!cached) {
+					userDetails = jwtTokenProvider.resolveUserDetailsFromTokenString(tokenString);
+					jwtAuthenticationCache.put(tokenString, userDetails);
+				}
+				
+				Authentication authentication = jwtTokenProvider.createAuthentication(userDetails);
+				jwtSessionManager.refreshSession(tokenString);
 				SecurityContextHolder.getContext().setAuthentication(authentication);
+				MDC.put( RequestTracingFilter.USER_MDC_KEY, userDetails.getUsername() );
+				authenticationTimer = cached ? cachedAuthenticationTimer : resolvedAuthenticationTimer;
 			}
 		} 
 		catch (JwtException e) {
 			SecurityContextHolder.clearContext();
 			LOGGER.error("Invalid token provided", e);
 		}
+		finally {
+			authenticationTimer.record(System.nanoTime() - startTime, TimeUnit.NANOSECONDS);
+			phaseTimer.stop();
+		}
+	}
+
+	private static Timer createAuthenticationTimer(MeterRegistry meterRegistry, String result) {
+		return Timer.builder("security.jwt.authentication")
+			.description("Validation of the requests' JWTs")
+			.tag("result", result)
+			.register(meterRegistry);
 	}
 
 }
\ No newline at end of file
@@ -5,10 +5,13 @@ import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.web.DefaultSecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 
+import io.micrometer.core.instrument.MeterRegistry;
+
 /**
  * Configures {@link JwtTokenFilter} in Spring Security.
  *
  * @author T. Dossev
+ * @author dvt32
  */
 public class JwtTokenFilterConfigurer 
 	extends SecurityConfigurerAdapter<DefaultSecurityFilterChain, HttpSecurity> 
@@ -16,15 +19,24 @@ public class JwtTokenFilterConfigurer
 
 	private final JwtTokenProvider jwtTokenProvider;
 	private final JwtSessionManager jwtSessionManager;
+	private final JwtAuthenticationCache jwtAuthenticationCache;
+	private final MeterRegistry meterRegistry;
 
-	public JwtTokenFilterConfigurer(JwtTokenProvider jwtTokenProvider, JwtSessionManager jwtSessionManager) {
+	public JwtTokenFilterConfigurer(
+		JwtTokenProvider jwtTokenProvider, 
+		JwtSessionManager jwtSessionManager, 
+		JwtAuthenticationCache jwtAuthenticationCache,
+		MeterRegistry meterRegistry) 
+	{
 		this.jwtTokenProvider = jwtTokenProvider;
 		this.jwtSessionManager = jwtSessionManager;
+		this.jwtAuthenticationCache = jwtAuthenticationCache;
+		this.meterRegistry = meterRegistry;
 	}
 
 	@Override
 	public void configure(HttpSecurity http) {
-		JwtTokenFilter jwtTokenFilter = new JwtTokenFilter(jwtTokenProvider, jwtSessionManager);
+		JwtTokenFilter jwtTokenFilter = new JwtTokenFilter(jwtTokenProvider, jwtSessionManager, jwtAuthenticationCache, meterRegistry);
 		http.addFilterBefore(jwtTokenFilter, UsernamePasswordAuthenticationFilter.class);
 	}
 	
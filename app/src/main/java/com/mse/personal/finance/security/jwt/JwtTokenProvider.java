@@ -62,7 +62,18 @@ public class JwtTokenProvider {
 		return parseTokenString(tokenString).getSubject();
 	}
 	
-	private Claims parseTokenString(String tokenString) {
+	/**
+	 * Verifies the given JWT string (its signature & issuer) and returns its claims.
+	 * 
+	 * It is done on every authenticated request, whose user is not cached (see {@link JwtAuthenticationCache}).
+	 * 
+	 * It is package-private (rather than private) only for the JwtTokenProviderBenchmark of the benchmarks module,
+	 * which measures the verification without the user's loading.
+	 *
+	 * @param tokenString the JWT string
+	 * @return the claims
+	 */
+	Claims parseTokenString(String tokenString) {
 		Claims claims = Jwts.parser()
 			.setSigningKey(secretKey)
 			.requireIssuer(issuer)
@@ -125,10 +136,32 @@ public class JwtTokenProvider {
 	 * @return the authentication
 	 */
 	public Authentication resolveAuthenticationFromTokenString(String tokenString) {
+		UserDetails userDetails = resolveUserDetailsFromTokenString(tokenString);
+		return createAuthentication(userDetails);
+	}
+	
+	/**
+	 * Resolves the details of the user contained in the given JWT string
+	 * (verifies the token and loads the user from the database).
+	 *
+	 * @param tokenString the JWT string
+	 * @return the user details
+	 */
+	public UserDetails resolveUserDetailsFromTokenString(String tokenString) {
 		String username = getUsername(tokenString);
 		
 		UserDetails userDetails = databaseUserDetailsService.loadUserByUsername(username);
-
+		
+		return userDetails;
+	}
+	
+	/**
+	 * Creates a new authentication for the given (already resolved) user details.
+	 *
+	 * @param userDetails the user details
+	 * @return the authentication
+	 */
+	public Authentication createAuthentication(UserDetails userDetails) {
 		return 
 			new UsernamePasswordAuthenticationToken(
 				userDetails, 
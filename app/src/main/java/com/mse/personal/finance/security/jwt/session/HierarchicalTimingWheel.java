@@ -0,0 +1,149 @@
+package com.mse.personal.finance.security.jwt.session;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Hierarchical timing wheel, which returns the scheduled elements once their deadline has passed.
+ *
+ * Each level has {@link #WHEEL_SIZE} buckets:
+ * the buckets of level 0 cover one tick each,
+ * while the buckets of every next level cover a whole revolution of the previous level.
+ * When the wheel is advanced to the start of a higher-level bucket,
+ * its elements are rescheduled into the lower levels,
+ * so each element is touched only a few times, no matter how many elements are scheduled.
+ *
+ * Elements with a deadline further than the wheel's span are put in the furthest bucket
+ * of the highest level (and are rescheduled from there, when that bucket is reached).
+ *
+ * NOTE: The class is not thread-safe (the caller must synchronize the access to it).
+ *
+ * @author dvt32
+ */
+class HierarchicalTimingWheel<E> {
+
+	static final int WHEEL_SIZE = 64;
+
+	private static final int WHEEL_SIZE_BITS = 6;
+	private static final int WHEEL_MASK = WHEEL_SIZE - 1;
+
+	private final long tickMillis;
+	private final List<List<ScheduledElement<E>>[]> levels = new ArrayList<>();
+
+	/**
+	 * The start time of the next tick to be processed (in epoch milliseconds).
+	 */
+	private long currentTime;
+
+	/**
+	 * Creates a new wheel.
+	 *
+	 * @param tickMillis the duration of a level 0 bucket
+	 * @param levelCount the number of levels (the wheel spans tickMillis * 64^levelCount milliseconds)
+	 * @param startTime the time from which the wheel is advanced
+	 */
+	@SuppressWarnings("unchecked")
+	HierarchicalTimingWheel(long tickMillis, int levelCount, long startTime) {
+		this.tickMillis = tickMillis;
+		this.currentTime = startTime - (startTime % tickMillis);
+
+		for (int level = 0; level < levelCount; level++) {
+			List<ScheduledElement<E>>[] buckets = new List[WHEEL_SIZE];
+			for (int i = 0; i < WHEEL_SIZE; i++) {
+				buckets[i] = new ArrayList<>();
+			}
+			levels.add(buckets);
+		}
+	}
+
+	/**
+	 * Schedules the passed element to be returned by {@link #advance(long)}
+	 * once the passed deadline has passed.
+	 *
+	 * @param element the element
+	 * @param deadline the deadline (in epoch milliseconds)
+	 */
+	void schedule(E element, long deadline) {
+		schedule( new ScheduledElement<>(element, deadline) );
+	}
+
+	private void schedule(ScheduledElement<E> scheduledElement) {
+		long deadlineTick = Math.max(scheduledElement.deadline, currentTime) / tickMillis;
+		long currentTick = currentTime / tickMillis;
+
+		// The element is put in the lowest level, whose buckets are not reused before its deadline
+		for (int level = 0; level < levels.size(); level++) {
+			int shift = level * WHEEL_SIZE_BITS;
+			if ( (deadlineTick >>> shift) - (currentTick >>> shift) < WHEEL_SIZE ) {
+				int bucketIndex = (int) ( (deadlineTick >>> shift) & WHEEL_MASK );
+				levels.get(level)[bucketIndex].add(scheduledElement);
+				return;
+			}
+		}
+
+		int topLevel = levels.size() - 1;
+		int shift = topLevel * WHEEL_SIZE_BITS;
+		int furthestBucketIndex = (int) ( ( (currentTick >>> shift) + WHEEL_SIZE - 1 ) & WHEEL_MASK );
+		levels.get(topLevel)[furthestBucketIndex].add(scheduledElement);
+	}
+
+	/**
+	 * Advances the wheel to the passed time and returns the elements, whose deadline has passed.
+	 *
+	 * @param now the current time (in epoch milliseconds)
+	 */
+	List<E> advance(long now) {
+		List<E> dueElements = new ArrayList<>();
+
+		while (currentTime + tickMillis <= now) {
+			long currentTick = currentTime / tickMillis;
+
+			// Cascade the higher-level buckets, which start at the current tick
+			for (int level = levels.size() - 1; level > 0; level--) {
+				int shift = level * WHEEL_SIZE_BITS;
+				if ( (currentTick & ( (1L << shift) - 1 )) == 0 ) {
+					int bucketIndex = (int) ( (currentTick >>> shift) & WHEEL_MASK );
+					for (ScheduledElement<E> scheduledElement : takeBucket(level, bucketIndex)) {
+						schedule(scheduledElement);
+					}
+				}
+			}
+
+			int bucketIndex = (int) (currentTick & WHEEL_MASK);
+			for (ScheduledElement<E> scheduledElement : takeBucket(0, bucketIndex)) {
+				dueElements.add(scheduledElement.element);
+			}
+
+			currentTime += tickMillis;
+		}
+
+		return dueElements;
+	}
+
+	private List<ScheduledElement<E>> takeBucket(int level, int bucketIndex) {
+		List<ScheduledElement<E>>[] buckets = levels.get(level);
+		List<ScheduledElement<E>> bucket = buckets[bucketIndex];
+		if ( bucket.isEmpty() ) {
+			return bucket;
+		}
+
+		buckets[bucketIndex] = new ArrayList<>();
+		return bucket;
+	}
+
+	/**
+	 * An element with its deadline.
+	 */
+	private static final class ScheduledElement<E> {
+
+		private final E element;
+		private final long deadline;
+
+		private ScheduledElement(E element, long deadline) {
+			this.element = element;
+			this.deadline = deadline;
+		}
+
+	}
+
+}
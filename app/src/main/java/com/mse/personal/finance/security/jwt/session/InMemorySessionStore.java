@@ -0,0 +1,198 @@
+package com.mse.personal.finance.security.jwt.session;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * {@link SessionStore}, which keeps the sessions in the application's memory
+ * (so the sessions are lost on restart and are not shared between application instances).
+ *
+ * The sessions are kept in striped maps, whose values are mutable session objects,
+ * so updating an existing session's last access time does not allocate or write to the maps.
+ * Refreshes within the granularity are skipped and the others are done with a compare-and-set,
+ * so concurrent requests of the same session write its last access time only once.
+ *
+ * Expired sessions are found with a hierarchical timing wheel (instead of scanning all sessions):
+ * a session is scheduled only when it is created and when its scheduled deadline is reached,
+ * it is either removed (if it has not been accessed since) or rescheduled to its new deadline.
+ * Sessions removed before their deadline are dropped from the wheel when their deadline is reached.
+ * Removing the sessions of a user scans all sessions (it is only done on password changes & user deletions).
+ *
+ * @author dvt32
+ */
+public class InMemorySessionStore
+	implements SessionStore
+{
+
+	private static final int STRIPE_COUNT = 16;
+	private static final int STRIPE_SHIFT = Integer.SIZE - Integer.numberOfTrailingZeros(STRIPE_COUNT);
+
+	private static final long WHEEL_TICK_MILLIS = 1000L;
+	private static final int WHEEL_LEVEL_COUNT = 3;
+
+	private final long sessionExpirationMillis;
+	private final Map<String, Session>[] stripes;
+
+	private final HierarchicalTimingWheel<Session> expirationWheel;
+	private final Lock expirationWheelLock = new ReentrantLock();
+
+	/**
+	 * Creates a new store.
+	 *
+	 * @param sessionExpirationMillis the session expiration time (in milliseconds)
+	 */
+	@SuppressWarnings("unchecked")
+	public InMemorySessionStore(long sessionExpirationMillis) {
+		this.sessionExpirationMillis = sessionExpirationMillis;
+		this.stripes = new Map[STRIPE_COUNT];
+		for (int i = 0; i < STRIPE_COUNT; i++) {
+			stripes[i] = new ConcurrentHashMap<>();
+		}
+		this.expirationWheel = new HierarchicalTimingWheel<>( WHEEL_TICK_MILLIS, WHEEL_LEVEL_COUNT, System.currentTimeMillis() );
+	}
+
+	@Override
+	public void touch(String tokenString, String username, long accessTime) {
+		Map<String, Session> stripe = getStripe(tokenString);
+
+		Session session = stripe.get(tokenString);
+		if (session != null) {
+			session.lastAccessTime = accessTime;
+			return;
+		}
+
+		Session newSession = new Session(tokenString, username, accessTime);
+		session = stripe.putIfAbsent(tokenString, newSession);
+		if (session != null) {
+			session.lastAccessTime = accessTime;
+			return;
+		}
+
+		scheduleExpiration(newSession, accessTime + sessionExpirationMillis);
+	}
+
+	@Override
+	public void refresh(String tokenString, long accessTime, long granularityMillis) {
+		Session session = getStripe(tokenString).get(tokenString);
+		if (session == null) {
+			return;
+		}
+
+		long lastAccessTime = session.lastAccessTime;
+		while (accessTime - lastAccessTime >= granularityMillis) {
+			if ( Session.LAST_ACCESS_TIME_UPDATER.compareAndSet(session, lastAccessTime, accessTime) ) {
+				return;
+			}
+			lastAccessTime = session.lastAccessTime;
+		}
+	}
+
+	@Override
+	public long getLastAccessTime(String tokenString) {
+		Session session = getStripe(tokenString).get(tokenString);
+		return (session != null) ? session.lastAccessTime : NO_SESSION;
+	}
+
+	@Override
+	public void remove(String tokenString) {
+		getStripe(tokenString).remove(tokenString);
+	}
+
+	@Override
+	public int removeUserSessions(String username) {
+		int removedSessions = 0;
+		for (Map<String, Session> stripe : stripes) {
+			for (Session session : stripe.values()) {
+				if ( session.username.equals(username) && stripe.remove(session.tokenString, session) ) {
+					removedSessions++;
+				}
+			}
+		}
+		return removedSessions;
+	}
+
+	@Override
+	public int removeExpiredSessions(long now) {
+		int removedSessions = 0;
+
+		expirationWheelLock.lock();
+		try {
+			List<Session> dueSessions = expirationWheel.advance(now);
+			for (Session session : dueSessions) {
+				Map<String, Session> stripe = getStripe(session.tokenString);
+				if (stripe.get(session.tokenString) != session) {
+					// The session was removed before its deadline
+					continue;
+				}
+
+				long expirationTime = session.lastAccessTime + sessionExpirationMillis;
+				if (expirationTime < now) {
+					if ( stripe.remove(session.tokenString, session) ) {
+						removedSessions++;
+					}
+				}
+				else {
+					expirationWheel.schedule(session, expirationTime);
+				}
+			}
+		}
+		finally {
+			expirationWheelLock.unlock();
+		}
+
+		return removedSessions;
+	}
+
+	@Override
+	public long size() {
+		long size = 0;
+		for (Map<String, Session> stripe : stripes) {
+			size += stripe.size();
+		}
+		return size;
+	}
+
+	private void scheduleExpiration(Session session, long deadline) {
+		expirationWheelLock.lock();
+		try {
+			expirationWheel.schedule(session, deadline);
+		}
+		finally {
+			expirationWheelLock.unlock();
+		}
+	}
+
+	/**
+	 * Selects the stripe by the upper bits of the mixed hash code
+	 * (the maps themselves index their buckets by the lower bits).
+	 */
+	private Map<String, Session> getStripe(String tokenString) {
+		int hash = tokenString.hashCode() * 0x9E3779B9;
+		return stripes[hash >>> STRIPE_SHIFT];
+	}
+
+	/**
+	 * A stored session (mutable, so it can be updated in place).
+	 */
+	private static final class Session {
+
+		private static final AtomicLongFieldUpdater<Session> LAST_ACCESS_TIME_UPDATER =
+			AtomicLongFieldUpdater.newUpdater(Session.class, "lastAccessTime");
+
+		private final String tokenString;
+		private final String username;
+		private volatile long lastAccessTime;
+
+		private Session(String tokenString, String username, long lastAccessTime) {
+			this.tokenString = tokenString;
+			this.username = username;
+			this.lastAccessTime = lastAccessTime;
+		}
+
+	}
+
+}
@@ -0,0 +1,131 @@
+package com.mse.personal.finance.security.jwt.session;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * {@link SessionStore}, which keeps the sessions in the "jwt_sessions" database table,
+ * so that they are shared between all application instances (e.g. behind a load balancer).
+ *
+ * The sessions are keyed by the SHA-256 hashes of their tokens
+ * (so the stored data cannot be used to authenticate requests)
+ * and their users' usernames are indexed, so the sessions of a user are removed with a single statement.
+ * The table is created by the Liquibase changelog (changelog-mse-0.2.xml).
+ *
+ * @author dvt32
+ */
+public class JdbcSessionStore
+	implements SessionStore
+{
+
+	private static final String UPDATE_SESSION_SQL = "UPDATE jwt_sessions SET last_access_time = ?, username = ? WHERE token_hash = ?";
+	private static final String REFRESH_SESSION_SQL = "UPDATE jwt_sessions SET last_access_time = ? WHERE token_hash = ? AND last_access_time <= ?";
+	private static final String INSERT_SESSION_SQL = "INSERT INTO jwt_sessions (token_hash, username, last_access_time) VALUES (?, ?, ?)";
+	private static final String SELECT_LAST_ACCESS_TIME_SQL = "SELECT last_access_time FROM jwt_sessions WHERE token_hash = ?";
+	private static final String DELETE_SESSION_SQL = "DELETE FROM jwt_sessions WHERE token_hash = ?";
+	private static final String DELETE_USER_SESSIONS_SQL = "DELETE FROM jwt_sessions WHERE username = ?";
+	private static final String DELETE_EXPIRED_SESSIONS_SQL = "DELETE FROM jwt_sessions WHERE last_access_time < ?";
+	private static final String COUNT_SESSIONS_SQL = "SELECT COUNT(*) FROM jwt_sessions";
+
+	private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
+	private final JdbcTemplate jdbcTemplate;
+	private final long sessionExpirationMillis;
+
+	/**
+	 * Creates a new store.
+	 *
+	 * @param jdbcTemplate the template for the database, which contains the "jwt_sessions" table
+	 * @param sessionExpirationMillis the session expiration time (in milliseconds)
+	 */
+	public JdbcSessionStore(JdbcTemplate jdbcTemplate, long sessionExpirationMillis) {
+		this.jdbcTemplate = jdbcTemplate;
+		this.sessionExpirationMillis = sessionExpirationMillis;
+	}
+
+	/**
+	 * Updates the session or inserts it, if it does not exist yet.
+	 *
+	 * If another instance inserts the same session at the same time,
+	 * the insert fails because of the primary key and the session is updated instead.
+	 */
+	@Override
+	public void touch(String tokenString, String username, long accessTime) {
+		String tokenHash = hashToken(tokenString);
+
+		if (jdbcTemplate.update(UPDATE_SESSION_SQL, accessTime, username, tokenHash) > 0) {
+			return;
+		}
+
+		try {
+			jdbcTemplate.update(INSERT_SESSION_SQL, tokenHash, username, accessTime);
+		}
+		catch (DuplicateKeyException e) {
+			jdbcTemplate.update(UPDATE_SESSION_SQL, accessTime, username, tokenHash);
+		}
+	}
+
+	/**
+	 * Updates the session with a single conditional statement,
+	 * so the row is not written (or locked) if it has been refreshed within the granularity.
+	 */
+	@Override
+	public void refresh(String tokenString, long accessTime, long granularityMillis) {
+		jdbcTemplate.update( REFRESH_SESSION_SQL, accessTime, hashToken(tokenString), accessTime - granularityMillis );
+	}
+
+	@Override
+	public long getLastAccessTime(String tokenString) {
+		return jdbcTemplate.query(
+			SELECT_LAST_ACCESS_TIME_SQL,
+			resultSet -> resultSet.next() ? resultSet.getLong(1) : NO_SESSION,
+			hashToken(tokenString)
+		);
+	}
+
+	@Override
+	public void remove(String tokenString) {
+		jdbcTemplate.update( DELETE_SESSION_SQL, hashToken(tokenString) );
+	}
+
+	@Override
+	public int removeUserSessions(String username) {
+		return jdbcTemplate.update(DELETE_USER_SESSIONS_SQL, username);
+	}
+
+	@Override
+	public int removeExpiredSessions(long now) {
+		return jdbcTemplate.update(DELETE_EXPIRED_SESSIONS_SQL, now - sessionExpirationMillis);
+	}
+
+	@Override
+	public long size() {
+		return jdbcTemplate.queryForObject(COUNT_SESSIONS_SQL, Long.class);
+	}
+
+	/**
+	 * Returns the hex-encoded SHA-256 hash of the passed JWT.
+	 */
+	private String hashToken(String tokenString) {
+		byte[] hash;
+		try {
+			hash = MessageDigest.getInstance("SHA-256").digest( tokenString.getBytes(StandardCharsets.UTF_8) );
+		}
+		catch (NoSuchAlgorithmException e) {
+			// Every Java platform is required to support SHA-256
+			throw new IllegalStateException(e);
+		}
+
+		char[] hexChars = new char[hash.length * 2];
+		for (int i = 0; i < hash.length; i++) {
+			hexChars[i * 2] = HEX_DIGITS[(hash[i] >> 4) & 0xF];
+			hexChars[i * 2 + 1] = HEX_DIGITS[hash[i] & 0xF];
+		}
+		return new String(hexChars);
+	}
+
+}
@@ -0,0 +1,80 @@
+package com.mse.personal.finance.security.jwt.session;
+
+/**
+ * Storage of the JWT sessions (used by {@link com.mse.personal.finance.security.jwt.JwtSessionManager}).
+ *
+ * A session is identified by its token string
+ * and is represented by the time of its last access (in epoch milliseconds).
+ * It also keeps the username of the token's user, so all sessions of a user can be removed
+ * (e.g. when the user's password is changed or the user is deleted).
+ * A session is expired if it has not been accessed for longer than the session expiration time,
+ * which is passed to the implementations when they are created.
+ *
+ * The implementation is selected with the "security.jwt.session-store.type" property
+ * (see {@link SessionStoreConfiguration}).
+ *
+ * @author dvt32
+ */
+public interface SessionStore {
+
+	/**
+	 * Returned by {@link #getLastAccessTime(String)} for tokens without a session.
+	 */
+	long NO_SESSION = -1L;
+
+	/**
+	 * Adds a new session or updates an existing session's last access time.
+	 *
+	 * @param tokenString the JWT string
+	 * @param username the username (email) of the token's user
+	 * @param accessTime the access time (in epoch milliseconds)
+	 */
+	void touch(String tokenString, String username, long accessTime);
+
+	/**
+	 * Updates an existing session's last access time,
+	 * but only if it has moved by at least the passed granularity
+	 * (so the sessions, which are accessed by many requests, are not written on each of them).
+	 * Sessions, which do not exist, are not created.
+	 *
+	 * @param tokenString the JWT string
+	 * @param accessTime the access time (in epoch milliseconds)
+	 * @param granularityMillis the minimum change of the last access time, which is stored (in milliseconds)
+	 */
+	void refresh(String tokenString, long accessTime, long granularityMillis);
+
+	/**
+	 * Returns the last access time (in epoch milliseconds) of the session with the passed JWT
+	 * or {@link #NO_SESSION} if there is no such session.
+	 *
+	 * @param tokenString the JWT string
+	 */
+	long getLastAccessTime(String tokenString);
+
+	/**
+	 * Removes the session with the passed JWT (if it exists).
+	 *
+	 * @param tokenString the JWT string
+	 */
+	void remove(String tokenString);
+
+	/**
+	 * Removes all sessions of the user with the passed username and returns their number.
+	 *
+	 * @param username the user's username (email)
+	 */
+	int removeUserSessions(String username);
+
+	/**
+	 * Removes the sessions, which have expired at the passed time, and returns their number.
+	 *
+	 * @param now the current time (in epoch milliseconds)
+	 */
+	int removeExpiredSessions(long now);
+
+	/**
+	 * Returns the number of stored sessions (including the expired ones, which have not been removed yet).
+	 */
+	long size();
+
+}
@@ -0,0 +1,38 @@
+package com.mse.personal.finance.security.jwt.session;
+
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Configuration of the {@link SessionStore} used by the JWT session manager.
+ *
+ * The store is selected with the "security.jwt.session-store.type" property:
+ * - "in-memory" (default) - {@link InMemorySessionStore}
+ * - "jdbc" - {@link JdbcSessionStore} (needed when several application instances share the sessions)
+ *
+ * @author dvt32
+ */
+@Configuration
+public class SessionStoreConfiguration {
+
+	@Value("${security.jwt.expiration:#{30*60}}")
+	private int sessionExpirationTime;
+
+	@Bean
+	@ConditionalOnProperty(name = "security.jwt.session-store.type", havingValue = "in-memory", matchIfMissing = true)
+	public SessionStore inMemorySessionStore() {
+		return new InMemorySessionStore( TimeUnit.SECONDS.toMillis(sessionExpirationTime) );
+	}
+
+	@Bean
+	@ConditionalOnProperty(name = "security.jwt.session-store.type", havingValue = "jdbc")
+	public SessionStore jdbcSessionStore(JdbcTemplate jdbcTemplate) {
+		return new JdbcSessionStore( jdbcTemplate, TimeUnit.SECONDS.toMillis(sessionExpirationTime) );
+	}
+
+}
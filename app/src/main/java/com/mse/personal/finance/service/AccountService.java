@@ -11,9 +11,10 @@ import org.springframework.stereotype.Service;
 import com.mse.personal.finance.db.entity.AccountEntity;
 import com.mse.personal.finance.db.entity.UserEntity;
 import com.mse.personal.finance.db.repository.AccountRepository;
-import com.mse.personal.finance.db.repository.TransactionRepository;
+import com.mse.personal.finance.db.repository.TransactionDailySumRepository;
 import com.mse.personal.finance.model.Account;
 import com.mse.personal.finance.model.AccountType;
+import com.mse.personal.finance.model.Money;
 import com.mse.personal.finance.model.TransactionFromType;
 import com.mse.personal.finance.model.TransactionToType;
 import com.mse.personal.finance.model.request.AccountRequest;
@@ -45,7 +46,7 @@ public class AccountService {
 	private final ServiceUtils serviceUtils;
 	private final TransactionService transactionService;
 	private final CategoryService categoryService;
-	private final TransactionRepository transactionRepository;
+	private final TransactionDailySumRepository transactionDailySumRepository;
 	
 	private static final AccountEntity[] EXAMPLE_ACCOUNTS = {
 		new AccountEntity("Спестовна", 0.0d, null, AccountType.ACTIVATED, null, null),
@@ -60,21 +61,21 @@ public class AccountService {
 		ServiceUtils serviceUtils,
 		TransactionService transactionService,
 		CategoryService categoryService,
-		TransactionRepository transactionRepository) 
+		TransactionDailySumRepository transactionDailySumRepository) 
 	{
 		this.accountRepository = accountRepository;
 		this.accountMapper = accountMapper;
 		this.serviceUtils = serviceUtils;
 		this.transactionService = transactionService;
 		this.categoryService = categoryService;
-		this.transactionRepository = transactionRepository;
+		this.transactionDailySumRepository = transactionDailySumRepository;
 	}
 	
 	/**
 	 * Returns all accounts' data as a list of accounts.
 	 */
 	public List<Account> getAllNonDeletedAccounts() {
-		Long loggedInUserId = serviceUtils.getCurrentlyLoggedInUserEntity().getId();
+		Long loggedInUserId = serviceUtils.getCurrentlyLoggedInUserId();
 		
 		List<AccountEntity> accountEntities = accountRepository.findAllNonDeletedAccountsByOwner(loggedInUserId);
 		
@@ -105,9 +106,9 @@ public class AccountService {
 	 * for all activated accounts.
 	 */
 	public Double getTotalBalanceOfActivatedAccounts() {
-		Long ownerId = serviceUtils.getCurrentlyLoggedInUserEntity().getId();
-		Double totalBalance = accountRepository.getTotalBalanceOfActivatedAccounts(ownerId);
-		return totalBalance;
+		Long ownerId = serviceUtils.getCurrentlyLoggedInUserId();
+		Long totalBalance = accountRepository.getTotalBalanceOfActivatedAccounts(ownerId);
+		return Money.toNullableAmount(totalBalance);
 	}
 	
 	/**
@@ -116,16 +117,7 @@ public class AccountService {
 	public Account getAccountById(Long id) 
 		throws AccountNotFoundException, UserDoesNotOwnResourceException
 	{
-		boolean existsById = accountRepository.existsById(id);
-		if (!existsById) {
-			throw new AccountNotFoundException(id);
-		}
-		
-		AccountEntity accountEntity = accountRepository.findById(id).get();
-		boolean belongsToCurrentlyLoggedInUser = serviceUtils.belongsToCurrentlyLoggedInUser(accountEntity);
-		if (!belongsToCurrentlyLoggedInUser) {
-			throw new UserDoesNotOwnResourceException();
-		}
+		AccountEntity accountEntity = getAccountEntityOfCurrentUserById(id);
 		
 		Account accountDTO = accountMapper.fromEntity(accountEntity);
 		
@@ -141,21 +133,12 @@ public class AccountService {
 	public Double getTotalIncomeSumBetweenDatesById(Long id, Date startDate, Date endDate)
 		throws AccountNotFoundException, UserDoesNotOwnResourceException
 	{
-		boolean existsById = accountRepository.existsById(id);
-		if (!existsById) {
-			throw new AccountNotFoundException(id);
-		}
+		AccountEntity accountEntity = getAccountEntityOfCurrentUserById(id);
 		
-		AccountEntity accountEntity = accountRepository.findById(id).get();
-		boolean belongsToCurrentlyLoggedInUser = serviceUtils.belongsToCurrentlyLoggedInUser(accountEntity);
-		if (!belongsToCurrentlyLoggedInUser) {
-			throw new UserDoesNotOwnResourceException();
-		}
+		Long loggedInUserId = serviceUtils.getCurrentlyLoggedInUserId();
+		Long totalIncomeSum = transactionDailySumRepository.getTotalIncomeSumBetweenDatesForAccountById(loggedInUserId, startDate, endDate, id);
 		
-		Long loggedInUserId = serviceUtils.getCurrentlyLoggedInUserEntity().getId();
-		Double totalIncomeSum = transactionRepository.getTotalIncomeSumBetweenDatesForAccountById(loggedInUserId, startDate, endDate, id);
-		
-		return totalIncomeSum;
+		return Money.toNullableAmount(totalIncomeSum);
 	}
 	
 	/**
@@ -167,21 +150,12 @@ public class AccountService {
 	public Double getTotalExpenseSumBetweenDatesById(Long id, Date startDate, Date endDate)
 		throws AccountNotFoundException, UserDoesNotOwnResourceException
 	{
-		boolean existsById = accountRepository.existsById(id);
-		if (!existsById) {
-			throw new AccountNotFoundException(id);
-		}
-		
-		AccountEntity accountEntity = accountRepository.findById(id).get();
-		boolean belongsToCurrentlyLoggedInUser = serviceUtils.belongsToCurrentlyLoggedInUser(accountEntity);
-		if (!belongsToCurrentlyLoggedInUser) {
-			throw new UserDoesNotOwnResourceException();
-		}
+		AccountEntity accountEntity = getAccountEntityOfCurrentUserById(id);
 		
-		Long loggedInUserId = serviceUtils.getCurrentlyLoggedInUserEntity().getId();
-		Double totalExpenseSum = transactionRepository.getTotalExpenseSumBetweenDatesForAccountById(loggedInUserId, startDate, endDate, id);
+		Long loggedInUserId = serviceUtils.getCurrentlyLoggedInUserId();
+		Long totalExpenseSum = transactionDailySumRepository.getTotalExpenseSumBetweenDatesForAccountById(loggedInUserId, startDate, endDate, id);
 		
-		return totalExpenseSum;
+		return Money.toNullableAmount(totalExpenseSum);
 	}
 	
 	/**
@@ -219,16 +193,7 @@ public class AccountService {
 	public Account updateAccountById(Long id, AccountRequest account) 
 		throws AccountNotFoundException, UserDoesNotOwnResourceException
 	{
-		boolean existsById = accountRepository.existsById(id);
-		if (!existsById) {
-			throw new AccountNotFoundException(id);
-		}
-		 
-		AccountEntity accountEntity = accountRepository.findById(id).get();
-		boolean belongsToCurrentlyLoggedInUser = serviceUtils.belongsToCurrentlyLoggedInUser(accountEntity);
-		if (!belongsToCurrentlyLoggedInUser) {
-			throw new UserDoesNotOwnResourceException();
-		}
+		AccountEntity accountEntity = getAccountEntityOfCurrentUserById(id);
 		
 		AccountEntity updatedAccountEntity = accountMapper.toEntity(account);
 		
@@ -261,16 +226,7 @@ public class AccountService {
 	public Account deactivateAccountById(Long id) 
 		throws AccountNotFoundException, UserDoesNotOwnResourceException, AccountTypeUpdateException
 	{
-		boolean existsById = accountRepository.existsById(id);
-		if (!existsById) {
-			throw new AccountNotFoundException(id);
-		}
-		
-		AccountEntity accountEntity = accountRepository.findById(id).get();
-		boolean belongsToCurrentlyLoggedInUser = serviceUtils.belongsToCurrentlyLoggedInUser(accountEntity);
-		if (!belongsToCurrentlyLoggedInUser) {
-			throw new UserDoesNotOwnResourceException();
-		}
+		AccountEntity accountEntity = getAccountEntityOfCurrentUserById(id);
 		
 		boolean accountDeleted = ( accountEntity.getType() == AccountType.DELETED );
 		if (accountDeleted) {
@@ -292,16 +248,7 @@ public class AccountService {
 	public Account activateAccountById(Long id) 
 		throws AccountNotFoundException, UserDoesNotOwnResourceException, AccountTypeUpdateException
 	{
-		boolean existsById = accountRepository.existsById(id);
-		if (!existsById) {
-			throw new AccountNotFoundException(id);
-		}
-		
-		AccountEntity accountEntity = accountRepository.findById(id).get();
-		boolean belongsToCurrentlyLoggedInUser = serviceUtils.belongsToCurrentlyLoggedInUser(accountEntity);
-		if (!belongsToCurrentlyLoggedInUser) {
-			throw new UserDoesNotOwnResourceException();
-		}
+		AccountEntity accountEntity = getAccountEntityOfCurrentUserById(id);
 		
 		boolean accountDeleted = ( accountEntity.getType() == AccountType.DELETED );
 		if (accountDeleted) {
@@ -323,16 +270,7 @@ public class AccountService {
 	public Account setAccountGoalById(Long id, Double goal) 
 		throws AccountNotFoundException, UserDoesNotOwnResourceException
 	{
-		boolean existsById = accountRepository.existsById(id);
-		if (!existsById) {
-			throw new AccountNotFoundException(id);
-		}
-		
-		AccountEntity accountEntity = accountRepository.findById(id).get();
-		boolean belongsToCurrentlyLoggedInUser = serviceUtils.belongsToCurrentlyLoggedInUser(accountEntity);
-		if (!belongsToCurrentlyLoggedInUser) {
-			throw new UserDoesNotOwnResourceException();
-		}
+		AccountEntity accountEntity = getAccountEntityOfCurrentUserById(id);
 		
 		accountEntity.setGoal(goal);
 		accountEntity = accountRepository.save(accountEntity);
@@ -350,46 +288,40 @@ public class AccountService {
 	 * an income/expense transaction, depending on 
 	 * whether the new balance is greater or less than 
 	 * the account's current balance.
+	 * 
+	 * The difference is calculated in minor units, so that the new balance is exact.
 	 */
 	public Account setAccountBalanceById(Long id, Double balance) 
 		throws AccountNotFoundException, UserDoesNotOwnResourceException
 	{
-		boolean existsById = accountRepository.existsById(id);
-		if (!existsById) {
-			throw new AccountNotFoundException(id);
-		}
+		AccountEntity accountEntity = getAccountEntityOfCurrentUserById(id);
 		
-		AccountEntity accountEntity = accountRepository.findById(id).get();
-		boolean belongsToCurrentlyLoggedInUser = serviceUtils.belongsToCurrentlyLoggedInUser(accountEntity);
-		if (!belongsToCurrentlyLoggedInUser) {
-			throw new UserDoesNotOwnResourceException();
-		}
-		
-		Double currentBalance = accountEntity.getBalance();
+		long newBalance = Money.toMinorUnits(balance);
+		long currentBalance = accountEntity.getBalanceInMinorUnits();
 		UserEntity currentlyLoggedInUser = serviceUtils.getCurrentlyLoggedInUserEntity();
-		if (balance > currentBalance) {
+		if (newBalance > currentBalance) {
 			// Create & execute income transaction
 			TransactionRequest transactionRequest = new TransactionRequest();
 			transactionRequest.setDateOfCompletion( new Date() /* current date */);
 			transactionRequest.setFromType( TransactionFromType.CATEGORY );
-			transactionRequest.setFromId( categoryService.getSystemIncomeCategoryForUser(currentlyLoggedInUser).getId() );
+			transactionRequest.setFromId( categoryService.getSystemIncomeCategoryIdForUser(currentlyLoggedInUser) );
 			transactionRequest.setToType( TransactionToType.ACCOUNT );
 			transactionRequest.setToId( id /* id of current account */ );
-			transactionRequest.setSum( balance - currentBalance );
+			transactionRequest.setSum( Money.toAmount(Money.subtract(newBalance, currentBalance)) );
 			transactionRequest.setRecurring("NO");
 			transactionRequest.setDescription("Account balance sync");
 			transactionRequest.setShouldBeAutomaticallyExecuted(false);
 			transactionService.createNewTransaction(transactionRequest);
 		}
-		else if (balance < currentBalance) {
+		else if (newBalance < currentBalance) {
 			// Create & execute expense transaction
 			TransactionRequest transactionRequest = new TransactionRequest();
 			transactionRequest.setDateOfCompletion( new Date() /* current date */);
 			transactionRequest.setFromType( TransactionFromType.ACCOUNT );
 			transactionRequest.setFromId( id /* id of current account */ );
 			transactionRequest.setToType( TransactionToType.CATEGORY );
-			transactionRequest.setToId( categoryService.getSystemExpensesCategoryForUser(currentlyLoggedInUser).getId() );
-			transactionRequest.setSum( currentBalance - balance );
+			transactionRequest.setToId( categoryService.getSystemExpensesCategoryIdForUser(currentlyLoggedInUser) );
+			transactionRequest.setSum( Money.toAmount(Money.subtract(currentBalance, newBalance)) );
 			transactionRequest.setRecurring("NO");
 			transactionRequest.setDescription("Account balance sync");
 			transactionRequest.setShouldBeAutomaticallyExecuted(false);
@@ -411,16 +343,7 @@ public class AccountService {
 	public Account deleteAccountById(Long id) 
 		throws AccountNotFoundException, UserDoesNotOwnResourceException, AccountDeleteException
 	{
-		boolean existsById = accountRepository.existsById(id);
-		if (!existsById) {
-			throw new AccountNotFoundException(id);
-		}
-		
-		AccountEntity accountEntity = accountRepository.findById(id).get();
-		boolean belongsToCurrentlyLoggedInUser = serviceUtils.belongsToCurrentlyLoggedInUser(accountEntity);
-		if (!belongsToCurrentlyLoggedInUser) {
-			throw new UserDoesNotOwnResourceException();
-		}
+		AccountEntity accountEntity = getAccountEntityOfCurrentUserById(id);
 		
 		boolean accountAlreadyDeleted = ( accountEntity.getType() == AccountType.DELETED );
 		if (accountAlreadyDeleted) {
@@ -446,9 +369,9 @@ public class AccountService {
 	 */
 	public List<Account> createExampleAccountsForCurrentlyLoggedInUser() {
 		List<Account> createdAccounts = new ArrayList<>();
+		UserEntity owner = serviceUtils.getCurrentlyLoggedInUserEntity();
 		
 		for (AccountEntity accountEntity : EXAMPLE_ACCOUNTS) {
-			UserEntity owner = serviceUtils.getCurrentlyLoggedInUserEntity();
 			String name = accountEntity.getName();
 			
 			boolean nameAlreadyExists = accountRepository.existsByNameAndOwner(name, owner);
@@ -468,25 +391,23 @@ public class AccountService {
 	}
 	
 	/**
-	 * Updates an existing account's balance by either adding to it or subtracting the passed sum.
+	 * Updates an existing account's balance by either adding to it or subtracting the passed sum in minor units.
 	 * The valid operation types are '+' and '-' (for adding and subtracting respectively).
+	 * 
+	 * The update is done atomically in the database (without loading the account first).
 	 */
-	protected void performAccountBalanceOperationById(Long accountId, char operationType, Double sum) {
-		AccountEntity accountEntity = accountRepository.findById(accountId).get();
-		Double oldBalance = accountEntity.getBalance();
-		
-		Double newBalance = oldBalance;
+	protected void performAccountBalanceOperationById(Long accountId, char operationType, long sumInMinorUnits) {
+		long delta = 0L;
 		switch (operationType) {
 		case '+':
-			newBalance += sum;
+			delta = sumInMinorUnits;
 			break;
 		case '-':
-			newBalance -= sum;
+			delta = Money.negate(sumInMinorUnits);
 			break;
 		}
 		
-		accountEntity.setBalance(newBalance);
-		accountRepository.save(accountEntity);
+		accountRepository.addToBalanceById(accountId, delta);
 	}
 	
 	/**
@@ -503,4 +424,22 @@ public class AccountService {
 		return EXAMPLE_ACCOUNTS;
 	}
 	
+	/**
+	 * Returns the account entity with the passed ID, 
+	 * if it belongs to the currently logged-in user
+	 * (see {@link ServiceUtils#getEntityOfCurrentlyLoggedInUserById}).
+	 */
+	private AccountEntity getAccountEntityOfCurrentUserById(Long id) 
+		throws AccountNotFoundException, UserDoesNotOwnResourceException
+	{
+		AccountEntity accountEntity = serviceUtils.getEntityOfCurrentlyLoggedInUserById(
+			id, 
+			accountRepository::findByIdAndOwnerId, 
+			accountRepository::existsById, 
+			() -> new AccountNotFoundException(id)
+		);
+		
+		return accountEntity;
+	}
+	
 }
\ No newline at end of file
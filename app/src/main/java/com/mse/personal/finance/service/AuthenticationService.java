@@ -45,7 +45,7 @@ public class AuthenticationService {
 		UserAuthenticationDetails userAuthenticationDetails = (UserAuthenticationDetails) authentication.getPrincipal();
 		UserAuthenticationToken userAuthenticationToken = buildTokenFromDetails(userAuthenticationDetails);
 		String tokenString = userAuthenticationToken.getTokenString();
-		jwtSessionManager.updateSession(tokenString);
+		jwtSessionManager.updateSession( tokenString, userAuthenticationDetails.getUsername() );
 		return userAuthenticationToken;
 	}
 	
@@ -2,18 +2,26 @@ package com.mse.personal.finance.service;
 
 import java.util.ArrayList;
 import java.util.Date;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.stream.Collectors;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import com.mse.personal.finance.db.entity.CategoryEntity;
 import com.mse.personal.finance.db.entity.UserEntity;
 import com.mse.personal.finance.db.repository.CategoryRepository;
-import com.mse.personal.finance.db.repository.TransactionRepository;
+import com.mse.personal.finance.db.repository.TransactionDailySumRepository;
 import com.mse.personal.finance.model.Category;
 import com.mse.personal.finance.model.CategoryType;
+import com.mse.personal.finance.model.Money;
 import com.mse.personal.finance.model.request.CategoryLimitUpdateRequest;
 import com.mse.personal.finance.model.request.CategoryRequest;
 import com.mse.personal.finance.rest.exception.CategoryNotFoundException;
@@ -31,6 +39,13 @@ import com.mse.personal.finance.service.mapper.CategoryMapper;
  * Likewise, DTOs sent from the REST controller 
  * are mapped to entities and then added to the database.
  * 
+ * The IDs of the users' system categories are cached in memory (they are created on registration
+ * and never change), so the account balance sync does not have to look them up.
+ * They are only cached after the transaction, which created or loaded them, has been committed,
+ * and are evicted when the categories or their user are deleted.
+ * The users are split between striped maps (each guarded by its own lock),
+ * which are bounded by the maximum size: when a stripe is full, its least recently used user is evicted.
+ * 
  * @author dvt32
  */
 @Service
@@ -39,7 +54,12 @@ public class CategoryService {
 	private final CategoryRepository categoryRepository;
 	private final CategoryMapper categoryMapper;
 	private final ServiceUtils serviceUtils;
-	private final TransactionRepository transactionRepository;
+	private final TransactionDailySumRepository transactionDailySumRepository;
+	
+	private static final int SYSTEM_CATEGORY_IDS_STRIPE_COUNT = 16;
+	private static final int SYSTEM_CATEGORY_IDS_STRIPE_SHIFT = Integer.SIZE - Integer.numberOfTrailingZeros(SYSTEM_CATEGORY_IDS_STRIPE_COUNT);
+	
+	private final SystemCategoryIdsStripe[] systemCategoryIdsStripes = new SystemCategoryIdsStripe[SYSTEM_CATEGORY_IDS_STRIPE_COUNT];
 	
 	public static final String SYSTEM_INCOME_CATEGORY_NAME = "SYS_INCOME";
 	public static final String SYSTEM_EXPENSES_CATEGORY_NAME = "SYS_EXPENSES";
@@ -58,12 +78,18 @@ public class CategoryService {
 		CategoryRepository categoryRepository, 
 		CategoryMapper categoryMapper,
 		ServiceUtils serviceUtils,
-		TransactionRepository transactionRepository) 
+		TransactionDailySumRepository transactionDailySumRepository,
+		@Value("${categories.system-category-ids-cache.max-size:100000}") int systemCategoryIdsCacheMaxSize) 
 	{
 		this.categoryRepository = categoryRepository;
 		this.categoryMapper = categoryMapper;
 		this.serviceUtils = serviceUtils;
-		this.transactionRepository = transactionRepository;
+		this.transactionDailySumRepository = transactionDailySumRepository;
+		
+		int maxStripeSize = Math.max(1, systemCategoryIdsCacheMaxSize / SYSTEM_CATEGORY_IDS_STRIPE_COUNT);
+		for (int i = 0; i < SYSTEM_CATEGORY_IDS_STRIPE_COUNT; i++) {
+			systemCategoryIdsStripes[i] = new SystemCategoryIdsStripe(maxStripeSize);
+		}
 	}
 
 	/**
@@ -72,10 +98,9 @@ public class CategoryService {
 	public List<Category> getAllNonSystemCategories() {
 		UserEntity currentlyLoggedInUserEntity = serviceUtils.getCurrentlyLoggedInUserEntity();
 		
-		List<CategoryEntity> allCategoryEntities = categoryRepository.findAllByOwner(currentlyLoggedInUserEntity);
+		List<CategoryEntity> allCategoryEntities = categoryRepository.findAllByOwnerAndSystemFalse(currentlyLoggedInUserEntity);
 		
 		List<Category> allCategoryDTOs = allCategoryEntities.stream()
-			.filter( categoryEntity -> !isSystemCategory(categoryEntity) )
 			.map( categoryEntity -> categoryMapper.fromEntity(categoryEntity) )
 			.collect( Collectors.toList() );
 		
@@ -89,10 +114,9 @@ public class CategoryService {
 	public List<Category> getAllNonSystemCategoriesByType(CategoryType type) {
 		UserEntity currentlyLoggedInUserEntity = serviceUtils.getCurrentlyLoggedInUserEntity();
 		
-		List<CategoryEntity> allCategoryEntitiesByType = categoryRepository.findAllByTypeAndOwner(type, currentlyLoggedInUserEntity);
+		List<CategoryEntity> allCategoryEntitiesByType = categoryRepository.findAllByTypeAndOwnerAndSystemFalse(type, currentlyLoggedInUserEntity);
 		
 		List<Category> allCategoryDTOsByType = allCategoryEntitiesByType.stream()
-			.filter( categoryEntity -> !isSystemCategory(categoryEntity) )
 			.map( categoryEntity -> categoryMapper.fromEntity(categoryEntity) )
 			.collect( Collectors.toList() );
 		
@@ -106,9 +130,9 @@ public class CategoryService {
 	 * Note: System categories' sum is not included in the total sum.
 	 */
 	public Double getTotalCurrentPeriodSumOfCategoriesByType(CategoryType type) {
-		Double totalCurrentPeriodSum = null;
+		Long totalCurrentPeriodSum = null;
 		
-		Long ownerId = serviceUtils.getCurrentlyLoggedInUserEntity().getId();
+		Long ownerId = serviceUtils.getCurrentlyLoggedInUserId();
 		if (type == CategoryType.INCOME) {
 			totalCurrentPeriodSum = categoryRepository.getTotalCurrentPeriodSumOfIncomeCategories(ownerId);
 		}
@@ -116,7 +140,7 @@ public class CategoryService {
 			totalCurrentPeriodSum = categoryRepository.getTotalCurrentPeriodSumOfExpenseCategories(ownerId);
 		}
 		
-		return totalCurrentPeriodSum;
+		return Money.toNullableAmount(totalCurrentPeriodSum);
 	}
 	
 	/**
@@ -125,16 +149,7 @@ public class CategoryService {
 	public Category getCategoryById(Long id) 
 		throws CategoryNotFoundException, UserDoesNotOwnResourceException
 	{
-		boolean existsById = categoryRepository.existsById(id);
-		if (!existsById) {
-			throw new CategoryNotFoundException(id);
-		}
-		
-		CategoryEntity categoryEntity = categoryRepository.findById(id).get();
-		boolean belongsToCurrentlyLoggedInUser = serviceUtils.belongsToCurrentlyLoggedInUser(categoryEntity);
-		if (!belongsToCurrentlyLoggedInUser) {
-			throw new UserDoesNotOwnResourceException();
-		}
+		CategoryEntity categoryEntity = getCategoryEntityOfCurrentUserById(id);
 		
 		Category categoryDTO = categoryMapper.fromEntity(categoryEntity);
 		
@@ -147,28 +162,19 @@ public class CategoryService {
 	public Double getTotalAddedSumBetweenDatesById(Long id, Date startDate, Date endDate)
 		throws CategoryNotFoundException, UserDoesNotOwnResourceException
 	{
-		boolean existsById = categoryRepository.existsById(id);
-		if (!existsById) {
-			throw new CategoryNotFoundException(id);
-		}
-		
-		CategoryEntity categoryEntity = categoryRepository.findById(id).get();
-		boolean belongsToCurrentlyLoggedInUser = serviceUtils.belongsToCurrentlyLoggedInUser(categoryEntity);
-		if (!belongsToCurrentlyLoggedInUser) {
-			throw new UserDoesNotOwnResourceException();
-		}
+		CategoryEntity categoryEntity = getCategoryEntityOfCurrentUserById(id);
 		
-		Long loggedInUserId = serviceUtils.getCurrentlyLoggedInUserEntity().getId();
+		Long loggedInUserId = serviceUtils.getCurrentlyLoggedInUserId();
 		CategoryType categoryType = categoryEntity.getType();
-		Double totalAddedSum = null;
+		Long totalAddedSum = null;
 		if (categoryType == CategoryType.INCOME) {
-			totalAddedSum = transactionRepository.getTotalAddedSumBetweenDatesForIncomeCategoryById(loggedInUserId, startDate, endDate, id);
+			totalAddedSum = transactionDailySumRepository.getTotalAddedSumBetweenDatesForIncomeCategoryById(loggedInUserId, startDate, endDate, id);
 		}
 		else if (categoryType == CategoryType.EXPENSES) {
-			totalAddedSum = transactionRepository.getTotalAddedSumBetweenDatesForExpenseCategoryById(loggedInUserId, startDate, endDate, id);
+			totalAddedSum = transactionDailySumRepository.getTotalAddedSumBetweenDatesForExpenseCategoryById(loggedInUserId, startDate, endDate, id);
 		}
 		
-		return totalAddedSum;
+		return Money.toNullableAmount(totalAddedSum);
 	}
 	
 	/**
@@ -206,16 +212,7 @@ public class CategoryService {
 	public Category updateCategoryById(Long id, CategoryRequest categoryRequest) 
 		throws CategoryNotFoundException, UserDoesNotOwnResourceException
 	{
-		boolean existsById = categoryRepository.existsById(id);
-		if (!existsById) {
-			throw new CategoryNotFoundException(id);
-		}
-		
-		CategoryEntity categoryEntity = categoryRepository.findById(id).get();
-		boolean belongsToCurrentlyLoggedInUser = serviceUtils.belongsToCurrentlyLoggedInUser(categoryEntity);
-		if (!belongsToCurrentlyLoggedInUser) {
-			throw new UserDoesNotOwnResourceException();
-		}
+		CategoryEntity categoryEntity = getCategoryEntityOfCurrentUserById(id);
 		
 		CategoryEntity updatedCategoryEntity = categoryMapper.toEntity(categoryRequest);
 		
@@ -225,6 +222,7 @@ public class CategoryService {
 		updatedCategoryEntity.setId(id);
 		UserEntity categoryEntityOwner = categoryEntity.getOwner();
 		updatedCategoryEntity.setOwner(categoryEntityOwner);
+		updatedCategoryEntity.setSystem( categoryEntity.isSystem() );
 		
 		String oldCategoryName = categoryEntity.getName();
 		String newCategoryName = updatedCategoryEntity.getName();
@@ -248,16 +246,7 @@ public class CategoryService {
 	public Category setCategoryLimitById(Long id, CategoryLimitUpdateRequest request) 
 		throws CategoryNotFoundException, UserDoesNotOwnResourceException
 	{
-		boolean existsById = categoryRepository.existsById(id);
-		if (!existsById) {
-			throw new CategoryNotFoundException(id);
-		}
-		
-		CategoryEntity categoryEntity = categoryRepository.findById(id).get();
-		boolean belongsToCurrentlyLoggedInUser = serviceUtils.belongsToCurrentlyLoggedInUser(categoryEntity);
-		if (!belongsToCurrentlyLoggedInUser) {
-			throw new UserDoesNotOwnResourceException();
-		}
+		CategoryEntity categoryEntity = getCategoryEntityOfCurrentUserById(id);
 		
 		String limit = request.getLimit();
 		categoryEntity.setLimit(limit);
@@ -275,26 +264,22 @@ public class CategoryService {
 	public Category deleteCategoryById(Long id) 
 		throws CategoryNotFoundException, UserDoesNotOwnResourceException
 	{
-		boolean existsById = categoryRepository.existsById(id);
-		if (!existsById) {
-			throw new CategoryNotFoundException(id);
-		}
-		
-		CategoryEntity categoryEntity = categoryRepository.findById(id).get();
-		boolean belongsToCurrentlyLoggedInUser = serviceUtils.belongsToCurrentlyLoggedInUser(categoryEntity);
-		if (!belongsToCurrentlyLoggedInUser) {
-			throw new UserDoesNotOwnResourceException();
-		}
+		CategoryEntity categoryEntity = getCategoryEntityOfCurrentUserById(id);
 		
 		Category categoryDTO = categoryMapper.fromEntity(categoryEntity);
 		
 		categoryRepository.deleteById(id);
 		
+		if (categoryEntity.isSystem()) {
+			evictSystemCategoryIdsOfUser( categoryEntity.getOwner().getId() );
+		}
+		
 		return categoryDTO;
 	}
 	
 	/**
 	 * Creates system categories for a specified user (used on registration).
+	 * Their IDs are cached once the registration's transaction has been committed.
 	 */
 	protected void createSystemCategoriesForUser(UserEntity user) {
 		CategoryEntity systemIncomeCategory = new CategoryEntity();
@@ -302,14 +287,18 @@ public class CategoryService {
 		systemIncomeCategory.setType(CategoryType.INCOME);
 		systemIncomeCategory.setCurrentPeriodSum(0.0d);
 		systemIncomeCategory.setOwner(user);
-		categoryRepository.save(systemIncomeCategory);
+		systemIncomeCategory.setSystem(true);
+		systemIncomeCategory = categoryRepository.save(systemIncomeCategory);
 		
 		CategoryEntity systemExpensesCategory = new CategoryEntity();
 		systemExpensesCategory.setName(SYSTEM_EXPENSES_CATEGORY_NAME);
 		systemExpensesCategory.setType(CategoryType.EXPENSES);
 		systemExpensesCategory.setCurrentPeriodSum(0.0d);
 		systemExpensesCategory.setOwner(user);
-		categoryRepository.save(systemExpensesCategory);
+		systemExpensesCategory.setSystem(true);
+		systemExpensesCategory = categoryRepository.save(systemExpensesCategory);
+		
+		cacheSystemCategoryIds( user.getId(), new SystemCategoryIds(systemIncomeCategory.getId(), systemExpensesCategory.getId()) );
 	}
 	
 	/**
@@ -318,9 +307,9 @@ public class CategoryService {
 	 */
 	public List<Category> createExampleCategoriesForCurrentlyLoggedInUser() {
 		List<Category> createdCategories = new ArrayList<>();
+		UserEntity owner = serviceUtils.getCurrentlyLoggedInUserEntity();
 		
 		for (CategoryEntity categoryEntity : EXAMPLE_CATEGORIES) {
-			UserEntity owner = serviceUtils.getCurrentlyLoggedInUserEntity();
 			String name = categoryEntity.getName();
 			
 			boolean nameAlreadyExists = categoryRepository.existsByNameAndOwner(name, owner);
@@ -340,60 +329,231 @@ public class CategoryService {
 	}
 	
 	/**
-	 * Updates an existing category's sum by either adding to it or subtracting the passed sum value.
+	 * Updates an existing category's sum by either adding to it or subtracting the passed sum value in minor units.
 	 * The valid operation types are '+' and '-' (for adding and subtracting respectively).
+	 * 
+	 * The update is done atomically in the database (without loading the category first).
 	 */
-	protected void performCategorySumOperationById(Long categoryId, char operationType, Double sum) {
-		CategoryEntity categoryEntity = categoryRepository.findById(categoryId).get();
-		Double oldCurrentPeriodSum = categoryEntity.getCurrentPeriodSum();
-		
-		Double newCurrentPeriodSum = oldCurrentPeriodSum;
+	protected void performCategorySumOperationById(Long categoryId, char operationType, long sumInMinorUnits) {
+		long delta = 0L;
 		switch (operationType) {
 		case '+':
-			newCurrentPeriodSum += sum;
+			delta = sumInMinorUnits;
 			break;
 		case '-':
-			newCurrentPeriodSum -= sum;
+			delta = Money.negate(sumInMinorUnits);
 			break;
 		}
 		
-		categoryEntity.setCurrentPeriodSum(newCurrentPeriodSum);
-		categoryRepository.save(categoryEntity);
+		categoryRepository.addToCurrentPeriodSumById(categoryId, delta);
 	}
 	
 	/**
-	 * Returns true if the passed category entity is a system category, false otherwise.
+	 * Returns the number of accounts in the example accounts array.
 	 */
-	private boolean isSystemCategory(CategoryEntity categoryEntity) {
-		boolean isSystemCategory = ( 
-			categoryEntity.getName().equals(SYSTEM_INCOME_CATEGORY_NAME) ||
-			categoryEntity.getName().equals(SYSTEM_EXPENSES_CATEGORY_NAME)
-		);
+	public int getNumberOfExampleCategories() {
+		return EXAMPLE_CATEGORIES.length;
+	}
+	
+	/**
+	 * Returns the ID of the specified user's system income category.
+	 */
+	protected Long getSystemIncomeCategoryIdForUser(UserEntity user) {
+		Long systemIncomeCategoryId = getSystemCategoryIdsOfUser( user.getId() ).incomeCategoryId;
+		return systemIncomeCategoryId;
+	}
+	
+	/**
+	 * Returns the ID of the specified user's system expenses category.
+	 */
+	protected Long getSystemExpensesCategoryIdForUser(UserEntity user) {
+		Long systemExpensesCategoryId = getSystemCategoryIdsOfUser( user.getId() ).expensesCategoryId;
+		return systemExpensesCategoryId;
+	}
+	
+	/**
+	 * Removes the cached IDs of the specified user's system categories
+	 * (when the categories or the user are deleted).
+	 * 
+	 * They are removed again after the current transaction (if any) has completed,
+	 * so that the IDs loaded by a concurrent request before the deletion has been committed are not left in the cache.
+	 */
+	protected void evictSystemCategoryIdsOfUser(Long userId) {
+		SystemCategoryIdsStripe stripe = getSystemCategoryIdsStripe(userId);
+		
+		stripe.remove(userId);
+		if ( TransactionSynchronizationManager.isSynchronizationActive() ) {
+			TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+				@Override
+				public void afterCompletion(int status) {
+					stripe.remove(userId);
+				}
+			});
+		}
+	}
+	
+	/**
+	 * Returns the number of users whose system category IDs are cached.
+	 */
+	int getCachedSystemCategoryIdsCount() {
+		int count = 0;
+		for (SystemCategoryIdsStripe stripe : systemCategoryIdsStripes) {
+			count += stripe.size();
+		}
+		return count;
+	}
+	
+	/**
+	 * Returns the cached IDs of the specified user's system categories.
+	 * If they are not cached yet (e.g. after a restart), they are loaded with a single query
+	 * and cached (only if the user has both system categories).
+	 */
+	private SystemCategoryIds getSystemCategoryIdsOfUser(Long userId) {
+		SystemCategoryIds systemCategoryIds = getSystemCategoryIdsStripe(userId).get(userId);
+		if (systemCategoryIds != null) {
+			return systemCategoryIds;
+		}
 		
-		return isSystemCategory; 
+		Long incomeCategoryId = null;
+		Long expensesCategoryId = null;
+		for ( CategoryEntity systemCategory : categoryRepository.findAllByOwnerIdAndSystemTrue(userId) ) {
+			if (systemCategory.getType() == CategoryType.INCOME) {
+				incomeCategoryId = systemCategory.getId();
+			}
+			else if (systemCategory.getType() == CategoryType.EXPENSES) {
+				expensesCategoryId = systemCategory.getId();
+			}
+		}
+		
+		systemCategoryIds = new SystemCategoryIds(incomeCategoryId, expensesCategoryId);
+		if (incomeCategoryId != null && expensesCategoryId != null) {
+			cacheSystemCategoryIds(userId, systemCategoryIds);
+		}
+		
+		return systemCategoryIds;
 	}
 	
 	/**
-	 * Returns the number of accounts in the example accounts array.
+	 * Caches the IDs of a user's system categories
+	 * after the current transaction (if any) has been committed,
+	 * so that the IDs of categories, whose creation is rolled back, are never cached.
 	 */
-	public int getNumberOfExampleCategories() {
-		return EXAMPLE_CATEGORIES.length;
+	private void cacheSystemCategoryIds(Long userId, SystemCategoryIds systemCategoryIds) {
+		SystemCategoryIdsStripe stripe = getSystemCategoryIdsStripe(userId);
+		
+		if ( TransactionSynchronizationManager.isSynchronizationActive() ) {
+			TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+				@Override
+				public void afterCommit() {
+					stripe.put(userId, systemCategoryIds);
+				}
+			});
+		}
+		else {
+			stripe.put(userId, systemCategoryIds);
+		}
+	}
+	
+	/**
+	 * Selects the stripe by the upper bits of the mixed hash code.
+	 */
+	private SystemCategoryIdsStripe getSystemCategoryIdsStripe(Long userId) {
+		int hash = userId.hashCode() * 0x9E3779B9;
+		return systemCategoryIdsStripes[hash >>> SYSTEM_CATEGORY_IDS_STRIPE_SHIFT];
 	}
 	
 	/**
-	 * Returns the specified user's system income category.
+	 * Returns the category entity with the passed ID, 
+	 * if it belongs to the currently logged-in user
+	 * (see {@link ServiceUtils#getEntityOfCurrentlyLoggedInUserById}).
 	 */
-	protected CategoryEntity getSystemIncomeCategoryForUser(UserEntity user) {
-		CategoryEntity systemIncomeCategory = categoryRepository.findByNameAndOwner(SYSTEM_INCOME_CATEGORY_NAME, user);
-		return systemIncomeCategory;
+	private CategoryEntity getCategoryEntityOfCurrentUserById(Long id) 
+		throws CategoryNotFoundException, UserDoesNotOwnResourceException
+	{
+		CategoryEntity categoryEntity = serviceUtils.getEntityOfCurrentlyLoggedInUserById(
+			id, 
+			categoryRepository::findByIdAndOwnerId, 
+			categoryRepository::existsById, 
+			() -> new CategoryNotFoundException(id)
+		);
+		
+		return categoryEntity;
 	}
 	
 	/**
-	 * Returns the specified user's system expenses category.
+	 * A bounded map of users' system category IDs 
+	 * (in access order, so the least recently used user is evicted first).
 	 */
-	protected CategoryEntity getSystemExpensesCategoryForUser(UserEntity user) {
-		CategoryEntity systemExpensesCategory = categoryRepository.findByNameAndOwner(SYSTEM_EXPENSES_CATEGORY_NAME, user);
-		return systemExpensesCategory;
+	private static final class SystemCategoryIdsStripe {
+		
+		private final Lock lock = new ReentrantLock();
+		private final Map<Long, SystemCategoryIds> systemCategoryIdsByUserId;
+		
+		@SuppressWarnings("serial")
+		private SystemCategoryIdsStripe(int maxStripeSize) {
+			this.systemCategoryIdsByUserId = new LinkedHashMap<Long, SystemCategoryIds>(16, 0.75f, true) {
+				@Override
+				protected boolean removeEldestEntry(Map.Entry<Long, SystemCategoryIds> eldestEntry) {
+					return size() > maxStripeSize;
+				}
+			};
+		}
+		
+		private SystemCategoryIds get(Long userId) {
+			lock.lock();
+			try {
+				return systemCategoryIdsByUserId.get(userId);
+			}
+			finally {
+				lock.unlock();
+			}
+		}
+		
+		private void put(Long userId, SystemCategoryIds systemCategoryIds) {
+			lock.lock();
+			try {
+				systemCategoryIdsByUserId.put(userId, systemCategoryIds);
+			}
+			finally {
+				lock.unlock();
+			}
+		}
+		
+		private void remove(Long userId) {
+			lock.lock();
+			try {
+				systemCategoryIdsByUserId.remove(userId);
+			}
+			finally {
+				lock.unlock();
+			}
+		}
+		
+		private int size() {
+			lock.lock();
+			try {
+				return systemCategoryIdsByUserId.size();
+			}
+			finally {
+				lock.unlock();
+			}
+		}
+		
+	}
+	
+	/**
+	 * The IDs of a user's system categories.
+	 */
+	private static final class SystemCategoryIds {
+		
+		private final Long incomeCategoryId;
+		private final Long expensesCategoryId;
+		
+		private SystemCategoryIds(Long incomeCategoryId, Long expensesCategoryId) {
+			this.incomeCategoryId = incomeCategoryId;
+			this.expensesCategoryId = expensesCategoryId;
+		}
+		
 	}
 	
 }
\ No newline at end of file
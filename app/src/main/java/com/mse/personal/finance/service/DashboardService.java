@@ -0,0 +1,133 @@
+package com.mse.personal.finance.service;
+
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import com.mse.personal.finance.db.repository.AccountRepository;
+import com.mse.personal.finance.db.repository.TransactionDailySumRepository;
+import com.mse.personal.finance.model.DashboardSummary;
+import com.mse.personal.finance.model.Money;
+import com.mse.personal.finance.model.TransactionFromType;
+import com.mse.personal.finance.model.TransactionToType;
+import com.mse.personal.finance.rest.exception.InvalidDataException;
+
+/**
+ * Service for retrieving the summary of the currently logged-in user's finances
+ * (the totals, which are shown on the front end's dashboard).
+ *
+ * All totals are retrieved with two queries:
+ * - 1) the transactions' total sums, grouped by transaction type (from the transactions' daily sums)
+ * - 2) the accounts' total balance and the categories' total current period sums
+ *
+ * @author dvt32
+ */
+@Service
+public class DashboardService {
+
+	private final TransactionDailySumRepository transactionDailySumRepository;
+	private final AccountRepository accountRepository;
+	private final ServiceUtils serviceUtils;
+
+	@Autowired
+	public DashboardService(
+		TransactionDailySumRepository transactionDailySumRepository,
+		AccountRepository accountRepository,
+		ServiceUtils serviceUtils)
+	{
+		this.transactionDailySumRepository = transactionDailySumRepository;
+		this.accountRepository = accountRepository;
+		this.serviceUtils = serviceUtils;
+	}
+
+	/**
+	 * Returns the summary of the currently logged-in user's finances.
+	 *
+	 * The transactions' total sums are calculated for the transactions
+	 * made between the passed dates (inclusive).
+	 * If no dates are passed, they are calculated for all transactions.
+	 * Missing totals are returned as 0.
+	 */
+	public DashboardSummary getDashboardSummary(Date startDate, Date endDate)
+		throws InvalidDataException
+	{
+		Map<String, Double> totalTransactionsSums = getTotalTransactionsSumsByType(startDate, endDate);
+
+		Long ownerId = serviceUtils.getCurrentlyLoggedInUserId();
+		List<Object[]> accountAndCategoryTotals = accountRepository.getAccountAndCategoryTotals(ownerId);
+		Object[] totals = accountAndCategoryTotals.isEmpty() ? new Object[3] : accountAndCategoryTotals.get(0);
+
+		DashboardSummary dashboardSummary = new DashboardSummary()
+			.setStartDate(startDate)
+			.setEndDate(endDate)
+			.setTotalIncomeTransactionsSum( totalTransactionsSums.getOrDefault("INCOME", 0.0d) )
+			.setTotalExpenseTransactionsSum( totalTransactionsSums.getOrDefault("EXPENSE", 0.0d) )
+			.setTotalTransferTransactionsSum( totalTransactionsSums.getOrDefault("TRANSFER", 0.0d) )
+			.setTotalBalanceOfActivatedAccounts( toDouble(totals[0]) )
+			.setTotalCurrentPeriodSumOfIncomeCategories( toDouble(totals[1]) )
+			.setTotalCurrentPeriodSumOfExpenseCategories( toDouble(totals[2]) );
+
+		return dashboardSummary;
+	}
+
+	/**
+	 * Returns the currently logged-in user's transactions' total sums
+	 * by transaction type ("INCOME", "EXPENSE" or "TRANSFER"), calculated with a single grouped query.
+	 *
+	 * The sums are calculated for the transactions made between the passed dates (inclusive).
+	 * If no dates are passed, they are calculated for all transactions.
+	 * Transaction types without any transactions are not contained in the returned map.
+	 */
+	public Map<String, Double> getTotalTransactionsSumsByType(Date startDate, Date endDate)
+		throws InvalidDataException
+	{
+		if ( (startDate == null) != (endDate == null) ) {
+			throw new InvalidDataException("Both start date and end date must be passed!");
+		}
+
+		Long loggedInUserId = serviceUtils.getCurrentlyLoggedInUserId();
+		List<Object[]> totalSumRows = (startDate == null)
+			? transactionDailySumRepository.getTotalSumsGroupedByType(loggedInUserId)
+			: transactionDailySumRepository.getTotalSumsGroupedByTypeBetweenDates(loggedInUserId, startDate, endDate);
+
+		Map<String, Double> totalSums = new HashMap<>();
+		for (Object[] totalSumRow : totalSumRows) {
+			String transactionType = getTransactionType( (TransactionFromType) totalSumRow[0], (TransactionToType) totalSumRow[1] );
+			if (transactionType != null) {
+				totalSums.put( transactionType, toDouble(totalSumRow[2]) );
+			}
+		}
+
+		return totalSums;
+	}
+
+	/**
+	 * Returns the transaction type of the passed from/to types
+	 * (null if the combination is not a valid transaction type).
+	 */
+	private String getTransactionType(TransactionFromType fromType, TransactionToType toType) {
+		if (fromType == TransactionFromType.CATEGORY && toType == TransactionToType.ACCOUNT) {
+			return "INCOME";
+		}
+		else if (fromType == TransactionFromType.ACCOUNT && toType == TransactionToType.CATEGORY) {
+			return "EXPENSE";
+		}
+		else if (fromType == TransactionFromType.ACCOUNT && toType == TransactionToType.ACCOUNT) {
+			return "TRANSFER";
+		}
+
+		return null;
+	}
+
+	/**
+	 * Converts an aggregated sum of minor units to an amount (0 if there were no values to aggregate).
+	 */
+	private Double toDouble(Object aggregatedValue) {
+		return (aggregatedValue != null) ? Money.toAmount( ((Number) aggregatedValue).longValue() ) : 0.0d;
+	}
+
+}
@@ -0,0 +1,65 @@
+package com.mse.personal.finance.service;
+
+import java.lang.management.ManagementFactory;
+import java.util.Date;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+
+import com.mse.personal.finance.db.entity.JobLockEntity;
+import com.mse.personal.finance.db.repository.JobLockRepository;
+
+/**
+ * Service for locking scheduled jobs, which should run on one application instance at a time
+ * (e.g. the nightly jobs, which are scheduled at the same time on every instance).
+ *
+ * A job is locked for a fixed duration and the lock is not released when the job completes,
+ * so an instance, whose schedule fires a little later (e.g. because of a clock difference), does not run the job again.
+ * The lock duration should thus be longer than the job & the clock differences and shorter than the interval between the runs.
+ * The lock of a crashed instance expires after the same duration.
+ *
+ * @author dvt32
+ */
+@Service
+public class JobLockService {
+
+	/**
+	 * The instance's name (e.g. "12345@hostname"), which is stored with its locks for troubleshooting.
+	 */
+	private static final String INSTANCE_NAME = ManagementFactory.getRuntimeMXBean().getName();
+
+	private final JobLockRepository jobLockRepository;
+
+	@Autowired
+	public JobLockService(JobLockRepository jobLockRepository) {
+		this.jobLockRepository = jobLockRepository;
+	}
+
+	/**
+	 * Locks the job with the passed name for the passed duration (in milliseconds),
+	 * unless it is locked by another instance (or by a previous run of this instance).
+	 *
+	 * @return true if the job was locked (i.e. it should be run)
+	 */
+	public boolean tryLock(String name, long lockDuration) {
+		Date now = new Date();
+		Date lockedUntil = new Date(now.getTime() + lockDuration);
+		if (jobLockRepository.lockIfExpired(name, lockedUntil, INSTANCE_NAME, now) > 0) {
+			return true;
+		}
+		if ( jobLockRepository.existsByName(name) ) {
+			return false;
+		}
+
+		try {
+			jobLockRepository.saveAndFlush( new JobLockEntity(name, lockedUntil, INSTANCE_NAME) );
+			return true;
+		}
+		catch (DataIntegrityViolationException e) {
+			// The lock was created by another instance at the same time
+			return false;
+		}
+	}
+
+}
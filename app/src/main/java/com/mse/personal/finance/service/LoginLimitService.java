@@ -1,112 +1,160 @@
 package com.mse.personal.finance.service;
 
-import java.util.concurrent.ExecutionException;
+import java.util.Locale;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
 
 import javax.servlet.http.HttpServletRequest;
 
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
-import com.google.common.cache.CacheBuilder;
-import com.google.common.cache.CacheLoader;
-import com.google.common.cache.LoadingCache;
+import com.mse.personal.finance.rest.exception.IpAddressBlockedException;
+import com.mse.personal.finance.rest.exception.LoginBlockedException;
 
 /**
- * This class is responsible for 
- * counting the number of logins the user made
- * from his current IP, setting the block time in minutes 
- * and also for blocking/unblocking the user's IP 
+ * This class is responsible for
+ * counting the number of failed logins made
+ * from each IP and for each account (username), setting the block time in minutes
+ * and also for blocking/unblocking the IPs and accounts
  * when the limits have been reached.
- * 
+ *
+ * The failed logins are counted within a sliding window of the block time
+ * (see {@link SlidingWindowCounter}), so an IP or account is unblocked
+ * once its oldest counted failed login is older than the block time.
+ * The number of tracked IPs and accounts is bounded
+ * (the least recently used ones are evicted first).
+ *
  * Based on implementation provided by Baeldung:
  * - https://www.baeldung.com/spring-security-block-brute-force-authentication-attempts
- * 
+ *
  * @author dvt32
  */
 @Service
 public class LoginLimitService {
 
-	private final int MAX_NUMBER_OF_CONSECUTIVE_FAILED_LOGIN_ATTEMPTS = 3;
-	private final int BLOCK_TIME_IN_MINUTES = 10;
-	
-	private LoadingCache<String, Integer> loginAttemptsCache;
+	/**
+	 * The max length of a stored IP address (the length of the longest IPv6 address).
+	 * Longer header values are truncated, so they cannot be used to fill the memory.
+	 */
+	private static final int MAX_IP_ADDRESS_LENGTH = 45;
+
+	/**
+	 * The max length of a stored username (the max length of an email address).
+	 */
+	private static final int MAX_USERNAME_LENGTH = 254;
+
+	private final int maxNumberOfConsecutiveFailedLoginAttempts;
+	private final int maxNumberOfFailedLoginAttemptsPerAccount;
+	private final int blockTimeInMinutes;
+
+	private final SlidingWindowCounter failedLoginAttemptsPerIp;
+	private final SlidingWindowCounter failedLoginAttemptsPerAccount;
+
+	private final LongAdder allowedLoginAttemptCount = new LongAdder();
+	private final LongAdder blockedLoginAttemptCount = new LongAdder();
 
 	/**
-	 * Constructor, which initializes 
+	 * Constructor, which initializes
 	 * the login limit service's
-	 * internal loading cache, which is used
-	 * for blocking/unblocking IP addresses.
+	 * internal counters, which are used
+	 * for blocking/unblocking IP addresses and accounts.
 	 */
-	public LoginLimitService() {
-		super();
-
-		loginAttemptsCache = CacheBuilder.newBuilder()
-			.expireAfterWrite(BLOCK_TIME_IN_MINUTES, TimeUnit.MINUTES)
-			.build(
-				new CacheLoader<String, Integer>() {
-					public Integer load(String key) {
-						return 0;
-					}
-				}
-			);
+	@Autowired
+	public LoginLimitService(
+		@Value("${security.login-limit.max-failed-attempts-per-ip:3}") int maxNumberOfFailedLoginAttemptsPerIp,
+		@Value("${security.login-limit.max-failed-attempts-per-account:10}") int maxNumberOfFailedLoginAttemptsPerAccount,
+		@Value("${security.login-limit.block-time:10}") int blockTimeInMinutes,
+		@Value("${security.login-limit.max-tracked-keys:100000}") int maxNumberOfTrackedKeys)
+	{
+		this.maxNumberOfConsecutiveFailedLoginAttempts = maxNumberOfFailedLoginAttemptsPerIp;
+		this.maxNumberOfFailedLoginAttemptsPerAccount = maxNumberOfFailedLoginAttemptsPerAccount;
+		this.blockTimeInMinutes = blockTimeInMinutes;
+
+		long blockTimeInMillis = TimeUnit.MINUTES.toMillis(blockTimeInMinutes);
+		this.failedLoginAttemptsPerIp = new SlidingWindowCounter(maxNumberOfFailedLoginAttemptsPerIp, blockTimeInMillis, maxNumberOfTrackedKeys);
+		this.failedLoginAttemptsPerAccount = new SlidingWindowCounter(maxNumberOfFailedLoginAttemptsPerAccount, blockTimeInMillis, maxNumberOfTrackedKeys);
 	}
 
 	/**
-	 * Resets the passed IP address'
-	 * consecutive failed login attempt counter 
-	 * (only if the IP is not currently blocked).
+	 * Checks if a login attempt from the passed IP address
+	 * with the passed username is allowed
+	 * and throws an exception if the IP or the account is currently blocked.
 	 */
-	public void loginSucceeded(String ipAddress) {
-		if (!isBlockedIpAddress(ipAddress)) {
-			loginAttemptsCache.invalidate(ipAddress);
+	public void checkLoginAttempt(String ipAddress, String username) {
+		if (isBlockedIpAddress(ipAddress)) {
+			blockedLoginAttemptCount.increment();
+			throw new IpAddressBlockedException(
+				"IP blocked for " + blockTimeInMinutes + " minutes (max consecutive invalid login attempts reached)!"
+			);
 		}
+
+		if (isBlockedAccount(username)) {
+			blockedLoginAttemptCount.increment();
+			throw new LoginBlockedException(
+				"Login blocked for " + blockTimeInMinutes + " minutes (max invalid login attempts for this account reached)!"
+			);
+		}
+
+		allowedLoginAttemptCount.increment();
 	}
 
 	/**
-	 * Increments the passed IP address'
-	 * consecutive failed login attempt counter.
+	 * Resets the passed IP address' and account's
+	 * failed login attempt counters
+	 * (only if they are not currently blocked).
 	 */
-	public void loginFailed(String ipAddress) {
-		int attempts = 0;
-
-		try {
-			attempts = loginAttemptsCache.get(ipAddress);
-		} catch (ExecutionException e) {
-			attempts = 0;
+	public void loginSucceeded(String ipAddress, String username) {
+		if (!isBlockedIpAddress(ipAddress) && !isBlockedAccount(username)) {
+			failedLoginAttemptsPerIp.reset( toIpAddressKey(ipAddress) );
+			if (username != null) {
+				failedLoginAttemptsPerAccount.reset( toAccountKey(username) );
+			}
 		}
+	}
 
-		attempts++;
+	/**
+	 * Increments the passed IP address' and account's
+	 * failed login attempt counters.
+	 */
+	public void loginFailed(String ipAddress, String username) {
+		long now = System.currentTimeMillis();
 
-		loginAttemptsCache.put(ipAddress, attempts);
+		failedLoginAttemptsPerIp.record( toIpAddressKey(ipAddress), now );
+		if (username != null) {
+			failedLoginAttemptsPerAccount.record( toAccountKey(username), now );
+		}
 	}
 
 	/**
 	 * Checks if the passed IP address is currently blocked.
 	 */
 	public boolean isBlockedIpAddress(String ipAddress) {
-		boolean isBlockedIpAddress = false;
+		return failedLoginAttemptsPerIp.isLimitReached( toIpAddressKey(ipAddress), System.currentTimeMillis() );
+	}
 
-		try {
-			int currentNumberOfConsecutiveFailedLoginAttempts = loginAttemptsCache.get(ipAddress);
-			isBlockedIpAddress = (currentNumberOfConsecutiveFailedLoginAttempts >= MAX_NUMBER_OF_CONSECUTIVE_FAILED_LOGIN_ATTEMPTS);
-		}
-		catch (ExecutionException e) {
-			isBlockedIpAddress = false;
+	/**
+	 * Checks if the logins with the passed username are currently blocked.
+	 */
+	public boolean isBlockedAccount(String username) {
+		if (username == null) {
+			return false;
 		}
 
-		return isBlockedIpAddress;
+		return failedLoginAttemptsPerAccount.isLimitReached( toAccountKey(username), System.currentTimeMillis() );
 	}
 
 	/**
-	 * Returns the login limit service's 
+	 * Returns the login limit service's
 	 * block time limit (in minutes).
 	 */
 	public int getBlockTimeInMinutes() {
-		return BLOCK_TIME_IN_MINUTES;
+		return blockTimeInMinutes;
 	}
 
 	/**
-	 * Extracts the client's IP address 
+	 * Extracts the client's IP address
 	 * from a HTTP request
 	 * and returns it as a string.
 	 */
@@ -117,22 +165,64 @@ public class LoginLimitService {
 			return request.getRemoteAddr();
 		}
 
-		return xfHeader.split(",")[0];
+		return xfHeader.split(",")[0].trim();
 	}
-	
+
 	/**
-	 * Returns the login limit service's 
-	 * consecutive failed login attempt limit.
+	 * Returns the login limit service's
+	 * consecutive failed login attempt limit (per IP address).
 	 */
 	public int getMaxNumberOfConsecutiveFailedLoginAttempts() {
-		return MAX_NUMBER_OF_CONSECUTIVE_FAILED_LOGIN_ATTEMPTS;
+		return maxNumberOfConsecutiveFailedLoginAttempts;
+	}
+
+	/**
+	 * Returns the login limit service's
+	 * failed login attempt limit per account.
+	 */
+	public int getMaxNumberOfFailedLoginAttemptsPerAccount() {
+		return maxNumberOfFailedLoginAttemptsPerAccount;
 	}
-	
+
 	/**
-	 * Unblocks all IPs in the cache.
+	 * Unblocks all IPs and accounts.
 	 */
 	public void unblockAllIps() {
-		loginAttemptsCache.invalidateAll();
+		failedLoginAttemptsPerIp.clear();
+		failedLoginAttemptsPerAccount.clear();
+	}
+
+	/*
+	 * Metrics
+	 */
+
+	public long getAllowedLoginAttemptCount() {
+		return allowedLoginAttemptCount.sum();
+	}
+
+	public long getBlockedLoginAttemptCount() {
+		return blockedLoginAttemptCount.sum();
+	}
+
+	public int getTrackedIpAddressCount() {
+		return failedLoginAttemptsPerIp.size();
+	}
+
+	public int getTrackedAccountCount() {
+		return failedLoginAttemptsPerAccount.size();
+	}
+
+	public long getEvictedKeyCount() {
+		return failedLoginAttemptsPerIp.getEvictionCount() + failedLoginAttemptsPerAccount.getEvictionCount();
+	}
+
+	private String toIpAddressKey(String ipAddress) {
+		return (ipAddress.length() > MAX_IP_ADDRESS_LENGTH) ? ipAddress.substring(0, MAX_IP_ADDRESS_LENGTH) : ipAddress;
+	}
+
+	private String toAccountKey(String username) {
+		String accountKey = username.toLowerCase(Locale.ROOT);
+		return (accountKey.length() > MAX_USERNAME_LENGTH) ? accountKey.substring(0, MAX_USERNAME_LENGTH) : accountKey;
 	}
 
-}
\ No newline at end of file
+}
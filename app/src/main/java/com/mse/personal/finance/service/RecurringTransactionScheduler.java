@@ -0,0 +1,213 @@
+package com.mse.personal.finance.service;
+
+import java.lang.invoke.MethodHandles;
+import java.time.LocalDate;
+import java.util.Date;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Runs the execution of due recurring transactions (see {@link RecurringTransactionService})
+ * on a pool of worker threads.
+ *
+ * On every poll, each worker claims & executes batches of due recurring transactions,
+ * until it claims a batch, which is not full (i.e. there are no more due transactions).
+ * A poll is skipped if the workers of the previous one are still running,
+ * so the scheduler's thread (which is shared with the other scheduled jobs) never waits for them.
+ * A failed batch is rolled back (its transactions stay due) and its worker stops until the next poll
+ * (a failed recurring transaction does not fail its batch - see RecurringTransactionService).
+ *
+ * The scheduler can be disabled with the "transactions.recurring.enabled" property
+ * (e.g. on instances, which should only serve requests).
+ *
+ * @author dvt32
+ */
+@Component
+@ConditionalOnProperty(name = "transactions.recurring.enabled", havingValue = "true", matchIfMissing = true)
+public class RecurringTransactionScheduler
+	implements DisposableBean
+{
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+
+	private final RecurringTransactionService recurringTransactionService;
+	private final int workers;
+	private final int batchSize;
+	private final ThreadPoolExecutor workerExecutor;
+
+	private final LongAdder batchCount = new LongAdder();
+	private final LongAdder failedBatchCount = new LongAdder();
+	private final LongAdder claimedTransactionCount = new LongAdder();
+	private final LongAdder failedTransactionCount = new LongAdder();
+	private final LongAdder executedOccurrenceCount = new LongAdder();
+	private final LongAdder skippedOccurrenceCount = new LongAdder();
+	private final LongAdder invalidOccurrenceCount = new LongAdder();
+	private final LongAdder totalBatchTimeNanos = new LongAdder();
+
+	@Autowired
+	public RecurringTransactionScheduler(
+		RecurringTransactionService recurringTransactionService,
+		@Value("${transactions.recurring.workers:2}") int workers,
+		@Value("${transactions.recurring.batch-size:100}") int batchSize)
+	{
+		this.recurringTransactionService = recurringTransactionService;
+		this.workers = workers;
+		this.batchSize = batchSize;
+		this.workerExecutor = new ThreadPoolExecutor(
+			workers,
+			workers,
+			0L,
+			TimeUnit.MILLISECONDS,
+			new LinkedBlockingQueue<>(),
+			new WorkerThreadFactory()
+		);
+	}
+
+	/**
+	 * Starts the workers, which execute the recurring transactions due today.
+	 *
+	 * The poll runs every minute by default (the interval can be changed
+	 * with the "transactions.recurring.poll-interval" property).
+	 */
+	@Scheduled(fixedDelayString = "${transactions.recurring.poll-interval:60000}")
+	public void pollDueTransactions() {
+		boolean previousPollRunning = ( workerExecutor.getActiveCount() > 0 || !workerExecutor.getQueue().isEmpty() );
+		if (previousPollRunning) {
+			return;
+		}
+
+		Date today = java.sql.Date.valueOf( LocalDate.now() );
+		for (int i = 0; i < workers; ++i) {
+			workerExecutor.execute( () -> executeDueTransactions(today) );
+		}
+	}
+
+	/**
+	 * Claims & executes batches of due recurring transactions, until there are no more due transactions.
+	 */
+	private void executeDueTransactions(Date today) {
+		while ( !workerExecutor.isShutdown() ) {
+			long startTime = System.nanoTime();
+
+			RecurringTransactionService.BatchResult batchResult;
+			try {
+				batchResult = recurringTransactionService.executeDueTransactions(today, batchSize);
+			}
+			catch (RuntimeException e) {
+				failedBatchCount.increment();
+				LOGGER.error("Failed to execute a batch of recurring transactions", e);
+				return;
+			}
+			finally {
+				totalBatchTimeNanos.add(System.nanoTime() - startTime);
+			}
+
+			batchCount.increment();
+			claimedTransactionCount.add( batchResult.getClaimedTransactions() );
+			failedTransactionCount.add( batchResult.getFailedTransactions() );
+			executedOccurrenceCount.add( batchResult.getExecutedOccurrences() );
+			skippedOccurrenceCount.add( batchResult.getSkippedOccurrences() );
+			invalidOccurrenceCount.add( batchResult.getInvalidOccurrences() );
+
+			if (batchResult.getClaimedTransactions() > 0) {
+				LOGGER.info(
+					"Executed {} occurrences of {} recurring transactions ({} already executed, {} invalid, {} failed transactions)",
+					batchResult.getExecutedOccurrences(),
+					batchResult.getClaimedTransactions(),
+					batchResult.getSkippedOccurrences(),
+					batchResult.getInvalidOccurrences(),
+					batchResult.getFailedTransactions()
+				);
+			}
+
+			if (batchResult.getClaimedTransactions() < batchSize) {
+				return;
+			}
+		}
+	}
+
+	@Override
+	public void destroy() {
+		workerExecutor.shutdown();
+	}
+
+	/*
+	 * Metrics
+	 */
+
+	public int getActiveWorkerCount() {
+		return workerExecutor.getActiveCount();
+	}
+
+	public long getBatchCount() {
+		return batchCount.sum();
+	}
+
+	public long getFailedBatchCount() {
+		return failedBatchCount.sum();
+	}
+
+	public long getClaimedTransactionCount() {
+		return claimedTransactionCount.sum();
+	}
+
+	public long getFailedTransactionCount() {
+		return failedTransactionCount.sum();
+	}
+
+	public long getExecutedOccurrenceCount() {
+		return executedOccurrenceCount.sum();
+	}
+
+	public long getSkippedOccurrenceCount() {
+		return skippedOccurrenceCount.sum();
+	}
+
+	public long getInvalidOccurrenceCount() {
+		return invalidOccurrenceCount.sum();
+	}
+
+	public long getTotalBatchTimeNanos() {
+		return totalBatchTimeNanos.sum();
+	}
+
+	/**
+	 * Returns the number of executed occurrences per second of batch time (of all workers).
+	 */
+	public double getExecutedOccurrencesPerSecond() {
+		long totalBatchTimeNanos = getTotalBatchTimeNanos();
+		return (totalBatchTimeNanos > 0) ? getExecutedOccurrenceCount() * 1_000_000_000.0d / totalBatchTimeNanos : 0.0d;
+	}
+
+	/**
+	 * Creates the worker threads (named "recurring-transactions-N", so they can be recognized in thread dumps).
+	 */
+	private static final class WorkerThreadFactory
+		implements ThreadFactory
+	{
+
+		private final AtomicInteger threadCount = new AtomicInteger();
+
+		@Override
+		public Thread newThread(Runnable runnable) {
+			Thread thread = new Thread(runnable, "recurring-transactions-" + threadCount.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		}
+
+	}
+
+}
@@ -0,0 +1,213 @@
+package com.mse.personal.finance.service;
+
+import java.lang.invoke.MethodHandles;
+import java.util.Date;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.mse.personal.finance.db.entity.TransactionEntity;
+import com.mse.personal.finance.db.repository.TransactionRepository;
+import com.mse.personal.finance.model.TransactionRecurrence;
+
+/**
+ * Service for executing the due occurrences of recurring transactions
+ * (transactions with a recurrence rule, which should be automatically executed - see {@link TransactionRecurrence}).
+ *
+ * Each recurring transaction has the date of its next execution (an indexed column).
+ * The due transactions are claimed in batches with row locks, which are skipped by the other claims,
+ * so several workers (and application instances) can execute them at the same time.
+ * The locks are held by the batch's database transaction, which updates the next execution dates,
+ * while the occurrences of each recurring transaction are executed in a database transaction of their own
+ * (so every worker uses two connections at once).
+ * A recurring transaction, whose execution fails, does not roll back the rest of the batch.
+ * It stays due, but it is not claimed again before its retry time (set with the "transactions.recurring.retry-delay" property),
+ * so it does not stall the claims of the other transactions.
+ *
+ * Every occurrence is a new transaction with an idempotency key (made of the recurring transaction's ID
+ * and the occurrence's date), which is unique in the database.
+ * An occurrence, whose key already exists, is skipped, so no occurrence is executed twice,
+ * even if the next execution date is reset (or its update is rolled back after the occurrences were committed).
+ * An update of the recurring transaction's date or recurrence rule changes the dates (and keys) of its occurrences,
+ * so the transaction is then rescheduled after today and after its last executed occurrence (see TransactionService).
+ *
+ * The batches are run by {@link RecurringTransactionScheduler}.
+ *
+ * @author dvt32
+ */
+@Service
+public class RecurringTransactionService {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+
+	private final TransactionRepository transactionRepository;
+	private final TransactionService transactionService;
+	private final TransactionTemplate occurrencesTransactionTemplate;
+	private final int maxOccurrencesPerClaim;
+	private final long retryDelay;
+
+	@Autowired
+	public RecurringTransactionService(
+		TransactionRepository transactionRepository,
+		TransactionService transactionService,
+		PlatformTransactionManager transactionManager,
+		@Value("${transactions.recurring.max-occurrences-per-claim:100}") int maxOccurrencesPerClaim,
+		@Value("${transactions.recurring.retry-delay:600000}") long retryDelay)
+	{
+		this.transactionRepository = transactionRepository;
+		this.transactionService = transactionService;
+		this.occurrencesTransactionTemplate = new TransactionTemplate(transactionManager);
+		this.occurrencesTransactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+		this.maxOccurrencesPerClaim = maxOccurrencesPerClaim;
+		this.retryDelay = retryDelay;
+	}
+
+	/**
+	 * Claims a batch of recurring transactions, which are due on the passed day (or earlier),
+	 * and executes their due occurrences.
+	 *
+	 * A recurring transaction, which has more due occurrences than the max number of occurrences per claim
+	 * (e.g. after a downtime), stays due and its remaining occurrences are executed by the next batches.
+	 */
+	@Transactional
+	public BatchResult executeDueTransactions(Date today, int batchSize) {
+		Date now = new Date();
+		List<TransactionEntity> dueTransactionEntities = transactionRepository.findDueRecurringTransactions( today, now, PageRequest.of(0, batchSize) );
+
+		BatchResult batchResult = new BatchResult( dueTransactionEntities.size() );
+		for (TransactionEntity recurringTransactionEntity : dueTransactionEntities) {
+			Long recurringTransactionId = recurringTransactionEntity.getId();
+			BatchResult occurrencesResult = new BatchResult(1);
+			Date nextExecutionDate;
+			try {
+				nextExecutionDate = occurrencesTransactionTemplate.execute( 
+					status -> executeDueOccurrences(recurringTransactionEntity, today, occurrencesResult) 
+				);
+			}
+			catch (RuntimeException e) {
+				Date retryTime = new Date(now.getTime() + retryDelay);
+				batchResult.failedTransactions++;
+				LOGGER.error("Failed to execute recurring transaction {}, the execution is retried after {}", recurringTransactionId, retryTime, e);
+				transactionRepository.updateExecutionRetryTimeById(recurringTransactionId, retryTime);
+				continue;
+			}
+
+			batchResult.add(occurrencesResult);
+			transactionRepository.updateNextExecutionDateById(recurringTransactionId, nextExecutionDate);
+		}
+
+		return batchResult;
+	}
+
+	/**
+	 * Executes the due occurrences of a claimed recurring transaction and returns its next execution date.
+	 *
+	 * The entity belongs to the claim's persistence context, so it is only read (the caller updates its next execution date).
+	 */
+	private Date executeDueOccurrences(TransactionEntity recurringTransactionEntity, Date today, BatchResult batchResult) {
+		Long recurringTransactionId = recurringTransactionEntity.getId();
+		Date dateOfCompletion = recurringTransactionEntity.getDateOfCompletion();
+		TransactionRecurrence recurrence = TransactionRecurrence.fromString( recurringTransactionEntity.getRecurring() );
+
+		Date executionDate = (recurrence != TransactionRecurrence.NO) ? recurringTransactionEntity.getNextExecutionDate() : null;
+		int occurrences = 0;
+		while ( executionDate != null && !executionDate.after(today) && occurrences < maxOccurrencesPerClaim ) {
+			String idempotencyKey = getIdempotencyKey(recurringTransactionId, executionDate);
+			if ( transactionRepository.existsByIdempotencyKey(idempotencyKey) ) {
+				batchResult.skippedOccurrences++;
+			}
+			else if ( transactionService.executeRecurringTransactionOccurrence(recurringTransactionEntity, executionDate, idempotencyKey) != null ) {
+				batchResult.executedOccurrences++;
+			}
+			else {
+				batchResult.invalidOccurrences++;
+				LOGGER.warn("Recurring transaction {} was not executed on {}, because its from-to data is not valid anymore", recurringTransactionId, executionDate);
+			}
+
+			occurrences++;
+			executionDate = recurrence.getNextExecutionDate(dateOfCompletion, executionDate);
+		}
+
+		return executionDate;
+	}
+
+	/**
+	 * Returns the idempotency key of the occurrence of a recurring transaction on the passed date.
+	 */
+	private String getIdempotencyKey(Long recurringTransactionId, Date executionDate) {
+		// Occurrences are identified by day (as stored in the database), not by exact time
+		return getIdempotencyKeyPrefix(recurringTransactionId) + new java.sql.Date( executionDate.getTime() );
+	}
+
+	/**
+	 * Returns the prefix of the idempotency keys of all occurrences of a recurring transaction.
+	 */
+	static String getIdempotencyKeyPrefix(Long recurringTransactionId) {
+		return "recurring-" + recurringTransactionId + "-";
+	}
+
+	/**
+	 * The numbers of claimed (and failed) recurring transactions and of their (executed/skipped/invalid) occurrences in a batch.
+	 */
+	public static class BatchResult {
+
+		private final int claimedTransactions;
+		private int executedOccurrences = 0;
+		private int skippedOccurrences = 0;
+		private int invalidOccurrences = 0;
+		private int failedTransactions = 0;
+
+		private BatchResult(int claimedTransactions) {
+			this.claimedTransactions = claimedTransactions;
+		}
+
+		public int getClaimedTransactions() {
+			return this.claimedTransactions;
+		}
+
+		/**
+		 * Returns the number of created & executed occurrences.
+		 */
+		public int getExecutedOccurrences() {
+			return this.executedOccurrences;
+		}
+
+		/**
+		 * Returns the number of occurrences, which had already been executed (their idempotency keys existed).
+		 */
+		public int getSkippedOccurrences() {
+			return this.skippedOccurrences;
+		}
+
+		/**
+		 * Returns the number of occurrences, which were not executed, because their from-to data was not valid anymore.
+		 */
+		public int getInvalidOccurrences() {
+			return this.invalidOccurrences;
+		}
+
+		/**
+		 * Returns the number of recurring transactions, whose execution failed (their occurrences are not counted).
+		 */
+		public int getFailedTransactions() {
+			return this.failedTransactions;
+		}
+
+		private void add(BatchResult batchResult) {
+			this.executedOccurrences += batchResult.executedOccurrences;
+			this.skippedOccurrences += batchResult.skippedOccurrences;
+			this.invalidOccurrences += batchResult.invalidOccurrences;
+		}
+
+	}
+
+}
@@ -66,16 +66,7 @@ public class ReportingPeriodService {
 	public ReportingPeriod getReportingPeriodById(Long id) 
 		throws ReportingPeriodNotFoundException, UserDoesNotOwnResourceException
 	{
-		boolean existsById = reportingPeriodRepository.existsById(id);
-		if (!existsById) {
-			throw new ReportingPeriodNotFoundException(id);
-		}
-		
-		ReportingPeriodEntity reportingPeriodEntity = reportingPeriodRepository.findById(id).get();
-		boolean belongsToCurrentlyLoggedInUser = serviceUtils.belongsToCurrentlyLoggedInUser(reportingPeriodEntity);
-		if (!belongsToCurrentlyLoggedInUser) {
-			throw new UserDoesNotOwnResourceException();
-		}
+		ReportingPeriodEntity reportingPeriodEntity = getReportingPeriodEntityOfCurrentUserById(id);
 		
 		ReportingPeriod reportingPeriodDTO = reportingPeriodMapper.fromEntity(reportingPeriodEntity);
 		
@@ -107,16 +98,7 @@ public class ReportingPeriodService {
 	public ReportingPeriod updateReportingPeriodById(Long id, ReportingPeriodRequest reportingPeriod) 
 		throws ReportingPeriodNotFoundException, UserDoesNotOwnResourceException
 	{
-		boolean existsById = reportingPeriodRepository.existsById(id);
-		if (!existsById) {
-			throw new ReportingPeriodNotFoundException(id);
-		}
-		
-		ReportingPeriodEntity reportingPeriodEntity = reportingPeriodRepository.findById(id).get();
-		boolean belongsToCurrentlyLoggedInUser = serviceUtils.belongsToCurrentlyLoggedInUser(reportingPeriodEntity);
-		if (!belongsToCurrentlyLoggedInUser) {
-			throw new UserDoesNotOwnResourceException();
-		}
+		ReportingPeriodEntity reportingPeriodEntity = getReportingPeriodEntityOfCurrentUserById(id);
 		
 		ReportingPeriodEntity updatedReportingPeriodEntity = reportingPeriodMapper.toEntity(reportingPeriod);
 		// ID and owner are not included in the request DTO and must be set manually.
@@ -139,16 +121,7 @@ public class ReportingPeriodService {
 	public ReportingPeriod deleteReportingPeriodById(Long id) 
 		throws ReportingPeriodNotFoundException, UserDoesNotOwnResourceException
 	{
-		boolean existsById = reportingPeriodRepository.existsById(id);
-		if (!existsById) {
-			throw new ReportingPeriodNotFoundException("Reporting period with this ID does not exist!");
-		}
-		
-		ReportingPeriodEntity reportingPeriodEntity = reportingPeriodRepository.findById(id).get();
-		boolean belongsToCurrentlyLoggedInUser = serviceUtils.belongsToCurrentlyLoggedInUser(reportingPeriodEntity);
-		if (!belongsToCurrentlyLoggedInUser) {
-			throw new UserDoesNotOwnResourceException();
-		}
+		ReportingPeriodEntity reportingPeriodEntity = getReportingPeriodEntityOfCurrentUserById(id);
 		
 		ReportingPeriod reportingPeriodDTO = reportingPeriodMapper.fromEntity(reportingPeriodEntity);
 		
@@ -157,4 +130,22 @@ public class ReportingPeriodService {
 		return reportingPeriodDTO;
 	}
 	
+	/**
+	 * Returns the reporting period entity with the passed ID, 
+	 * if it belongs to the currently logged-in user
+	 * (see {@link ServiceUtils#getEntityOfCurrentlyLoggedInUserById}).
+	 */
+	private ReportingPeriodEntity getReportingPeriodEntityOfCurrentUserById(Long id) 
+		throws ReportingPeriodNotFoundException, UserDoesNotOwnResourceException
+	{
+		ReportingPeriodEntity reportingPeriodEntity = serviceUtils.getEntityOfCurrentlyLoggedInUserById(
+			id, 
+			reportingPeriodRepository::findByIdAndUserId, 
+			reportingPeriodRepository::existsById, 
+			() -> new ReportingPeriodNotFoundException(id)
+		);
+		
+		return reportingPeriodEntity;
+	}
+	
 }
\ No newline at end of file
@@ -1,6 +1,12 @@
 package com.mse.personal.finance.service;
 
+import java.util.Optional;
+import java.util.function.BiFunction;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.authentication.AbstractAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Component;
@@ -12,6 +18,9 @@ import com.mse.personal.finance.db.entity.ReportingPeriodEntity;
 import com.mse.personal.finance.db.entity.TransactionEntity;
 import com.mse.personal.finance.db.entity.UserEntity;
 import com.mse.personal.finance.db.repository.UserRepository;
+import com.mse.personal.finance.model.UserAuthenticationDetails;
+import com.mse.personal.finance.rest.exception.ResourceNotFoundException;
+import com.mse.personal.finance.rest.exception.UserDoesNotOwnResourceException;
 
 /**
  * This class provides helper methods 
@@ -38,15 +47,101 @@ public class ServiceUtils {
 		return usernameOfCurrentlyLoggedInUser;
 	}
 	
+	/**
+	 * Returns the ID of the currently logged-in user.
+	 * 
+	 * If the authentication's principal was loaded from the database
+	 * (e.g. by the JWT filter), the ID is read from it directly
+	 * and no database query is made.
+	 */
+	public Long getCurrentlyLoggedInUserId() {
+		Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+		Object principal = authentication.getPrincipal();
+		if (principal instanceof UserAuthenticationDetails) {
+			Long currentlyLoggedInUserId = ( (UserAuthenticationDetails) principal ).getId();
+			if (currentlyLoggedInUserId != null) {
+				return currentlyLoggedInUserId;
+			}
+		}
+		
+		Long currentlyLoggedInUserId = getCurrentlyLoggedInUserEntity().getId();
+		return currentlyLoggedInUserId;
+	}
+	
 	/**
 	 * Returns the UserEntity object corresponding to the currently logged-in user.
+	 * 
+	 * The entity is retrieved from the database only once per authentication 
+	 * (i.e. once per request, because the JWT filter creates a new authentication for each request)
+	 * and is then stored as the authentication's details, so that it can be reused by all services.
 	 */
 	public UserEntity getCurrentlyLoggedInUserEntity() {
+		Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+		Object authenticationDetails = authentication.getDetails();
+		if (authenticationDetails instanceof UserEntity) {
+			return (UserEntity) authenticationDetails;
+		}
+		
 		String currentlyLoggedInUserEmail = getUsernameOfCurrentlyLoggedInUser();
 		UserEntity currentlyLoggedInUserEntity = userRepository.findByEmail(currentlyLoggedInUserEmail).get();
+		
+		// Only cache the entity if the details slot is not already used for something else
+		// (e.g. the web authentication details set by HTTP Basic Auth).
+		boolean canCacheEntity = ( authentication instanceof AbstractAuthenticationToken && authenticationDetails == null );
+		if (canCacheEntity) {
+			( (AbstractAuthenticationToken) authentication ).setDetails(currentlyLoggedInUserEntity);
+		}
+		
 		return currentlyLoggedInUserEntity;
 	}
 	
+	/**
+	 * Removes the cached UserEntity object of the currently logged-in user 
+	 * (should be called after the user's data has been changed or deleted).
+	 */
+	public void clearCurrentlyLoggedInUserEntity() {
+		Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+		boolean hasCachedEntity = ( authentication instanceof AbstractAuthenticationToken && authentication.getDetails() instanceof UserEntity );
+		if (hasCachedEntity) {
+			( (AbstractAuthenticationToken) authentication ).setDetails(null);
+		}
+	}
+	
+	/**
+	 * Returns the entity with the passed ID, if it belongs to the currently logged-in user.
+	 * 
+	 * The entity is retrieved with a single owner-scoped query (by ID and owner ID).
+	 * Only if no entity is found, a second query checks if an entity with this ID exists at all,
+	 * so that a missing entity can still be told apart from another user's entity.
+	 * 
+	 * @param id the ID of the entity
+	 * @param findByIdAndOwnerId the repository's owner-scoped finder (called with the ID and the owner's ID)
+	 * @param existsById the repository's existence check
+	 * @param notFoundExceptionSupplier creates the exception thrown if the entity does not exist
+	 * 
+	 * @throws UserDoesNotOwnResourceException if the entity belongs to another user
+	 */
+	public <T extends BaseEntity> T getEntityOfCurrentlyLoggedInUserById(
+		Long id,
+		BiFunction<Long, Long, Optional<T>> findByIdAndOwnerId,
+		Predicate<Long> existsById,
+		Supplier<? extends ResourceNotFoundException> notFoundExceptionSupplier)
+		throws ResourceNotFoundException, UserDoesNotOwnResourceException
+	{
+		Long currentlyLoggedInUserId = getCurrentlyLoggedInUserId();
+		Optional<T> entity = findByIdAndOwnerId.apply(id, currentlyLoggedInUserId);
+		if (entity.isPresent()) {
+			return entity.get();
+		}
+		
+		boolean entityExists = existsById.test(id);
+		if (entityExists) {
+			throw new UserDoesNotOwnResourceException();
+		}
+		
+		throw notFoundExceptionSupplier.get();
+	}
+	
 	/**
 	 * Checks if a passed entity belongs to the currently logged-in user.
 	 * 
@@ -54,9 +149,18 @@ public class ServiceUtils {
 	 * 		   false if it doesn't or if the passed entity does not have an owner 
 	 */
 	public boolean belongsToCurrentlyLoggedInUser(BaseEntity entity) {
-		boolean belongsToCurrentlyLoggedInUser = false;
-		
-		UserEntity currentlyLoggedInUserEntity = getCurrentlyLoggedInUserEntity();
+		return belongsToUser( entity, getCurrentlyLoggedInUserId() );
+	}
+	
+	/**
+	 * Checks if a passed entity belongs to the user with the passed ID
+	 * (e.g. when there is no logged-in user, because the entity is processed by a scheduled job).
+	 * 
+	 * @return true if the entity belongs to the user, 
+	 * 		   false if it doesn't or if the passed entity does not have an owner 
+	 */
+	public boolean belongsToUser(BaseEntity entity, Long userId) {
+		boolean belongsToUser = false;
 		
 		UserEntity entityOwner = null;
 		if (entity instanceof AccountEntity) {
@@ -77,9 +181,10 @@ public class ServiceUtils {
 			return false;
 		}
 		
-		belongsToCurrentlyLoggedInUser = entityOwner.equals(currentlyLoggedInUserEntity);
+		// The owner is compared by ID only (comparing the whole entities would compare all of their fields)
+		belongsToUser = ( entityOwner != null && entityOwner.getId().equals(userId) );
 		
-		return belongsToCurrentlyLoggedInUser;
+		return belongsToUser;
 	}
 
 }
\ No newline at end of file
@@ -0,0 +1,215 @@
+package com.mse.personal.finance.service;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Memory-bounded counter of events per key (e.g. failed logins per IP address)
+ * within a sliding time window, used by the {@link LoginLimitService}.
+ *
+ * For each key only the times of its last "limit" events are kept,
+ * so the limit is reached exactly when "limit" events happened within the last window.
+ *
+ * The keys are split between striped maps (each guarded by its own lock),
+ * which are bounded by the maximum size: when a stripe is full,
+ * its least recently used key is evicted.
+ * Checking a key, which has no events, does not add it (or allocate anything).
+ *
+ * @author dvt32
+ */
+class SlidingWindowCounter {
+
+	private static final int STRIPE_COUNT = 16;
+	private static final int STRIPE_SHIFT = Integer.SIZE - Integer.numberOfTrailingZeros(STRIPE_COUNT);
+
+	private final int limit;
+	private final long windowMillis;
+	private final Stripe[] stripes = new Stripe[STRIPE_COUNT];
+
+	private final LongAdder evictionCount = new LongAdder();
+
+	/**
+	 * Creates a new counter.
+	 *
+	 * @param limit the number of events within the window, at which the limit is reached
+	 * @param windowMillis the duration of the sliding window (in milliseconds)
+	 * @param maxSize the maximum number of tracked keys
+	 */
+	SlidingWindowCounter(int limit, long windowMillis, int maxSize) {
+		this.limit = limit;
+		this.windowMillis = windowMillis;
+
+		int maxStripeSize = Math.max(1, maxSize / STRIPE_COUNT);
+		for (int i = 0; i < STRIPE_COUNT; i++) {
+			stripes[i] = new Stripe(maxStripeSize);
+		}
+	}
+
+	/**
+	 * Records an event of the passed key at the passed time (in epoch milliseconds).
+	 */
+	void record(String key, long now) {
+		Stripe stripe = getStripe(key);
+
+		stripe.lock.lock();
+		try {
+			Window window = stripe.windows.get(key);
+			if (window == null) {
+				window = new Window(limit);
+				stripe.windows.put(key, window);
+			}
+			window.record(now);
+		}
+		finally {
+			stripe.lock.unlock();
+		}
+	}
+
+	/**
+	 * Checks if the passed key has reached the limit of events within the window ending at the passed time.
+	 */
+	boolean isLimitReached(String key, long now) {
+		Stripe stripe = getStripe(key);
+
+		stripe.lock.lock();
+		try {
+			Window window = stripe.windows.get(key);
+			if (window == null) {
+				return false;
+			}
+
+			if ( window.isExpired(now, windowMillis) ) {
+				stripe.windows.remove(key);
+				return false;
+			}
+
+			return window.isLimitReached(now, windowMillis);
+		}
+		finally {
+			stripe.lock.unlock();
+		}
+	}
+
+	/**
+	 * Removes the events of the passed key.
+	 */
+	void reset(String key) {
+		Stripe stripe = getStripe(key);
+
+		stripe.lock.lock();
+		try {
+			stripe.windows.remove(key);
+		}
+		finally {
+			stripe.lock.unlock();
+		}
+	}
+
+	/**
+	 * Removes the events of all keys.
+	 */
+	void clear() {
+		for (Stripe stripe : stripes) {
+			stripe.lock.lock();
+			try {
+				stripe.windows.clear();
+			}
+			finally {
+				stripe.lock.unlock();
+			}
+		}
+	}
+
+	/**
+	 * Returns the number of tracked keys.
+	 */
+	int size() {
+		int size = 0;
+		for (Stripe stripe : stripes) {
+			stripe.lock.lock();
+			try {
+				size += stripe.windows.size();
+			}
+			finally {
+				stripe.lock.unlock();
+			}
+		}
+		return size;
+	}
+
+	/**
+	 * Returns the number of keys evicted because of the maximum size.
+	 */
+	long getEvictionCount() {
+		return evictionCount.sum();
+	}
+
+	private Stripe getStripe(String key) {
+		int hash = key.hashCode() * 0x9E3779B9;
+		return stripes[hash >>> STRIPE_SHIFT];
+	}
+
+	/**
+	 * A bounded map of windows (in access order, so the least recently used one is evicted first).
+	 */
+	private final class Stripe {
+
+		private final Lock lock = new ReentrantLock();
+		private final Map<String, Window> windows;
+
+		@SuppressWarnings("serial")
+		private Stripe(int maxStripeSize) {
+			this.windows = new LinkedHashMap<String, Window>(16, 0.75f, true) {
+				@Override
+				protected boolean removeEldestEntry(Map.Entry<String, Window> eldestEntry) {
+					if (size() > maxStripeSize) {
+						evictionCount.increment();
+						return true;
+					}
+					return false;
+				}
+			};
+		}
+
+	}
+
+	/**
+	 * The times of a key's last events (in a ring buffer of the limit's size).
+	 */
+	private static final class Window {
+
+		private final long[] eventTimes;
+		private int nextIndex;
+		private int eventCount;
+
+		private Window(int limit) {
+			this.eventTimes = new long[limit];
+		}
+
+		private void record(long now) {
+			eventTimes[nextIndex] = now;
+			nextIndex = (nextIndex + 1) % eventTimes.length;
+			eventCount = Math.min(eventCount + 1, eventTimes.length);
+		}
+
+		/**
+		 * The limit is reached if the oldest of the last "limit" events is within the window.
+		 */
+		private boolean isLimitReached(long now, long windowMillis) {
+			return eventCount == eventTimes.length && (now - eventTimes[nextIndex]) < windowMillis;
+		}
+
+		/**
+		 * The window is expired if even its latest event is outside of the window.
+		 */
+		private boolean isExpired(long now, long windowMillis) {
+			int latestIndex = (nextIndex + eventTimes.length - 1) % eventTimes.length;
+			return (now - eventTimes[latestIndex]) >= windowMillis;
+		}
+
+	}
+
+}
@@ -0,0 +1,76 @@
+package com.mse.personal.finance.service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Date;
+
+import com.mse.personal.finance.db.entity.TransactionEntity;
+import com.mse.personal.finance.rest.exception.InvalidDataException;
+
+/**
+ * The position of a transaction in a cursor-based (keyset) listing,
+ * which is ordered by date of completion and ID (both descending).
+ * 
+ * The cursor is sent to the client as an opaque (Base64-encoded) String
+ * and the next slice starts right after the transaction it points to.
+ * 
+ * @author dvt32
+ */
+class TransactionCursor {
+	
+	/**
+	 * The position before the first transaction (i.e. after the last possible one).
+	 * The date is the largest date supported by all databases.
+	 */
+	static final TransactionCursor START = new TransactionCursor( new Date(253402214400000L), Long.MAX_VALUE ); // 9999-12-31
+	
+	private final Date dateOfCompletion;
+	private final Long id;
+	
+	TransactionCursor(Date dateOfCompletion, Long id) {
+		this.dateOfCompletion = dateOfCompletion;
+		this.id = id;
+	}
+	
+	Date getDateOfCompletion() {
+		return this.dateOfCompletion;
+	}
+	
+	Long getId() {
+		return this.id;
+	}
+	
+	/**
+	 * Returns the encoded cursor pointing to the passed transaction.
+	 */
+	static String encode(TransactionEntity transactionEntity) {
+		String cursor = transactionEntity.getDateOfCompletion().getTime() + ":" + transactionEntity.getId();
+		return Base64.getUrlEncoder().withoutPadding().encodeToString( cursor.getBytes(StandardCharsets.UTF_8) );
+	}
+	
+	/**
+	 * Decodes a cursor sent by the client.
+	 * 
+	 * @return the decoded cursor or {@link #START} if the passed cursor is empty
+	 */
+	static TransactionCursor decode(String encodedCursor) 
+		throws InvalidDataException
+	{
+		if (encodedCursor == null || encodedCursor.trim().isEmpty()) {
+			return START;
+		}
+		
+		try {
+			String cursor = new String( Base64.getUrlDecoder().decode(encodedCursor.trim()), StandardCharsets.UTF_8 );
+			String[] cursorParts = cursor.split(":");
+			Date dateOfCompletion = new Date( Long.parseLong(cursorParts[0]) );
+			Long id = Long.valueOf(cursorParts[1]);
+			
+			return new TransactionCursor(dateOfCompletion, id);
+		}
+		catch (IllegalArgumentException | ArrayIndexOutOfBoundsException e) {
+			throw new InvalidDataException("Cursor is invalid!");
+		}
+	}
+	
+}
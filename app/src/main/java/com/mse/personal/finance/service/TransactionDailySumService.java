@@ -0,0 +1,243 @@
+package com.mse.personal.finance.service;
+
+import java.lang.invoke.MethodHandles;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedSet;
+import java.util.TreeSet;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.mse.personal.finance.db.entity.TransactionDailySumEntity;
+import com.mse.personal.finance.db.entity.TransactionEntity;
+import com.mse.personal.finance.db.repository.TransactionDailySumRepository;
+import com.mse.personal.finance.model.Money;
+import com.mse.personal.finance.model.TransactionFromType;
+import com.mse.personal.finance.model.TransactionToType;
+
+/**
+ * Service for maintaining the daily sums of user transactions
+ * (see {@link TransactionDailySumEntity}).
+ *
+ * The daily sums are updated incrementally by the services,
+ * which create, update or delete transactions,
+ * and are periodically reconciled with the existing transactions
+ * (to fix any possible differences).
+ *
+ * @author dvt32
+ */
+@Service
+public class TransactionDailySumService {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+
+	static final String REBUILD_JOB_NAME = "rebuild-transaction-daily-sums";
+
+	private final TransactionDailySumRepository transactionDailySumRepository;
+	private final JobLockService jobLockService;
+	private final TransactionTemplate reconciliationTransactionTemplate;
+	private final long rebuildLockDuration;
+
+	@PersistenceContext
+	private EntityManager entityManager;
+
+	@Autowired
+	public TransactionDailySumService(
+		TransactionDailySumRepository transactionDailySumRepository,
+		JobLockService jobLockService,
+		PlatformTransactionManager transactionManager,
+		@Value("${transactions.daily-sums.rebuild-lock-duration:3600000}") long rebuildLockDuration)
+	{
+		this.transactionDailySumRepository = transactionDailySumRepository;
+		this.jobLockService = jobLockService;
+		this.reconciliationTransactionTemplate = new TransactionTemplate(transactionManager);
+		this.reconciliationTransactionTemplate.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+		this.rebuildLockDuration = rebuildLockDuration;
+	}
+
+	/**
+	 * Adds a newly created transaction to its daily sum.
+	 */
+	public void addTransaction(TransactionEntity transactionEntity) {
+		addToDailySum(
+			transactionEntity.getUser().getId(),
+			transactionEntity.getDateOfCompletion(),
+			transactionEntity.getFromType(),
+			transactionEntity.getFromId(),
+			transactionEntity.getToType(),
+			transactionEntity.getToId(),
+			transactionEntity.getSumInMinorUnits(),
+			1L
+		);
+	}
+
+	/**
+	 * Removes an existing (updated or deleted) transaction with the passed data 
+	 * (and sum in minor units) from its daily sum.
+	 */
+	public void removeTransaction(
+		Long userId,
+		Date dateOfCompletion,
+		TransactionFromType fromType,
+		Long fromId,
+		TransactionToType toType,
+		Long toId,
+		long sumInMinorUnits)
+	{
+		addToDailySum(userId, dateOfCompletion, fromType, fromId, toType, toId, Money.negate(sumInMinorUnits), -1L);
+	}
+
+	/**
+	 * Adds the passed deltas (which can be negative, the sum delta is in minor units) to the daily sum with the passed key.
+	 * The daily sum is created if it does not exist yet
+	 * and deleted when its last transaction is removed (so that the total sum queries find no row for it).
+	 *
+	 * If two transactions create the same daily sum at the same time, the insert of the second one
+	 * waits for the first one and does nothing (because of the daily sums' unique constraint, in PostgreSQL only -
+	 * see {@link TransactionDailySumRepository#insertDailySumIfAbsent}),
+	 * so the second one adds its deltas to the daily sum, which was inserted by the first one.
+	 */
+	public void addToDailySum(
+		Long userId,
+		Date day,
+		TransactionFromType fromType,
+		Long fromId,
+		TransactionToType toType,
+		Long toId,
+		long sumDelta,
+		Long countDelta)
+	{
+		int updatedDailySums = transactionDailySumRepository.addToDailySum(userId, day, fromType, fromId, toType, toId, sumDelta, countDelta);
+		if (updatedDailySums == 0) {
+			int insertedDailySums = transactionDailySumRepository.insertDailySumIfAbsent(
+				userId, day, fromType, fromId, toType, toId, sumDelta, countDelta
+			);
+			if (insertedDailySums == 0) {
+				transactionDailySumRepository.addToDailySum(userId, day, fromType, fromId, toType, toId, sumDelta, countDelta);
+			}
+		}
+
+		// The daily sum is still locked by the update above, so no concurrent transaction can be added to it before it is deleted
+		if (countDelta < 0) {
+			transactionDailySumRepository.deleteDailySumIfEmpty(userId, day, fromType, fromId, toType, toId);
+		}
+	}
+
+	/**
+	 * Deletes all daily sums of a user (e.g. when the user is deleted).
+	 */
+	public void deleteDailySumsOfUser(Long userId) {
+		transactionDailySumRepository.deleteAllByUserId(userId);
+	}
+
+	/**
+	 * Reconciles the daily sums of all users with the existing transactions.
+	 *
+	 * The job runs every night by default (the schedule can be changed
+	 * with the "transactions.daily-sums.rebuild-cron" property).
+	 * It runs on one application instance only - the other instances skip it, while it is locked by the first one
+	 * (for the duration set with the "transactions.daily-sums.rebuild-lock-duration" property, see {@link JobLockService}).
+	 *
+	 * The daily sums are not deleted & inserted again (which would conflict with the incremental updates),
+	 * but each user's daily sums are reconciled in a database transaction of their own (see reconcileDailySumsOfUser()).
+	 */
+	@Scheduled(cron = "${transactions.daily-sums.rebuild-cron:0 0 3 * * *}")
+	public void rebuildDailySums() {
+		if ( !jobLockService.tryLock(REBUILD_JOB_NAME, rebuildLockDuration) ) {
+			LOGGER.info("Skip rebuild of transaction daily sums, it is run by another instance");
+			return;
+		}
+
+		LOGGER.info("Rebuild transaction daily sums");
+		long startTime = System.currentTimeMillis();
+
+		SortedSet<Long> userIds = new TreeSet<>( transactionDailySumRepository.findIdsOfUsersWithTransactions() );
+		userIds.addAll( transactionDailySumRepository.findIdsOfUsersWithDailySums() );
+
+		int correctedDailySums = 0;
+		int failedUsers = 0;
+		for (Long userId : userIds) {
+			try {
+				correctedDailySums += reconciliationTransactionTemplate.execute( status -> reconcileDailySumsOfUser(userId) );
+			}
+			catch (RuntimeException e) {
+				// E.g. a serialization failure, because a daily sum was updated by a concurrent transaction
+				failedUsers++;
+				LOGGER.warn("Failed to reconcile the transaction daily sums of user {}, they are reconciled by the next rebuild", userId, e);
+			}
+		}
+
+		LOGGER.info(
+			"Rebuilt transaction daily sums of {} users in {} ms ({} corrected daily sums, {} failed users)",
+			userIds.size(),
+			System.currentTimeMillis() - startTime,
+			correctedDailySums,
+			failedUsers
+		);
+	}
+
+	/**
+	 * Corrects, inserts & deletes the daily sums of a user, which differ from the user's transactions,
+	 * and returns the number of corrected daily sums.
+	 *
+	 * Must be called in a REPEATABLE READ database transaction, so the transactions & the daily sums are read from the same snapshot.
+	 * A daily sum, which is changed by a concurrent (incremental) update after the snapshot, fails the reconciliation
+	 * (with a serialization failure or a unique constraint violation), instead of overwriting the concurrent update.
+	 * The daily sums, which need no correction, are not written at all.
+	 */
+	private int reconcileDailySumsOfUser(Long userId) {
+		Map<List<Object>, TransactionDailySumEntity> expectedDailySums = new HashMap<>();
+		for ( TransactionDailySumEntity expectedDailySum : transactionDailySumRepository.getDailySumsOfTransactionsOfUser(userId) ) {
+			expectedDailySums.put( getKey(expectedDailySum), expectedDailySum );
+		}
+
+		int correctedDailySums = 0;
+		for ( TransactionDailySumEntity dailySum : transactionDailySumRepository.findAllByUserId(userId) ) {
+			TransactionDailySumEntity expectedDailySum = expectedDailySums.remove( getKey(dailySum) );
+			if (expectedDailySum == null) {
+				entityManager.remove(dailySum);
+				correctedDailySums++;
+			}
+			else if ( 
+				!dailySum.getTotalSumInMinorUnits().equals( expectedDailySum.getTotalSumInMinorUnits() ) || 
+				!dailySum.getTransactionCount().equals( expectedDailySum.getTransactionCount() ) ) 
+			{
+				dailySum
+					.setTotalSumInMinorUnits( expectedDailySum.getTotalSumInMinorUnits() )
+					.setTransactionCount( expectedDailySum.getTransactionCount() );
+				correctedDailySums++;
+			}
+		}
+
+		for ( TransactionDailySumEntity missingDailySum : expectedDailySums.values() ) {
+			entityManager.persist(missingDailySum);
+			correctedDailySums++;
+		}
+
+		return correctedDailySums;
+	}
+
+	/**
+	 * Returns the key of a daily sum (its day and from/to data), which is unique among the daily sums of a user.
+	 */
+	private static List<Object> getKey(TransactionDailySumEntity dailySum) {
+		// The day is compared as stored in the database (a loaded day and a day of a new daily sum may be of different Date classes)
+		String day = new java.sql.Date( dailySum.getDay().getTime() ).toString();
+		return Arrays.asList( day, dailySum.getFromType(), dailySum.getFromId(), dailySum.getToType(), dailySum.getToId() );
+	}
+
+}
@@ -0,0 +1,167 @@
+package com.mse.personal.finance.service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.text.SimpleDateFormat;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mse.personal.finance.db.entity.TransactionEntity;
+import com.mse.personal.finance.db.repository.TransactionRepository;
+import com.mse.personal.finance.model.Money;
+import com.mse.personal.finance.model.Transaction;
+import com.mse.personal.finance.service.mapper.TransactionMapper;
+
+/**
+ * Service for exporting all transactions of the currently logged-in user
+ * (as a CSV file or a JSON array).
+ *
+ * The transactions are read from the database as a stream
+ * and each one is written to the passed output stream
+ * and detached from the persistence context right away,
+ * so the used memory does not depend on the number of exported transactions.
+ *
+ * The CSV format is the same as the one accepted by the {@link TransactionImportService}.
+ *
+ * @author dvt32
+ */
+@Service
+public class TransactionExportService {
+
+	private static final String CSV_HEADER =
+		"id,dateOfCompletion,fromType,fromId,toType,toId,sum,description,recurring,shouldBeAutomaticallyExecuted";
+
+	private static final String CSV_DATE_FORMAT = "yyyy-MM-dd";
+
+	private final TransactionRepository transactionRepository;
+	private final TransactionMapper transactionMapper;
+	private final ServiceUtils serviceUtils;
+	private final ObjectMapper objectMapper;
+
+	@PersistenceContext
+	private EntityManager entityManager;
+
+	@Autowired
+	public TransactionExportService(
+		TransactionRepository transactionRepository,
+		TransactionMapper transactionMapper,
+		ServiceUtils serviceUtils,
+		ObjectMapper objectMapper)
+	{
+		this.transactionRepository = transactionRepository;
+		this.transactionMapper = transactionMapper;
+		this.serviceUtils = serviceUtils;
+		this.objectMapper = objectMapper;
+	}
+
+	/**
+	 * Writes all transactions of the currently logged-in user
+	 * to the passed output stream as a CSV file (with a header line).
+	 */
+	@Transactional(readOnly = true)
+	public void exportTransactionsAsCsv(OutputStream outputStream)
+		throws IOException
+	{
+		Long loggedInUserId = serviceUtils.getCurrentlyLoggedInUserId();
+
+		SimpleDateFormat dateFormat = new SimpleDateFormat(CSV_DATE_FORMAT);
+		Writer writer = new BufferedWriter( new OutputStreamWriter(outputStream, StandardCharsets.UTF_8) );
+		writer.write(CSV_HEADER);
+		writer.write('\n');
+
+		try ( Stream<TransactionEntity> transactionEntities = transactionRepository.streamAllByUserId(loggedInUserId) ) {
+			Iterator<TransactionEntity> iterator = transactionEntities.iterator();
+			while (iterator.hasNext()) {
+				TransactionEntity transactionEntity = iterator.next();
+
+				writer.write( String.valueOf(transactionEntity.getId()) );
+				writer.write(',');
+				writer.write( dateFormat.format(transactionEntity.getDateOfCompletion()) );
+				writer.write(',');
+				writer.write( transactionEntity.getFromType().name() );
+				writer.write(',');
+				writer.write( String.valueOf(transactionEntity.getFromId()) );
+				writer.write(',');
+				writer.write( transactionEntity.getToType().name() );
+				writer.write(',');
+				writer.write( String.valueOf(transactionEntity.getToId()) );
+				writer.write(',');
+				writer.write( BigDecimal.valueOf(transactionEntity.getSumInMinorUnits(), Money.SCALE).toPlainString() );
+				writer.write(',');
+				writer.write( toCsvValue(transactionEntity.getDescription()) );
+				writer.write(',');
+				writer.write( toCsvValue(transactionEntity.getRecurring()) );
+				writer.write(',');
+				writer.write( String.valueOf(transactionEntity.getShouldBeAutomaticallyExecuted()) );
+				writer.write('\n');
+
+				entityManager.detach(transactionEntity);
+			}
+		}
+
+		writer.flush();
+	}
+
+	/**
+	 * Writes all transactions of the currently logged-in user
+	 * to the passed output stream as a JSON array
+	 * (in the same format as the transactions returned by the REST API).
+	 */
+	@Transactional(readOnly = true)
+	public void exportTransactionsAsJson(OutputStream outputStream)
+		throws IOException
+	{
+		Long loggedInUserId = serviceUtils.getCurrentlyLoggedInUserId();
+
+		JsonGenerator jsonGenerator = objectMapper.getFactory().createGenerator(outputStream);
+		jsonGenerator.writeStartArray();
+
+		try ( Stream<TransactionEntity> transactionEntities = transactionRepository.streamAllByUserId(loggedInUserId) ) {
+			Iterator<TransactionEntity> iterator = transactionEntities.iterator();
+			while (iterator.hasNext()) {
+				TransactionEntity transactionEntity = iterator.next();
+
+				Transaction transactionDTO = transactionMapper.fromEntity(transactionEntity);
+				jsonGenerator.writeObject(transactionDTO);
+
+				entityManager.detach(transactionEntity);
+			}
+		}
+
+		jsonGenerator.writeEndArray();
+		jsonGenerator.flush();
+	}
+
+	/**
+	 * Returns the passed value as a CSV value
+	 * (enclosed in double quotes if it contains special characters
+	 * and an empty String if it is null).
+	 */
+	private String toCsvValue(String value) {
+		if (value == null) {
+			return "";
+		}
+
+		boolean shouldBeQuoted = value.contains(",") || value.contains("\"") || value.contains("\n") || value.contains("\r");
+		if (shouldBeQuoted) {
+			return "\"" + value.replace("\"", "\"\"") + "\"";
+		}
+
+		return value;
+	}
+
+}
@@ -0,0 +1,461 @@
+package com.mse.personal.finance.service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.validation.ConstraintViolation;
+import javax.validation.Validator;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mse.personal.finance.db.entity.AccountEntity;
+import com.mse.personal.finance.db.entity.BaseEntity;
+import com.mse.personal.finance.db.entity.CategoryEntity;
+import com.mse.personal.finance.db.entity.TransactionDailySumEntity;
+import com.mse.personal.finance.db.entity.TransactionEntity;
+import com.mse.personal.finance.db.entity.UserEntity;
+import com.mse.personal.finance.db.repository.AccountRepository;
+import com.mse.personal.finance.db.repository.CategoryRepository;
+import com.mse.personal.finance.model.Money;
+import com.mse.personal.finance.model.TransactionFromType;
+import com.mse.personal.finance.model.TransactionImportResult;
+import com.mse.personal.finance.model.TransactionToType;
+import com.mse.personal.finance.model.request.TransactionRequest;
+import com.mse.personal.finance.rest.exception.InvalidDataException;
+import com.mse.personal.finance.service.mapper.TransactionMapper;
+
+/**
+ * Service for importing transactions of the currently logged-in user in bulk
+ * (from a JSON array or a CSV file).
+ *
+ * The import is made in a single database transaction:
+ * - 1) the user's accounts & categories are loaded once (before the rows are read)
+ * - 2) each row is read from the stream, validated against the loaded entities and inserted
+ *      (the inserts are sent to the database in JDBC batches)
+ * - 3) the balance/sum changes (and daily sums) of all imported rows are aggregated
+ *      and applied once per affected account/category (and daily sum)
+ *
+ * Invalid rows are skipped and reported in the returned {@link TransactionImportResult}.
+ * If the stream itself cannot be read (e.g. it is truncated or not valid JSON),
+ * the whole import is rolled back, because the balance/sum changes of the inserted rows are only applied at its end.
+ *
+ * @author dvt32
+ */
+@Service
+public class TransactionImportService {
+
+	/**
+	 * The number of rows after which the persistence context is flushed & cleared
+	 * (should match the "hibernate.jdbc.batch_size" property).
+	 */
+	private static final int BATCH_SIZE = 50;
+
+	private static final String CSV_DATE_FORMAT = "yyyy-MM-dd";
+
+	private final AccountRepository accountRepository;
+	private final CategoryRepository categoryRepository;
+	private final TransactionMapper transactionMapper;
+	private final TransactionService transactionService;
+	private final ServiceUtils serviceUtils;
+	private final TransactionDailySumService transactionDailySumService;
+	private final ObjectMapper objectMapper;
+	private final Validator validator;
+
+	@PersistenceContext
+	private EntityManager entityManager;
+
+	@Autowired
+	public TransactionImportService(
+		AccountRepository accountRepository,
+		CategoryRepository categoryRepository,
+		TransactionMapper transactionMapper,
+		TransactionService transactionService,
+		ServiceUtils serviceUtils,
+		TransactionDailySumService transactionDailySumService,
+		ObjectMapper objectMapper,
+		Validator validator)
+	{
+		this.accountRepository = accountRepository;
+		this.categoryRepository = categoryRepository;
+		this.transactionMapper = transactionMapper;
+		this.transactionService = transactionService;
+		this.serviceUtils = serviceUtils;
+		this.transactionDailySumService = transactionDailySumService;
+		this.objectMapper = objectMapper;
+		this.validator = validator;
+	}
+
+	/**
+	 * Imports the transactions from a stream containing a JSON array of transaction requests.
+	 *
+	 * The array's elements are read one by one,
+	 * so the whole array is never loaded in memory.
+	 */
+	@Transactional(rollbackFor = Exception.class)
+	public TransactionImportResult importTransactionsFromJson(InputStream inputStream)
+		throws InvalidDataException, IOException
+	{
+		ImportContext importContext = createImportContext();
+
+		try ( JsonParser jsonParser = objectMapper.getFactory().createParser(inputStream) ) {
+			if (jsonParser.nextToken() != JsonToken.START_ARRAY) {
+				throw new InvalidDataException("Imported data must be a JSON array of transactions!");
+			}
+
+			int rowNumber = 0;
+			while (jsonParser.nextToken() != JsonToken.END_ARRAY) {
+				rowNumber++;
+				JsonNode transactionNode = jsonParser.readValueAsTree();
+
+				TransactionRequest transactionRequest = null;
+				try {
+					transactionRequest = objectMapper.treeToValue(transactionNode, TransactionRequest.class);
+				}
+				catch (JsonProcessingException e) {
+					importContext.result.addFailedRow(rowNumber, "Transaction data could not be read!");
+					continue;
+				}
+
+				importRow(importContext, rowNumber, transactionRequest);
+			}
+		}
+
+		finishImport(importContext);
+
+		return importContext.result;
+	}
+
+	/**
+	 * Imports the transactions from a CSV file.
+	 *
+	 * The first line must be a header with the names of the columns (in any order):
+	 * dateOfCompletion (yyyy-MM-dd), fromType, fromId, toType, toId, sum,
+	 * description (optional), recurring (optional), shouldBeAutomaticallyExecuted (optional).
+	 *
+	 * The file is read line by line, so it is never loaded in memory as a whole.
+	 */
+	@Transactional(rollbackFor = Exception.class)
+	public TransactionImportResult importTransactionsFromCsv(Reader reader)
+		throws InvalidDataException, IOException
+	{
+		ImportContext importContext = createImportContext();
+
+		try ( BufferedReader bufferedReader = new BufferedReader(reader) ) {
+			String headerLine = bufferedReader.readLine();
+			if (headerLine == null) {
+				throw new InvalidDataException("Imported CSV data must contain a header line!");
+			}
+
+			List<String> columnNames = parseCsvLine(headerLine);
+
+			int rowNumber = 0;
+			String line = null;
+			while ( (line = bufferedReader.readLine()) != null ) {
+				if (line.trim().isEmpty()) {
+					continue;
+				}
+				rowNumber++;
+
+				TransactionRequest transactionRequest = null;
+				try {
+					transactionRequest = toTransactionRequest(columnNames, parseCsvLine(line));
+				}
+				catch (IllegalArgumentException | ParseException e) {
+					importContext.result.addFailedRow(rowNumber, "Transaction data could not be read!");
+					continue;
+				}
+
+				importRow(importContext, rowNumber, transactionRequest);
+			}
+		}
+
+		finishImport(importContext);
+
+		return importContext.result;
+	}
+
+	/**
+	 * Loads the currently logged-in user's accounts & categories,
+	 * which will be used to validate all imported rows.
+	 */
+	private ImportContext createImportContext() {
+		ImportContext importContext = new ImportContext();
+
+		importContext.owner = serviceUtils.getCurrentlyLoggedInUserEntity();
+
+		List<AccountEntity> accounts = accountRepository.findAllNonDeletedAccountsByOwner( importContext.owner.getId() );
+		for (AccountEntity account : accounts) {
+			importContext.accounts.put(account.getId(), account);
+			importContext.accountBalances.put(account.getId(), account.getBalanceInMinorUnits());
+		}
+
+		List<CategoryEntity> categories = categoryRepository.findAllByOwner(importContext.owner);
+		for (CategoryEntity category : categories) {
+			importContext.categories.put(category.getId(), category);
+		}
+
+		return importContext;
+	}
+
+	/**
+	 * Validates a single row and (if it is valid) inserts it
+	 * and records its balance/sum changes.
+	 */
+	private void importRow(ImportContext importContext, int rowNumber, TransactionRequest transactionRequest) {
+		Set<ConstraintViolation<TransactionRequest>> constraintViolations = validator.validate(transactionRequest);
+		if (!constraintViolations.isEmpty()) {
+			String errorMessage = constraintViolations.iterator().next().getMessage();
+			importContext.result.addFailedRow(rowNumber, errorMessage);
+			return;
+		}
+
+		TransactionFromType fromType = transactionRequest.getFromType();
+		TransactionToType toType = transactionRequest.getToType();
+		Long fromId = transactionRequest.getFromId();
+		Long toId = transactionRequest.getToId();
+
+		BaseEntity fromEntity = (fromType == TransactionFromType.ACCOUNT) ? importContext.accounts.get(fromId) : importContext.categories.get(fromId);
+		BaseEntity toEntity = (toType == TransactionToType.ACCOUNT) ? importContext.accounts.get(toId) : importContext.categories.get(toId);
+
+		// The balance must include the changes made by the previously imported rows
+		Double fromAccountBalance = (fromType == TransactionFromType.ACCOUNT) ? Money.toNullableAmount( importContext.accountBalances.get(fromId) ) : null;
+
+		boolean containsValidFromToData = transactionService.containsValidFromToData(transactionRequest, fromEntity, toEntity, fromAccountBalance);
+		if (!containsValidFromToData) {
+			importContext.result.addFailedRow(rowNumber, "Transaction contains invalid from-to data!");
+			return;
+		}
+
+		TransactionEntity transactionEntity = transactionMapper.toEntity(transactionRequest);
+		transactionEntity.setUser(importContext.owner);
+		transactionService.scheduleRecurringExecution(transactionEntity);
+		entityManager.persist(transactionEntity);
+
+		long sum = transactionEntity.getSumInMinorUnits();
+		if (fromType == TransactionFromType.ACCOUNT) {
+			importContext.addToAccountBalance(fromId, Money.negate(sum));
+		}
+		else {
+			importContext.addToCategorySum(fromId, sum);
+		}
+
+		if (toType == TransactionToType.ACCOUNT) {
+			importContext.addToAccountBalance(toId, sum);
+		}
+		else {
+			importContext.addToCategorySum(toId, sum);
+		}
+
+		importContext.addToDailySum(transactionRequest, sum);
+		
+		importContext.result.addImportedRow(rowNumber, transactionEntity.getId());
+
+		// Send the pending inserts as a batch and free the memory used by the persisted entities
+		importContext.pendingRows++;
+		if (importContext.pendingRows == BATCH_SIZE) {
+			entityManager.flush();
+			entityManager.clear();
+			importContext.pendingRows = 0;
+		}
+	}
+
+	/**
+	 * Inserts the remaining rows and applies the aggregated balance/sum changes
+	 * (one UPDATE statement per affected account/category) and daily sums.
+	 */
+	private void finishImport(ImportContext importContext) {
+		entityManager.flush();
+		entityManager.clear();
+
+		for (Map.Entry<Long, Long> accountDelta : importContext.accountDeltas.entrySet()) {
+			accountRepository.addToBalanceById( accountDelta.getKey(), accountDelta.getValue() );
+		}
+
+		for (Map.Entry<Long, Long> categoryDelta : importContext.categoryDeltas.entrySet()) {
+			categoryRepository.addToCurrentPeriodSumById( categoryDelta.getKey(), categoryDelta.getValue() );
+		}
+		
+		for (TransactionDailySumEntity dailySum : importContext.dailySums.values()) {
+			transactionDailySumService.addToDailySum(
+				importContext.owner.getId(), 
+				dailySum.getDay(), 
+				dailySum.getFromType(), 
+				dailySum.getFromId(), 
+				dailySum.getToType(), 
+				dailySum.getToId(), 
+				dailySum.getTotalSumInMinorUnits(), 
+				dailySum.getTransactionCount()
+			);
+		}
+	}
+
+	/**
+	 * Creates a transaction request from a parsed CSV line
+	 * and the names of the CSV file's columns.
+	 */
+	private TransactionRequest toTransactionRequest(List<String> columnNames, List<String> values)
+		throws ParseException
+	{
+		TransactionRequest transactionRequest = new TransactionRequest();
+		transactionRequest.setShouldBeAutomaticallyExecuted(false);
+
+		for (int i = 0; i < columnNames.size() && i < values.size(); ++i) {
+			String columnName = columnNames.get(i).trim();
+			String value = values.get(i).trim();
+			if (value.isEmpty()) {
+				continue;
+			}
+
+			if (columnName.equalsIgnoreCase("dateOfCompletion")) {
+				SimpleDateFormat dateFormat = new SimpleDateFormat(CSV_DATE_FORMAT);
+				dateFormat.setLenient(false);
+				transactionRequest.setDateOfCompletion( dateFormat.parse(value) );
+			}
+			else if (columnName.equalsIgnoreCase("fromType")) {
+				transactionRequest.setFromType( TransactionFromType.valueOf(value.toUpperCase()) );
+			}
+			else if (columnName.equalsIgnoreCase("fromId")) {
+				transactionRequest.setFromId( Long.valueOf(value) );
+			}
+			else if (columnName.equalsIgnoreCase("toType")) {
+				transactionRequest.setToType( TransactionToType.valueOf(value.toUpperCase()) );
+			}
+			else if (columnName.equalsIgnoreCase("toId")) {
+				transactionRequest.setToId( Long.valueOf(value) );
+			}
+			else if (columnName.equalsIgnoreCase("sum")) {
+				transactionRequest.setSum( Double.valueOf(value) );
+			}
+			else if (columnName.equalsIgnoreCase("description")) {
+				transactionRequest.setDescription(value);
+			}
+			else if (columnName.equalsIgnoreCase("recurring")) {
+				transactionRequest.setRecurring(value);
+			}
+			else if (columnName.equalsIgnoreCase("shouldBeAutomaticallyExecuted")) {
+				transactionRequest.setShouldBeAutomaticallyExecuted( Boolean.valueOf(value) );
+			}
+		}
+
+		return transactionRequest;
+	}
+
+	/**
+	 * Splits a CSV line into its values.
+	 *
+	 * Values can be enclosed in double quotes (e.g. if they contain commas)
+	 * and double quotes inside quoted values are escaped by doubling them.
+	 */
+	private List<String> parseCsvLine(String line) {
+		List<String> values = new ArrayList<>();
+
+		StringBuilder currentValue = new StringBuilder();
+		boolean insideQuotes = false;
+		for (int i = 0; i < line.length(); ++i) {
+			char currentChar = line.charAt(i);
+
+			if (insideQuotes) {
+				if (currentChar == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+					currentValue.append('"');
+					i++;
+				}
+				else if (currentChar == '"') {
+					insideQuotes = false;
+				}
+				else {
+					currentValue.append(currentChar);
+				}
+			}
+			else if (currentChar == '"') {
+				insideQuotes = true;
+			}
+			else if (currentChar == ',') {
+				values.add( currentValue.toString() );
+				currentValue.setLength(0);
+			}
+			else {
+				currentValue.append(currentChar);
+			}
+		}
+		values.add( currentValue.toString() );
+
+		return values;
+	}
+
+	/**
+	 * Holds the state of a single import
+	 * (the preloaded entities, the aggregated balance/sum changes & daily sums and the result).
+	 */
+	private static class ImportContext {
+
+		private UserEntity owner;
+		private final Map<Long, AccountEntity> accounts = new HashMap<>();
+		private final Map<Long, CategoryEntity> categories = new HashMap<>();
+		// The balances & deltas are in minor units
+		private final Map<Long, Long> accountBalances = new HashMap<>();
+		private final Map<Long, Long> accountDeltas = new HashMap<>();
+		private final Map<Long, Long> categoryDeltas = new HashMap<>();
+		private final Map<List<Object>, TransactionDailySumEntity> dailySums = new HashMap<>();
+		private final TransactionImportResult result = new TransactionImportResult();
+		private int pendingRows = 0;
+
+		private void addToAccountBalance(Long accountId, long delta) {
+			accountBalances.merge(accountId, delta, Money::add);
+			accountDeltas.merge(accountId, delta, Money::add);
+		}
+
+		private void addToCategorySum(Long categoryId, long delta) {
+			categoryDeltas.merge(categoryId, delta, Money::add);
+		}
+
+		private void addToDailySum(TransactionRequest transactionRequest, long sum) {
+			// Transactions are grouped by day (as stored in the database), not by exact time
+			Date day = transactionRequest.getDateOfCompletion();
+			String dayKey = new java.sql.Date( day.getTime() ).toString();
+			List<Object> dailySumKey = Arrays.asList(
+				dayKey, 
+				transactionRequest.getFromType(), 
+				transactionRequest.getFromId(), 
+				transactionRequest.getToType(), 
+				transactionRequest.getToId()
+			);
+
+			TransactionDailySumEntity dailySum = dailySums.computeIfAbsent( dailySumKey, key -> 
+				new TransactionDailySumEntity(
+					owner.getId(), 
+					day, 
+					transactionRequest.getFromType(), 
+					transactionRequest.getFromId(), 
+					transactionRequest.getToType(), 
+					transactionRequest.getToId(), 
+					0L, 
+					0L
+				)
+			);
+			dailySum.setTotalSumInMinorUnits( Money.add(dailySum.getTotalSumInMinorUnits(), sum) );
+			dailySum.setTransactionCount( dailySum.getTransactionCount() + 1 );
+		}
+
+	}
+
+}
@@ -1,14 +1,22 @@
 package com.mse.personal.finance.service;
 
+import java.time.LocalDate;
 import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Lazy;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import com.mse.personal.finance.db.entity.AccountEntity;
+import com.mse.personal.finance.db.entity.BaseEntity;
 import com.mse.personal.finance.db.entity.CategoryEntity;
 import com.mse.personal.finance.db.entity.TransactionEntity;
 import com.mse.personal.finance.db.entity.UserEntity;
@@ -19,6 +27,8 @@ import com.mse.personal.finance.model.AccountType;
 import com.mse.personal.finance.model.CategoryType;
 import com.mse.personal.finance.model.Transaction;
 import com.mse.personal.finance.model.TransactionFromType;
+import com.mse.personal.finance.model.TransactionRecurrence;
+import com.mse.personal.finance.model.TransactionSlice;
 import com.mse.personal.finance.model.TransactionToType;
 import com.mse.personal.finance.model.request.TransactionRequest;
 import com.mse.personal.finance.rest.exception.InvalidDataException;
@@ -37,7 +47,6 @@ import com.mse.personal.finance.service.mapper.TransactionMapper;
  * are mapped to entities and then added to the database.
  * 
  * TODO:
- * - Fix precision issues with 'double'
  * - Implement reporting period logic
  * - Add proper exception/error messages for invalid from-to data
  * 
@@ -45,6 +54,13 @@ import com.mse.personal.finance.service.mapper.TransactionMapper;
  */
 @Service
 public class TransactionService {
+	
+	/**
+	 * The default & maximum number of transactions in a slice
+	 * returned by the cursor-based listing methods.
+	 */
+	public static final int DEFAULT_SLICE_SIZE = 20;
+	public static final int MAX_SLICE_SIZE = 100;
 
 	private final TransactionRepository transactionRepository;
 	private final TransactionMapper transactionMapper;
@@ -53,6 +69,8 @@ public class TransactionService {
 	private final AccountRepository accountRepository;
 	private final AccountService accountService;
 	private final CategoryService categoryService;
+	private final TransactionDailySumService transactionDailySumService;
+	private final DashboardService dashboardService;
 
 	/**
 	 * Constructor to autowire the service's fields.
@@ -67,7 +85,9 @@ public class TransactionService {
 		CategoryRepository categoryRepository,
 		AccountRepository accountRepository,
 		@Lazy AccountService accountService,
-		CategoryService categoryService)
+		CategoryService categoryService,
+		TransactionDailySumService transactionDailySumService,
+		DashboardService dashboardService)
 	{
 		this.transactionRepository = transactionRepository;
 		this.transactionMapper = transactionMapper;
@@ -76,6 +96,8 @@ public class TransactionService {
 		this.accountRepository = accountRepository;
 		this.accountService = accountService;
 		this.categoryService = categoryService;
+		this.transactionDailySumService = transactionDailySumService;
+		this.dashboardService = dashboardService;
 	}
 	
 	/**
@@ -107,7 +129,7 @@ public class TransactionService {
 	{
 		Page<TransactionEntity> transactionEntities = null;
 		
-		Long loggedInUserId = serviceUtils.getCurrentlyLoggedInUserEntity().getId();
+		Long loggedInUserId = serviceUtils.getCurrentlyLoggedInUserId();
 		if (type.equalsIgnoreCase("INCOME")) {
 			transactionEntities = transactionRepository.findAllIncomeTransactions(loggedInUserId, pageable);
 		}
@@ -129,6 +151,9 @@ public class TransactionService {
 	/**
 	 * Returns the total sum of transactions of a specified type.
 	 * 
+	 * The sum is taken from the total sums of all transaction types,
+	 * which are calculated with a single grouped query (see {@link DashboardService}).
+	 * 
 	 * Allowed transaction types (case-insensitive):
 	 * - "INCOME"
 	 * - "EXPENSE"
@@ -137,21 +162,10 @@ public class TransactionService {
 	public Double getTotalTransactionsSumByType(String type)
 		throws InvalidDataException
 	{
-		Double totalSum = null;
+		String transactionType = getValidTransactionType(type);
 		
-		Long loggedInUserId = serviceUtils.getCurrentlyLoggedInUserEntity().getId();
-		if (type.equalsIgnoreCase("INCOME")) {
-			totalSum = transactionRepository.getTotalIncomeTransactionsSum(loggedInUserId);
-		}
-		else if (type.equalsIgnoreCase("EXPENSE")) {
-			totalSum = transactionRepository.getTotalExpenseTransactionsSum(loggedInUserId);
-		}
-		else if (type.equalsIgnoreCase("TRANSFER")) {
-			totalSum = transactionRepository.getTotalTransferTransactionsSum(loggedInUserId);
-		}
-		else {
-			throw new InvalidDataException("Transaction type is invalid!");
-		}
+		Map<String, Double> totalSums = dashboardService.getTotalTransactionsSumsByType(null, null);
+		Double totalSum = totalSums.get(transactionType);
 		
 		return totalSum;
 	}
@@ -177,7 +191,7 @@ public class TransactionService {
 	{
 		Page<TransactionEntity> transactionEntities = null;
 		
-		Long loggedInUserId = serviceUtils.getCurrentlyLoggedInUserEntity().getId();
+		Long loggedInUserId = serviceUtils.getCurrentlyLoggedInUserId();
 		if (type.equalsIgnoreCase("INCOME")) {
 			transactionEntities = transactionRepository.findAllIncomeTransactionsBetweenDates(loggedInUserId, startDate, endDate, pageable);
 		}
@@ -200,6 +214,9 @@ public class TransactionService {
 	 * Returns the total sum of transactions of a specified type,
 	 * which were made between two dates (inclusive).
 	 * 
+	 * The sum is taken from the total sums of all transaction types,
+	 * which are calculated with a single grouped query (see {@link DashboardService}).
+	 * 
 	 * Allowed transaction types (case-insensitive):
 	 * - "INCOME"
 	 * - "EXPENSE"
@@ -208,21 +225,10 @@ public class TransactionService {
 	public Double getTotalTransactionsSumBetweenDatesByType(String type, Date startDate, Date endDate)
 		throws InvalidDataException
 	{
-		Double totalSum = null;
+		String transactionType = getValidTransactionType(type);
 		
-		Long loggedInUserId = serviceUtils.getCurrentlyLoggedInUserEntity().getId();
-		if (type.equalsIgnoreCase("INCOME")) {
-			totalSum = transactionRepository.getTotalIncomeTransactionsSumBetweenDates(loggedInUserId, startDate, endDate);
-		}
-		else if (type.equalsIgnoreCase("EXPENSE")) {
-			totalSum = transactionRepository.getTotalExpenseTransactionsSumBetweenDates(loggedInUserId, startDate, endDate);
-		}
-		else if (type.equalsIgnoreCase("TRANSFER")) {
-			totalSum = transactionRepository.getTotalTransferTransactionsSumBetweenDates(loggedInUserId, startDate, endDate);
-		}
-		else {
-			throw new InvalidDataException("Transaction type is invalid!");
-		}
+		Map<String, Double> totalSums = dashboardService.getTotalTransactionsSumsByType(startDate, endDate);
+		Double totalSum = totalSums.get(transactionType);
 		
 		return totalSum;
 	}
@@ -270,22 +276,201 @@ public class TransactionService {
 	}
 	
 	/**
-	 * Returns an existing transaction's data.
+	 * Returns a slice of transactions' data,
+	 * which starts right after the passed cursor 
+	 * (or from the newest transaction if the cursor is empty).
+	 * 
+	 * The transactions are ordered by date of completion & ID (newest first).
+	 * Unlike the Pageable methods, the time needed to retrieve a slice 
+	 * does not depend on its position and no COUNT query is executed
+	 * (unless the total number of transactions is requested).
 	 */
-	public Transaction getTransactionById(Long id) 
-		throws TransactionNotFoundException, UserDoesNotOwnResourceException
+	public TransactionSlice getTransactionsByCursor(String cursor, Integer size, boolean includeTotal) 
+		throws InvalidDataException
+	{
+		TransactionCursor decodedCursor = TransactionCursor.decode(cursor);
+		
+		Long loggedInUserId = serviceUtils.getCurrentlyLoggedInUserId();
+		Slice<TransactionEntity> transactionEntities = transactionRepository.findAllByUserAfterCursor(
+			loggedInUserId, 
+			decodedCursor.getDateOfCompletion(), 
+			decodedCursor.getId(), 
+			getSlicePageable(size)
+		);
+		
+		TransactionSlice transactionSlice = toTransactionSlice(transactionEntities);
+		if (includeTotal) {
+			UserEntity currentlyLoggedInUserEntity = serviceUtils.getCurrentlyLoggedInUserEntity();
+			transactionSlice.setTotalElements( transactionRepository.countByUser(currentlyLoggedInUserEntity) );
+		}
+		
+		return transactionSlice;
+	}
+	
+	/**
+	 * Returns a slice of transactions of a specified type's data,
+	 * which starts right after the passed cursor
+	 * (see {@link #getTransactionsByCursor(String, Integer, boolean)}).
+	 * 
+	 * Allowed transaction types (case-insensitive):
+	 * - "INCOME"
+	 * - "EXPENSE"
+	 * - "TRANSFER"
+	 */
+	public TransactionSlice getTransactionsByTypeAndCursor(String type, String cursor, Integer size, boolean includeTotal) 
+		throws InvalidDataException
+	{
+		TransactionFromType fromType = getFromTypeOfTransactionType(type);
+		TransactionToType toType = getToTypeOfTransactionType(type);
+		TransactionCursor decodedCursor = TransactionCursor.decode(cursor);
+		
+		Long loggedInUserId = serviceUtils.getCurrentlyLoggedInUserId();
+		Slice<TransactionEntity> transactionEntities = transactionRepository.findAllByTypeAfterCursor(
+			loggedInUserId, 
+			fromType, 
+			toType, 
+			decodedCursor.getDateOfCompletion(), 
+			decodedCursor.getId(), 
+			getSlicePageable(size)
+		);
+		
+		TransactionSlice transactionSlice = toTransactionSlice(transactionEntities);
+		if (includeTotal) {
+			UserEntity currentlyLoggedInUserEntity = serviceUtils.getCurrentlyLoggedInUserEntity();
+			transactionSlice.setTotalElements( transactionRepository.countByUserAndFromTypeAndToType(currentlyLoggedInUserEntity, fromType, toType) );
+		}
+		
+		return transactionSlice;
+	}
+	
+	/**
+	 * Returns a slice of transactions of a specified type's data
+	 * (which were made between two dates - INCLUSIVE),
+	 * which starts right after the passed cursor
+	 * (see {@link #getTransactionsByCursor(String, Integer, boolean)}).
+	 * 
+	 * Allowed transaction types (case-insensitive):
+	 * - "INCOME"
+	 * - "EXPENSE"
+	 * - "TRANSFER"
+	 */
+	public TransactionSlice getTransactionsBetweenDatesByTypeAndCursor(
+		String type, 
+		Date startDate, 
+		Date endDate, 
+		String cursor, 
+		Integer size, 
+		boolean includeTotal
+	)
+		throws InvalidDataException
+	{
+		TransactionFromType fromType = getFromTypeOfTransactionType(type);
+		TransactionToType toType = getToTypeOfTransactionType(type);
+		TransactionCursor decodedCursor = TransactionCursor.decode(cursor);
+		
+		Long loggedInUserId = serviceUtils.getCurrentlyLoggedInUserId();
+		Slice<TransactionEntity> transactionEntities = transactionRepository.findAllByTypeBetweenDatesAfterCursor(
+			loggedInUserId, 
+			fromType, 
+			toType, 
+			startDate, 
+			endDate, 
+			decodedCursor.getDateOfCompletion(), 
+			decodedCursor.getId(), 
+			getSlicePageable(size)
+		);
+		
+		TransactionSlice transactionSlice = toTransactionSlice(transactionEntities);
+		if (includeTotal) {
+			UserEntity currentlyLoggedInUserEntity = serviceUtils.getCurrentlyLoggedInUserEntity();
+			transactionSlice.setTotalElements( 
+				transactionRepository.countByUserAndFromTypeAndToTypeAndDateOfCompletionBetween(currentlyLoggedInUserEntity, fromType, toType, startDate, endDate) 
+			);
+		}
+		
+		return transactionSlice;
+	}
+	
+	/**
+	 * Returns a slice of transactions' data
+	 * with the specified from-type and from-ID,
+	 * which starts right after the passed cursor
+	 * (see {@link #getTransactionsByCursor(String, Integer, boolean)}).
+	 */
+	public TransactionSlice getTransactionsByFromDataAndCursor(
+		TransactionFromType fromType, 
+		Long fromId, 
+		String cursor, 
+		Integer size, 
+		boolean includeTotal
+	)
+		throws InvalidDataException
 	{
-		boolean existsById = transactionRepository.existsById(id);
-		if (!existsById) {
-			throw new TransactionNotFoundException(id);
+		TransactionCursor decodedCursor = TransactionCursor.decode(cursor);
+		
+		Long loggedInUserId = serviceUtils.getCurrentlyLoggedInUserId();
+		Slice<TransactionEntity> transactionEntities = transactionRepository.findAllByFromDataAfterCursor(
+			loggedInUserId, 
+			fromType, 
+			fromId, 
+			decodedCursor.getDateOfCompletion(), 
+			decodedCursor.getId(), 
+			getSlicePageable(size)
+		);
+		
+		TransactionSlice transactionSlice = toTransactionSlice(transactionEntities);
+		if (includeTotal) {
+			UserEntity currentlyLoggedInUserEntity = serviceUtils.getCurrentlyLoggedInUserEntity();
+			transactionSlice.setTotalElements( transactionRepository.countByUserAndFromTypeAndFromId(currentlyLoggedInUserEntity, fromType, fromId) );
 		}
 		
-		TransactionEntity transactionEntity = transactionRepository.findById(id).get();
-		boolean belongsToCurrentlyLoggedInUser = serviceUtils.belongsToCurrentlyLoggedInUser(transactionEntity);
-		if (!belongsToCurrentlyLoggedInUser) {
-			throw new UserDoesNotOwnResourceException();
+		return transactionSlice;
+	}
+	
+	/**
+	 * Returns a slice of transactions' data
+	 * with the specified to-type and to-ID,
+	 * which starts right after the passed cursor
+	 * (see {@link #getTransactionsByCursor(String, Integer, boolean)}).
+	 */
+	public TransactionSlice getTransactionsByToDataAndCursor(
+		TransactionToType toType, 
+		Long toId, 
+		String cursor, 
+		Integer size, 
+		boolean includeTotal
+	)
+		throws InvalidDataException
+	{
+		TransactionCursor decodedCursor = TransactionCursor.decode(cursor);
+		
+		Long loggedInUserId = serviceUtils.getCurrentlyLoggedInUserId();
+		Slice<TransactionEntity> transactionEntities = transactionRepository.findAllByToDataAfterCursor(
+			loggedInUserId, 
+			toType, 
+			toId, 
+			decodedCursor.getDateOfCompletion(), 
+			decodedCursor.getId(), 
+			getSlicePageable(size)
+		);
+		
+		TransactionSlice transactionSlice = toTransactionSlice(transactionEntities);
+		if (includeTotal) {
+			UserEntity currentlyLoggedInUserEntity = serviceUtils.getCurrentlyLoggedInUserEntity();
+			transactionSlice.setTotalElements( transactionRepository.countByUserAndToTypeAndToId(currentlyLoggedInUserEntity, toType, toId) );
 		}
 		
+		return transactionSlice;
+	}
+	
+	/**
+	 * Returns an existing transaction's data.
+	 */
+	public Transaction getTransactionById(Long id) 
+		throws TransactionNotFoundException, UserDoesNotOwnResourceException
+	{
+		TransactionEntity transactionEntity = getTransactionEntityOfCurrentUserById(id);
+		
 		Transaction transactionDTO = transactionMapper.fromEntity(transactionEntity);
 		
 		return transactionDTO;
@@ -295,7 +480,14 @@ public class TransactionService {
 	 * Creates a new transaction from a transaction DTO, 
 	 * which contains the transaction's data
 	 * and returns the newly created transaction's data.
+	 * 
+	 * The transaction is executed as a single pipeline in one database transaction:
+	 * - 1) the from/to entities are loaded (once)
+	 * - 2) all checks are run upon the loaded entities
+	 * - 3) the balance/sum changes are applied to the affected accounts/categories
+	 * - 4) the transaction is inserted (and added to its daily sum)
 	 */
+	@Transactional
 	public Transaction createNewTransaction(TransactionRequest transactionRequest) 
 		throws InvalidDataException
 	{
@@ -305,16 +497,26 @@ public class TransactionService {
 		// It is retrieved from the currently logged-in user's details.
 		UserEntity owner = serviceUtils.getCurrentlyLoggedInUserEntity();
 		transactionEntity.setUser(owner);
+		scheduleRecurringExecution(transactionEntity);
+		
+		TransactionFromType fromType = transactionRequest.getFromType();
+		TransactionToType toType = transactionRequest.getToType();
+		Long fromId = transactionRequest.getFromId();
+		Long toId = transactionRequest.getToId();
+		long sum = transactionEntity.getSumInMinorUnits();
 		
-		boolean containsValidFromToData = containsValidFromToData(transactionRequest);
+		BaseEntity fromEntity = loadEntity(fromId, fromType.toString());
+		BaseEntity toEntity = loadEntity(toId, toType.toString());
+		boolean containsValidFromToData = containsValidFromToData(transactionRequest, fromEntity, toEntity);
 		if (!containsValidFromToData) {
 			throw new InvalidDataException("Transaction contains invalid from-to data!");
 		}
 		
 		// Make appropriate changes to affected accounts/categories
-		executeTransactionFromRequest(transactionRequest);
+		executeTransaction(fromType, fromId, toType, toId, sum);
 		
 		transactionEntity = transactionRepository.save(transactionEntity);
+		transactionDailySumService.addTransaction(transactionEntity);
 		
 		Transaction transactionDTO = transactionMapper.fromEntity(transactionEntity);
 		
@@ -324,20 +526,14 @@ public class TransactionService {
 	/**
 	 * Updates an existing transaction with a specified ID
 	 * and returns the updated transaction's data.
+	 * 
+	 * All changes are made in one database transaction.
 	 */
+	@Transactional
 	public Transaction updateTransactionById(Long id, TransactionRequest transactionRequest) 
 		throws TransactionNotFoundException, UserDoesNotOwnResourceException
 	{
-		boolean existsById = transactionRepository.existsById(id);
-		if (!existsById) {
-			throw new TransactionNotFoundException(id);
-		}
-		
-		TransactionEntity transactionEntity = transactionRepository.findById(id).get();
-		boolean belongsToCurrentlyLoggedInUser = serviceUtils.belongsToCurrentlyLoggedInUser(transactionEntity);
-		if (!belongsToCurrentlyLoggedInUser) {
-			throw new UserDoesNotOwnResourceException();
-		}
+		TransactionEntity transactionEntity = getTransactionEntityOfCurrentUserById(id);
 		
 		TransactionEntity updatedTransactionEntity = transactionMapper.toEntity(transactionRequest);
 		// ID and owner are not included in the request DTO and must be set manually.
@@ -346,19 +542,43 @@ public class TransactionService {
 		updatedTransactionEntity.setId(id);
 		UserEntity transactionEntityOwner = transactionEntity.getUser();
 		updatedTransactionEntity.setUser(transactionEntityOwner);
+		// An executed occurrence of a recurring transaction keeps its idempotency key.
+		updatedTransactionEntity.setIdempotencyKey( transactionEntity.getIdempotencyKey() );
+		rescheduleRecurringExecution(transactionEntity, updatedTransactionEntity);
+		
+		TransactionFromType newFromType = transactionRequest.getFromType();
+		TransactionToType newToType = transactionRequest.getToType();
+		Long newFromId = transactionRequest.getFromId();
+		Long newToId = transactionRequest.getToId();
+		long newSum = updatedTransactionEntity.getSumInMinorUnits();
 		
-		boolean containsValidFromToData = containsValidFromToData(transactionRequest);
+		BaseEntity newFromEntity = loadEntity(newFromId, newFromType.toString());
+		BaseEntity newToEntity = loadEntity(newToId, newToType.toString());
+		boolean containsValidFromToData = containsValidFromToData(transactionRequest, newFromEntity, newToEntity);
 		if (!containsValidFromToData) {
 			throw new InvalidDataException("Transaction contains invalid from-to data!");
 		}
 		
+		// The old transaction's data must be retrieved before the entity is overwritten by the update
+		Date oldDateOfCompletion = transactionEntity.getDateOfCompletion();
+		TransactionFromType oldFromType = transactionEntity.getFromType();
+		TransactionToType oldToType = transactionEntity.getToType();
+		Long oldFromId = transactionEntity.getFromId();
+		Long oldToId = transactionEntity.getToId();
+		long oldSum = transactionEntity.getSumInMinorUnits();
+		
+		updatedTransactionEntity = transactionRepository.save(updatedTransactionEntity);
+		
 		// Undo changes made to accounts/categories by transaction
-		undoTransactionExecution(transactionEntity);
+		undoTransactionExecution(oldFromType, oldFromId, oldToType, oldToId, oldSum);
 		
 		// Make appropriate new changes to affected accounts/categories
-		executeTransactionFromRequest(transactionRequest);
+		executeTransaction(newFromType, newFromId, newToType, newToId, newSum);
 		
-		updatedTransactionEntity = transactionRepository.save(updatedTransactionEntity);
+		// Move the transaction from its old daily sum to the new one
+		Long transactionEntityOwnerId = transactionEntityOwner.getId();
+		transactionDailySumService.removeTransaction(transactionEntityOwnerId, oldDateOfCompletion, oldFromType, oldFromId, oldToType, oldToId, oldSum);
+		transactionDailySumService.addTransaction(updatedTransactionEntity);
 		
 		Transaction transactionDTO = transactionMapper.fromEntity(updatedTransactionEntity);
 		
@@ -368,29 +588,277 @@ public class TransactionService {
 	/**
 	 * Deletes an existing transaction with a specified ID
 	 * and returns the deleted transaction's data.
+	 * 
+	 * All changes are made in one database transaction.
 	 */
+	@Transactional
 	public Transaction deleteTransactionById(Long id) 
 		throws TransactionNotFoundException, UserDoesNotOwnResourceException
 	{
-		boolean existsById = transactionRepository.existsById(id);
-		if (!existsById) {
-			throw new TransactionNotFoundException("Transaction with this ID does not exist!");
+		TransactionEntity transactionEntity = getTransactionEntityOfCurrentUserById(id);
+		
+		Transaction transactionDTO = transactionMapper.fromEntity(transactionEntity);
+		
+		transactionRepository.delete(transactionEntity);
+		
+		// Undo changes made to accounts/categories by transaction
+		undoTransactionExecution(
+			transactionEntity.getFromType(), 
+			transactionEntity.getFromId(), 
+			transactionEntity.getToType(), 
+			transactionEntity.getToId(), 
+			transactionEntity.getSumInMinorUnits()
+		);
+		
+		transactionDailySumService.removeTransaction(
+			transactionEntity.getUser().getId(), 
+			transactionEntity.getDateOfCompletion(), 
+			transactionEntity.getFromType(), 
+			transactionEntity.getFromId(), 
+			transactionEntity.getToType(), 
+			transactionEntity.getToId(), 
+			transactionEntity.getSumInMinorUnits()
+		);
+		
+		return transactionDTO;
+	}
+	
+	/**
+	 * Creates & executes an occurrence of a recurring transaction (see {@link RecurringTransactionService})
+	 * with the passed date of completion and idempotency key.
+	 * 
+	 * The occurrence is a copy of the recurring transaction, which is not recurring itself.
+	 * It is executed on behalf of the recurring transaction's owner (the scheduler runs without a logged-in user),
+	 * in the caller's database transaction.
+	 * 
+	 * @return the created occurrence or null if its from-to data is not valid anymore 
+	 * 		   (e.g. the account has been deactivated or its balance is not sufficient for a transfer)
+	 */
+	protected TransactionEntity executeRecurringTransactionOccurrence(
+		TransactionEntity recurringTransactionEntity, 
+		Date dateOfCompletion, 
+		String idempotencyKey) 
+	{
+		TransactionRequest transactionRequest = new TransactionRequest();
+		transactionRequest.setDateOfCompletion(dateOfCompletion);
+		transactionRequest.setFromType( recurringTransactionEntity.getFromType() );
+		transactionRequest.setFromId( recurringTransactionEntity.getFromId() );
+		transactionRequest.setToType( recurringTransactionEntity.getToType() );
+		transactionRequest.setToId( recurringTransactionEntity.getToId() );
+		transactionRequest.setSum( recurringTransactionEntity.getSum() );
+		transactionRequest.setRecurring( TransactionRecurrence.NO.name() );
+		transactionRequest.setDescription( recurringTransactionEntity.getDescription() );
+		transactionRequest.setShouldBeAutomaticallyExecuted(false);
+		
+		UserEntity owner = recurringTransactionEntity.getUser();
+		BaseEntity fromEntity = loadEntity( transactionRequest.getFromId(), transactionRequest.getFromType().toString() );
+		BaseEntity toEntity = loadEntity( transactionRequest.getToId(), transactionRequest.getToType().toString() );
+		Double fromAccountBalance = (fromEntity instanceof AccountEntity) ? ( (AccountEntity) fromEntity ).getBalance() : null;
+		boolean containsValidFromToData = containsValidFromToData(transactionRequest, fromEntity, toEntity, fromAccountBalance, owner.getId());
+		if (!containsValidFromToData) {
+			return null;
 		}
 		
-		TransactionEntity transactionEntity = transactionRepository.findById(id).get();
-		boolean belongsToCurrentlyLoggedInUser = serviceUtils.belongsToCurrentlyLoggedInUser(transactionEntity);
-		if (!belongsToCurrentlyLoggedInUser) {
-			throw new UserDoesNotOwnResourceException();
+		TransactionEntity transactionEntity = transactionMapper.toEntity(transactionRequest);
+		transactionEntity.setUser(owner);
+		transactionEntity.setIdempotencyKey(idempotencyKey);
+		
+		executeTransaction(
+			transactionEntity.getFromType(), 
+			transactionEntity.getFromId(), 
+			transactionEntity.getToType(), 
+			transactionEntity.getToId(), 
+			transactionEntity.getSumInMinorUnits()
+		);
+		
+		transactionEntity = transactionRepository.save(transactionEntity);
+		transactionDailySumService.addTransaction(transactionEntity);
+		
+		return transactionEntity;
+	}
+	
+	/**
+	 * Sets the date of the next automatic execution of a new (created or imported) transaction,
+	 * which is calculated from its recurrence rule & date of completion
+	 * (null if the transaction is not recurring or should not be automatically executed).
+	 * 
+	 * The periods before today are not executed, so a transaction with an old date of completion is not back-filled.
+	 */
+	protected void scheduleRecurringExecution(TransactionEntity transactionEntity) {
+		scheduleRecurringExecution( transactionEntity, java.sql.Date.valueOf( LocalDate.now() ) );
+	}
+	
+	/**
+	 * Sets the date of the next automatic execution of an updated transaction.
+	 * 
+	 * The existing schedule is kept, unless the recurrence rule, the automatic execution or the date of completion were changed.
+	 * A changed transaction is rescheduled after today and after its last executed occurrence,
+	 * because the changed dates of its occurrences have new idempotency keys (so executed occurrences would be executed again).
+	 */
+	private void rescheduleRecurringExecution(TransactionEntity transactionEntity, TransactionEntity updatedTransactionEntity) {
+		if ( hasSameExecutionDates(transactionEntity, updatedTransactionEntity) ) {
+			updatedTransactionEntity.setNextExecutionDate( transactionEntity.getNextExecutionDate() );
+			return;
 		}
 		
-		// Undo changes made to accounts/categories by transaction
-		undoTransactionExecution(transactionEntity);
+		LocalDate notBefore = LocalDate.now();
+		if ( Boolean.TRUE.equals( updatedTransactionEntity.getShouldBeAutomaticallyExecuted() ) ) {
+			Date lastOccurrenceDate = transactionRepository.findLastOccurrenceDate( 
+				RecurringTransactionService.getIdempotencyKeyPrefix( transactionEntity.getId() ) 
+			);
+			if ( lastOccurrenceDate != null && !TransactionRecurrence.toLocalDate(lastOccurrenceDate).isBefore(notBefore) ) {
+				notBefore = TransactionRecurrence.toLocalDate(lastOccurrenceDate).plusDays(1);
+			}
+		}
 		
-		Transaction transactionDTO = transactionMapper.fromEntity(transactionEntity);
+		scheduleRecurringExecution( updatedTransactionEntity, java.sql.Date.valueOf(notBefore) );
+	}
+	
+	private void scheduleRecurringExecution(TransactionEntity transactionEntity, Date notBefore) {
+		Date nextExecutionDate = TransactionRecurrence.getFirstExecutionDate(
+			transactionEntity.getRecurring(), 
+			transactionEntity.getShouldBeAutomaticallyExecuted(), 
+			transactionEntity.getDateOfCompletion(),
+			notBefore
+		);
 		
-		transactionRepository.deleteById(id);
+		transactionEntity.setNextExecutionDate(nextExecutionDate);
+	}
+	
+	/**
+	 * Returns true if the passed transactions have the same recurrence rule, automatic execution and day of completion.
+	 */
+	private static boolean hasSameExecutionDates(TransactionEntity transactionEntity, TransactionEntity otherTransactionEntity) {
+		Date dateOfCompletion = transactionEntity.getDateOfCompletion();
+		Date otherDateOfCompletion = otherTransactionEntity.getDateOfCompletion();
+		boolean isCompletedOnSameDay = (dateOfCompletion == null || otherDateOfCompletion == null)
+			? dateOfCompletion == otherDateOfCompletion
+			: TransactionRecurrence.toLocalDate(dateOfCompletion).equals( TransactionRecurrence.toLocalDate(otherDateOfCompletion) );
 		
-		return transactionDTO;
+		return isCompletedOnSameDay
+			&& TransactionRecurrence.fromString( transactionEntity.getRecurring() ) == TransactionRecurrence.fromString( otherTransactionEntity.getRecurring() )
+			&& Boolean.TRUE.equals( transactionEntity.getShouldBeAutomaticallyExecuted() ) == Boolean.TRUE.equals( otherTransactionEntity.getShouldBeAutomaticallyExecuted() );
+	}
+	
+	/**
+	 * Returns the Pageable object used to limit the size of a cursor-based slice
+	 * (the position of the slice is set by the cursor, so the page number is always 0).
+	 */
+	private Pageable getSlicePageable(Integer size) {
+		int sliceSize = (size == null || size < 1) ? DEFAULT_SLICE_SIZE : Math.min(size, MAX_SLICE_SIZE);
+		return PageRequest.of(0, sliceSize);
+	}
+	
+	/**
+	 * Maps a slice of transaction entities to a slice DTO
+	 * with a cursor pointing to the slice's last transaction.
+	 */
+	private TransactionSlice toTransactionSlice(Slice<TransactionEntity> transactionEntities) {
+		List<TransactionEntity> content = transactionEntities.getContent();
+		List<Transaction> transactionDTOs = content.stream()
+			.map(transactionMapper::fromEntity)
+			.collect(Collectors.toList());
+		
+		String nextCursor = null;
+		if (transactionEntities.hasNext()) {
+			TransactionEntity lastTransactionEntity = content.get(content.size() - 1);
+			nextCursor = TransactionCursor.encode(lastTransactionEntity);
+		}
+		
+		TransactionSlice transactionSlice = new TransactionSlice()
+			.setContent(transactionDTOs)
+			.setHasNext( transactionEntities.hasNext() )
+			.setNextCursor(nextCursor);
+		
+		return transactionSlice;
+	}
+	
+	/**
+	 * Returns the passed transaction type in upper case
+	 * or throws an exception if it is not an allowed type.
+	 * 
+	 * Allowed transaction types (case-insensitive):
+	 * - "INCOME"
+	 * - "EXPENSE"
+	 * - "TRANSFER"
+	 */
+	private String getValidTransactionType(String type) 
+		throws InvalidDataException
+	{
+		if (type.equalsIgnoreCase("INCOME")) {
+			return "INCOME";
+		}
+		else if (type.equalsIgnoreCase("EXPENSE")) {
+			return "EXPENSE";
+		}
+		else if (type.equalsIgnoreCase("TRANSFER")) {
+			return "TRANSFER";
+		}
+		else {
+			throw new InvalidDataException("Transaction type is invalid!");
+		}
+	}
+	
+	/**
+	 * Returns the from-type of transactions of the passed type.
+	 * 
+	 * Allowed transaction types (case-insensitive):
+	 * - "INCOME"
+	 * - "EXPENSE"
+	 * - "TRANSFER"
+	 */
+	private TransactionFromType getFromTypeOfTransactionType(String type) 
+		throws InvalidDataException
+	{
+		if (type.equalsIgnoreCase("INCOME")) {
+			return TransactionFromType.CATEGORY;
+		}
+		else if (type.equalsIgnoreCase("EXPENSE") || type.equalsIgnoreCase("TRANSFER")) {
+			return TransactionFromType.ACCOUNT;
+		}
+		else {
+			throw new InvalidDataException("Transaction type is invalid!");
+		}
+	}
+	
+	/**
+	 * Returns the to-type of transactions of the passed type.
+	 * 
+	 * Allowed transaction types (case-insensitive):
+	 * - "INCOME"
+	 * - "EXPENSE"
+	 * - "TRANSFER"
+	 */
+	private TransactionToType getToTypeOfTransactionType(String type) 
+		throws InvalidDataException
+	{
+		if (type.equalsIgnoreCase("INCOME") || type.equalsIgnoreCase("TRANSFER")) {
+			return TransactionToType.ACCOUNT;
+		}
+		else if (type.equalsIgnoreCase("EXPENSE")) {
+			return TransactionToType.CATEGORY;
+		}
+		else {
+			throw new InvalidDataException("Transaction type is invalid!");
+		}
+	}
+	
+	/**
+	 * Loads the account or category entity referenced by a transaction's from/to data.
+	 * 
+	 * @return the loaded entity or null if it does not exist
+	 */
+	private BaseEntity loadEntity(Long entityId, String entityType) {
+		BaseEntity entity = null;
+		
+		if (entityType.equalsIgnoreCase("CATEGORY")) {
+			entity = categoryRepository.findById(entityId).orElse(null);
+		}
+		else if (entityType.equalsIgnoreCase("ACCOUNT")) {
+			entity = accountRepository.findById(entityId).orElse(null);
+		}
+		
+		return entity;
 	}
 	
 	/**
@@ -398,12 +866,53 @@ public class TransactionService {
 	 * valid existing from/to entities 
 	 * which belong to the current user
 	 * and contain valid income/expense/transfer data.
+	 * 
+	 * The checks are run upon the already loaded from/to entities
+	 * (null if the referenced entity does not exist).
+	 */
+	private boolean containsValidFromToData(
+		TransactionRequest transactionRequest, 
+		BaseEntity fromEntity, 
+		BaseEntity toEntity) 
+	{
+		Double fromAccountBalance = null;
+		if (fromEntity instanceof AccountEntity) {
+			fromAccountBalance = ( (AccountEntity) fromEntity ).getBalance();
+		}
+		
+		return containsValidFromToData(transactionRequest, fromEntity, toEntity, fromAccountBalance);
+	}
+	
+	/**
+	 * Same as {@link #containsValidFromToData(TransactionRequest, BaseEntity, BaseEntity)},
+	 * but the balance available in the 'from' account (for transfer transactions)
+	 * is passed explicitly instead of being read from the loaded entity 
+	 * (e.g. when transactions are imported in bulk and the balance changes are applied later).
+	 */
+	protected boolean containsValidFromToData(
+		TransactionRequest transactionRequest, 
+		BaseEntity fromEntity, 
+		BaseEntity toEntity,
+		Double fromAccountBalance) 
+	{
+		Long loggedInUserId = serviceUtils.getCurrentlyLoggedInUserId();
+		return containsValidFromToData(transactionRequest, fromEntity, toEntity, fromAccountBalance, loggedInUserId);
+	}
+	
+	/**
+	 * Same as {@link #containsValidFromToData(TransactionRequest, BaseEntity, BaseEntity, Double)},
+	 * but the from/to entities must belong to the user with the passed ID instead of the currently logged-in user
+	 * (e.g. when recurring transactions are executed by the scheduler).
 	 */
-	private boolean containsValidFromToData(TransactionRequest transactionRequest) {
+	private boolean containsValidFromToData(
+		TransactionRequest transactionRequest, 
+		BaseEntity fromEntity, 
+		BaseEntity toEntity,
+		Double fromAccountBalance,
+		Long ownerId) 
+	{
 		String fromType = transactionRequest.getFromType().toString();
 		String toType = transactionRequest.getToType().toString();
-		Long fromId = transactionRequest.getFromId();
-		Long toId = transactionRequest.getToId();
 		
 		/*
 		 * 'From' & 'to' entities:
@@ -414,8 +923,8 @@ public class TransactionService {
 		 *  
 		 *  The first three are checked by the isValidEntityData() method.
 		 */
-		boolean fromEntityIsValid = isValidEntityData(fromId, fromType);
-		boolean toEntityIsValid = isValidEntityData(toId, toType);
+		boolean fromEntityIsValid = isValidEntityData(fromEntity, ownerId);
+		boolean toEntityIsValid = isValidEntityData(toEntity, ownerId);
 		boolean bothEntitiesAreCategories = fromType.equalsIgnoreCase("CATEGORY") && toType.equalsIgnoreCase("CATEGORY");
 		if (!fromEntityIsValid || !toEntityIsValid || bothEntitiesAreCategories) {
 			return false;
@@ -428,7 +937,7 @@ public class TransactionService {
 		 */
 		boolean isIncomeTransaction = ( fromType.equalsIgnoreCase("CATEGORY") && toType.equalsIgnoreCase("ACCOUNT") );
 		if (isIncomeTransaction) {
-			CategoryEntity fromCategory = categoryRepository.findById(fromId).get();
+			CategoryEntity fromCategory = (CategoryEntity) fromEntity;
 			boolean isIncomeCategory = ( fromCategory.getType() == CategoryType.INCOME );
 			if (!isIncomeCategory) {
 				return false;
@@ -442,7 +951,7 @@ public class TransactionService {
 		 */
 		boolean isExpenseTransaction = ( fromType.equalsIgnoreCase("ACCOUNT") && toType.equalsIgnoreCase("CATEGORY") );
 		if (isExpenseTransaction) {
-			CategoryEntity toCategory = categoryRepository.findById(toId).get();
+			CategoryEntity toCategory = (CategoryEntity) toEntity;
 			boolean isExpensesCategory = ( toCategory.getType() == CategoryType.EXPENSES );
 			if (!isExpensesCategory) {
 				return false;
@@ -457,10 +966,8 @@ public class TransactionService {
 		 */
 		boolean isTransferTransaction = ( fromType.equalsIgnoreCase("ACCOUNT") && toType.equalsIgnoreCase("ACCOUNT") );
 		if (isTransferTransaction) {
-			AccountEntity fromAccount = accountRepository.findById(fromId).get();
-			Double balance = fromAccount.getBalance();
 			Double transactionRequestSum = transactionRequest.getSum();
-			if (balance < transactionRequestSum) {
+			if (fromAccountBalance < transactionRequestSum) {
 				return false;
 			}
 		}
@@ -472,31 +979,30 @@ public class TransactionService {
 	 * Executes a transaction 
 	 * (updates accounts' balance & 
 	 * categories' current period sum)
-	 * from a transaction request 
 	 * with valid from-to data.
 	 */
-	private void executeTransactionFromRequest(TransactionRequest request) {
-		String fromType = request.getFromType().toString();
-		String toType = request.getToType().toString();
-		Long fromId = request.getFromId();
-		Long toId = request.getToId();
-		Double sum = request.getSum();
-		
-		boolean isIncomeTransaction = ( fromType.equalsIgnoreCase("CATEGORY") && toType.equalsIgnoreCase("ACCOUNT") );
-		boolean isExpenseTransaction = ( fromType.equalsIgnoreCase("ACCOUNT") && toType.equalsIgnoreCase("CATEGORY") );
-		boolean isTransferTransaction = ( fromType.equalsIgnoreCase("ACCOUNT") && toType.equalsIgnoreCase("ACCOUNT") );
+	private void executeTransaction(
+		TransactionFromType fromType, 
+		Long fromId, 
+		TransactionToType toType, 
+		Long toId, 
+		long sumInMinorUnits) 
+	{
+		boolean isIncomeTransaction = ( fromType == TransactionFromType.CATEGORY && toType == TransactionToType.ACCOUNT );
+		boolean isExpenseTransaction = ( fromType == TransactionFromType.ACCOUNT && toType == TransactionToType.CATEGORY );
+		boolean isTransferTransaction = ( fromType == TransactionFromType.ACCOUNT && toType == TransactionToType.ACCOUNT );
 		
 		if (isIncomeTransaction) {
-			accountService.performAccountBalanceOperationById(toId, '+', sum);
-			categoryService.performCategorySumOperationById(fromId, '+', sum);
+			accountService.performAccountBalanceOperationById(toId, '+', sumInMinorUnits);
+			categoryService.performCategorySumOperationById(fromId, '+', sumInMinorUnits);
 		}
 		else if (isExpenseTransaction) {
-			accountService.performAccountBalanceOperationById(fromId, '-', sum);
-			categoryService.performCategorySumOperationById(toId, '+', sum);
+			accountService.performAccountBalanceOperationById(fromId, '-', sumInMinorUnits);
+			categoryService.performCategorySumOperationById(toId, '+', sumInMinorUnits);
 		}
 		else if (isTransferTransaction) {
-			accountService.performAccountBalanceOperationById(fromId, '-', sum);
-			accountService.performAccountBalanceOperationById(toId, '+', sum);
+			accountService.performAccountBalanceOperationById(fromId, '-', sumInMinorUnits);
+			accountService.performAccountBalanceOperationById(toId, '+', sumInMinorUnits);
 		}
 	}
 	
@@ -504,70 +1010,53 @@ public class TransactionService {
 	 * Undoes the changes made 
 	 * to accounts' balance & 
 	 * categories' current period sum
-	 * by an existing transaction.
+	 * by an existing transaction with the passed data.
 	 */
-	private void undoTransactionExecution(TransactionEntity transactionEntity) {
-		String fromType = transactionEntity.getFromType().toString();
-		String toType = transactionEntity.getToType().toString();
-		Long fromId = transactionEntity.getFromId();
-		Long toId = transactionEntity.getToId();
-		Double sum = transactionEntity.getSum();
-		
-		boolean isIncomeTransaction = ( fromType.equalsIgnoreCase("CATEGORY") && toType.equalsIgnoreCase("ACCOUNT") );
-		boolean isExpenseTransaction = ( fromType.equalsIgnoreCase("ACCOUNT") && toType.equalsIgnoreCase("CATEGORY") );
-		boolean isTransferTransaction = ( fromType.equalsIgnoreCase("ACCOUNT") && toType.equalsIgnoreCase("ACCOUNT") );
+	private void undoTransactionExecution(
+		TransactionFromType fromType, 
+		Long fromId, 
+		TransactionToType toType, 
+		Long toId, 
+		long sumInMinorUnits) 
+	{
+		boolean isIncomeTransaction = ( fromType == TransactionFromType.CATEGORY && toType == TransactionToType.ACCOUNT );
+		boolean isExpenseTransaction = ( fromType == TransactionFromType.ACCOUNT && toType == TransactionToType.CATEGORY );
+		boolean isTransferTransaction = ( fromType == TransactionFromType.ACCOUNT && toType == TransactionToType.ACCOUNT );
 		
 		if (isIncomeTransaction) {
-			accountService.performAccountBalanceOperationById(toId, '-', sum);
-			categoryService.performCategorySumOperationById(fromId, '-', sum);
+			accountService.performAccountBalanceOperationById(toId, '-', sumInMinorUnits);
+			categoryService.performCategorySumOperationById(fromId, '-', sumInMinorUnits);
 		}
 		else if (isExpenseTransaction) {
-			accountService.performAccountBalanceOperationById(fromId, '+', sum);
-			categoryService.performCategorySumOperationById(toId, '-', sum);
+			accountService.performAccountBalanceOperationById(fromId, '+', sumInMinorUnits);
+			categoryService.performCategorySumOperationById(toId, '-', sumInMinorUnits);
 		}
 		else if (isTransferTransaction) {
-			accountService.performAccountBalanceOperationById(fromId, '+', sum);
-			accountService.performAccountBalanceOperationById(toId, '-', sum);
+			accountService.performAccountBalanceOperationById(fromId, '+', sumInMinorUnits);
+			accountService.performAccountBalanceOperationById(toId, '-', sumInMinorUnits);
 		}
 	}
 	
 	/**
-	 * Checks if the passed transaction request entity data is valid.
+	 * Checks if the passed (already loaded) transaction entity is valid.
 	 * 
-	 * For the data to be valid, it must:
-	 * - 1) point to an existing entity (an account or a category entity)
-	 * - 2) point to an entity, which belongs to the currently logged-in user
-	 * - 3) point to an activated entity (if it is an account entity)
+	 * For the entity to be valid, it must:
+	 * - 1) exist (an account or a category entity)
+	 * - 2) belong to the user with the passed ID
+	 * - 3) be activated (if it is an account entity)
 	 */
-	private boolean isValidEntityData(Long entityId, String entityType) {
-		boolean entityExists = false;
-		boolean entityBelongsToCurrentUser = false;
+	private boolean isValidEntityData(BaseEntity entity, Long ownerId) {
+		if (entity == null) {
+			return false;
+		}
 		
-		if (entityType.equalsIgnoreCase("CATEGORY")) {
-			entityExists = categoryRepository.existsById(entityId);
-			if (!entityExists) { 
-				return false; 
-			}
-			
-			CategoryEntity entity = categoryRepository.findById(entityId).get();
-			entityBelongsToCurrentUser = serviceUtils.belongsToCurrentlyLoggedInUser(entity);
-			if (!entityBelongsToCurrentUser) {
-				return false;
-			}
+		boolean entityBelongsToOwner = serviceUtils.belongsToUser(entity, ownerId);
+		if (!entityBelongsToOwner) {
+			return false;
 		}
-		else if (entityType.equalsIgnoreCase("ACCOUNT")) {
-			entityExists = accountRepository.existsById(entityId);
-			if (!entityExists) { 
-				return false; 
-			}
-			
-			AccountEntity entity = accountRepository.findById(entityId).get();
-			entityBelongsToCurrentUser = serviceUtils.belongsToCurrentlyLoggedInUser(entity);
-			if (!entityBelongsToCurrentUser) {
-				return false;
-			}
-			
-			boolean isActivatedAccount = ( entity.getType() == AccountType.ACTIVATED );
+		
+		if (entity instanceof AccountEntity) {
+			boolean isActivatedAccount = ( ((AccountEntity) entity).getType() == AccountType.ACTIVATED );
 			if (!isActivatedAccount) { 
 				return false;
 			}
@@ -576,4 +1065,22 @@ public class TransactionService {
 		return true;
 	}
 	
+	/**
+	 * Returns the transaction entity with the passed ID, 
+	 * if it belongs to the currently logged-in user
+	 * (see {@link ServiceUtils#getEntityOfCurrentlyLoggedInUserById}).
+	 */
+	private TransactionEntity getTransactionEntityOfCurrentUserById(Long id) 
+		throws TransactionNotFoundException, UserDoesNotOwnResourceException
+	{
+		TransactionEntity transactionEntity = serviceUtils.getEntityOfCurrentlyLoggedInUserById(
+			id, 
+			transactionRepository::findByIdAndUserId, 
+			transactionRepository::existsById, 
+			() -> new TransactionNotFoundException(id)
+		);
+		
+		return transactionEntity;
+	}
+	
 }
\ No newline at end of file
@@ -19,6 +19,8 @@ import com.mse.personal.finance.model.request.UserSettingRequest;
 import com.mse.personal.finance.model.request.UserUpdateRequest;
 import com.mse.personal.finance.rest.exception.InvalidDataException;
 import com.mse.personal.finance.rest.exception.UserSettingNotFoundException;
+import com.mse.personal.finance.security.jwt.JwtAuthenticationCache;
+import com.mse.personal.finance.security.jwt.JwtSessionManager;
 import com.mse.personal.finance.service.mapper.UserMapper;
 import com.mse.personal.finance.service.mapper.UserSettingMapper;
 
@@ -40,28 +42,40 @@ public class UserProfileService {
 	private final UserRepository userRepository;
 	private final UserMapper userMapper;
 	private final UserService userService;
+	private final CategoryService categoryService;
 	private final PasswordEncoder passwordEncoder;
 	private final ServiceUtils serviceUtils;
 	private final UserSettingRepository userSettingRepository;
 	private final UserSettingMapper userSettingMapper;
+	private final TransactionDailySumService transactionDailySumService;
+	private final JwtAuthenticationCache jwtAuthenticationCache;
+	private final JwtSessionManager jwtSessionManager;
 	
 	@Autowired
 	public UserProfileService(
 		UserRepository userRepository, 
 		UserMapper userMapper,
 		UserService userService,
+		CategoryService categoryService,
 		PasswordEncoder passwordEncoder,
 		ServiceUtils serviceUtils,
 		UserSettingRepository userSettingRepository,
-		UserSettingMapper userSettingMapper) 
+		UserSettingMapper userSettingMapper,
+		TransactionDailySumService transactionDailySumService,
+		JwtAuthenticationCache jwtAuthenticationCache,
+		JwtSessionManager jwtSessionManager) 
 	{
 		this.userRepository = userRepository;
 		this.userMapper = userMapper;
 		this.userService = userService;
+		this.categoryService = categoryService;
 		this.passwordEncoder = passwordEncoder;
 		this.serviceUtils = serviceUtils;
 		this.userSettingRepository = userSettingRepository;
 		this.userSettingMapper = userSettingMapper;
+		this.transactionDailySumService = transactionDailySumService;
+		this.jwtAuthenticationCache = jwtAuthenticationCache;
+		this.jwtSessionManager = jwtSessionManager;
 	}
 	
 	/**
@@ -91,6 +105,8 @@ public class UserProfileService {
 		updatedUserEntity.setPassword(password);
 		
 		updatedUserEntity = userRepository.save(updatedUserEntity);
+		serviceUtils.clearCurrentlyLoggedInUserEntity();
+		jwtAuthenticationCache.invalidateUser(email);
 		
 		User updatedUserDTO = userMapper.fromEntity(updatedUserEntity);
 		
@@ -101,6 +117,9 @@ public class UserProfileService {
 	 * Updates the currently logged-in user's password
 	 * and returns that user's data
 	 * (without the password, for security reasons).
+	 * 
+	 * All of the user's sessions are ended (on all application instances),
+	 * so the user has to log in again with the new password.
 	 */
 	public User updatePasswordOfCurrentUser(UserPasswordUpdateRequest passwordUpdateRequest) {
 		String oldPassword = passwordUpdateRequest.getOldPassword();
@@ -120,6 +139,8 @@ public class UserProfileService {
 		String newPasswordEncoded = passwordEncoder.encode(newPassword);
 		currentlyLoggedInUserEntity.setPassword(newPasswordEncoded);
 		currentlyLoggedInUserEntity = userRepository.save(currentlyLoggedInUserEntity);
+		serviceUtils.clearCurrentlyLoggedInUserEntity();
+		jwtSessionManager.invalidateUserSessions( currentlyLoggedInUserEntity.getEmail() );
 		
 		User currentlyLoggedInUserDTO = userMapper.fromEntity(currentlyLoggedInUserEntity);
 		
@@ -128,13 +149,18 @@ public class UserProfileService {
 	
 	/**
 	 * Deletes the currently logged-in user
-	 * and returns his data.
+	 * and returns his data
+	 * (ending all of the user's sessions).
 	 */
 	public User deleteCurrentUser() {
 		String currentlyLoggedInUserEmail = serviceUtils.getUsernameOfCurrentlyLoggedInUser();
 		UserEntity currentlyLoggedInUserEntity = serviceUtils.getCurrentlyLoggedInUserEntity();
 		User deletedUserDTO = userMapper.fromEntity(currentlyLoggedInUserEntity);
+		transactionDailySumService.deleteDailySumsOfUser( currentlyLoggedInUserEntity.getId() );
 		userRepository.deleteByEmail(currentlyLoggedInUserEmail);
+		categoryService.evictSystemCategoryIdsOfUser( currentlyLoggedInUserEntity.getId() );
+		serviceUtils.clearCurrentlyLoggedInUserEntity();
+		jwtSessionManager.invalidateUserSessions(currentlyLoggedInUserEmail);
 		return deletedUserDTO;
 	}
 	
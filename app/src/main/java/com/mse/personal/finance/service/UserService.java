@@ -5,6 +5,7 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import com.mse.personal.finance.db.entity.UserEntity;
 import com.mse.personal.finance.db.entity.UserSettingEntity;
@@ -15,6 +16,8 @@ import com.mse.personal.finance.model.UserSettingKey;
 import com.mse.personal.finance.model.request.UserCreateRequest;
 import com.mse.personal.finance.model.request.UserUpdateRequest;
 import com.mse.personal.finance.rest.exception.UserNotFoundException;
+import com.mse.personal.finance.security.jwt.JwtAuthenticationCache;
+import com.mse.personal.finance.security.jwt.JwtSessionManager;
 import com.mse.personal.finance.service.mapper.UserMapper;
 
 /**
@@ -40,6 +43,9 @@ public class UserService {
 	private final PasswordEncoder passwordEncoder;
 	private final CategoryService categoryService;
 	private final UserSettingRepository userSettingRepository;
+	private final JwtAuthenticationCache jwtAuthenticationCache;
+	private final JwtSessionManager jwtSessionManager;
+	private final TransactionDailySumService transactionDailySumService;
 
 	@Autowired
 	public UserService(
@@ -47,13 +53,19 @@ public class UserService {
 		UserMapper userMapper,
 		PasswordEncoder passwordEncoder,
 		CategoryService categoryService,
-		UserSettingRepository userSettingRepository) 
+		UserSettingRepository userSettingRepository,
+		JwtAuthenticationCache jwtAuthenticationCache,
+		JwtSessionManager jwtSessionManager,
+		TransactionDailySumService transactionDailySumService) 
 	{
 		this.userRepository = usersRepository;
 		this.userMapper = userMapper;
 		this.passwordEncoder = passwordEncoder;
 		this.categoryService = categoryService;
 		this.userSettingRepository = userSettingRepository;
+		this.jwtAuthenticationCache = jwtAuthenticationCache;
+		this.jwtSessionManager = jwtSessionManager;
+		this.transactionDailySumService = transactionDailySumService;
 	}
 	
 	/**
@@ -158,6 +170,7 @@ public class UserService {
 		updatedUserEntity.setEmail(email);
 		updatedUserEntity.setPassword(password);
 		updatedUserEntity = userRepository.save(updatedUserEntity);
+		jwtAuthenticationCache.invalidateUser(email);
 		
 		User userDTO = userMapper.fromEntity(updatedUserEntity);
 		
@@ -188,6 +201,7 @@ public class UserService {
 		updatedUserEntity.setId(id);
 		updatedUserEntity.setPassword(password);
 		updatedUserEntity = userRepository.save(updatedUserEntity);
+		jwtAuthenticationCache.invalidateUser(email);
 		
 		User userDTO = userMapper.fromEntity(updatedUserEntity);
 		
@@ -197,7 +211,12 @@ public class UserService {
 	/**
 	 * Deletes an existing user with a specified ID
 	 * and returns the deleted user's data.
+	 * 
+	 * The user's daily sums (which do not reference the user with a foreign key) are deleted as well,
+	 * in the same database transaction.
+	 * The user's sessions are ended, so the user's tokens are rejected by all application instances.
 	 */
+	@Transactional
 	public User deleteUserById(Long id) 
 		throws UserNotFoundException 
 	{
@@ -211,14 +230,19 @@ public class UserService {
 		User userDTO = userMapper.fromEntity(userEntity);
 		
 		userRepository.deleteById(id);
+		transactionDailySumService.deleteDailySumsOfUser(id);
+		categoryService.evictSystemCategoryIdsOfUser(id);
+		jwtSessionManager.invalidateUserSessions( userEntity.getEmail() );
 		
 		return userDTO;
 	}
 	
 	/**
 	 * Deletes an existing user with a specified email
-	 * and returns the deleted user's data.
+	 * and returns the deleted user's data
+	 * (together with the user's daily sums & sessions, see deleteUserById()).
 	 */
+	@Transactional
 	public User deleteUserByEmail(String email) 
 		throws UserNotFoundException 
 	{
@@ -232,6 +256,9 @@ public class UserService {
 		User userDTO = userMapper.fromEntity(userEntity);
 		
 		userRepository.deleteByEmail(email);
+		transactionDailySumService.deleteDailySumsOfUser( userEntity.getId() );
+		categoryService.evictSystemCategoryIdsOfUser( userEntity.getId() );
+		jwtSessionManager.invalidateUserSessions(email);
 		
 		return userDTO;
 	}
@@ -1,6 +1,7 @@
 package com.mse.personal.finance.service.mapper;
 
 import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
 
 import com.mse.personal.finance.db.entity.CategoryEntity;
 import com.mse.personal.finance.model.Category;
@@ -16,6 +17,7 @@ public interface CategoryMapper {
 
 	Category fromEntity(CategoryEntity categoryEntity);
 
+	@Mapping(target = "system", ignore = true)
 	CategoryEntity toEntity(CategoryRequest createRequest);
 
 }
\ No newline at end of file
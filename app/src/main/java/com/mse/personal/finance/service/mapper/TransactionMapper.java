@@ -4,6 +4,7 @@ import com.mse.personal.finance.db.entity.TransactionEntity;
 import com.mse.personal.finance.model.Transaction;
 import com.mse.personal.finance.model.request.TransactionRequest;
 import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
 
 /**
  * Mapper between {@link Transaction} and its persistence representation {@link TransactionEntity}.
@@ -15,6 +16,8 @@ public interface TransactionMapper {
 
 	Transaction fromEntity(TransactionEntity transactionEntity);
 
+	@Mapping(target = "nextExecutionDate", ignore = true)
+	@Mapping(target = "idempotencyKey", ignore = true)
 	TransactionEntity toEntity(TransactionRequest createRequest);
 
 }
\ No newline at end of file
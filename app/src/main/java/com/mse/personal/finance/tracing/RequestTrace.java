@@ -0,0 +1,171 @@
+package com.mse.personal.finance.tracing;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The timing breakdown of the HTTP request served by the current thread
+ * (started & ended by {@link RequestTracingFilter}).
+ *
+ * The phases are exclusive - the SQL time is not counted in the phase, which issued the statements,
+ * so the authentication, SQL, serialization and service times add up to the request's total time
+ * (the service time is the rest, i.e. the controllers' & services' own code).
+ *
+ * The SQL statements are also counted per fingerprint, so statements executed many times
+ * in one request (e.g. N+1 loads) can be found (see {@link com.mse.personal.finance.db.SqlStatistics}).
+ *
+ * Outside of requests (e.g. in scheduled jobs) there is no current trace and nothing is recorded,
+ * unless a trace is started explicitly (e.g. by a test, which measures the statements of an operation).
+ *
+ * @author dvt32
+ */
+public final class RequestTrace {
+
+	private static final ThreadLocal<RequestTrace> CURRENT_TRACE = new ThreadLocal<>();
+
+	private static final PhaseTimer NO_PHASE_TIMER = new PhaseTimer(null, null, 0L, 0L);
+
+	/**
+	 * The phases timed separately from the service logic.
+	 */
+	public enum Phase {
+		AUTHENTICATION,
+		SERIALIZATION
+	}
+
+	private final String requestId;
+	private final long startTime = System.nanoTime();
+	private long authenticationTimeNanos = 0L;
+	private long serializationTimeNanos = 0L;
+	private long sqlTimeNanos = 0L;
+	private int sqlStatementCount = 0;
+	private final Map<String, Integer> sqlExecutionCounts = new HashMap<>();
+
+	private RequestTrace(String requestId) {
+		this.requestId = requestId;
+	}
+
+	/**
+	 * Starts the trace of the current thread's request.
+	 */
+	public static RequestTrace start(String requestId) {
+		RequestTrace requestTrace = new RequestTrace(requestId);
+		CURRENT_TRACE.set(requestTrace);
+		return requestTrace;
+	}
+
+	/**
+	 * Ends the trace of the current thread's request.
+	 */
+	public static void end() {
+		CURRENT_TRACE.remove();
+	}
+
+	/**
+	 * Returns the trace of the current thread's request (null outside of requests).
+	 */
+	public static RequestTrace current() {
+		return CURRENT_TRACE.get();
+	}
+
+	/**
+	 * Starts timing a phase of the current thread's request
+	 * (the returned timer does nothing outside of requests).
+	 */
+	public static PhaseTimer startPhase(Phase phase) {
+		RequestTrace requestTrace = CURRENT_TRACE.get();
+		if (requestTrace == null) {
+			return NO_PHASE_TIMER;
+		}
+
+		return new PhaseTimer( requestTrace, phase, System.nanoTime(), requestTrace.sqlTimeNanos );
+	}
+
+	/**
+	 * Records an executed SQL statement (with the passed fingerprint) of the current thread's request.
+	 */
+	public static void recordSqlStatement(String fingerprint, long timeNanos) {
+		RequestTrace requestTrace = CURRENT_TRACE.get();
+		if (requestTrace != null) {
+			requestTrace.sqlTimeNanos += timeNanos;
+			requestTrace.sqlStatementCount++;
+			requestTrace.sqlExecutionCounts.merge(fingerprint, 1, Integer::sum);
+		}
+	}
+
+	public String getRequestId() {
+		return this.requestId;
+	}
+
+	public long getTotalTimeNanos() {
+		return System.nanoTime() - startTime;
+	}
+
+	public long getAuthenticationTimeNanos() {
+		return this.authenticationTimeNanos;
+	}
+
+	public long getSerializationTimeNanos() {
+		return this.serializationTimeNanos;
+	}
+
+	public long getSqlTimeNanos() {
+		return this.sqlTimeNanos;
+	}
+
+	public int getSqlStatementCount() {
+		return this.sqlStatementCount;
+	}
+
+	/**
+	 * Returns the numbers of executions of the request's SQL statements by fingerprint.
+	 */
+	public Map<String, Integer> getSqlExecutionCounts() {
+		return Collections.unmodifiableMap(sqlExecutionCounts);
+	}
+
+	/**
+	 * Returns the time spent in the controllers' & services' own code (the total time without the other phases).
+	 */
+	public long getServiceTimeNanos(long totalTimeNanos) {
+		return Math.max( totalTimeNanos - authenticationTimeNanos - serializationTimeNanos - sqlTimeNanos, 0L );
+	}
+
+	/**
+	 * Times a phase of a request, without the SQL time within it.
+	 */
+	public static final class PhaseTimer {
+
+		private final RequestTrace requestTrace;
+		private final Phase phase;
+		private final long startTime;
+		private final long startSqlTimeNanos;
+
+		private PhaseTimer(RequestTrace requestTrace, Phase phase, long startTime, long startSqlTimeNanos) {
+			this.requestTrace = requestTrace;
+			this.phase = phase;
+			this.startTime = startTime;
+			this.startSqlTimeNanos = startSqlTimeNanos;
+		}
+
+		public void stop() {
+			if (requestTrace == null) {
+				return;
+			}
+
+			long sqlTimeNanos = requestTrace.sqlTimeNanos - startSqlTimeNanos;
+			long phaseTimeNanos = Math.max( System.nanoTime() - startTime - sqlTimeNanos, 0L );
+			switch (phase) {
+				case AUTHENTICATION:
+					requestTrace.authenticationTimeNanos += phaseTimeNanos;
+					break;
+				case SERIALIZATION:
+					requestTrace.serializationTimeNanos += phaseTimeNanos;
+					break;
+			}
+		}
+
+	}
+
+}
@@ -0,0 +1,68 @@
+package com.mse.personal.finance.tracing;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.util.List;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotWritableException;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Configures the timing of the responses' JSON serialization
+ * (the serialization phase of the requests' traces - see {@link RequestTrace}).
+ *
+ * The JSON converter is replaced by a subclass with the same object mapper,
+ * so the serialization itself does not change.
+ *
+ * @author dvt32
+ */
+@Configuration
+public class RequestTracingConfiguration
+	implements WebMvcConfigurer
+{
+
+	@Override
+	public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+		for (int i = 0; i < converters.size(); ++i) {
+			HttpMessageConverter<?> converter = converters.get(i);
+			boolean isJsonConverter = ( converter.getClass() == MappingJackson2HttpMessageConverter.class );
+			if (isJsonConverter) {
+				ObjectMapper objectMapper = ( (MappingJackson2HttpMessageConverter) converter ).getObjectMapper();
+				converters.set( i, new TracingJsonHttpMessageConverter(objectMapper) );
+			}
+		}
+	}
+
+	/**
+	 * JSON converter, which records the time of writing the responses.
+	 */
+	private static final class TracingJsonHttpMessageConverter
+		extends MappingJackson2HttpMessageConverter
+	{
+
+		private TracingJsonHttpMessageConverter(ObjectMapper objectMapper) {
+			super(objectMapper);
+		}
+
+		@Override
+		protected void writeInternal(Object object, Type type, HttpOutputMessage outputMessage)
+			throws IOException, HttpMessageNotWritableException
+		{
+			RequestTrace.PhaseTimer phaseTimer = RequestTrace.startPhase(RequestTrace.Phase.SERIALIZATION);
+			try {
+				super.writeInternal(object, type, outputMessage);
+			}
+			finally {
+				phaseTimer.stop();
+			}
+		}
+
+	}
+
+}
@@ -0,0 +1,129 @@
+package com.mse.personal.finance.tracing;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.MDC;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import com.mse.personal.finance.db.SqlStatistics;
+
+/**
+ * Filter that traces every request (see {@link RequestTrace}).
+ *
+ * The request's ID is taken from the "X-Request-Id" header (e.g. set by a load balancer)
+ * or generated, returned in the same response header and put in the log's MDC ("request_id"),
+ * together with the authenticated user ("effective_user", set by the JWT filter).
+ *
+ * A request, which takes longer than the threshold set with the "tracing.slow-request-threshold" property,
+ * is logged with its timing breakdown as key=value pairs.
+ * The numbers of executions of the request's SQL statements are added to the {@link SqlStatistics}.
+ *
+ * The filter runs before Spring Security's filters, so the authentication is part of the trace.
+ *
+ * @author dvt32
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class RequestTracingFilter
+	extends OncePerRequestFilter
+{
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+
+	public static final String REQUEST_ID_HEADER = "X-Request-Id";
+	public static final String REQUEST_ID_MDC_KEY = "request_id";
+	public static final String USER_MDC_KEY = "effective_user";
+
+	/**
+	 * Propagated request IDs are only accepted if they are short & safe to log.
+	 */
+	private static final Pattern VALID_REQUEST_ID = Pattern.compile("[A-Za-z0-9._-]{1,64}");
+
+	private final SqlStatistics sqlStatistics;
+	private final long slowRequestThresholdNanos;
+
+	@Autowired
+	public RequestTracingFilter(
+		SqlStatistics sqlStatistics,
+		@Value("${tracing.slow-request-threshold:1000}") long slowRequestThreshold)
+	{
+		this.sqlStatistics = sqlStatistics;
+		this.slowRequestThresholdNanos = TimeUnit.MILLISECONDS.toNanos(slowRequestThreshold);
+	}
+
+	@Override
+	protected void doFilterInternal(
+		HttpServletRequest request,
+		HttpServletResponse response,
+		FilterChain filterChain
+	)
+		throws ServletException, IOException
+	{
+		String requestId = resolveRequestId(request);
+		response.setHeader(REQUEST_ID_HEADER, requestId);
+		MDC.put(REQUEST_ID_MDC_KEY, requestId);
+		RequestTrace requestTrace = RequestTrace.start(requestId);
+		try {
+			filterChain.doFilter(request, response);
+		}
+		finally {
+			long totalTimeNanos = requestTrace.getTotalTimeNanos();
+			if (totalTimeNanos >= slowRequestThresholdNanos) {
+				logSlowRequest(request, response, requestTrace, totalTimeNanos);
+			}
+
+			sqlStatistics.recordRequest(requestTrace);
+			RequestTrace.end();
+			MDC.remove(REQUEST_ID_MDC_KEY);
+			MDC.remove(USER_MDC_KEY);
+		}
+	}
+
+	private static String resolveRequestId(HttpServletRequest request) {
+		String requestId = request.getHeader(REQUEST_ID_HEADER);
+		if ( requestId != null && VALID_REQUEST_ID.matcher(requestId).matches() ) {
+			return requestId;
+		}
+
+		// Generated without SecureRandom (as UUID.randomUUID() does), because the IDs need not be unpredictable
+		ThreadLocalRandom random = ThreadLocalRandom.current();
+		return new UUID( random.nextLong(), random.nextLong() ).toString();
+	}
+
+	private static void logSlowRequest(HttpServletRequest request, HttpServletResponse response, RequestTrace requestTrace, long totalTimeNanos) {
+		LOGGER.warn(
+			"Slow request: method={} uri={} status={} total_ms={} authentication_ms={} service_ms={} sql_ms={} sql_statements={} serialization_ms={}",
+			request.getMethod(),
+			request.getRequestURI(),
+			response.getStatus(),
+			toMillis(totalTimeNanos),
+			toMillis( requestTrace.getAuthenticationTimeNanos() ),
+			toMillis( requestTrace.getServiceTimeNanos(totalTimeNanos) ),
+			toMillis( requestTrace.getSqlTimeNanos() ),
+			requestTrace.getSqlStatementCount(),
+			toMillis( requestTrace.getSerializationTimeNanos() )
+		);
+	}
+
+	private static long toMillis(long nanos) {
+		return TimeUnit.NANOSECONDS.toMillis(nanos);
+	}
+
+}
@@ -0,0 +1,88 @@
+package com.mse.personal.finance.db;
+
+import static org.junit.Assert.fail;
+
+import java.util.Map;
+import java.util.concurrent.Callable;
+
+import com.mse.personal.finance.tracing.RequestTrace;
+
+/**
+ * Assertions on the number of SQL statements executed by an operation (its "query budget"), e.g.:
+ *
+ * <pre>
+ * Account account = QueryBudget.assertMaxStatements( 1, () -&gt; accountService.getAccountById(accountId) );
+ * </pre>
+ *
+ * The statements are counted on the current thread by the data source's proxy (see {@link SqlStatistics}),
+ * so the failure message lists the executed statements by fingerprint (e.g. the repeated select of an N+1 load).
+ *
+ * Note that in a @Transactional test, the inserts & updates are only executed when the persistence context is flushed,
+ * so an operation, whose writes should be counted, has to flush it.
+ *
+ * @author dvt32
+ */
+public final class QueryBudget {
+
+	/**
+	 * An operation, which returns nothing.
+	 */
+	@FunctionalInterface
+	public interface Operation {
+
+		void run() throws Exception;
+
+	}
+
+	private QueryBudget() {
+
+	}
+
+	/**
+	 * Runs the passed operation and fails if it executed more SQL statements than the passed max.
+	 *
+	 * @return the operation's result
+	 */
+	public static <T> T assertMaxStatements(int maxStatements, Callable<T> operation)
+		throws Exception
+	{
+		RequestTrace trace = RequestTrace.start("query-budget");
+		try {
+			T result = operation.call();
+			checkStatementCount(maxStatements, trace);
+			return result;
+		}
+		finally {
+			RequestTrace.end();
+		}
+	}
+
+	/**
+	 * Runs the passed operation and fails if it executed more SQL statements than the passed max.
+	 */
+	public static void assertMaxStatements(int maxStatements, Operation operation)
+		throws Exception
+	{
+		assertMaxStatements(maxStatements, () -> {
+			operation.run();
+			return null;
+		});
+	}
+
+	private static void checkStatementCount(int maxStatements, RequestTrace trace) {
+		int statementCount = trace.getSqlStatementCount();
+		if (statementCount <= maxStatements) {
+			return;
+		}
+
+		StringBuilder message = new StringBuilder()
+			.append("Expected at most ").append(maxStatements)
+			.append(" SQL statements, but ").append(statementCount).append(" were executed:");
+		for ( Map.Entry<String, Integer> executionCount : trace.getSqlExecutionCounts().entrySet() ) {
+			message.append("\n  ").append( executionCount.getValue() ).append(" x ").append( executionCount.getKey() );
+		}
+
+		fail( message.toString() );
+	}
+
+}
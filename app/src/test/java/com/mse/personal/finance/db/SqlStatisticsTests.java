@@ -0,0 +1,87 @@
+package com.mse.personal.finance.db;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.List;
+
+import org.junit.Test;
+
+import com.mse.personal.finance.tracing.RequestTrace;
+
+/**
+ * This class implements unit tests for the SqlFingerprint & SqlStatistics classes.
+ *
+ * @author dvt32
+ */
+public class SqlStatisticsTests {
+
+	/**
+	 * SqlFingerprint tests
+	 */
+
+	@Test
+	public void fingerprintShouldReplaceLiteralsAndCollapseLists() {
+		assertEquals(
+			"select * from accounts where id in (?) and name = ? and balance > -?",
+			SqlFingerprint.of("SELECT *  FROM accounts\n WHERE id IN (1, 2, 3) AND name = 'O''Brien' AND balance > -10.5")
+		);
+		assertEquals(
+			"insert into transactions (id, name) values (?)",
+			SqlFingerprint.of("insert into transactions (id, name) values (?, ?)")
+		);
+	}
+
+	@Test
+	public void fingerprintShouldKeepIdentifiersWithDigits() {
+		assertEquals(
+			"select accountent0_.id as id1_0_ from accounts accountent0_ where accountent0_.user_id=?",
+			SqlFingerprint.of("select accountent0_.id as id1_0_ from accounts accountent0_ where accountent0_.user_id=?")
+		);
+	}
+
+	/**
+	 * SqlStatistics tests
+	 */
+
+	@Test
+	public void statisticsShouldCountExecutionsPerFingerprintAndRequest() {
+		SqlStatistics sqlStatistics = new SqlStatistics(100);
+
+		RequestTrace requestTrace = RequestTrace.start("test");
+		try {
+			// An N+1 load - the same select with different IDs
+			for (int i = 1; i <= 5; ++i) {
+				sqlStatistics.recordExecution("select * from users where id = " + i, 1_000_000L);
+			}
+			sqlStatistics.recordExecution("select * from accounts where user_id = ?", 3_000_000L);
+			sqlStatistics.recordRequest(requestTrace);
+		}
+		finally {
+			RequestTrace.end();
+		}
+
+		List<SqlStatistics.FingerprintReport> reports = sqlStatistics.getTopFingerprints(1, SqlStatistics.Order.EXECUTIONS_PER_REQUEST);
+		assertEquals( 1, reports.size() );
+
+		SqlStatistics.FingerprintReport report = reports.get(0);
+		assertEquals( "select * from users where id = ?", report.getFingerprint() );
+		assertEquals( 5L, report.getExecutionCount() );
+		assertEquals( 5_000L, report.getTotalTimeMicros() );
+		assertEquals( 1L, report.getRequestCount() );
+		assertEquals( 5L, report.getMaxExecutionsPerRequest() );
+	}
+
+	@Test
+	public void statisticsShouldCountNewFingerprintsAboveLimitTogether() {
+		SqlStatistics sqlStatistics = new SqlStatistics(1);
+		sqlStatistics.recordExecution("select * from users", 1_000L);
+		sqlStatistics.recordExecution("select * from accounts", 1_000L);
+		sqlStatistics.recordExecution("select * from categories", 1_000L);
+
+		List<SqlStatistics.FingerprintReport> reports = sqlStatistics.getTopFingerprints(10, SqlStatistics.Order.EXECUTIONS);
+		assertEquals( 2, reports.size() );
+		assertEquals( SqlStatistics.OTHER_FINGERPRINT, reports.get(0).getFingerprint() );
+		assertEquals( 2L, reports.get(0).getExecutionCount() );
+	}
+
+}
@@ -0,0 +1,83 @@
+package com.mse.personal.finance.metrics;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import com.mse.personal.finance.db.repository.UserRepository;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * This class implements tests for the application's metrics
+ * (ApplicationMetrics, RepositoryMetricsPostProcessor & the JWT authentication timers).
+ *
+ * @author dvt32
+ */
+@RunWith(SpringRunner.class)
+@SpringBootTest
+@ActiveProfiles("test")
+public class ApplicationMetricsTests {
+
+	private static final String TEST_USER_EMAIL = "metrics@pfm.com";
+
+	@Autowired
+	private MeterRegistry meterRegistry;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Test
+	public void repositoryInvocationsShouldBeTimedPerMethod() {
+		Timer timer = meterRegistry.find("repository.invocations")
+			.tag("repository", "UserRepository")
+			.tag("method", "existsByEmail")
+			.tag("outcome", "success")
+			.timer();
+		long previousCount = (timer != null) ? timer.count() : 0L;
+
+		assertFalse( userRepository.existsByEmail(TEST_USER_EMAIL) );
+		assertFalse( userRepository.existsByEmail(TEST_USER_EMAIL) );
+
+		timer = meterRegistry.get("repository.invocations")
+			.tag("repository", "UserRepository")
+			.tag("method", "existsByEmail")
+			.tag("outcome", "success")
+			.timer();
+		assertEquals( previousCount + 2, timer.count() );
+		assertTrue( timer.totalTime(TimeUnit.NANOSECONDS) > 0.0d );
+	}
+
+	@Test
+	public void componentMetricsShouldBeRegistered() {
+		assertNotNull( meterRegistry.find("security.jwt.sessions").gauge() );
+		assertNotNull( meterRegistry.find("security.jwt.authentication.cache.size").gauge() );
+		assertNotNull( meterRegistry.find("security.login.limit.tracked.keys").tag("type", "ip").gauge() );
+		assertNotNull( meterRegistry.find("security.login.limit.tracked.keys").tag("type", "account").gauge() );
+		assertNotNull( meterRegistry.find("security.password.hashing").functionTimer() );
+	}
+
+	@Test
+	public void jwtAuthenticationTimersShouldBeRegistered() {
+		for (String result : new String[] { "cached", "resolved", "expired", "invalid" }) {
+			assertNotNull( meterRegistry.find("security.jwt.authentication").tag("result", result).timer() );
+		}
+	}
+
+	@Test
+	public void connectionPoolMetricsShouldBeRegistered() {
+		assertNotNull( meterRegistry.find("hikaricp.connections.active").gauge() );
+	}
+
+}
@@ -0,0 +1,72 @@
+package com.mse.personal.finance.model;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import org.junit.Test;
+
+/**
+ * This class implements unit tests for the Money class.
+ *
+ * @author dvt32
+ */
+public class MoneyTests {
+
+	@Test
+	public void toMinorUnitsMethodShouldConvertAmounts() {
+		assertEquals( 1234L, Money.toMinorUnits(12.34d) );
+		assertEquals( -1234L, Money.toMinorUnits(-12.34d) );
+		assertEquals( 0L, Money.toMinorUnits(0.0d) );
+		assertEquals( 29L, Money.toMinorUnits(0.29d) );
+	}
+
+	@Test
+	public void toMinorUnitsMethodShouldRoundHalfUp() {
+		assertEquals( 101L, Money.toMinorUnits(1.005d) );
+		assertEquals( 100L, Money.toMinorUnits(1.004d) );
+		assertEquals( -101L, Money.toMinorUnits(-1.005d) );
+	}
+
+	@Test(expected = ArithmeticException.class)
+	public void toMinorUnitsMethodShouldRejectTooLargeAmount() {
+		Money.toMinorUnits(1.0e18d);
+	}
+
+	@Test
+	public void toAmountMethodShouldConvertMinorUnits() {
+		assertEquals( 12.34d, Money.toAmount(1234L), 0.0d );
+		assertEquals( -0.01d, Money.toAmount(-1L), 0.0d );
+	}
+
+	@Test
+	public void nullableConversionMethodsShouldKeepNull() {
+		assertNull( Money.toNullableMinorUnits(null) );
+		assertNull( Money.toNullableAmount(null) );
+		assertEquals( Long.valueOf(1234L), Money.toNullableMinorUnits(12.34d) );
+		assertEquals( Double.valueOf(12.34d), Money.toNullableAmount(1234L) );
+	}
+
+	@Test
+	public void addMethodShouldSumAmountsExactly() {
+		long sum = 0L;
+		for (int i = 0; i < 10; ++i) {
+			sum = Money.add( sum, Money.toMinorUnits(0.1d) );
+		}
+
+		// 10 additions of 0.1 as doubles result in 0.9999999999999999
+		assertEquals( 100L, sum );
+		assertEquals( 1.0d, Money.toAmount(sum), 0.0d );
+	}
+
+	@Test
+	public void subtractAndNegateMethodsShouldReturnExactAmounts() {
+		assertEquals( 10L, Money.subtract( Money.toMinorUnits(0.3d), Money.toMinorUnits(0.2d) ) );
+		assertEquals( -1234L, Money.negate(1234L) );
+	}
+
+	@Test(expected = ArithmeticException.class)
+	public void addMethodShouldRejectOverflow() {
+		Money.add(Long.MAX_VALUE, 1L);
+	}
+
+}
@@ -0,0 +1,71 @@
+package com.mse.personal.finance.model;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.util.Date;
+
+import org.junit.Test;
+
+/**
+ * This class implements unit tests for the TransactionRecurrence enum.
+ *
+ * @author dvt32
+ */
+public class TransactionRecurrenceTests {
+
+	/**
+	 * Returns the date, which is parsed from the passed string (in the "yyyy-MM-dd" format)
+	 */
+	public Date getDate(String date) {
+		return java.sql.Date.valueOf(date);
+	}
+
+	@Test
+	public void fromStringMethodShouldParseRecurrenceCaseInsensitively() {
+		assertEquals( TransactionRecurrence.MONTHLY, TransactionRecurrence.fromString(" Monthly ") );
+		assertEquals( TransactionRecurrence.DAILY, TransactionRecurrence.fromString("DAILY") );
+		assertEquals( TransactionRecurrence.NO, TransactionRecurrence.fromString("every other day") );
+		assertEquals( TransactionRecurrence.NO, TransactionRecurrence.fromString(null) );
+	}
+
+	@Test
+	public void getNextExecutionDateMethodShouldNotDriftFromDateOfCompletion() {
+		Date dateOfCompletion = getDate("2020-01-31");
+		
+		Date february = TransactionRecurrence.MONTHLY.getNextExecutionDate(dateOfCompletion, dateOfCompletion);
+		Date march = TransactionRecurrence.MONTHLY.getNextExecutionDate(dateOfCompletion, february);
+		
+		assertEquals( getDate("2020-02-29"), february );
+		assertEquals( getDate("2020-03-31"), march );
+	}
+
+	@Test
+	public void getNextExecutionDateMethodShouldSkipPassedPeriods() {
+		assertEquals( 
+			getDate("2020-03-18"), 
+			TransactionRecurrence.WEEKLY.getNextExecutionDate( getDate("2020-01-01"), getDate("2020-03-11") ) 
+		);
+		assertNull( TransactionRecurrence.NO.getNextExecutionDate( getDate("2020-01-01"), getDate("2020-03-11") ) );
+	}
+
+	@Test
+	public void getFirstExecutionDateMethodShouldOnlyScheduleAutomaticallyExecutedTransactions() {
+		Date dateOfCompletion = getDate("2020-01-15");
+		
+		assertEquals( getDate("2021-01-15"), TransactionRecurrence.getFirstExecutionDate("yearly", true, dateOfCompletion, dateOfCompletion) );
+		assertNull( TransactionRecurrence.getFirstExecutionDate("yearly", false, dateOfCompletion, dateOfCompletion) );
+		assertNull( TransactionRecurrence.getFirstExecutionDate("yearly", null, dateOfCompletion, dateOfCompletion) );
+		assertNull( TransactionRecurrence.getFirstExecutionDate(null, true, dateOfCompletion, dateOfCompletion) );
+	}
+
+	@Test
+	public void getFirstExecutionDateMethodShouldNotScheduleBeforePassedDate() {
+		Date dateOfCompletion = getDate("2020-01-15");
+		
+		assertEquals( getDate("2020-02-15"), TransactionRecurrence.getFirstExecutionDate("monthly", true, dateOfCompletion, getDate("2019-12-01")) );
+		assertEquals( getDate("2020-04-15"), TransactionRecurrence.getFirstExecutionDate("monthly", true, dateOfCompletion, getDate("2020-03-20")) );
+		assertEquals( getDate("2020-04-15"), TransactionRecurrence.getFirstExecutionDate("monthly", true, dateOfCompletion, getDate("2020-04-15")) );
+	}
+
+}
@@ -53,6 +53,7 @@ import com.mse.personal.finance.rest.exception.AccountDeleteException;
 import com.mse.personal.finance.rest.exception.InvalidDataException;
 import com.mse.personal.finance.rest.exception.UserDoesNotOwnResourceException;
 import com.mse.personal.finance.service.AccountService;
+import com.mse.personal.finance.service.TransactionDailySumService;
 
 /**
  * This class implements integration tests for the AccountController class.
@@ -83,6 +84,9 @@ public class AccountControllerTests {
 	
 	@Autowired
 	private TransactionRepository transactionRepository;
+
+	@Autowired
+	private TransactionDailySumService transactionDailySumService;
 	
 	@Autowired
 	private WebApplicationContext context;
@@ -156,6 +160,7 @@ public class AccountControllerTests {
 		systemIncomeCategory.setType(CategoryType.INCOME);
 		systemIncomeCategory.setCurrentPeriodSum(0.0d);
 		systemIncomeCategory.setOwner(user);
+		systemIncomeCategory.setSystem(true);
 		categoryRepository.save(systemIncomeCategory);
 		
 		CategoryEntity systemExpensesCategory = new CategoryEntity();
@@ -163,6 +168,7 @@ public class AccountControllerTests {
 		systemExpensesCategory.setType(CategoryType.EXPENSES);
 		systemExpensesCategory.setCurrentPeriodSum(0.0d);
 		systemExpensesCategory.setOwner(user);
+		systemExpensesCategory.setSystem(true);
 		categoryRepository.save(systemExpensesCategory);
 	}
 	
@@ -204,6 +210,7 @@ public class AccountControllerTests {
 		testTransactionEntity.setDescription(description);
 		
 		testTransactionEntity = transactionRepository.save(testTransactionEntity);
+		transactionDailySumService.addTransaction(testTransactionEntity);
 		
 		return testTransactionEntity;
 	}
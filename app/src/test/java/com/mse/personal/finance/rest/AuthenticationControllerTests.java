@@ -1,10 +1,12 @@
 package com.mse.personal.finance.rest;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 import static org.springframework.security.test.web.servlet.setup.SecurityMockMvcConfigurers.springSecurity;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 import org.json.JSONObject;
@@ -29,8 +31,10 @@ import com.mse.personal.finance.db.repository.UserRepository;
 import com.mse.personal.finance.model.FamilyStatusType;
 import com.mse.personal.finance.model.GenderType;
 import com.mse.personal.finance.model.UserAuthenticationDetails;
+import com.mse.personal.finance.security.jwt.JwtAuthenticationCache;
 import com.mse.personal.finance.security.jwt.JwtSessionManager;
 import com.mse.personal.finance.security.jwt.JwtTokenProvider;
+import com.mse.personal.finance.security.jwt.session.SessionStore;
 import com.mse.personal.finance.service.LoginLimitService;
 
 /**
@@ -74,6 +78,12 @@ public class AuthenticationControllerTests {
 	@Autowired
 	private LoginLimitService loginLimitService;
 	
+	@Autowired
+	private JwtAuthenticationCache jwtAuthenticationCache;
+	
+	@Autowired
+	private SessionStore sessionStore;
+	
 	/**
 	 * Set context & configure Spring Security 
 	 * for testing secured methods / REST endpoints.
@@ -117,7 +127,7 @@ public class AuthenticationControllerTests {
     	
     	String tokenString = tokenProvider.generateTokenStringFromDetails(authDetails);
     	
-    	jwtSessionManager.updateSession(tokenString);
+    	jwtSessionManager.updateSession( tokenString, user.getEmail() );
     	
     	return tokenString;
 	}
@@ -206,6 +216,73 @@ public class AuthenticationControllerTests {
 			.andExpect( status().isOk() );
     }
     
+    /**
+     * JWT authentication cache tests
+     */
+    
+    @Test
+    public void authenticatedRequestsShouldReuseCachedAuthenticationOfToken() throws Exception {
+    	UserEntity testUser = insertTestUser();
+    	String tokenString = insertJwtForUser(testUser);
+    	
+    	this.mockMvc.perform( get("/profile").header("Authorization", "Bearer " + tokenString) ).andExpect( status().isOk() );
+    	long hitCountAfterFirstRequest = jwtAuthenticationCache.getHitCount();
+    	
+    	this.mockMvc.perform( get("/profile").header("Authorization", "Bearer " + tokenString) ).andExpect( status().isOk() );
+    	
+    	assertEquals( hitCountAfterFirstRequest + 1, jwtAuthenticationCache.getHitCount() );
+    }
+    
+    @Test
+    public void logoutShouldInvalidateCachedAuthenticationOfToken() throws Exception {
+    	UserEntity testUser = insertTestUser();
+    	String tokenString = insertJwtForUser(testUser);
+    	
+    	this.mockMvc.perform( get("/profile").header("Authorization", "Bearer " + tokenString) ).andExpect( status().isOk() );
+    	this.mockMvc.perform( get("/auth/logout").header("Authorization", "Bearer " + tokenString) ).andExpect( status().isOk() );
+    	
+    	assertTrue( jwtAuthenticationCache.get(tokenString) == null );
+    	this.mockMvc.perform( get("/profile").header("Authorization", "Bearer " + tokenString) ).andExpect( status().isUnauthorized() );
+    }
+    
+    @Test
+    public void cachedAuthenticationShouldNotBeUsedAfterSessionIsRemovedByAnotherInstance() throws Exception {
+    	UserEntity testUser = insertTestUser();
+    	String tokenString = insertJwtForUser(testUser);
+    	
+    	this.mockMvc.perform( get("/profile").header("Authorization", "Bearer " + tokenString) ).andExpect( status().isOk() );
+    	// Removed only from the shared session store (the way another instance removes a deleted user's sessions), 
+    	// so this instance's cache still contains the token's user
+    	sessionStore.removeUserSessions(TEST_USER_EMAIL);
+    	
+    	this.mockMvc.perform( get("/profile").header("Authorization", "Bearer " + tokenString) ).andExpect( status().isUnauthorized() );
+    	assertTrue( jwtAuthenticationCache.get(tokenString) == null );
+    }
+    
+    @Test
+    public void passwordChangeShouldEndSessionsOfUser() throws Exception {
+    	UserEntity testUser = insertTestUser();
+    	String tokenString = insertJwtForUser(testUser);
+    	
+    	this.mockMvc.perform( get("/profile").header("Authorization", "Bearer " + tokenString) ).andExpect( status().isOk() );
+    	
+    	JSONObject requestBody = new JSONObject();
+    	requestBody.put("oldPassword", TEST_USER_PASSWORD);
+    	requestBody.put("newPassword", "123456789");
+    	requestBody.put("matchingNewPassword", "123456789");
+    	this.mockMvc
+    		.perform( 
+    			put("/profile/password")
+    				.header("Authorization", "Bearer " + tokenString)
+    				.contentType(MediaType.APPLICATION_JSON)
+    				.content( requestBody.toString() )
+    		)
+    		.andExpect( status().isOk() );
+    	
+    	assertEquals( SessionStore.NO_SESSION, sessionStore.getLastAccessTime(tokenString) );
+    	this.mockMvc.perform( get("/profile").header("Authorization", "Bearer " + tokenString) ).andExpect( status().isUnauthorized() );
+    }
+    
     /**
 	 * Anti-bruteforce tests
 	 */
@@ -52,6 +52,7 @@ import com.mse.personal.finance.model.TransactionToType;
 import com.mse.personal.finance.rest.exception.InvalidDataException;
 import com.mse.personal.finance.rest.exception.UserDoesNotOwnResourceException;
 import com.mse.personal.finance.service.CategoryService;
+import com.mse.personal.finance.service.TransactionDailySumService;
 
 /**
  * This class implements integration tests for the CategoryController class.
@@ -85,6 +86,9 @@ public class CategoryControllerTests {
 	
 	@Autowired
 	private TransactionRepository transactionRepository;
+
+	@Autowired
+	private TransactionDailySumService transactionDailySumService;
 	
 	@Autowired
 	private WebApplicationContext context;
@@ -215,6 +219,7 @@ public class CategoryControllerTests {
 		testTransactionEntity.setDescription(description);
 		
 		testTransactionEntity = transactionRepository.save(testTransactionEntity);
+		transactionDailySumService.addTransaction(testTransactionEntity);
 		
 		return testTransactionEntity;
 	}
@@ -48,6 +48,7 @@ import com.mse.personal.finance.model.GenderType;
 import com.mse.personal.finance.model.TransactionFromType;
 import com.mse.personal.finance.model.TransactionToType;
 import com.mse.personal.finance.rest.exception.InvalidDataException;
+import com.mse.personal.finance.service.TransactionDailySumService;
 
 /**
  * This class implements integration tests for the TransactionController class.
@@ -72,6 +73,9 @@ public class TransactionControllerTests {
 	
 	@Autowired
 	private TransactionRepository transactionRepository;
+
+	@Autowired
+	private TransactionDailySumService transactionDailySumService;
 	
 	@Autowired
 	private AccountRepository accountRepository;
@@ -157,6 +161,7 @@ public class TransactionControllerTests {
 		testTransactionEntity.setDescription(transactionDescription);
 		
 		testTransactionEntity = transactionRepository.save(testTransactionEntity);
+		transactionDailySumService.addTransaction(testTransactionEntity);
 		
 		return testTransactionEntity;
 	}
@@ -1139,8 +1144,8 @@ public class TransactionControllerTests {
     	assertTrue( result.getResolvedException() instanceof InvalidDataException );
     	assertTrue( result.getResolvedException().getMessage().equals("Transaction sum must not be null!") );
     	assertTrue( transactionRepository.count() == 0 );
-    	assertTrue( accountRepository.findById(testAccountId).get().getBalance() == testAccountBalance );
-    	assertTrue( categoryRepository.findById(testIncomeCategoryId).get().getCurrentPeriodSum() == testIncomeCategorySum );
+    	assertTrue( accountRepository.findById(testAccountId).get().getBalance().equals(testAccountBalance) );
+    	assertTrue( categoryRepository.findById(testIncomeCategoryId).get().getCurrentPeriodSum().equals(testIncomeCategorySum) );
     }
     
     @Test
@@ -1251,6 +1256,7 @@ public class TransactionControllerTests {
     	testTransaction.setFromId(testAccountId);
     	testTransaction.setToId(testExpenseCategoryId);
     	testTransaction = transactionRepository.save(testTransaction);
+    	transactionDailySumService.addTransaction(testTransaction);
     	Long testTransactionId = testTransaction.getId();
     	Double testTransactionSum = testTransaction.getSum();
     	
@@ -1364,6 +1370,7 @@ public class TransactionControllerTests {
     	testTransaction.setFromId(testAccountId);
     	testTransaction.setToId(testExpenseCategoryId);
     	testTransaction = transactionRepository.save(testTransaction);
+    	transactionDailySumService.addTransaction(testTransaction);
     	Long testTransactionId = testTransaction.getId();
     	Double testTransactionSum = testTransaction.getSum();
     	
@@ -0,0 +1,119 @@
+package com.mse.personal.finance.security;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import org.junit.Test;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import com.mse.personal.finance.rest.exception.PasswordHashingUnavailableException;
+
+/**
+ * This class implements unit tests for the BoundedPasswordEncoder class.
+ *
+ * @author dvt32
+ */
+public class BoundedPasswordEncoderTests {
+
+	@Test
+	public void encodeMethodShouldReturnDelegatesResult() {
+		BoundedPasswordEncoder passwordEncoder = new BoundedPasswordEncoder( new BlockingPasswordEncoder( new CountDownLatch(0) ), 1, 1 );
+
+		assertEquals( "encoded-123456", passwordEncoder.encode("123456") );
+		assertTrue( passwordEncoder.matches("123456", "encoded-123456") );
+		assertEquals( 2L, passwordEncoder.getHashCount() );
+
+		passwordEncoder.destroy();
+	}
+
+	@Test
+	public void encodeMethodShouldRejectHashingBecauseOfSaturatedExecutor()
+		throws Exception
+	{
+		CountDownLatch hashingLatch = new CountDownLatch(1);
+		BoundedPasswordEncoder passwordEncoder = new BoundedPasswordEncoder( new BlockingPasswordEncoder(hashingLatch), 1, 1 );
+		ExecutorService requestExecutor = Executors.newFixedThreadPool(2);
+
+		try {
+			// The first hashing occupies the only hashing thread, the second one waits in the queue
+			Future<String> firstResult = requestExecutor.submit( () -> passwordEncoder.encode("first") );
+			waitUntil( () -> passwordEncoder.getActiveHashCount() == 1 );
+			Future<String> secondResult = requestExecutor.submit( () -> passwordEncoder.encode("second") );
+			waitUntil( () -> passwordEncoder.getQueueDepth() == 1 );
+
+			try {
+				passwordEncoder.encode("third");
+				fail("The hashing should have been rejected");
+			}
+			catch (PasswordHashingUnavailableException e) {
+				assertEquals( 1L, passwordEncoder.getRejectedHashCount() );
+			}
+
+			hashingLatch.countDown();
+			assertEquals( "encoded-first", firstResult.get(5, TimeUnit.SECONDS) );
+			assertEquals( "encoded-second", secondResult.get(5, TimeUnit.SECONDS) );
+		}
+		finally {
+			hashingLatch.countDown();
+			requestExecutor.shutdownNow();
+			passwordEncoder.destroy();
+		}
+	}
+
+	private void waitUntil(BooleanSupplier condition)
+		throws InterruptedException
+	{
+		long deadline = System.currentTimeMillis() + 5000L;
+		while ( !condition.getAsBoolean() ) {
+			if (System.currentTimeMillis() > deadline) {
+				fail("Timed out waiting for the condition");
+			}
+			Thread.sleep(10L);
+		}
+	}
+
+	/**
+	 * Password encoder, whose hashing waits for the passed latch.
+	 */
+	private static class BlockingPasswordEncoder
+		implements PasswordEncoder
+	{
+
+		private final CountDownLatch hashingLatch;
+
+		private BlockingPasswordEncoder(CountDownLatch hashingLatch) {
+			this.hashingLatch = hashingLatch;
+		}
+
+		@Override
+		public String encode(CharSequence rawPassword) {
+			awaitLatch();
+			return "encoded-" + rawPassword;
+		}
+
+		@Override
+		public boolean matches(CharSequence rawPassword, String encodedPassword) {
+			awaitLatch();
+			return encodedPassword.equals("encoded-" + rawPassword);
+		}
+
+		private void awaitLatch() {
+			try {
+				hashingLatch.await();
+			}
+			catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}
+
+	}
+
+}
@@ -0,0 +1,172 @@
+package com.mse.personal.finance.security.jwt.session;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * This class implements unit tests for the SessionStore implementations.
+ *
+ * The @Transactional annotation is used to rollback
+ * database changes after a test has finished executing.
+ *
+ * @author dvt32
+ */
+@RunWith(SpringRunner.class)
+@Transactional
+@SpringBootTest
+@ActiveProfiles("test")
+public class SessionStoreTests {
+
+	private static final long SESSION_EXPIRATION_MILLIS = 1000L;
+	private static final String TEST_TOKEN_STRING = "test-token";
+	private static final String OTHER_TEST_TOKEN_STRING = "other-test-token";
+	private static final String TEST_USERNAME = "test@pfm.com";
+	private static final String OTHER_TEST_USERNAME = "other-test@pfm.com";
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	/**
+	 * InMemorySessionStore tests
+	 */
+
+	@Test
+	public void inMemorySessionStoreShouldStoreAndRemoveSessions() {
+		assertStoresAndRemovesSessions( new InMemorySessionStore(SESSION_EXPIRATION_MILLIS) );
+	}
+
+	@Test
+	public void inMemorySessionStoreShouldRemoveOnlyExpiredSessions() {
+		assertRemovesOnlyExpiredSessions( new InMemorySessionStore(SESSION_EXPIRATION_MILLIS) );
+	}
+
+	@Test
+	public void inMemorySessionStoreShouldRefreshSessionsOnlyAfterGranularity() {
+		assertRefreshesSessionsOnlyAfterGranularity( new InMemorySessionStore(SESSION_EXPIRATION_MILLIS) );
+	}
+
+	@Test
+	public void inMemorySessionStoreShouldRemoveOnlySessionsOfUser() {
+		assertRemovesOnlySessionsOfUser( new InMemorySessionStore(SESSION_EXPIRATION_MILLIS) );
+	}
+
+	@Test
+	public void inMemorySessionStoreShouldRemoveSessionAccessedAfterItsFirstDeadlineOnlyAfterItsNewDeadline() {
+		SessionStore sessionStore = new InMemorySessionStore(SESSION_EXPIRATION_MILLIS);
+		long now = System.currentTimeMillis();
+
+		sessionStore.touch(TEST_TOKEN_STRING, TEST_USERNAME, now);
+		sessionStore.touch(TEST_TOKEN_STRING, TEST_USERNAME, now + 5000L);
+
+		assertEquals( 0, sessionStore.removeExpiredSessions(now + 3000L) );
+		assertEquals( now + 5000L, sessionStore.getLastAccessTime(TEST_TOKEN_STRING) );
+
+		assertEquals( 1, sessionStore.removeExpiredSessions(now + 8000L) );
+		assertEquals( SessionStore.NO_SESSION, sessionStore.getLastAccessTime(TEST_TOKEN_STRING) );
+	}
+
+	@Test
+	public void inMemorySessionStoreShouldNotRemoveRecreatedSessionBecauseOfRemovedSessionsDeadline() {
+		SessionStore sessionStore = new InMemorySessionStore(SESSION_EXPIRATION_MILLIS);
+		long now = System.currentTimeMillis();
+
+		sessionStore.touch(TEST_TOKEN_STRING, TEST_USERNAME, now);
+		sessionStore.remove(TEST_TOKEN_STRING);
+		sessionStore.touch(TEST_TOKEN_STRING, TEST_USERNAME, now + 5000L);
+
+		assertEquals( 0, sessionStore.removeExpiredSessions(now + 3000L) );
+		assertEquals( now + 5000L, sessionStore.getLastAccessTime(TEST_TOKEN_STRING) );
+	}
+
+	/**
+	 * JdbcSessionStore tests
+	 */
+
+	@Test
+	public void jdbcSessionStoreShouldStoreAndRemoveSessions() {
+		assertStoresAndRemovesSessions( new JdbcSessionStore(jdbcTemplate, SESSION_EXPIRATION_MILLIS) );
+	}
+
+	@Test
+	public void jdbcSessionStoreShouldRemoveOnlyExpiredSessions() {
+		assertRemovesOnlyExpiredSessions( new JdbcSessionStore(jdbcTemplate, SESSION_EXPIRATION_MILLIS) );
+	}
+
+	@Test
+	public void jdbcSessionStoreShouldRefreshSessionsOnlyAfterGranularity() {
+		assertRefreshesSessionsOnlyAfterGranularity( new JdbcSessionStore(jdbcTemplate, SESSION_EXPIRATION_MILLIS) );
+	}
+
+	@Test
+	public void jdbcSessionStoreShouldRemoveOnlySessionsOfUser() {
+		assertRemovesOnlySessionsOfUser( new JdbcSessionStore(jdbcTemplate, SESSION_EXPIRATION_MILLIS) );
+	}
+
+	/**
+	 * Common assertions
+	 */
+
+	private void assertStoresAndRemovesSessions(SessionStore sessionStore) {
+		long now = System.currentTimeMillis();
+
+		sessionStore.touch(TEST_TOKEN_STRING, TEST_USERNAME, now);
+		assertEquals( now, sessionStore.getLastAccessTime(TEST_TOKEN_STRING) );
+		assertEquals( 1L, sessionStore.size() );
+
+		sessionStore.touch(TEST_TOKEN_STRING, TEST_USERNAME, now + 100L);
+		assertEquals( now + 100L, sessionStore.getLastAccessTime(TEST_TOKEN_STRING) );
+		assertEquals( 1L, sessionStore.size() );
+
+		sessionStore.remove(TEST_TOKEN_STRING);
+		assertEquals( SessionStore.NO_SESSION, sessionStore.getLastAccessTime(TEST_TOKEN_STRING) );
+		assertEquals( 0L, sessionStore.size() );
+	}
+
+	private void assertRefreshesSessionsOnlyAfterGranularity(SessionStore sessionStore) {
+		long now = System.currentTimeMillis();
+		long granularityMillis = 100L;
+
+		sessionStore.touch(TEST_TOKEN_STRING, TEST_USERNAME, now);
+
+		sessionStore.refresh(TEST_TOKEN_STRING, now + 50L, granularityMillis);
+		assertEquals( now, sessionStore.getLastAccessTime(TEST_TOKEN_STRING) );
+
+		sessionStore.refresh(TEST_TOKEN_STRING, now + 100L, granularityMillis);
+		assertEquals( now + 100L, sessionStore.getLastAccessTime(TEST_TOKEN_STRING) );
+
+		sessionStore.refresh(OTHER_TEST_TOKEN_STRING, now + 100L, granularityMillis);
+		assertEquals( SessionStore.NO_SESSION, sessionStore.getLastAccessTime(OTHER_TEST_TOKEN_STRING) );
+	}
+
+	private void assertRemovesOnlyExpiredSessions(SessionStore sessionStore) {
+		long now = System.currentTimeMillis();
+
+		sessionStore.touch(TEST_TOKEN_STRING, TEST_USERNAME, now);
+		sessionStore.touch(OTHER_TEST_TOKEN_STRING, OTHER_TEST_USERNAME, now + 3000L);
+
+		assertEquals( 1, sessionStore.removeExpiredSessions(now + 3500L) );
+		assertEquals( SessionStore.NO_SESSION, sessionStore.getLastAccessTime(TEST_TOKEN_STRING) );
+		assertEquals( now + 3000L, sessionStore.getLastAccessTime(OTHER_TEST_TOKEN_STRING) );
+	}
+
+	private void assertRemovesOnlySessionsOfUser(SessionStore sessionStore) {
+		long now = System.currentTimeMillis();
+
+		sessionStore.touch(TEST_TOKEN_STRING, TEST_USERNAME, now);
+		sessionStore.touch(OTHER_TEST_TOKEN_STRING, OTHER_TEST_USERNAME, now);
+
+		assertEquals( 1, sessionStore.removeUserSessions(TEST_USERNAME) );
+		assertEquals( SessionStore.NO_SESSION, sessionStore.getLastAccessTime(TEST_TOKEN_STRING) );
+		assertEquals( now, sessionStore.getLastAccessTime(OTHER_TEST_TOKEN_STRING) );
+		assertEquals( 0, sessionStore.removeUserSessions(TEST_USERNAME) );
+	}
+
+}
@@ -8,6 +8,9 @@ import java.util.Date;
 import java.util.List;
 import java.util.NoSuchElementException;
 
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -18,6 +21,7 @@ import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.junit4.SpringRunner;
 import org.springframework.transaction.annotation.Transactional;
 
+import com.mse.personal.finance.db.QueryBudget;
 import com.mse.personal.finance.db.entity.AccountEntity;
 import com.mse.personal.finance.db.entity.CategoryEntity;
 import com.mse.personal.finance.db.entity.TransactionEntity;
@@ -31,6 +35,7 @@ import com.mse.personal.finance.model.AccountType;
 import com.mse.personal.finance.model.CategoryType;
 import com.mse.personal.finance.model.FamilyStatusType;
 import com.mse.personal.finance.model.GenderType;
+import com.mse.personal.finance.model.Money;
 import com.mse.personal.finance.model.TransactionFromType;
 import com.mse.personal.finance.model.TransactionToType;
 import com.mse.personal.finance.model.request.AccountRequest;
@@ -72,9 +77,15 @@ public class AccountServiceTests {
 	
 	@Autowired
 	private TransactionRepository transactionRepository;
+
+	@Autowired
+	private TransactionDailySumService transactionDailySumService;
 	
 	@Autowired
 	private PasswordEncoder passwordEncoder;
+
+	@PersistenceContext
+	private EntityManager entityManager;
 	
 	/**
 	 * Insert test user and return his data.
@@ -182,6 +193,7 @@ public class AccountServiceTests {
 		testTransactionEntity.setDescription(description);
 		
 		testTransactionEntity = transactionRepository.save(testTransactionEntity);
+		transactionDailySumService.addTransaction(testTransactionEntity);
 		
 		return testTransactionEntity;
 	}
@@ -195,6 +207,7 @@ public class AccountServiceTests {
 		systemIncomeCategory.setType(CategoryType.INCOME);
 		systemIncomeCategory.setCurrentPeriodSum(0.0d);
 		systemIncomeCategory.setOwner(user);
+		systemIncomeCategory.setSystem(true);
 		categoryRepository.save(systemIncomeCategory);
 		
 		CategoryEntity systemExpensesCategory = new CategoryEntity();
@@ -202,6 +215,7 @@ public class AccountServiceTests {
 		systemExpensesCategory.setType(CategoryType.EXPENSES);
 		systemExpensesCategory.setCurrentPeriodSum(0.0d);
 		systemExpensesCategory.setOwner(user);
+		systemExpensesCategory.setSystem(true);
 		categoryRepository.save(systemExpensesCategory);
 	}
 
@@ -361,6 +375,21 @@ public class AccountServiceTests {
 		assertTrue( retrievedAccount.getId() == testAccount.getId() );
 	}
 	
+	@Test
+	@WithMockUser(username = TEST_USER_EMAIL)
+	public void getAccountByIdMethodShouldRetrieveOwnedAccountWithSingleQuery() throws Exception {
+		UserEntity testUser = insertTestUser(TEST_USER_EMAIL);
+		AccountEntity testAccount = insertTestAccountForUser(testUser, AccountType.ACTIVATED, "My Account");
+		Long testAccountId = testAccount.getId();
+		
+		// Write the test data & cache the logged-in user before counting, so that only the lookup's statements are counted
+		accountRepository.flush();
+		accountService.getTotalBalanceOfActivatedAccounts();
+		
+		// owner-scoped select (no separate existence/ownership queries)
+		QueryBudget.assertMaxStatements( 1, () -> accountService.getAccountById(testAccountId) );
+	}
+	
 	/**
 	 * getTotalIncomeSumBetweenDatesById() tests
 	 */
@@ -874,7 +903,7 @@ public class AccountServiceTests {
 		Long testAccountId = testAccount.getId();
 		Double testAccountBalance = testAccount.getBalance();
 		
-		accountService.performAccountBalanceOperationById(testAccountId, '+', 100.00d);
+		accountService.performAccountBalanceOperationById(testAccountId, '+', Money.toMinorUnits(100.00d));
 		
 		assertTrue( accountRepository.count() == 1 );
 		assertTrue( accountRepository.existsById(testAccountId) );
@@ -891,7 +920,7 @@ public class AccountServiceTests {
 		Long testAccountId = testAccount.getId();
 		Double testAccountBalance = testAccount.getBalance();
 		
-		accountService.performAccountBalanceOperationById(testAccountId, '-', 100.00d);
+		accountService.performAccountBalanceOperationById(testAccountId, '-', Money.toMinorUnits(100.00d));
 		
 		assertTrue( accountRepository.count() == 1 );
 		assertTrue( accountRepository.existsById(testAccountId) );
@@ -908,13 +937,30 @@ public class AccountServiceTests {
 		Long testAccountId = testAccount.getId();
 		Double testAccountBalance = testAccount.getBalance();
 		
-		accountService.performAccountBalanceOperationById(testAccountId, 'X', 100.00d);
+		accountService.performAccountBalanceOperationById(testAccountId, 'X', Money.toMinorUnits(100.00d));
 		
 		assertTrue( accountRepository.count() == 1 );
 		assertTrue( accountRepository.existsById(testAccountId) );
 		assertTrue( 
-			accountRepository.findById(testAccountId).get().getBalance() == testAccountBalance
+			accountRepository.findById(testAccountId).get().getBalance().equals(testAccountBalance)
 		);
 	}
 	
+	@Test
+    @WithMockUser(username = TEST_USER_EMAIL)
+	public void performAccountBalanceOperationByIdMethodShouldRefreshOnlyUpdatedAccount() {
+		UserEntity testUser = insertTestUser(TEST_USER_EMAIL);
+		AccountEntity testAccount = insertTestAccountForUser(testUser, AccountType.ACTIVATED, "My Account");
+		AccountEntity otherTestAccount = insertTestAccountForUser(testUser, AccountType.ACTIVATED, "My Other Account");
+		Double testAccountBalance = testAccount.getBalance();
+		
+		accountService.performAccountBalanceOperationById(testAccount.getId(), '+', Money.toMinorUnits(100.00d));
+		
+		// The updated account is refreshed, the other entities stay managed
+		assertTrue( entityManager.contains(testAccount) );
+		assertTrue( testAccount.getBalance() == (testAccountBalance + 100.00d) );
+		assertTrue( entityManager.contains(otherTestAccount) );
+		assertTrue( entityManager.contains(testUser) );
+	}
+	
 }
\ No newline at end of file
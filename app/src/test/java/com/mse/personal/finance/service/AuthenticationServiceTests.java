@@ -87,7 +87,7 @@ public class AuthenticationServiceTests {
     	
     	String tokenString = tokenProvider.generateTokenStringFromDetails(authDetails);
     	
-    	jwtSessionManager.updateSession(tokenString);
+    	jwtSessionManager.updateSession( tokenString, user.getEmail() );
     	
     	return tokenString;
 	}
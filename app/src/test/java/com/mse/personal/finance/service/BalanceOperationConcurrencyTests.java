@@ -0,0 +1,134 @@
+package com.mse.personal.finance.service;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.After;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import com.mse.personal.finance.db.entity.AccountEntity;
+import com.mse.personal.finance.db.entity.CategoryEntity;
+import com.mse.personal.finance.db.repository.AccountRepository;
+import com.mse.personal.finance.db.repository.CategoryRepository;
+import com.mse.personal.finance.model.AccountType;
+import com.mse.personal.finance.model.CategoryType;
+import com.mse.personal.finance.model.Money;
+
+/**
+ * This class implements concurrency stress tests
+ * for the account balance & category sum operations
+ * of the AccountService and CategoryService classes.
+ *
+ * NOTE: The class is intentionally NOT annotated with @Transactional,
+ * because every thread must commit its own changes.
+ * The inserted test data is removed after each test instead.
+ *
+ * @author dvt32
+ */
+@RunWith(SpringRunner.class)
+@SpringBootTest
+@ActiveProfiles("test")
+public class BalanceOperationConcurrencyTests {
+
+	private static final int NUMBER_OF_THREADS = 8;
+	private static final int OPERATIONS_PER_THREAD = 250;
+
+	@Autowired
+	private AccountService accountService;
+
+	@Autowired
+	private CategoryService categoryService;
+
+	@Autowired
+	private AccountRepository accountRepository;
+
+	@Autowired
+	private CategoryRepository categoryRepository;
+
+	/**
+	 * Removes all inserted test data.
+	 */
+	@After
+	public void cleanUp() {
+		accountRepository.deleteAll();
+		categoryRepository.deleteAll();
+	}
+
+	/**
+	 * Runs the passed operation from several threads at the same time
+	 * and waits for all of them to finish.
+	 */
+	private void runConcurrently(Runnable operation) throws Exception {
+		ExecutorService executorService = Executors.newFixedThreadPool(NUMBER_OF_THREADS);
+		CountDownLatch startSignal = new CountDownLatch(1);
+
+		List<Future<Void>> futures = new ArrayList<>();
+		for (int i = 0; i < NUMBER_OF_THREADS; ++i) {
+			Callable<Void> task = () -> {
+				startSignal.await();
+				for (int j = 0; j < OPERATIONS_PER_THREAD; ++j) {
+					operation.run();
+				}
+				return null;
+			};
+			futures.add( executorService.submit(task) );
+		}
+
+		startSignal.countDown();
+		for (Future<Void> future : futures) {
+			future.get(); // rethrows any exception thrown by the operation
+		}
+
+		executorService.shutdown();
+	}
+
+	@Test
+	public void performAccountBalanceOperationByIdMethod_ShouldNotLoseConcurrentUpdates() throws Exception {
+		AccountEntity testAccount = accountRepository.save(
+			new AccountEntity("Account 1", 1000.0d, null, AccountType.ACTIVATED, null, null)
+		);
+		Long testAccountId = testAccount.getId();
+
+		runConcurrently( () -> {
+			accountService.performAccountBalanceOperationById(testAccountId, '+', Money.toMinorUnits(3.0d));
+			accountService.performAccountBalanceOperationById(testAccountId, '-', Money.toMinorUnits(1.0d));
+		});
+
+		Double expectedBalance = 1000.0d + (NUMBER_OF_THREADS * OPERATIONS_PER_THREAD * 2.0d);
+		Double actualBalance = accountRepository.findById(testAccountId).get().getBalance();
+		assertEquals( expectedBalance, actualBalance );
+	}
+
+	@Test
+	public void performCategorySumOperationByIdMethod_ShouldNotLoseConcurrentUpdates() throws Exception {
+		CategoryEntity testCategory = categoryRepository.save(
+			new CategoryEntity("Category 1", CategoryType.EXPENSES, 0.0d, null, null)
+		);
+		Long testCategoryId = testCategory.getId();
+
+		runConcurrently( () -> categoryService.performCategorySumOperationById(testCategoryId, '+', Money.toMinorUnits(1.0d)) );
+
+		Double expectedSum = (double) (NUMBER_OF_THREADS * OPERATIONS_PER_THREAD);
+		Double actualSum = categoryRepository.findById(testCategoryId).get().getCurrentPeriodSum();
+		assertEquals( expectedSum, actualSum );
+	}
+
+	@Test
+	public void addToBalanceByIdMethod_ShouldNotUpdateNonExistingAccount() {
+		assertTrue( accountRepository.addToBalanceById(-1L, Money.toMinorUnits(100.0d)) == 0 );
+	}
+
+}
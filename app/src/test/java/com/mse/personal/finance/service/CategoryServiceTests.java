@@ -32,6 +32,7 @@ import com.mse.personal.finance.model.Category;
 import com.mse.personal.finance.model.CategoryType;
 import com.mse.personal.finance.model.FamilyStatusType;
 import com.mse.personal.finance.model.GenderType;
+import com.mse.personal.finance.model.Money;
 import com.mse.personal.finance.model.TransactionFromType;
 import com.mse.personal.finance.model.TransactionToType;
 import com.mse.personal.finance.model.request.CategoryLimitUpdateRequest;
@@ -72,6 +73,9 @@ public class CategoryServiceTests {
 	
 	@Autowired
 	private TransactionRepository transactionRepository;
+
+	@Autowired
+	private TransactionDailySumService transactionDailySumService;
 	
 	@Autowired
 	private PasswordEncoder passwordEncoder;
@@ -112,6 +116,24 @@ public class CategoryServiceTests {
 		return testCategoryEntity;
 	}
 	
+	/**
+	 * Inserts a test system category for the specified user and returns that category's data
+	 */
+	public CategoryEntity insertTestSystemCategoryForUser(UserEntity user, CategoryType categoryType, String categoryName) {
+		CategoryEntity testCategoryEntity = new CategoryEntity(
+			categoryName,
+			categoryType,
+			150.00d,
+			null,
+			user
+		);
+		testCategoryEntity.setSystem(true);
+		
+		testCategoryEntity = categoryRepository.save(testCategoryEntity);
+		
+		return testCategoryEntity;
+	}
+	
 	/**
 	 * Create and return a test category request
 	 */
@@ -193,6 +215,7 @@ public class CategoryServiceTests {
 		testTransactionEntity.setDescription(description);
 		
 		testTransactionEntity = transactionRepository.save(testTransactionEntity);
+		transactionDailySumService.addTransaction(testTransactionEntity);
 		
 		return testTransactionEntity;
 	}
@@ -208,8 +231,8 @@ public class CategoryServiceTests {
 		
 		CategoryEntity firstTestCategory = insertTestCategoryForUser(testUser, CategoryType.EXPENSES, "My Expenses Category");
 		CategoryEntity secondTestCategory = insertTestCategoryForUser(testUser, CategoryType.INCOME, "My Income Category");
-		insertTestCategoryForUser(testUser, CategoryType.EXPENSES, CategoryService.SYSTEM_EXPENSES_CATEGORY_NAME);
-		insertTestCategoryForUser(testUser, CategoryType.INCOME, CategoryService.SYSTEM_INCOME_CATEGORY_NAME);
+		insertTestSystemCategoryForUser(testUser, CategoryType.EXPENSES, CategoryService.SYSTEM_EXPENSES_CATEGORY_NAME);
+		insertTestSystemCategoryForUser(testUser, CategoryType.INCOME, CategoryService.SYSTEM_INCOME_CATEGORY_NAME);
 		
 		assertTrue( categoryRepository.count() == 4 );
 		
@@ -236,8 +259,8 @@ public class CategoryServiceTests {
 		
 		CategoryEntity expenseCategory = insertTestCategoryForUser(testUser, CategoryType.EXPENSES, "My Expenses Category");
 		insertTestCategoryForUser(testUser, CategoryType.INCOME, "My Income Category");
-		insertTestCategoryForUser(testUser, CategoryType.EXPENSES, CategoryService.SYSTEM_EXPENSES_CATEGORY_NAME);
-		insertTestCategoryForUser(testUser, CategoryType.INCOME, CategoryService.SYSTEM_INCOME_CATEGORY_NAME);
+		insertTestSystemCategoryForUser(testUser, CategoryType.EXPENSES, CategoryService.SYSTEM_EXPENSES_CATEGORY_NAME);
+		insertTestSystemCategoryForUser(testUser, CategoryType.INCOME, CategoryService.SYSTEM_INCOME_CATEGORY_NAME);
 		
 		assertTrue( categoryRepository.count() == 4 );
 		
@@ -253,8 +276,8 @@ public class CategoryServiceTests {
 		
 		insertTestCategoryForUser(testUser, CategoryType.EXPENSES, "My Expenses Category");
 		CategoryEntity incomeCategory = insertTestCategoryForUser(testUser, CategoryType.INCOME, "My Income Category");
-		insertTestCategoryForUser(testUser, CategoryType.EXPENSES, CategoryService.SYSTEM_EXPENSES_CATEGORY_NAME);
-		insertTestCategoryForUser(testUser, CategoryType.INCOME, CategoryService.SYSTEM_INCOME_CATEGORY_NAME);
+		insertTestSystemCategoryForUser(testUser, CategoryType.EXPENSES, CategoryService.SYSTEM_EXPENSES_CATEGORY_NAME);
+		insertTestSystemCategoryForUser(testUser, CategoryType.INCOME, CategoryService.SYSTEM_INCOME_CATEGORY_NAME);
 		
 		assertTrue( categoryRepository.count() == 4 );
 		
@@ -282,8 +305,8 @@ public class CategoryServiceTests {
 		CategoryEntity secondTestCategory = insertTestCategoryForUser(testUser, CategoryType.EXPENSES, "My Second Expenses Category");
 		
 		insertTestCategoryForUser(testUser, CategoryType.INCOME, "My Income Category");
-		insertTestCategoryForUser(testUser, CategoryType.EXPENSES, CategoryService.SYSTEM_EXPENSES_CATEGORY_NAME);
-		insertTestCategoryForUser(testUser, CategoryType.INCOME, CategoryService.SYSTEM_INCOME_CATEGORY_NAME);
+		insertTestSystemCategoryForUser(testUser, CategoryType.EXPENSES, CategoryService.SYSTEM_EXPENSES_CATEGORY_NAME);
+		insertTestSystemCategoryForUser(testUser, CategoryType.INCOME, CategoryService.SYSTEM_INCOME_CATEGORY_NAME);
 		
 		Double firstTestCategorySum = firstTestCategory.getCurrentPeriodSum();
 		Double secondTestCategorySum = secondTestCategory.getCurrentPeriodSum();
@@ -302,8 +325,8 @@ public class CategoryServiceTests {
 		CategoryEntity secondTestCategory = insertTestCategoryForUser(testUser, CategoryType.INCOME, "My Second Income Category");
 		
 		insertTestCategoryForUser(testUser, CategoryType.EXPENSES, "My Expenses Category");
-		insertTestCategoryForUser(testUser, CategoryType.EXPENSES, CategoryService.SYSTEM_EXPENSES_CATEGORY_NAME);
-		insertTestCategoryForUser(testUser, CategoryType.INCOME, CategoryService.SYSTEM_INCOME_CATEGORY_NAME);
+		insertTestSystemCategoryForUser(testUser, CategoryType.EXPENSES, CategoryService.SYSTEM_EXPENSES_CATEGORY_NAME);
+		insertTestSystemCategoryForUser(testUser, CategoryType.INCOME, CategoryService.SYSTEM_INCOME_CATEGORY_NAME);
 		
 		Double firstTestCategorySum = firstTestCategory.getCurrentPeriodSum();
 		Double secondTestCategorySum = secondTestCategory.getCurrentPeriodSum();
@@ -484,6 +507,21 @@ public class CategoryServiceTests {
 		assertTrue( updatedCategory.getName().equals("My Updated Category") );
 	}
 	
+	@Test
+	@WithMockUser(username = TEST_USER_EMAIL)
+	public void updateCategoryByIdMethodShouldKeepSystemCategoryMarker() {
+		UserEntity testUser = insertTestUser(TEST_USER_EMAIL);
+		
+		CategoryEntity testCategory = insertTestSystemCategoryForUser(testUser, CategoryType.EXPENSES, CategoryService.SYSTEM_EXPENSES_CATEGORY_NAME);
+		Long testCategoryId = testCategory.getId();
+		
+		CategoryRequest categoryUpdateRequest = getTestCategoryRequest();
+		categoryUpdateRequest.setName(CategoryService.SYSTEM_EXPENSES_CATEGORY_NAME);
+		categoryService.updateCategoryById(testCategoryId, categoryUpdateRequest);
+		
+		assertTrue( categoryRepository.findById(testCategoryId).get().isSystem() );
+	}
+	
 	@Test(expected = CategoryNotFoundException.class)
 	@WithMockUser(username = TEST_USER_EMAIL)
 	public void updateCategoryByIdMethodShouldThrowNotFoundException() {
@@ -637,6 +675,60 @@ public class CategoryServiceTests {
 		assertTrue( categoryRepository.existsByNameAndOwner(CategoryService.SYSTEM_EXPENSES_CATEGORY_NAME, testUser) );
 	}
 	
+	@Test
+	@WithMockUser(username = TEST_USER_EMAIL)
+	public void createSystemCategoriesForUserMethodShouldMarkSystemCategories() {
+		UserEntity testUser = insertTestUser(TEST_USER_EMAIL);
+		
+		categoryService.createSystemCategoriesForUser(testUser);
+		
+		List<CategoryEntity> systemCategories = categoryRepository.findAllByOwnerIdAndSystemTrue( testUser.getId() );
+		assertTrue( systemCategories.size() == 2 );
+		assertTrue( categoryService.getAllNonSystemCategories().isEmpty() );
+	}
+	
+	/**
+	 * getSystemIncomeCategoryIdForUser() & getSystemExpensesCategoryIdForUser() tests
+	 */
+	
+	@Test
+	@WithMockUser(username = TEST_USER_EMAIL)
+	public void getSystemCategoryIdForUserMethodsShouldReturnIdsOfCreatedSystemCategories() {
+		UserEntity testUser = insertTestUser(TEST_USER_EMAIL);
+		categoryService.createSystemCategoriesForUser(testUser);
+		
+		Long systemIncomeCategoryId = categoryService.getSystemIncomeCategoryIdForUser(testUser);
+		Long systemExpensesCategoryId = categoryService.getSystemExpensesCategoryIdForUser(testUser);
+		
+		assertEquals( CategoryService.SYSTEM_INCOME_CATEGORY_NAME, categoryRepository.findById(systemIncomeCategoryId).get().getName() );
+		assertEquals( CategoryService.SYSTEM_EXPENSES_CATEGORY_NAME, categoryRepository.findById(systemExpensesCategoryId).get().getName() );
+	}
+	
+	@Test
+	@WithMockUser(username = TEST_USER_EMAIL)
+	public void getSystemCategoryIdForUserMethodsShouldLoadIdsOfNotCachedSystemCategories() {
+		UserEntity testUser = insertTestUser(TEST_USER_EMAIL);
+		CategoryEntity systemIncomeCategory = insertTestSystemCategoryForUser(testUser, CategoryType.INCOME, CategoryService.SYSTEM_INCOME_CATEGORY_NAME);
+		CategoryEntity systemExpensesCategory = insertTestSystemCategoryForUser(testUser, CategoryType.EXPENSES, CategoryService.SYSTEM_EXPENSES_CATEGORY_NAME);
+		
+		assertEquals( systemIncomeCategory.getId(), categoryService.getSystemIncomeCategoryIdForUser(testUser) );
+		assertEquals( systemExpensesCategory.getId(), categoryService.getSystemExpensesCategoryIdForUser(testUser) );
+	}
+	
+	@Test
+	@WithMockUser(username = TEST_USER_EMAIL)
+	public void getSystemCategoryIdForUserMethodsShouldNotCacheIdsBeforeTransactionIsCommitted() {
+		int cachedSystemCategoryIdsCount = categoryService.getCachedSystemCategoryIdsCount();
+		UserEntity testUser = insertTestUser(TEST_USER_EMAIL);
+		categoryService.createSystemCategoriesForUser(testUser);
+		
+		categoryService.getSystemIncomeCategoryIdForUser(testUser);
+		categoryService.getSystemExpensesCategoryIdForUser(testUser);
+		
+		// The test's transaction is rolled back, so the IDs of its categories must never be cached
+		assertEquals( cachedSystemCategoryIdsCount, categoryService.getCachedSystemCategoryIdsCount() );
+	}
+	
 	/**
 	 * createExampleCategoriesForCurrentlyLoggedInUser() tests
 	 */
@@ -675,7 +767,7 @@ public class CategoryServiceTests {
 		Long testCategoryId = testCategory.getId();
 		Double testCategorySum = testCategory.getCurrentPeriodSum();
 		
-		categoryService.performCategorySumOperationById(testCategoryId, '+', 100.00d);
+		categoryService.performCategorySumOperationById(testCategoryId, '+', Money.toMinorUnits(100.00d));
 		
 		assertTrue( categoryRepository.count() == 1 );
 		assertTrue( categoryRepository.existsById(testCategoryId) );
@@ -692,7 +784,7 @@ public class CategoryServiceTests {
 		Long testCategoryId = testCategory.getId();
 		Double testCategorySum = testCategory.getCurrentPeriodSum();
 		
-		categoryService.performCategorySumOperationById(testCategoryId, '-', 100.00d);
+		categoryService.performCategorySumOperationById(testCategoryId, '-', Money.toMinorUnits(100.00d));
 		
 		assertTrue( categoryRepository.count() == 1 );
 		assertTrue( categoryRepository.existsById(testCategoryId) );
@@ -709,12 +801,12 @@ public class CategoryServiceTests {
 		Long testCategoryId = testCategory.getId();
 		Double testCategorySum = testCategory.getCurrentPeriodSum();
 		
-		categoryService.performCategorySumOperationById(testCategoryId, 'X', 100.00d);
+		categoryService.performCategorySumOperationById(testCategoryId, 'X', Money.toMinorUnits(100.00d));
 		
 		assertTrue( categoryRepository.count() == 1 );
 		assertTrue( categoryRepository.existsById(testCategoryId) );
 		assertTrue( 
-			categoryRepository.findById(testCategoryId).get().getCurrentPeriodSum() == testCategorySum
+			categoryRepository.findById(testCategoryId).get().getCurrentPeriodSum().equals(testCategorySum)
 		);
 	}
 	
@@ -0,0 +1,271 @@
+package com.mse.personal.finance.service;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.text.SimpleDateFormat;
+import java.util.NoSuchElementException;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.mse.personal.finance.db.entity.AccountEntity;
+import com.mse.personal.finance.db.entity.CategoryEntity;
+import com.mse.personal.finance.db.entity.UserEntity;
+import com.mse.personal.finance.db.repository.AccountRepository;
+import com.mse.personal.finance.db.repository.CategoryRepository;
+import com.mse.personal.finance.db.repository.UserRepository;
+import com.mse.personal.finance.model.AccountType;
+import com.mse.personal.finance.model.CategoryType;
+import com.mse.personal.finance.model.DashboardSummary;
+import com.mse.personal.finance.model.FamilyStatusType;
+import com.mse.personal.finance.model.GenderType;
+import com.mse.personal.finance.model.TransactionFromType;
+import com.mse.personal.finance.model.TransactionToType;
+import com.mse.personal.finance.model.request.TransactionRequest;
+import com.mse.personal.finance.rest.exception.InvalidDataException;
+
+/**
+ * This class implements unit tests for the DashboardService class.
+ *
+ * The @Transactional annotation is used to rollback
+ * database changes after a test has finished executing.
+ *
+ * @author dvt32
+ */
+@RunWith(SpringRunner.class)
+@Transactional
+@SpringBootTest
+@ActiveProfiles("test")
+public class DashboardServiceTests {
+
+	private static final String TEST_USER_EMAIL = "test@pfm.com";
+	private static final String TEST_USER_PASSWORD = "123456";
+
+	@Autowired
+	private DashboardService dashboardService;
+
+	@Autowired
+	private TransactionService transactionService;
+
+	@Autowired
+	private AccountRepository accountRepository;
+
+	@Autowired
+	private CategoryRepository categoryRepository;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Autowired
+	private PasswordEncoder passwordEncoder;
+
+	/**
+	 * Insert test user and return his data.
+	 */
+	public UserEntity insertTestUser(String email) {
+    	UserEntity testUser = new UserEntity(
+			"John Doe",
+			passwordEncoder.encode(TEST_USER_PASSWORD),
+			email,
+			GenderType.MALE,
+			FamilyStatusType.SINGLE,
+			24,
+			"Master's Degree"
+		);
+
+    	testUser = userRepository.save(testUser);
+
+    	return testUser;
+	}
+
+	/**
+	 * Inserts a test account for the specified user and returns that account's data
+	 */
+	public AccountEntity insertTestAccountForUser(UserEntity user, String accountName, Double balance) {
+		AccountEntity testAccountEntity = new AccountEntity(
+			accountName,
+			balance,
+			2000.00d,
+			AccountType.ACTIVATED,
+			user,
+			null
+		);
+
+		testAccountEntity = accountRepository.save(testAccountEntity);
+
+		return testAccountEntity;
+	}
+
+	/**
+	 * Inserts a test category for the specified user and returns that category's data
+	 */
+	public CategoryEntity insertTestCategoryForUser(UserEntity user, CategoryType categoryType, String categoryName) {
+		CategoryEntity testCategoryEntity = new CategoryEntity(
+			categoryName,
+			categoryType,
+			0.00d,
+			"limit",
+			user
+		);
+
+		testCategoryEntity = categoryRepository.save(testCategoryEntity);
+
+		return testCategoryEntity;
+	}
+
+	/**
+	 * Create and return a test income transaction request
+	 */
+	public TransactionRequest getTestIncomeTransactionRequest(Long categoryId, Long accountId, String date, Double sum) 
+		throws Exception 
+	{
+		TransactionRequest testTransactionRequest = new TransactionRequest();
+		
+		testTransactionRequest.setDateOfCompletion( new SimpleDateFormat("dd.MM.yyyy").parse(date) );
+		testTransactionRequest.setFromType(TransactionFromType.CATEGORY);
+		testTransactionRequest.setFromId(categoryId);
+		testTransactionRequest.setToType(TransactionToType.ACCOUNT);
+		testTransactionRequest.setToId(accountId);
+		testTransactionRequest.setSum(sum);
+		testTransactionRequest.setShouldBeAutomaticallyExecuted(false);
+		testTransactionRequest.setDescription("Salary");
+		
+		return testTransactionRequest;
+	}
+
+	/**
+	 * Create and return a test transaction request
+	 */
+	public TransactionRequest getTestTransactionRequest(
+		TransactionFromType fromType, 
+		Long fromId, 
+		TransactionToType toType, 
+		Long toId, 
+		String date, 
+		Double sum) 
+		throws Exception 
+	{
+		TransactionRequest testTransactionRequest = new TransactionRequest();
+		
+		testTransactionRequest.setDateOfCompletion( new SimpleDateFormat("dd.MM.yyyy").parse(date) );
+		testTransactionRequest.setFromType(fromType);
+		testTransactionRequest.setFromId(fromId);
+		testTransactionRequest.setToType(toType);
+		testTransactionRequest.setToId(toId);
+		testTransactionRequest.setSum(sum);
+		testTransactionRequest.setShouldBeAutomaticallyExecuted(false);
+		testTransactionRequest.setDescription("Test transaction");
+		
+		return testTransactionRequest;
+	}
+
+	/**
+	 * getDashboardSummary() tests
+	 */
+
+	@Test(expected = NoSuchElementException.class)
+	@WithMockUser(username = TEST_USER_EMAIL)
+	public void getDashboardSummaryMethodShouldThrowExceptionIfUserDoesNotExist() throws Exception {
+		dashboardService.getDashboardSummary(null, null);
+	}
+
+	@Test(expected = InvalidDataException.class)
+	@WithMockUser(username = TEST_USER_EMAIL)
+	public void getDashboardSummaryMethodShouldThrowExceptionIfOnlyOneDateIsPassed() throws Exception {
+		insertTestUser(TEST_USER_EMAIL);
+		dashboardService.getDashboardSummary( new SimpleDateFormat("dd.MM.yyyy").parse("01.03.2020"), null );
+	}
+
+	@Test
+	@WithMockUser(username = TEST_USER_EMAIL)
+	public void getDashboardSummaryMethodShouldReturnZeroTotalsIfUserHasNoData() throws Exception {
+		insertTestUser(TEST_USER_EMAIL);
+		
+		DashboardSummary dashboardSummary = dashboardService.getDashboardSummary(null, null);
+		
+		assertEquals( 0.00d, dashboardSummary.getTotalIncomeTransactionsSum(), 0.001d );
+		assertEquals( 0.00d, dashboardSummary.getTotalExpenseTransactionsSum(), 0.001d );
+		assertEquals( 0.00d, dashboardSummary.getTotalTransferTransactionsSum(), 0.001d );
+		assertEquals( 0.00d, dashboardSummary.getTotalBalanceOfActivatedAccounts(), 0.001d );
+		assertEquals( 0.00d, dashboardSummary.getTotalCurrentPeriodSumOfIncomeCategories(), 0.001d );
+		assertEquals( 0.00d, dashboardSummary.getTotalCurrentPeriodSumOfExpenseCategories(), 0.001d );
+	}
+
+	@Test
+	@WithMockUser(username = TEST_USER_EMAIL)
+	public void getDashboardSummaryMethodShouldReturnAllTotals() throws Exception {
+		UserEntity testUser = insertTestUser(TEST_USER_EMAIL);
+		Long firstAccountId = insertTestAccountForUser(testUser, "Account 1", 1000.00d).getId();
+		Long secondAccountId = insertTestAccountForUser(testUser, "Account 2", 500.00d).getId();
+		Long incomeCategoryId = insertTestCategoryForUser(testUser, CategoryType.INCOME, "Category 1").getId();
+		Long expenseCategoryId = insertTestCategoryForUser(testUser, CategoryType.EXPENSES, "Category 2").getId();
+		
+		transactionService.createNewTransaction( 
+			getTestTransactionRequest(TransactionFromType.CATEGORY, incomeCategoryId, TransactionToType.ACCOUNT, firstAccountId, "03.03.2020", 300.00d) 
+		);
+		transactionService.createNewTransaction( 
+			getTestTransactionRequest(TransactionFromType.ACCOUNT, firstAccountId, TransactionToType.CATEGORY, expenseCategoryId, "04.03.2020", 100.00d) 
+		);
+		transactionService.createNewTransaction( 
+			getTestTransactionRequest(TransactionFromType.ACCOUNT, firstAccountId, TransactionToType.ACCOUNT, secondAccountId, "05.04.2020", 50.00d) 
+		);
+		
+		DashboardSummary dashboardSummary = dashboardService.getDashboardSummary(null, null);
+		
+		assertEquals( 300.00d, dashboardSummary.getTotalIncomeTransactionsSum(), 0.001d );
+		assertEquals( 100.00d, dashboardSummary.getTotalExpenseTransactionsSum(), 0.001d );
+		assertEquals( 50.00d, dashboardSummary.getTotalTransferTransactionsSum(), 0.001d );
+		assertEquals( 1700.00d, dashboardSummary.getTotalBalanceOfActivatedAccounts(), 0.001d );
+		assertEquals( 300.00d, dashboardSummary.getTotalCurrentPeriodSumOfIncomeCategories(), 0.001d );
+		assertEquals( 100.00d, dashboardSummary.getTotalCurrentPeriodSumOfExpenseCategories(), 0.001d );
+	}
+
+	@Test
+	@WithMockUser(username = TEST_USER_EMAIL)
+	public void getDashboardSummaryMethodShouldReturnTransactionTotalsBetweenDates() throws Exception {
+		UserEntity testUser = insertTestUser(TEST_USER_EMAIL);
+		Long testAccountId = insertTestAccountForUser(testUser, "Account 1", 1000.00d).getId();
+		Long incomeCategoryId = insertTestCategoryForUser(testUser, CategoryType.INCOME, "Category 1").getId();
+		
+		transactionService.createNewTransaction( 
+			getTestTransactionRequest(TransactionFromType.CATEGORY, incomeCategoryId, TransactionToType.ACCOUNT, testAccountId, "03.03.2020", 300.00d) 
+		);
+		transactionService.createNewTransaction( 
+			getTestTransactionRequest(TransactionFromType.CATEGORY, incomeCategoryId, TransactionToType.ACCOUNT, testAccountId, "03.04.2020", 200.00d) 
+		);
+		
+		SimpleDateFormat dateFormatter = new SimpleDateFormat("dd.MM.yyyy");
+		DashboardSummary dashboardSummary = dashboardService.getDashboardSummary( dateFormatter.parse("01.04.2020"), dateFormatter.parse("30.04.2020") );
+		
+		assertEquals( 200.00d, dashboardSummary.getTotalIncomeTransactionsSum(), 0.001d );
+		assertEquals( 1500.00d, dashboardSummary.getTotalBalanceOfActivatedAccounts(), 0.001d );
+	}
+
+	/**
+	 * getTotalTransactionsSumsByType() tests
+	 */
+
+	@Test
+	@WithMockUser(username = TEST_USER_EMAIL)
+	public void getTotalTransactionsSumsByTypeMethodShouldNotContainTypesWithoutTransactions() throws Exception {
+		UserEntity testUser = insertTestUser(TEST_USER_EMAIL);
+		Long testAccountId = insertTestAccountForUser(testUser, "Account 1", 1000.00d).getId();
+		Long incomeCategoryId = insertTestCategoryForUser(testUser, CategoryType.INCOME, "Category 1").getId();
+		
+		transactionService.createNewTransaction( 
+			getTestTransactionRequest(TransactionFromType.CATEGORY, incomeCategoryId, TransactionToType.ACCOUNT, testAccountId, "03.03.2020", 300.00d) 
+		);
+		
+		assertEquals( 300.00d, dashboardService.getTotalTransactionsSumsByType(null, null).get("INCOME"), 0.001d );
+		assertNull( dashboardService.getTotalTransactionsSumsByType(null, null).get("EXPENSE") );
+	}
+
+}
@@ -0,0 +1,131 @@
+package com.mse.personal.finance.service;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.After;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import com.mse.personal.finance.rest.exception.IpAddressBlockedException;
+import com.mse.personal.finance.rest.exception.LoginBlockedException;
+
+/**
+ * This class implements unit tests for the LoginLimitService class.
+ *
+ * @author dvt32
+ */
+@RunWith(SpringRunner.class)
+@SpringBootTest
+@ActiveProfiles("test")
+public class LoginLimitServiceTests {
+
+	private static final String TEST_IP_ADDRESS = "192.168.0.1";
+	private static final String OTHER_TEST_IP_ADDRESS = "192.168.0.2";
+	private static final String TEST_USER_EMAIL = "test@pfm.com";
+
+	@Autowired
+	private LoginLimitService loginLimitService;
+
+	@After
+	public void unblockAllIps() {
+		loginLimitService.unblockAllIps();
+	}
+
+	/**
+	 * IP address limit tests
+	 */
+
+	@Test
+	public void ipAddressShouldBeBlockedAfterMaxFailedLoginAttempts() {
+		int maxNumberOfConsecutiveFailedLoginAttempts = loginLimitService.getMaxNumberOfConsecutiveFailedLoginAttempts();
+
+		for (int i = 0; i < maxNumberOfConsecutiveFailedLoginAttempts - 1; ++i) {
+			loginLimitService.loginFailed(TEST_IP_ADDRESS, TEST_USER_EMAIL);
+		}
+		assertFalse( loginLimitService.isBlockedIpAddress(TEST_IP_ADDRESS) );
+
+		loginLimitService.loginFailed(TEST_IP_ADDRESS, TEST_USER_EMAIL);
+		assertTrue( loginLimitService.isBlockedIpAddress(TEST_IP_ADDRESS) );
+		assertFalse( loginLimitService.isBlockedIpAddress(OTHER_TEST_IP_ADDRESS) );
+	}
+
+	@Test(expected = IpAddressBlockedException.class)
+	public void checkLoginAttemptMethodShouldThrowExceptionBecauseOfBlockedIpAddress() {
+		int maxNumberOfConsecutiveFailedLoginAttempts = loginLimitService.getMaxNumberOfConsecutiveFailedLoginAttempts();
+
+		for (int i = 0; i < maxNumberOfConsecutiveFailedLoginAttempts; ++i) {
+			loginLimitService.loginFailed(TEST_IP_ADDRESS, TEST_USER_EMAIL);
+		}
+
+		loginLimitService.checkLoginAttempt(TEST_IP_ADDRESS, TEST_USER_EMAIL);
+	}
+
+	@Test
+	public void checkingUnknownIpAddressShouldNotTrackIt() {
+		int trackedIpAddressCount = loginLimitService.getTrackedIpAddressCount();
+
+		loginLimitService.checkLoginAttempt(TEST_IP_ADDRESS, TEST_USER_EMAIL);
+
+		assertEquals( trackedIpAddressCount, loginLimitService.getTrackedIpAddressCount() );
+	}
+
+	/**
+	 * Account limit tests
+	 */
+
+	@Test(expected = LoginBlockedException.class)
+	public void checkLoginAttemptMethodShouldThrowExceptionBecauseOfBlockedAccount() {
+		int maxNumberOfFailedLoginAttemptsPerAccount = loginLimitService.getMaxNumberOfFailedLoginAttemptsPerAccount();
+
+		for (int i = 0; i < maxNumberOfFailedLoginAttemptsPerAccount; ++i) {
+			loginLimitService.loginFailed("10.0.0." + i, TEST_USER_EMAIL);
+		}
+
+		loginLimitService.checkLoginAttempt( OTHER_TEST_IP_ADDRESS, TEST_USER_EMAIL.toUpperCase() );
+	}
+
+	/**
+	 * Metrics & memory bound tests
+	 */
+
+	@Test
+	public void checkLoginAttemptMethodShouldCountAllowedAndBlockedAttempts() {
+		long allowedLoginAttemptCount = loginLimitService.getAllowedLoginAttemptCount();
+		long blockedLoginAttemptCount = loginLimitService.getBlockedLoginAttemptCount();
+
+		loginLimitService.checkLoginAttempt(TEST_IP_ADDRESS, TEST_USER_EMAIL);
+		for (int i = 0; i < loginLimitService.getMaxNumberOfConsecutiveFailedLoginAttempts(); ++i) {
+			loginLimitService.loginFailed(TEST_IP_ADDRESS, TEST_USER_EMAIL);
+		}
+		try {
+			loginLimitService.checkLoginAttempt(TEST_IP_ADDRESS, TEST_USER_EMAIL);
+		}
+		catch (IpAddressBlockedException e) {
+			// Expected
+		}
+
+		assertEquals( allowedLoginAttemptCount + 1, loginLimitService.getAllowedLoginAttemptCount() );
+		assertEquals( blockedLoginAttemptCount + 1, loginLimitService.getBlockedLoginAttemptCount() );
+	}
+
+	@Test
+	public void trackedIpAddressesShouldBeBoundedByMaxNumberOfTrackedKeys() {
+		int maxNumberOfTrackedKeys = 1600;
+		LoginLimitService boundedLoginLimitService = new LoginLimitService(3, 10, 10, maxNumberOfTrackedKeys);
+
+		for (int i = 0; i < 100_000; ++i) {
+			boundedLoginLimitService.loginFailed("10." + (i >> 16) + "." + ((i >> 8) & 0xFF) + "." + (i & 0xFF), "user" + i + "@pfm.com");
+		}
+
+		assertTrue( boundedLoginLimitService.getTrackedIpAddressCount() <= maxNumberOfTrackedKeys );
+		assertTrue( boundedLoginLimitService.getTrackedAccountCount() <= maxNumberOfTrackedKeys );
+		assertTrue( boundedLoginLimitService.getEvictedKeyCount() > 0 );
+	}
+
+}
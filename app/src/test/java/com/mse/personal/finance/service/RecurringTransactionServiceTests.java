@@ -0,0 +1,469 @@
+package com.mse.personal.finance.service;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+
+import java.text.SimpleDateFormat;
+import java.time.LocalDate;
+import java.util.Date;
+
+import org.junit.After;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import com.mse.personal.finance.db.entity.AccountEntity;
+import com.mse.personal.finance.db.entity.CategoryEntity;
+import com.mse.personal.finance.db.entity.TransactionEntity;
+import com.mse.personal.finance.db.entity.UserEntity;
+import com.mse.personal.finance.db.repository.AccountRepository;
+import com.mse.personal.finance.db.repository.CategoryRepository;
+import com.mse.personal.finance.db.repository.TransactionDailySumRepository;
+import com.mse.personal.finance.db.repository.TransactionRepository;
+import com.mse.personal.finance.db.repository.UserRepository;
+import com.mse.personal.finance.model.AccountType;
+import com.mse.personal.finance.model.CategoryType;
+import com.mse.personal.finance.model.FamilyStatusType;
+import com.mse.personal.finance.model.GenderType;
+import com.mse.personal.finance.model.Transaction;
+import com.mse.personal.finance.model.TransactionFromType;
+import com.mse.personal.finance.model.TransactionToType;
+import com.mse.personal.finance.model.request.TransactionRequest;
+
+/**
+ * This class implements unit tests for the RecurringTransactionService class
+ * (and the scheduling of recurring transactions by the TransactionService class).
+ *
+ * The tests are not @Transactional, because the occurrences are executed in database transactions of their own,
+ * which would not see the uncommitted test data. The database changes are deleted after each test instead.
+ *
+ * @author dvt32
+ */
+@RunWith(SpringRunner.class)
+@SpringBootTest
+@ActiveProfiles("test")
+public class RecurringTransactionServiceTests {
+
+	private static final String TEST_USER_EMAIL = "test@pfm.com";
+	private static final String TEST_USER_PASSWORD = "123456";
+	private static final int TEST_BATCH_SIZE = 10;
+
+	@Autowired
+	private RecurringTransactionService recurringTransactionService;
+
+	@Autowired
+	private TransactionService transactionService;
+
+	@Autowired
+	private TransactionRepository transactionRepository;
+
+	@Autowired
+	private AccountRepository accountRepository;
+
+	@Autowired
+	private CategoryRepository categoryRepository;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Autowired
+	private PasswordEncoder passwordEncoder;
+
+	@Autowired
+	private TransactionDailySumRepository transactionDailySumRepository;
+
+	@After
+	public void cleanUp() {
+		transactionRepository.deleteAll();
+		transactionDailySumRepository.deleteAll();
+		accountRepository.deleteAll();
+		categoryRepository.deleteAll();
+		userRepository.findByEmail(TEST_USER_EMAIL).ifPresent(userRepository::delete);
+	}
+
+	/**
+	 * Insert test user and return his data.
+	 */
+	public UserEntity insertTestUser(String email) {
+		UserEntity testUser = new UserEntity(
+			"John Doe",
+			passwordEncoder.encode(TEST_USER_PASSWORD),
+			email,
+			GenderType.MALE,
+			FamilyStatusType.SINGLE,
+			24,
+			"Master's Degree"
+		);
+
+		testUser = userRepository.save(testUser);
+
+		return testUser;
+	}
+
+	/**
+	 * Inserts a test account for the specified user and returns that account's data
+	 */
+	public AccountEntity insertTestAccountForUser(UserEntity user, String accountName, Double balance) {
+		AccountEntity testAccountEntity = new AccountEntity(
+			accountName,
+			balance,
+			2000.00d,
+			AccountType.ACTIVATED,
+			user,
+			null
+		);
+
+		testAccountEntity = accountRepository.save(testAccountEntity);
+
+		return testAccountEntity;
+	}
+
+	/**
+	 * Inserts a test category for the specified user and returns that category's data
+	 */
+	public CategoryEntity insertTestCategoryForUser(UserEntity user, CategoryType categoryType, String categoryName) {
+		CategoryEntity testCategoryEntity = new CategoryEntity(
+			categoryName,
+			categoryType,
+			0.00d,
+			"limit",
+			user
+		);
+
+		testCategoryEntity = categoryRepository.save(testCategoryEntity);
+
+		return testCategoryEntity;
+	}
+
+	/**
+	 * Create and return a test (recurring) income transaction request
+	 */
+	public TransactionRequest getTestIncomeTransactionRequest(
+		Long categoryId, 
+		Long accountId, 
+		String date, 
+		Double sum, 
+		String recurring, 
+		boolean shouldBeAutomaticallyExecuted) 
+		throws Exception 
+	{
+		TransactionRequest testTransactionRequest = new TransactionRequest();
+		
+		testTransactionRequest.setDateOfCompletion( getDate(date) );
+		testTransactionRequest.setFromType(TransactionFromType.CATEGORY);
+		testTransactionRequest.setFromId(categoryId);
+		testTransactionRequest.setToType(TransactionToType.ACCOUNT);
+		testTransactionRequest.setToId(accountId);
+		testTransactionRequest.setSum(sum);
+		testTransactionRequest.setRecurring(recurring);
+		testTransactionRequest.setShouldBeAutomaticallyExecuted(shouldBeAutomaticallyExecuted);
+		testTransactionRequest.setDescription("Salary");
+		
+		return testTransactionRequest;
+	}
+
+	/**
+	 * Returns the date, which is parsed from the passed string (in the "dd.MM.yyyy" format)
+	 */
+	public Date getDate(String date) throws Exception {
+		return new SimpleDateFormat("dd.MM.yyyy").parse(date);
+	}
+
+	/**
+	 * Returns the date, which is the passed number of days after today (before today if negative)
+	 */
+	public Date getDateFromToday(int days) {
+		return java.sql.Date.valueOf( LocalDate.now().plusDays(days) );
+	}
+
+	/**
+	 * Sets the next execution date of the transaction with the specified ID
+	 * (e.g. as if the transaction had been created on its date of completion) 
+	 */
+	public void setNextExecutionDate(Long transactionId, String date) throws Exception {
+		TransactionEntity transactionEntity = transactionRepository.findById(transactionId).get();
+		transactionRepository.save( transactionEntity.setNextExecutionDate( getDate(date) ) );
+	}
+
+	/**
+	 * Returns the current balance of the account with the specified ID
+	 */
+	public Double getAccountBalance(Long accountId) {
+		return accountRepository.findById(accountId).get().getBalance();
+	}
+
+	/**
+	 * Returns the next execution date of the transaction with the specified ID
+	 */
+	public Date getNextExecutionDate(Long transactionId) {
+		TransactionEntity transactionEntity = transactionRepository.findById(transactionId).get();
+		Date nextExecutionDate = transactionEntity.getNextExecutionDate();
+		
+		return (nextExecutionDate != null) ? new Date( nextExecutionDate.getTime() ) : null;
+	}
+
+	/**
+	 * Scheduling tests
+	 */
+
+	@Test
+	@WithMockUser(username = TEST_USER_EMAIL)
+	public void createNewTransactionMethodShouldScheduleAutomaticallyExecutedRecurringTransaction() throws Exception {
+		UserEntity testUser = insertTestUser(TEST_USER_EMAIL);
+		Long testAccountId = insertTestAccountForUser(testUser, "Account 1", 100.00d).getId();
+		Long testCategoryId = insertTestCategoryForUser(testUser, CategoryType.INCOME, "Category 1").getId();
+		
+		TransactionRequest testTransactionRequest = getTestIncomeTransactionRequest(testCategoryId, testAccountId, "01.01.2020", 10.00d, "monthly", true);
+		testTransactionRequest.setDateOfCompletion( getDateFromToday(0) );
+		Transaction testTransaction = transactionService.createNewTransaction(testTransactionRequest);
+		
+		assertEquals( java.sql.Date.valueOf( LocalDate.now().plusMonths(1) ), getNextExecutionDate( testTransaction.getId() ) );
+	}
+
+	@Test
+	@WithMockUser(username = TEST_USER_EMAIL)
+	public void createNewTransactionMethodShouldNotScheduleMissedPeriods() throws Exception {
+		UserEntity testUser = insertTestUser(TEST_USER_EMAIL);
+		Long testAccountId = insertTestAccountForUser(testUser, "Account 1", 100.00d).getId();
+		Long testCategoryId = insertTestCategoryForUser(testUser, CategoryType.INCOME, "Category 1").getId();
+		
+		TransactionRequest testTransactionRequest = getTestIncomeTransactionRequest(testCategoryId, testAccountId, "01.01.2020", 10.00d, "weekly", true);
+		testTransactionRequest.setDateOfCompletion( getDateFromToday(-10) );
+		Transaction testTransaction = transactionService.createNewTransaction(testTransactionRequest);
+		
+		// The occurrence 3 days ago is not executed
+		assertEquals( getDateFromToday(4), getNextExecutionDate( testTransaction.getId() ) );
+		assertEquals( 0, recurringTransactionService.executeDueTransactions(getDateFromToday(0), TEST_BATCH_SIZE).getClaimedTransactions() );
+		assertEquals( 110.00d, getAccountBalance(testAccountId), 0.001d );
+	}
+
+	@Test
+	@WithMockUser(username = TEST_USER_EMAIL)
+	public void createNewTransactionMethodShouldNotScheduleNonRecurringOrManuallyExecutedTransaction() throws Exception {
+		UserEntity testUser = insertTestUser(TEST_USER_EMAIL);
+		Long testAccountId = insertTestAccountForUser(testUser, "Account 1", 100.00d).getId();
+		Long testCategoryId = insertTestCategoryForUser(testUser, CategoryType.INCOME, "Category 1").getId();
+		
+		Transaction nonRecurringTransaction = transactionService.createNewTransaction( 
+			getTestIncomeTransactionRequest(testCategoryId, testAccountId, "15.01.2020", 10.00d, null, true) 
+		);
+		Transaction manuallyExecutedTransaction = transactionService.createNewTransaction( 
+			getTestIncomeTransactionRequest(testCategoryId, testAccountId, "15.01.2020", 10.00d, "monthly", false) 
+		);
+		
+		assertNull( getNextExecutionDate( nonRecurringTransaction.getId() ) );
+		assertNull( getNextExecutionDate( manuallyExecutedTransaction.getId() ) );
+		assertEquals( 0, recurringTransactionService.executeDueTransactions(getDate("20.03.2020"), TEST_BATCH_SIZE).getClaimedTransactions() );
+	}
+
+	/**
+	 * executeDueTransactions() tests
+	 */
+
+	@Test
+	@WithMockUser(username = TEST_USER_EMAIL)
+	public void executeDueTransactionsMethodShouldExecuteDueOccurrences() throws Exception {
+		UserEntity testUser = insertTestUser(TEST_USER_EMAIL);
+		Long testAccountId = insertTestAccountForUser(testUser, "Account 1", 100.00d).getId();
+		Long testCategoryId = insertTestCategoryForUser(testUser, CategoryType.INCOME, "Category 1").getId();
+		
+		Transaction testTransaction = transactionService.createNewTransaction( 
+			getTestIncomeTransactionRequest(testCategoryId, testAccountId, "15.01.2020", 10.00d, "monthly", true) 
+		);
+		setNextExecutionDate( testTransaction.getId(), "15.02.2020" );
+		
+		RecurringTransactionService.BatchResult batchResult = recurringTransactionService.executeDueTransactions(
+			getDate("20.03.2020"), 
+			TEST_BATCH_SIZE
+		);
+		
+		assertEquals( 1, batchResult.getClaimedTransactions() );
+		assertEquals( 2, batchResult.getExecutedOccurrences() );
+		assertEquals( 130.00d, getAccountBalance(testAccountId), 0.001d );
+		assertEquals( 30.00d, transactionService.getTotalTransactionsSumByType("INCOME"), 0.001d );
+		assertEquals( getDate("15.04.2020"), getNextExecutionDate( testTransaction.getId() ) );
+	}
+
+	@Test
+	@WithMockUser(username = TEST_USER_EMAIL)
+	public void executeDueTransactionsMethodShouldNotExecuteOccurrencesTwice() throws Exception {
+		UserEntity testUser = insertTestUser(TEST_USER_EMAIL);
+		Long testAccountId = insertTestAccountForUser(testUser, "Account 1", 100.00d).getId();
+		Long testCategoryId = insertTestCategoryForUser(testUser, CategoryType.INCOME, "Category 1").getId();
+		
+		Transaction testTransaction = transactionService.createNewTransaction( 
+			getTestIncomeTransactionRequest(testCategoryId, testAccountId, "15.01.2020", 10.00d, "monthly", true) 
+		);
+		setNextExecutionDate( testTransaction.getId(), "15.02.2020" );
+		recurringTransactionService.executeDueTransactions( getDate("20.03.2020"), TEST_BATCH_SIZE );
+		
+		// A second run on the same day does not claim the transaction
+		assertEquals( 0, recurringTransactionService.executeDueTransactions(getDate("20.03.2020"), TEST_BATCH_SIZE).getClaimedTransactions() );
+		
+		// A reset of the next execution date does not execute the occurrences again
+		setNextExecutionDate( testTransaction.getId(), "15.02.2020" );
+		RecurringTransactionService.BatchResult batchResult = recurringTransactionService.executeDueTransactions(
+			getDate("20.03.2020"), 
+			TEST_BATCH_SIZE
+		);
+		
+		assertEquals( 1, batchResult.getClaimedTransactions() );
+		assertEquals( 0, batchResult.getExecutedOccurrences() );
+		assertEquals( 2, batchResult.getSkippedOccurrences() );
+		assertEquals( 130.00d, getAccountBalance(testAccountId), 0.001d );
+		assertEquals( getDate("15.04.2020"), getNextExecutionDate( testTransaction.getId() ) );
+	}
+
+	@Test
+	@WithMockUser(username = TEST_USER_EMAIL)
+	public void executeDueTransactionsMethodShouldSkipOccurrencesWithInvalidFromToData() throws Exception {
+		UserEntity testUser = insertTestUser(TEST_USER_EMAIL);
+		Long testAccountId = insertTestAccountForUser(testUser, "Account 1", 100.00d).getId();
+		Long testCategoryId = insertTestCategoryForUser(testUser, CategoryType.INCOME, "Category 1").getId();
+		
+		Transaction testTransaction = transactionService.createNewTransaction( 
+			getTestIncomeTransactionRequest(testCategoryId, testAccountId, "15.01.2020", 10.00d, "monthly", true) 
+		);
+		setNextExecutionDate( testTransaction.getId(), "15.02.2020" );
+		
+		// Income transactions cannot be executed to deactivated accounts
+		AccountEntity testAccountEntity = accountRepository.findById(testAccountId).get();
+		accountRepository.save( testAccountEntity.setType(AccountType.DEACTIVATED) );
+		
+		RecurringTransactionService.BatchResult batchResult = recurringTransactionService.executeDueTransactions(
+			getDate("20.03.2020"), 
+			TEST_BATCH_SIZE
+		);
+		
+		assertEquals( 0, batchResult.getExecutedOccurrences() );
+		assertEquals( 2, batchResult.getInvalidOccurrences() );
+		assertEquals( 110.00d, getAccountBalance(testAccountId), 0.001d );
+		assertEquals( getDate("15.04.2020"), getNextExecutionDate( testTransaction.getId() ) );
+	}
+
+	@Test
+	@WithMockUser(username = TEST_USER_EMAIL)
+	public void executeDueTransactionsMethodShouldIsolateFailedTransaction() throws Exception {
+		UserEntity testUser = insertTestUser(TEST_USER_EMAIL);
+		Long testAccountId = insertTestAccountForUser(testUser, "Account 1", 100.00d).getId();
+		// The balance of the second account would overflow
+		Long overflowingAccountId = insertTestAccountForUser(testUser, "Account 2", 9.223372036854775E16d).getId();
+		Long testCategoryId = insertTestCategoryForUser(testUser, CategoryType.INCOME, "Category 1").getId();
+		
+		Transaction testTransaction = transactionService.createNewTransaction( 
+			getTestIncomeTransactionRequest(testCategoryId, testAccountId, "15.01.2020", 10.00d, "monthly", true) 
+		);
+		setNextExecutionDate( testTransaction.getId(), "15.02.2020" );
+		TransactionEntity failingTransactionEntity = transactionRepository.save( 
+			new TransactionEntity()
+				.setDateOfCompletion( getDate("14.01.2020") )
+				.setFromType(TransactionFromType.CATEGORY)
+				.setFromId(testCategoryId)
+				.setToType(TransactionToType.ACCOUNT)
+				.setToId(overflowingAccountId)
+				.setSum(10.00d)
+				.setRecurring("monthly")
+				.setDescription("Salary")
+				.setShouldBeAutomaticallyExecuted(true)
+				.setNextExecutionDate( getDate("14.02.2020") )
+				.setUser(testUser)
+		);
+		
+		RecurringTransactionService.BatchResult batchResult = recurringTransactionService.executeDueTransactions(
+			getDate("20.03.2020"), 
+			TEST_BATCH_SIZE
+		);
+		
+		assertEquals( 2, batchResult.getClaimedTransactions() );
+		assertEquals( 1, batchResult.getFailedTransactions() );
+		assertEquals( 2, batchResult.getExecutedOccurrences() );
+		assertEquals( 130.00d, getAccountBalance(testAccountId), 0.001d );
+		assertEquals( getDate("15.04.2020"), getNextExecutionDate( testTransaction.getId() ) );
+		
+		// The failed transaction stays due, but it is not claimed again before its retry time
+		assertEquals( getDate("14.02.2020"), getNextExecutionDate( failingTransactionEntity.getId() ) );
+		assertEquals( 0, recurringTransactionService.executeDueTransactions(getDate("20.03.2020"), TEST_BATCH_SIZE).getClaimedTransactions() );
+		assertEquals( 9.223372036854775E16d, getAccountBalance(overflowingAccountId), 0.001d );
+	}
+
+	/**
+	 * updateTransactionById() tests
+	 */
+
+	@Test
+	@WithMockUser(username = TEST_USER_EMAIL)
+	public void updateTransactionByIdMethodShouldKeepScheduleIfExecutionDatesAreNotChanged() throws Exception {
+		UserEntity testUser = insertTestUser(TEST_USER_EMAIL);
+		Long testAccountId = insertTestAccountForUser(testUser, "Account 1", 100.00d).getId();
+		Long testCategoryId = insertTestCategoryForUser(testUser, CategoryType.INCOME, "Category 1").getId();
+		
+		Transaction testTransaction = transactionService.createNewTransaction( 
+			getTestIncomeTransactionRequest(testCategoryId, testAccountId, "15.01.2020", 10.00d, "monthly", true) 
+		);
+		setNextExecutionDate( testTransaction.getId(), "15.02.2020" );
+		recurringTransactionService.executeDueTransactions( getDate("20.03.2020"), TEST_BATCH_SIZE );
+		
+		transactionService.updateTransactionById( 
+			testTransaction.getId(), 
+			getTestIncomeTransactionRequest(testCategoryId, testAccountId, "15.01.2020", 20.00d, "Monthly", true) 
+		);
+		
+		assertEquals( getDate("15.04.2020"), getNextExecutionDate( testTransaction.getId() ) );
+		assertEquals( 0, recurringTransactionService.executeDueTransactions(getDate("20.03.2020"), TEST_BATCH_SIZE).getClaimedTransactions() );
+		assertEquals( 140.00d, getAccountBalance(testAccountId), 0.001d );
+	}
+
+	@Test
+	@WithMockUser(username = TEST_USER_EMAIL)
+	public void updateTransactionByIdMethodShouldNotExecuteHistoryAgainIfDateIsChanged() throws Exception {
+		UserEntity testUser = insertTestUser(TEST_USER_EMAIL);
+		Long testAccountId = insertTestAccountForUser(testUser, "Account 1", 100.00d).getId();
+		Long testCategoryId = insertTestCategoryForUser(testUser, CategoryType.INCOME, "Category 1").getId();
+		
+		Transaction testTransaction = transactionService.createNewTransaction( 
+			getTestIncomeTransactionRequest(testCategoryId, testAccountId, "15.01.2020", 10.00d, "monthly", true) 
+		);
+		setNextExecutionDate( testTransaction.getId(), "15.02.2020" );
+		recurringTransactionService.executeDueTransactions( getDate("20.03.2020"), TEST_BATCH_SIZE );
+		
+		// The occurrences on 16.02.2020 & 16.03.2020 would have new idempotency keys
+		transactionService.updateTransactionById( 
+			testTransaction.getId(), 
+			getTestIncomeTransactionRequest(testCategoryId, testAccountId, "16.01.2020", 10.00d, "monthly", true) 
+		);
+		
+		assertFalse( getNextExecutionDate( testTransaction.getId() ).before( getDateFromToday(0) ) );
+		assertEquals( 0, recurringTransactionService.executeDueTransactions(getDateFromToday(-1), TEST_BATCH_SIZE).getClaimedTransactions() );
+		assertEquals( 130.00d, getAccountBalance(testAccountId), 0.001d );
+	}
+
+	@Test
+	@WithMockUser(username = TEST_USER_EMAIL)
+	public void updateTransactionByIdMethodShouldNotScheduleBeforeLastExecutedOccurrence() throws Exception {
+		UserEntity testUser = insertTestUser(TEST_USER_EMAIL);
+		Long testAccountId = insertTestAccountForUser(testUser, "Account 1", 100.00d).getId();
+		Long testCategoryId = insertTestCategoryForUser(testUser, CategoryType.INCOME, "Category 1").getId();
+		
+		TransactionRequest testTransactionRequest = getTestIncomeTransactionRequest(testCategoryId, testAccountId, "01.01.2020", 10.00d, "weekly", true);
+		testTransactionRequest.setDateOfCompletion( getDateFromToday(-10) );
+		Transaction testTransaction = transactionService.createNewTransaction(testTransactionRequest);
+		
+		// The occurrences in 4 & 11 days are executed
+		recurringTransactionService.executeDueTransactions( getDateFromToday(11), TEST_BATCH_SIZE );
+		
+		// The occurrences in 2 & 9 days would have new idempotency keys
+		testTransactionRequest.setDateOfCompletion( getDateFromToday(-12) );
+		transactionService.updateTransactionById( testTransaction.getId(), testTransactionRequest );
+		
+		assertEquals( getDateFromToday(16), getNextExecutionDate( testTransaction.getId() ) );
+		assertEquals( 0, recurringTransactionService.executeDueTransactions(getDateFromToday(11), TEST_BATCH_SIZE).getClaimedTransactions() );
+		assertEquals( 130.00d, getAccountBalance(testAccountId), 0.001d );
+	}
+
+}
@@ -0,0 +1,126 @@
+package com.mse.personal.finance.service;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import javax.persistence.Cache;
+import javax.persistence.EntityManagerFactory;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import com.mse.personal.finance.db.entity.AccountEntity;
+import com.mse.personal.finance.db.entity.CategoryEntity;
+import com.mse.personal.finance.db.repository.AccountRepository;
+import com.mse.personal.finance.db.repository.CategoryRepository;
+import com.mse.personal.finance.model.AccountType;
+import com.mse.personal.finance.model.CategoryType;
+import com.mse.personal.finance.model.Money;
+
+/**
+ * This class implements tests for the invalidation of the second-level cache
+ * by the account balance & category sum operations.
+ *
+ * NOTE: The class is intentionally NOT annotated with @Transactional,
+ * because the entities are put in the second-level cache only after their transaction commits.
+ * The inserted test data is removed after each test instead.
+ *
+ * @author dvt32
+ */
+@RunWith(SpringRunner.class)
+@SpringBootTest
+@ActiveProfiles("test")
+public class SecondLevelCacheTests {
+
+	@Autowired
+	private AccountService accountService;
+
+	@Autowired
+	private CategoryService categoryService;
+
+	@Autowired
+	private AccountRepository accountRepository;
+
+	@Autowired
+	private CategoryRepository categoryRepository;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	private Cache cache;
+
+	@Before
+	public void setUp() {
+		cache = entityManagerFactory.getCache();
+		cache.evictAll();
+	}
+
+	/**
+	 * Removes all inserted test data.
+	 */
+	@After
+	public void cleanUp() {
+		accountRepository.deleteAll();
+		categoryRepository.deleteAll();
+	}
+
+	@Test
+	public void findByIdMethod_ShouldReturnCachedAccount() {
+		Long accountId = accountRepository.save( new AccountEntity("Account 1", 100.0d, null, AccountType.ACTIVATED, null, null) ).getId();
+		cache.evictAll();
+
+		accountRepository.findById(accountId);
+
+		assertTrue( cache.contains(AccountEntity.class, accountId) );
+	}
+
+	@Test
+	public void performAccountBalanceOperationByIdMethod_ShouldEvictOnlyUpdatedAccount() {
+		Long updatedAccountId = accountRepository.save( new AccountEntity("Account 1", 100.0d, null, AccountType.ACTIVATED, null, null) ).getId();
+		Long otherAccountId = accountRepository.save( new AccountEntity("Account 2", 100.0d, null, AccountType.ACTIVATED, null, null) ).getId();
+		accountRepository.findById(updatedAccountId);
+		accountRepository.findById(otherAccountId);
+
+		accountService.performAccountBalanceOperationById(updatedAccountId, '+', Money.toMinorUnits(50.0d));
+
+		assertFalse( cache.contains(AccountEntity.class, updatedAccountId) );
+		assertTrue( cache.contains(AccountEntity.class, otherAccountId) );
+		assertEquals( Double.valueOf(150.0d), accountRepository.findById(updatedAccountId).get().getBalance() );
+		assertEquals( Double.valueOf(100.0d), accountRepository.findById(otherAccountId).get().getBalance() );
+	}
+
+	@Test
+	public void performCategorySumOperationByIdMethod_ShouldEvictOnlyUpdatedCategory() {
+		Long updatedCategoryId = categoryRepository.save( new CategoryEntity("Category 1", CategoryType.EXPENSES, 0.0d, null, null) ).getId();
+		Long otherCategoryId = categoryRepository.save( new CategoryEntity("Category 2", CategoryType.EXPENSES, 0.0d, null, null) ).getId();
+		categoryRepository.findById(updatedCategoryId);
+		categoryRepository.findById(otherCategoryId);
+
+		categoryService.performCategorySumOperationById(updatedCategoryId, '+', Money.toMinorUnits(25.0d));
+
+		assertFalse( cache.contains(CategoryEntity.class, updatedCategoryId) );
+		assertTrue( cache.contains(CategoryEntity.class, otherCategoryId) );
+		assertEquals( Double.valueOf(25.0d), categoryRepository.findById(updatedCategoryId).get().getCurrentPeriodSum() );
+	}
+
+	@Test
+	public void findByIdMethod_ShouldReturnUpdatedBalanceAfterCachedRead() {
+		Long accountId = accountRepository.save( new AccountEntity("Account 1", 100.0d, null, AccountType.ACTIVATED, null, null) ).getId();
+
+		for (int i = 1; i <= 3; ++i) {
+			// Puts the account in the cache before each update
+			accountRepository.findById(accountId);
+			accountService.performAccountBalanceOperationById(accountId, '-', Money.toMinorUnits(10.0d));
+
+			assertEquals( Double.valueOf(100.0d - i * 10.0d), accountRepository.findById(accountId).get().getBalance() );
+		}
+	}
+
+}
@@ -0,0 +1,227 @@
+package com.mse.personal.finance.service;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.After;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.security.authentication.AbstractAuthenticationToken;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.security.web.authentication.WebAuthenticationDetails;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.mse.personal.finance.db.QueryBudget;
+import com.mse.personal.finance.db.entity.UserEntity;
+import com.mse.personal.finance.db.repository.UserRepository;
+import com.mse.personal.finance.model.FamilyStatusType;
+import com.mse.personal.finance.model.GenderType;
+import com.mse.personal.finance.model.UserAuthenticationDetails;
+import com.mse.personal.finance.model.request.UserUpdateRequest;
+
+/**
+ * This class implements unit tests for the ServiceUtils class
+ * (the resolution of the currently logged-in user, which is cached in the authentication's details).
+ *
+ * The @Transactional annotation is used to rollback
+ * database changes after a test has finished executing.
+ *
+ * @author dvt32
+ */
+@RunWith(SpringRunner.class)
+@Transactional
+@SpringBootTest
+@ActiveProfiles("test")
+public class ServiceUtilsTests {
+
+	private static final String TEST_USER_EMAIL = "test@pfm.com";
+	private static final String TEST_USER_PASSWORD = "123456";
+
+	@Autowired
+	private ServiceUtils serviceUtils;
+
+	@Autowired
+	private UserProfileService userProfileService;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Autowired
+	private PasswordEncoder passwordEncoder;
+
+	/**
+	 * Removes the authentication set by a test.
+	 */
+	@After
+	public void clearAuthentication() {
+		SecurityContextHolder.clearContext();
+	}
+
+	/**
+	 * Insert test user and return his data.
+	 *
+	 * The user is written right away, so that its insert is not counted by the query budgets of the tests.
+	 */
+	public UserEntity insertTestUser() {
+    	UserEntity testUser = new UserEntity(
+			"John Doe",
+			passwordEncoder.encode(TEST_USER_PASSWORD),
+			TEST_USER_EMAIL,
+			GenderType.MALE,
+			FamilyStatusType.SINGLE,
+			24,
+			"Master's Degree"
+		);
+
+    	testUser = userRepository.saveAndFlush(testUser);
+
+    	return testUser;
+	}
+
+	/**
+	 * Authenticates the passed principal (the way the JWT filter does it).
+	 */
+	public Authentication authenticate(UserAuthenticationDetails principal) {
+		Authentication authentication = new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities());
+		SecurityContextHolder.getContext().setAuthentication(authentication);
+		return authentication;
+	}
+
+	/**
+	 * Returns the authentication of the currently logged-in user.
+	 */
+	public Authentication getAuthentication() {
+		return SecurityContextHolder.getContext().getAuthentication();
+	}
+
+	/**
+	 * getCurrentlyLoggedInUserId() tests
+	 */
+
+	@Test
+	public void getCurrentlyLoggedInUserIdMethodShouldReadIdFromPrincipalWithoutQuery() throws Exception {
+		UserEntity testUser = insertTestUser();
+		Authentication authentication = authenticate(
+			new UserAuthenticationDetails( testUser.getId(), TEST_USER_EMAIL, testUser.getPassword(), testUser.getName() )
+		);
+
+		Long currentlyLoggedInUserId = QueryBudget.assertMaxStatements( 0, () -> serviceUtils.getCurrentlyLoggedInUserId() );
+
+		assertEquals( testUser.getId(), currentlyLoggedInUserId );
+		assertNull( authentication.getDetails() );
+	}
+
+	@Test
+	public void getCurrentlyLoggedInUserIdMethodShouldLoadUserIfPrincipalHasNoId() {
+		UserEntity testUser = insertTestUser();
+		Authentication authentication = authenticate(
+			new UserAuthenticationDetails( TEST_USER_EMAIL, testUser.getPassword(), testUser.getName() )
+		);
+
+		Long currentlyLoggedInUserId = serviceUtils.getCurrentlyLoggedInUserId();
+
+		assertEquals( testUser.getId(), currentlyLoggedInUserId );
+		assertTrue( authentication.getDetails() instanceof UserEntity );
+	}
+
+	@Test
+	@WithMockUser(username = TEST_USER_EMAIL)
+	public void getCurrentlyLoggedInUserIdMethodShouldLoadUserOnceIfPrincipalIsNotUserAuthenticationDetails() throws Exception {
+		UserEntity testUser = insertTestUser();
+
+		Long firstUserId = QueryBudget.assertMaxStatements( 1, () -> serviceUtils.getCurrentlyLoggedInUserId() );
+		Long secondUserId = QueryBudget.assertMaxStatements( 0, () -> serviceUtils.getCurrentlyLoggedInUserId() );
+
+		assertEquals( testUser.getId(), firstUserId );
+		assertEquals( testUser.getId(), secondUserId );
+	}
+
+	/**
+	 * getCurrentlyLoggedInUserEntity() tests
+	 */
+
+	@Test
+	@WithMockUser(username = TEST_USER_EMAIL)
+	public void getCurrentlyLoggedInUserEntityMethodShouldLoadUserOncePerAuthentication() throws Exception {
+		UserEntity testUser = insertTestUser();
+
+		UserEntity loadedUser = QueryBudget.assertMaxStatements( 1, () -> serviceUtils.getCurrentlyLoggedInUserEntity() );
+		UserEntity cachedUser = QueryBudget.assertMaxStatements( 0, () -> serviceUtils.getCurrentlyLoggedInUserEntity() );
+
+		assertEquals( testUser.getId(), loadedUser.getId() );
+		assertSame( loadedUser, cachedUser );
+		assertSame( loadedUser, getAuthentication().getDetails() );
+	}
+
+	@Test
+	@WithMockUser(username = TEST_USER_EMAIL)
+	public void getCurrentlyLoggedInUserEntityMethodShouldNotReplaceOtherAuthenticationDetails() {
+		insertTestUser();
+		WebAuthenticationDetails webAuthenticationDetails = new WebAuthenticationDetails( new MockHttpServletRequest() );
+		( (AbstractAuthenticationToken) getAuthentication() ).setDetails(webAuthenticationDetails);
+
+		UserEntity currentlyLoggedInUser = serviceUtils.getCurrentlyLoggedInUserEntity();
+
+		assertEquals( TEST_USER_EMAIL, currentlyLoggedInUser.getEmail() );
+		assertSame( webAuthenticationDetails, getAuthentication().getDetails() );
+	}
+
+	/**
+	 * clearCurrentlyLoggedInUserEntity() tests
+	 */
+
+	@Test
+	@WithMockUser(username = TEST_USER_EMAIL)
+	public void clearCurrentlyLoggedInUserEntityMethodShouldRemoveCachedUser() {
+		UserEntity testUser = insertTestUser();
+		serviceUtils.getCurrentlyLoggedInUserEntity();
+
+		serviceUtils.clearCurrentlyLoggedInUserEntity();
+		assertNull( getAuthentication().getDetails() );
+
+		UserEntity reloadedUser = serviceUtils.getCurrentlyLoggedInUserEntity();
+		assertEquals( testUser.getId(), reloadedUser.getId() );
+		assertSame( reloadedUser, getAuthentication().getDetails() );
+	}
+
+	@Test
+	@WithMockUser(username = TEST_USER_EMAIL)
+	public void clearCurrentlyLoggedInUserEntityMethodShouldNotRemoveOtherAuthenticationDetails() {
+		WebAuthenticationDetails webAuthenticationDetails = new WebAuthenticationDetails( new MockHttpServletRequest() );
+		( (AbstractAuthenticationToken) getAuthentication() ).setDetails(webAuthenticationDetails);
+
+		serviceUtils.clearCurrentlyLoggedInUserEntity();
+
+		assertSame( webAuthenticationDetails, getAuthentication().getDetails() );
+	}
+
+	@Test
+	@WithMockUser(username = TEST_USER_EMAIL)
+	public void currentlyLoggedInUserEntityShouldBeReloadedAfterProfileUpdate() {
+		insertTestUser();
+		serviceUtils.getCurrentlyLoggedInUserEntity();
+
+		UserUpdateRequest testUserUpdateRequest = new UserUpdateRequest();
+		testUserUpdateRequest.setName("Jane Doe");
+		testUserUpdateRequest.setGender( GenderType.FEMALE );
+		testUserUpdateRequest.setFamilyStatus( FamilyStatusType.SINGLE );
+		testUserUpdateRequest.setAge(24);
+		testUserUpdateRequest.setEducation("Master's Degree");
+		userProfileService.updateCurrentUser(testUserUpdateRequest);
+
+		assertNull( getAuthentication().getDetails() );
+		assertEquals( "Jane Doe", serviceUtils.getCurrentlyLoggedInUserEntity().getName() );
+	}
+
+}
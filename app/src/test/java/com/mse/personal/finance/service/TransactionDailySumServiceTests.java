@@ -0,0 +1,381 @@
+package com.mse.personal.finance.service;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.mse.personal.finance.db.entity.AccountEntity;
+import com.mse.personal.finance.db.entity.CategoryEntity;
+import com.mse.personal.finance.db.entity.TransactionDailySumEntity;
+import com.mse.personal.finance.db.entity.TransactionEntity;
+import com.mse.personal.finance.db.entity.UserEntity;
+import com.mse.personal.finance.db.repository.AccountRepository;
+import com.mse.personal.finance.db.repository.CategoryRepository;
+import com.mse.personal.finance.db.repository.TransactionDailySumRepository;
+import com.mse.personal.finance.db.repository.TransactionRepository;
+import com.mse.personal.finance.db.repository.UserRepository;
+import com.mse.personal.finance.model.AccountType;
+import com.mse.personal.finance.model.CategoryType;
+import com.mse.personal.finance.model.FamilyStatusType;
+import com.mse.personal.finance.model.GenderType;
+import com.mse.personal.finance.model.Transaction;
+import com.mse.personal.finance.model.TransactionFromType;
+import com.mse.personal.finance.model.TransactionToType;
+import com.mse.personal.finance.model.request.TransactionRequest;
+
+/**
+ * This class implements unit tests for the TransactionDailySumService class
+ * (and the maintenance of the daily sums by the TransactionService class).
+ *
+ * The @Transactional annotation is used to rollback
+ * database changes after a test has finished executing.
+ *
+ * @author dvt32
+ */
+@RunWith(SpringRunner.class)
+@Transactional
+@SpringBootTest
+@ActiveProfiles("test")
+public class TransactionDailySumServiceTests {
+
+	private static final String TEST_USER_EMAIL = "test@pfm.com";
+	private static final String TEST_USER_PASSWORD = "123456";
+
+	@Autowired
+	private TransactionDailySumService transactionDailySumService;
+
+	@Autowired
+	private TransactionDailySumRepository transactionDailySumRepository;
+
+	@Autowired
+	private TransactionService transactionService;
+
+	@Autowired
+	private JobLockService jobLockService;
+
+	@Autowired
+	private TransactionRepository transactionRepository;
+
+	@Autowired
+	private AccountRepository accountRepository;
+
+	@Autowired
+	private CategoryRepository categoryRepository;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Autowired
+	private PasswordEncoder passwordEncoder;
+
+	/**
+	 * Insert test user and return his data.
+	 */
+	public UserEntity insertTestUser(String email) {
+    	UserEntity testUser = new UserEntity(
+			"John Doe",
+			passwordEncoder.encode(TEST_USER_PASSWORD),
+			email,
+			GenderType.MALE,
+			FamilyStatusType.SINGLE,
+			24,
+			"Master's Degree"
+		);
+
+    	testUser = userRepository.save(testUser);
+
+    	return testUser;
+	}
+
+	/**
+	 * Inserts a test account for the specified user and returns that account's data
+	 */
+	public AccountEntity insertTestAccountForUser(UserEntity user, String accountName, Double balance) {
+		AccountEntity testAccountEntity = new AccountEntity(
+			accountName,
+			balance,
+			2000.00d,
+			AccountType.ACTIVATED,
+			user,
+			null
+		);
+
+		testAccountEntity = accountRepository.save(testAccountEntity);
+
+		return testAccountEntity;
+	}
+
+	/**
+	 * Inserts a test category for the specified user and returns that category's data
+	 */
+	public CategoryEntity insertTestCategoryForUser(UserEntity user, CategoryType categoryType, String categoryName) {
+		CategoryEntity testCategoryEntity = new CategoryEntity(
+			categoryName,
+			categoryType,
+			0.00d,
+			"limit",
+			user
+		);
+
+		testCategoryEntity = categoryRepository.save(testCategoryEntity);
+
+		return testCategoryEntity;
+	}
+
+	/**
+	 * Create and return a test income transaction request
+	 */
+	public TransactionRequest getTestIncomeTransactionRequest(Long categoryId, Long accountId, String date, Double sum) 
+		throws Exception 
+	{
+		TransactionRequest testTransactionRequest = new TransactionRequest();
+		
+		testTransactionRequest.setDateOfCompletion( new SimpleDateFormat("dd.MM.yyyy").parse(date) );
+		testTransactionRequest.setFromType(TransactionFromType.CATEGORY);
+		testTransactionRequest.setFromId(categoryId);
+		testTransactionRequest.setToType(TransactionToType.ACCOUNT);
+		testTransactionRequest.setToId(accountId);
+		testTransactionRequest.setSum(sum);
+		testTransactionRequest.setShouldBeAutomaticallyExecuted(false);
+		testTransactionRequest.setDescription("Salary");
+		
+		return testTransactionRequest;
+	}
+
+	/**
+	 * Returns the daily sums of the specified user
+	 */
+	public List<TransactionDailySumEntity> getDailySumsOfUser(UserEntity user) {
+		transactionDailySumRepository.flush();
+		
+		return transactionDailySumRepository.findAll().stream()
+			.filter( dailySum -> dailySum.getUserId().equals( user.getId() ) )
+			.collect( Collectors.toList() );
+	}
+
+	/**
+	 * Returns the date, which is parsed from the passed string (in the "dd.MM.yyyy" format)
+	 */
+	public Date getDate(String date) throws Exception {
+		return new SimpleDateFormat("dd.MM.yyyy").parse(date);
+	}
+
+	/**
+	 * Daily sum maintenance tests
+	 */
+
+	@Test
+	@WithMockUser(username = TEST_USER_EMAIL)
+	public void createNewTransactionMethodShouldAddTransactionsOfTheSameDayToOneDailySum() throws Exception {
+		UserEntity testUser = insertTestUser(TEST_USER_EMAIL);
+		Long testAccountId = insertTestAccountForUser(testUser, "Account 1", 100.00d).getId();
+		Long testCategoryId = insertTestCategoryForUser(testUser, CategoryType.INCOME, "Category 1").getId();
+		
+		transactionService.createNewTransaction( getTestIncomeTransactionRequest(testCategoryId, testAccountId, "03.03.2020", 100.00d) );
+		transactionService.createNewTransaction( getTestIncomeTransactionRequest(testCategoryId, testAccountId, "03.03.2020", 50.00d) );
+		transactionService.createNewTransaction( getTestIncomeTransactionRequest(testCategoryId, testAccountId, "04.03.2020", 25.00d) );
+		
+		List<TransactionDailySumEntity> dailySums = getDailySumsOfUser(testUser);
+		
+		assertEquals( 2, dailySums.size() );
+		assertEquals( 175.00d, transactionService.getTotalTransactionsSumByType("INCOME"), 0.001d );
+		assertEquals( 
+			150.00d, 
+			transactionService.getTotalTransactionsSumBetweenDatesByType("INCOME", getDate("03.03.2020"), getDate("03.03.2020")),
+			0.001d
+		);
+	}
+
+	@Test
+	@WithMockUser(username = TEST_USER_EMAIL)
+	public void updateTransactionByIdMethodShouldMoveTransactionToNewDailySum() throws Exception {
+		UserEntity testUser = insertTestUser(TEST_USER_EMAIL);
+		Long testAccountId = insertTestAccountForUser(testUser, "Account 1", 100.00d).getId();
+		Long testCategoryId = insertTestCategoryForUser(testUser, CategoryType.INCOME, "Category 1").getId();
+		
+		Transaction testTransaction = transactionService.createNewTransaction( 
+			getTestIncomeTransactionRequest(testCategoryId, testAccountId, "03.03.2020", 100.00d) 
+		);
+		transactionService.updateTransactionById( 
+			testTransaction.getId(), 
+			getTestIncomeTransactionRequest(testCategoryId, testAccountId, "05.03.2020", 70.00d) 
+		);
+		
+		assertEquals( 70.00d, transactionService.getTotalTransactionsSumByType("INCOME"), 0.001d );
+		assertNull( transactionService.getTotalTransactionsSumBetweenDatesByType("INCOME", getDate("03.03.2020"), getDate("03.03.2020")) );
+		assertEquals( 1, getDailySumsOfUser(testUser).size() );
+		assertEquals( 
+			70.00d, 
+			transactionService.getTotalTransactionsSumBetweenDatesByType("INCOME", getDate("05.03.2020"), getDate("05.03.2020")),
+			0.001d
+		);
+	}
+
+	@Test
+	@WithMockUser(username = TEST_USER_EMAIL)
+	public void deleteTransactionByIdMethodShouldRemoveTransactionFromDailySum() throws Exception {
+		UserEntity testUser = insertTestUser(TEST_USER_EMAIL);
+		Long testAccountId = insertTestAccountForUser(testUser, "Account 1", 100.00d).getId();
+		Long testCategoryId = insertTestCategoryForUser(testUser, CategoryType.INCOME, "Category 1").getId();
+		
+		Transaction testTransaction = transactionService.createNewTransaction( 
+			getTestIncomeTransactionRequest(testCategoryId, testAccountId, "03.03.2020", 100.00d) 
+		);
+		transactionService.createNewTransaction( getTestIncomeTransactionRequest(testCategoryId, testAccountId, "03.03.2020", 50.00d) );
+		transactionService.deleteTransactionById( testTransaction.getId() );
+		
+		List<TransactionDailySumEntity> dailySums = getDailySumsOfUser(testUser);
+		
+		assertEquals( 1, dailySums.size() );
+		assertEquals( 50.00d, dailySums.get(0).getTotalSum(), 0.001d );
+		assertEquals( Long.valueOf(1L), dailySums.get(0).getTransactionCount() );
+	}
+
+	@Test
+	@WithMockUser(username = TEST_USER_EMAIL)
+	public void deleteTransactionByIdMethodShouldDeleteDailySumOfLastTransactionOfType() throws Exception {
+		UserEntity testUser = insertTestUser(TEST_USER_EMAIL);
+		Long testAccountId = insertTestAccountForUser(testUser, "Account 1", 100.00d).getId();
+		Long testCategoryId = insertTestCategoryForUser(testUser, CategoryType.INCOME, "Category 1").getId();
+		
+		Transaction testTransaction = transactionService.createNewTransaction( 
+			getTestIncomeTransactionRequest(testCategoryId, testAccountId, "03.03.2020", 100.00d) 
+		);
+		transactionService.deleteTransactionById( testTransaction.getId() );
+		
+		// No transactions of the type - the same results as without any daily sums
+		assertTrue( getDailySumsOfUser(testUser).isEmpty() );
+		assertNull( transactionService.getTotalTransactionsSumByType("INCOME") );
+		assertNull( transactionService.getTotalTransactionsSumBetweenDatesByType("INCOME", getDate("03.03.2020"), getDate("03.03.2020")) );
+		assertNull( 
+			transactionDailySumRepository.getTotalIncomeSumBetweenDatesForAccountById(testUser.getId(), getDate("03.03.2020"), getDate("03.03.2020"), testAccountId) 
+		);
+	}
+
+	@Test
+	public void addToDailySumMethodShouldAddToDailySumInsertedByConcurrentTransaction() throws Exception {
+		UserEntity testUser = insertTestUser(TEST_USER_EMAIL);
+		Date day = getDate("03.03.2020");
+		
+		// A daily sum, which already exists, is not inserted again (e.g. after a concurrent insert)
+		assertEquals( 
+			1, 
+			transactionDailySumRepository.insertDailySumIfAbsent(testUser.getId(), day, TransactionFromType.CATEGORY, 1L, TransactionToType.ACCOUNT, 2L, 1000L, 1L) 
+		);
+		assertEquals( 
+			0, 
+			transactionDailySumRepository.insertDailySumIfAbsent(testUser.getId(), day, TransactionFromType.CATEGORY, 1L, TransactionToType.ACCOUNT, 2L, 1000L, 1L) 
+		);
+		
+		transactionDailySumService.addToDailySum(testUser.getId(), day, TransactionFromType.CATEGORY, 1L, TransactionToType.ACCOUNT, 2L, 500L, 1L);
+		List<TransactionDailySumEntity> dailySums = getDailySumsOfUser(testUser);
+		
+		assertEquals( 1, dailySums.size() );
+		assertEquals( 15.00d, dailySums.get(0).getTotalSum(), 0.001d );
+		assertEquals( Long.valueOf(2L), dailySums.get(0).getTransactionCount() );
+	}
+
+	/**
+	 * rebuildDailySums() tests
+	 */
+
+	@Test
+	@WithMockUser(username = TEST_USER_EMAIL)
+	public void rebuildDailySumsMethodShouldRegenerateDailySumsFromTransactions() throws Exception {
+		UserEntity testUser = insertTestUser(TEST_USER_EMAIL);
+		Long testAccountId = insertTestAccountForUser(testUser, "Account 1", 100.00d).getId();
+		Long testCategoryId = insertTestCategoryForUser(testUser, CategoryType.INCOME, "Category 1").getId();
+		
+		// Insert transactions directly (without updating the daily sums)
+		for (int i = 0; i < 3; ++i) {
+			TransactionEntity testTransactionEntity = new TransactionEntity();
+			testTransactionEntity.setDateOfCompletion( getDate("03.03.2020") );
+			testTransactionEntity.setFromType(TransactionFromType.CATEGORY);
+			testTransactionEntity.setFromId(testCategoryId);
+			testTransactionEntity.setToType(TransactionToType.ACCOUNT);
+			testTransactionEntity.setToId(testAccountId);
+			testTransactionEntity.setSum(10.00d);
+			testTransactionEntity.setShouldBeAutomaticallyExecuted(false);
+			testTransactionEntity.setUser(testUser);
+			transactionRepository.save(testTransactionEntity);
+		}
+		transactionRepository.flush();
+		
+		assertEquals( 0, getDailySumsOfUser(testUser).size() );
+		
+		transactionDailySumService.rebuildDailySums();
+		List<TransactionDailySumEntity> dailySums = getDailySumsOfUser(testUser);
+		
+		assertEquals( 1, dailySums.size() );
+		assertEquals( 30.00d, dailySums.get(0).getTotalSum(), 0.001d );
+		assertEquals( Long.valueOf(3L), dailySums.get(0).getTransactionCount() );
+		assertEquals( 30.00d, transactionService.getTotalTransactionsSumByType("INCOME"), 0.001d );
+	}
+
+	@Test
+	@WithMockUser(username = TEST_USER_EMAIL)
+	public void rebuildDailySumsMethodShouldOnlyCorrectDifferingDailySums() throws Exception {
+		UserEntity testUser = insertTestUser(TEST_USER_EMAIL);
+		Long testAccountId = insertTestAccountForUser(testUser, "Account 1", 100.00d).getId();
+		Long testCategoryId = insertTestCategoryForUser(testUser, CategoryType.INCOME, "Category 1").getId();
+		
+		transactionService.createNewTransaction( getTestIncomeTransactionRequest(testCategoryId, testAccountId, "03.03.2020", 100.00d) );
+		transactionService.createNewTransaction( getTestIncomeTransactionRequest(testCategoryId, testAccountId, "04.03.2020", 50.00d) );
+		TransactionDailySumEntity correctDailySum = getDailySumsOfUser(testUser).stream()
+			.filter( dailySum -> dailySum.getTotalSum() == 50.00d )
+			.findFirst()
+			.get();
+		
+		// A wrong daily sum & a daily sum without transactions
+		transactionDailySumService.addToDailySum(testUser.getId(), getDate("03.03.2020"), TransactionFromType.CATEGORY, testCategoryId, TransactionToType.ACCOUNT, testAccountId, 500L, 0L);
+		transactionDailySumService.addToDailySum(testUser.getId(), getDate("05.03.2020"), TransactionFromType.CATEGORY, testCategoryId, TransactionToType.ACCOUNT, testAccountId, 500L, 1L);
+		
+		transactionDailySumService.rebuildDailySums();
+		List<TransactionDailySumEntity> dailySums = getDailySumsOfUser(testUser);
+		
+		assertEquals( 2, dailySums.size() );
+		assertEquals( 150.00d, transactionService.getTotalTransactionsSumByType("INCOME"), 0.001d );
+		assertTrue( dailySums.stream().anyMatch( dailySum -> dailySum.getId().equals( correctDailySum.getId() ) ) );
+	}
+
+	@Test
+	@WithMockUser(username = TEST_USER_EMAIL)
+	public void rebuildDailySumsMethodShouldBeSkippedWhileLockedByAnotherInstance() throws Exception {
+		UserEntity testUser = insertTestUser(TEST_USER_EMAIL);
+		Long testAccountId = insertTestAccountForUser(testUser, "Account 1", 100.00d).getId();
+		Long testCategoryId = insertTestCategoryForUser(testUser, CategoryType.INCOME, "Category 1").getId();
+		
+		// Insert a transaction directly (without updating the daily sums)
+		TransactionEntity testTransactionEntity = new TransactionEntity();
+		testTransactionEntity.setDateOfCompletion( getDate("03.03.2020") );
+		testTransactionEntity.setFromType(TransactionFromType.CATEGORY);
+		testTransactionEntity.setFromId(testCategoryId);
+		testTransactionEntity.setToType(TransactionToType.ACCOUNT);
+		testTransactionEntity.setToId(testAccountId);
+		testTransactionEntity.setSum(10.00d);
+		testTransactionEntity.setShouldBeAutomaticallyExecuted(false);
+		testTransactionEntity.setUser(testUser);
+		transactionRepository.saveAndFlush(testTransactionEntity);
+		
+		assertTrue( jobLockService.tryLock(TransactionDailySumService.REBUILD_JOB_NAME, 60_000L) );
+		transactionDailySumService.rebuildDailySums();
+		
+		assertEquals( 0, getDailySumsOfUser(testUser).size() );
+	}
+
+}
@@ -0,0 +1,244 @@
+package com.mse.personal.finance.service;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.text.SimpleDateFormat;
+import java.util.NoSuchElementException;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.mse.personal.finance.db.entity.AccountEntity;
+import com.mse.personal.finance.db.entity.CategoryEntity;
+import com.mse.personal.finance.db.entity.TransactionEntity;
+import com.mse.personal.finance.db.entity.UserEntity;
+import com.mse.personal.finance.db.repository.AccountRepository;
+import com.mse.personal.finance.db.repository.CategoryRepository;
+import com.mse.personal.finance.db.repository.TransactionRepository;
+import com.mse.personal.finance.db.repository.UserRepository;
+import com.mse.personal.finance.model.AccountType;
+import com.mse.personal.finance.model.CategoryType;
+import com.mse.personal.finance.model.FamilyStatusType;
+import com.mse.personal.finance.model.GenderType;
+import com.mse.personal.finance.model.TransactionFromType;
+import com.mse.personal.finance.model.TransactionToType;
+
+/**
+ * This class implements unit tests for the TransactionExportService class.
+ *
+ * The @Transactional annotation is used to rollback
+ * database changes after a test has finished executing.
+ *
+ * @author dvt32
+ */
+@RunWith(SpringRunner.class)
+@Transactional
+@SpringBootTest
+@ActiveProfiles("test")
+public class TransactionExportServiceTests {
+
+	private static final String TEST_USER_EMAIL = "test@pfm.com";
+	private static final String TEST_USER_PASSWORD = "123456";
+
+	@Autowired
+	private TransactionExportService transactionExportService;
+
+	@Autowired
+	private TransactionRepository transactionRepository;
+
+	@Autowired
+	private TransactionDailySumService transactionDailySumService;
+
+	@Autowired
+	private AccountRepository accountRepository;
+
+	@Autowired
+	private CategoryRepository categoryRepository;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Autowired
+	private PasswordEncoder passwordEncoder;
+
+	/**
+	 * Insert test user and return his data.
+	 */
+	public UserEntity insertTestUser(String email) {
+    	UserEntity testUser = new UserEntity(
+			"John Doe",
+			passwordEncoder.encode(TEST_USER_PASSWORD),
+			email,
+			GenderType.MALE,
+			FamilyStatusType.SINGLE,
+			24,
+			"Master's Degree"
+		);
+
+    	testUser = userRepository.save(testUser);
+
+    	return testUser;
+	}
+
+	/**
+	 * Inserts a test account for the specified user and returns that account's data
+	 */
+	public AccountEntity insertTestAccountForUser(UserEntity user, String accountName, Double balance) {
+		AccountEntity testAccountEntity = new AccountEntity(
+			accountName,
+			balance,
+			2000.00d,
+			AccountType.ACTIVATED,
+			user,
+			null
+		);
+
+		testAccountEntity = accountRepository.save(testAccountEntity);
+
+		return testAccountEntity;
+	}
+
+	/**
+	 * Inserts a test category for the specified user and returns that category's data
+	 */
+	public CategoryEntity insertTestCategoryForUser(UserEntity user, CategoryType categoryType, String categoryName) {
+		CategoryEntity testCategoryEntity = new CategoryEntity(
+			categoryName,
+			categoryType,
+			0.00d,
+			"limit",
+			user
+		);
+
+		testCategoryEntity = categoryRepository.save(testCategoryEntity);
+
+		return testCategoryEntity;
+	}
+
+	/**
+	 * Inserts a test income transaction for the specified user and returns that transaction's data
+	 */
+	public TransactionEntity insertTestIncomeTransactionForUser(
+		UserEntity user, 
+		Long categoryId, 
+		Long accountId, 
+		String date, 
+		String description) 
+		throws Exception
+	{
+		return insertTestIncomeTransactionForUser(user, categoryId, accountId, date, description, 100.00d);
+	}
+
+	/**
+	 * Inserts a test income transaction with the specified sum for the specified user and returns that transaction's data
+	 */
+	public TransactionEntity insertTestIncomeTransactionForUser(
+		UserEntity user, 
+		Long categoryId, 
+		Long accountId, 
+		String date, 
+		String description,
+		Double sum) 
+		throws Exception
+	{
+		TransactionEntity testTransactionEntity = new TransactionEntity();
+		
+		testTransactionEntity.setDateOfCompletion( new SimpleDateFormat("dd.MM.yyyy").parse(date) );
+		testTransactionEntity.setFromType(TransactionFromType.CATEGORY);
+		testTransactionEntity.setFromId(categoryId);
+		testTransactionEntity.setToType(TransactionToType.ACCOUNT);
+		testTransactionEntity.setToId(accountId);
+		testTransactionEntity.setSum(sum);
+		testTransactionEntity.setShouldBeAutomaticallyExecuted(false);
+		testTransactionEntity.setDescription(description);
+		testTransactionEntity.setUser(user);
+		
+		testTransactionEntity = transactionRepository.save(testTransactionEntity);
+		transactionDailySumService.addTransaction(testTransactionEntity);
+		
+		return testTransactionEntity;
+	}
+
+	/**
+	 * exportTransactionsAsCsv() tests
+	 */
+
+	@Test(expected = NoSuchElementException.class)
+	@WithMockUser(username = TEST_USER_EMAIL)
+	public void exportTransactionsAsCsvMethodShouldThrowExceptionIfUserDoesNotExist() throws Exception {
+		transactionExportService.exportTransactionsAsCsv( new ByteArrayOutputStream() );
+	}
+
+	@Test
+	@WithMockUser(username = TEST_USER_EMAIL)
+	public void exportTransactionsAsCsvMethodShouldExportOnlyCurrentUserTransactionsOrderedByDate() throws Exception {
+		UserEntity testUser = insertTestUser(TEST_USER_EMAIL);
+		UserEntity otherUser = insertTestUser("other@pfm.com");
+		Long testAccountId = insertTestAccountForUser(testUser, "Account 1", 100.00d).getId();
+		Long testCategoryId = insertTestCategoryForUser(testUser, CategoryType.INCOME, "Category 1").getId();
+		
+		insertTestIncomeTransactionForUser(testUser, testCategoryId, testAccountId, "05.03.2020", "Salary, March");
+		insertTestIncomeTransactionForUser(testUser, testCategoryId, testAccountId, "03.02.2020", "Salary");
+		insertTestIncomeTransactionForUser(otherUser, testCategoryId, testAccountId, "01.01.2020", "Other user's salary");
+		
+		ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+		transactionExportService.exportTransactionsAsCsv(outputStream);
+		String[] lines = new String( outputStream.toByteArray(), StandardCharsets.UTF_8 ).split("\n");
+		
+		assertEquals( 3, lines.length );
+		assertTrue( lines[0].startsWith("id,dateOfCompletion") );
+		assertTrue( lines[1].contains("2020-02-03,CATEGORY") );
+		assertTrue( lines[2].contains("\"Salary, March\"") );
+	}
+
+	@Test
+	@WithMockUser(username = TEST_USER_EMAIL)
+	public void exportTransactionsAsCsvMethodShouldExportLargeSumsInPlainNotation() throws Exception {
+		UserEntity testUser = insertTestUser(TEST_USER_EMAIL);
+		Long testAccountId = insertTestAccountForUser(testUser, "Account 1", 100.00d).getId();
+		Long testCategoryId = insertTestCategoryForUser(testUser, CategoryType.INCOME, "Category 1").getId();
+		
+		insertTestIncomeTransactionForUser(testUser, testCategoryId, testAccountId, "03.03.2020", "Sale of an apartment", 12_345_678.90d);
+		
+		ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+		transactionExportService.exportTransactionsAsCsv(outputStream);
+		String[] lines = new String( outputStream.toByteArray(), StandardCharsets.UTF_8 ).split("\n");
+		
+		// Double.toString() would write "1.23456789E7"
+		assertEquals( 2, lines.length );
+		assertTrue( lines[1].contains(",12345678.90,Sale of an apartment,") );
+	}
+
+	/**
+	 * exportTransactionsAsJson() tests
+	 */
+
+	@Test
+	@WithMockUser(username = TEST_USER_EMAIL)
+	public void exportTransactionsAsJsonMethodShouldExportJsonArray() throws Exception {
+		UserEntity testUser = insertTestUser(TEST_USER_EMAIL);
+		Long testAccountId = insertTestAccountForUser(testUser, "Account 1", 100.00d).getId();
+		Long testCategoryId = insertTestCategoryForUser(testUser, CategoryType.INCOME, "Category 1").getId();
+		
+		TransactionEntity testTransaction = insertTestIncomeTransactionForUser(testUser, testCategoryId, testAccountId, "03.03.2020", "Salary");
+		
+		ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+		transactionExportService.exportTransactionsAsJson(outputStream);
+		String json = new String( outputStream.toByteArray(), StandardCharsets.UTF_8 );
+		
+		assertTrue( json.startsWith("[") && json.endsWith("]") );
+		assertTrue( json.contains("\"id\":" + testTransaction.getId()) );
+		assertTrue( json.contains("\"description\":\"Salary\"") );
+	}
+
+}
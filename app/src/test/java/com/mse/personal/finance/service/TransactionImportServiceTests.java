@@ -0,0 +1,252 @@
+package com.mse.personal.finance.service;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.NoSuchElementException;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.mse.personal.finance.db.entity.AccountEntity;
+import com.mse.personal.finance.db.entity.CategoryEntity;
+import com.mse.personal.finance.db.entity.UserEntity;
+import com.mse.personal.finance.db.repository.AccountRepository;
+import com.mse.personal.finance.db.repository.CategoryRepository;
+import com.mse.personal.finance.db.repository.TransactionRepository;
+import com.mse.personal.finance.db.repository.UserRepository;
+import com.mse.personal.finance.model.AccountType;
+import com.mse.personal.finance.model.CategoryType;
+import com.mse.personal.finance.model.FamilyStatusType;
+import com.mse.personal.finance.model.GenderType;
+import com.mse.personal.finance.model.TransactionImportResult;
+import com.mse.personal.finance.model.TransactionImportRowStatus;
+import com.mse.personal.finance.rest.exception.InvalidDataException;
+
+/**
+ * This class implements unit tests for the TransactionImportService class.
+ *
+ * The @Transactional annotation is used to rollback
+ * database changes after a test has finished executing.
+ *
+ * @author dvt32
+ */
+@RunWith(SpringRunner.class)
+@Transactional
+@SpringBootTest
+@ActiveProfiles("test")
+public class TransactionImportServiceTests {
+
+	private static final String TEST_USER_EMAIL = "test@pfm.com";
+	private static final String TEST_USER_PASSWORD = "123456";
+
+	@Autowired
+	private TransactionImportService transactionImportService;
+
+	@Autowired
+	private TransactionRepository transactionRepository;
+
+	@Autowired
+	private AccountRepository accountRepository;
+
+	@Autowired
+	private CategoryRepository categoryRepository;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Autowired
+	private PasswordEncoder passwordEncoder;
+
+	/**
+	 * Insert test user and return his data.
+	 */
+	public UserEntity insertTestUser(String email) {
+    	UserEntity testUser = new UserEntity(
+			"John Doe",
+			passwordEncoder.encode(TEST_USER_PASSWORD),
+			email,
+			GenderType.MALE,
+			FamilyStatusType.SINGLE,
+			24,
+			"Master's Degree"
+		);
+
+    	testUser = userRepository.save(testUser);
+
+    	return testUser;
+	}
+
+	/**
+	 * Inserts a test account for the specified user and returns that account's data
+	 */
+	public AccountEntity insertTestAccountForUser(UserEntity user, String accountName, Double balance) {
+		AccountEntity testAccountEntity = new AccountEntity(
+			accountName,
+			balance,
+			2000.00d,
+			AccountType.ACTIVATED,
+			user,
+			null
+		);
+
+		testAccountEntity = accountRepository.save(testAccountEntity);
+
+		return testAccountEntity;
+	}
+
+	/**
+	 * Inserts a test category for the specified user and returns that category's data
+	 */
+	public CategoryEntity insertTestCategoryForUser(UserEntity user, CategoryType categoryType, String categoryName) {
+		CategoryEntity testCategoryEntity = new CategoryEntity(
+			categoryName,
+			categoryType,
+			0.00d,
+			"limit",
+			user
+		);
+
+		testCategoryEntity = categoryRepository.save(testCategoryEntity);
+
+		return testCategoryEntity;
+	}
+
+	/**
+	 * Returns a JSON transaction request with the passed from-to data as a String.
+	 */
+	public String getTestTransactionJson(String fromType, Long fromId, String toType, Long toId, Double sum) {
+		return String.format(
+			"{\"dateOfCompletion\":\"2020-03-03\",\"fromType\":\"%s\",\"fromId\":%d,\"toType\":\"%s\",\"toId\":%d,\"sum\":%s,\"shouldBeAutomaticallyExecuted\":false}",
+			fromType, fromId, toType, toId, sum
+		);
+	}
+
+	/**
+	 * importTransactionsFromJson() tests
+	 */
+
+	@Test(expected = NoSuchElementException.class)
+	@WithMockUser(username = TEST_USER_EMAIL)
+	public void importTransactionsFromJsonMethodShouldThrowExceptionIfUserDoesNotExist() throws Exception {
+		InputStream inputStream = new ByteArrayInputStream( "[]".getBytes(StandardCharsets.UTF_8) );
+		transactionImportService.importTransactionsFromJson(inputStream);
+	}
+
+	@Test(expected = InvalidDataException.class)
+	@WithMockUser(username = TEST_USER_EMAIL)
+	public void importTransactionsFromJsonMethodShouldThrowExceptionIfDataIsNotAnArray() throws Exception {
+		insertTestUser(TEST_USER_EMAIL);
+
+		InputStream inputStream = new ByteArrayInputStream( "{}".getBytes(StandardCharsets.UTF_8) );
+		transactionImportService.importTransactionsFromJson(inputStream);
+	}
+
+	@Test
+	@WithMockUser(username = TEST_USER_EMAIL)
+	public void importTransactionsFromJsonMethodShouldImportValidRowsAndApplyAggregatedChanges() throws Exception {
+		UserEntity testUser = insertTestUser(TEST_USER_EMAIL);
+		Long testAccountId = insertTestAccountForUser(testUser, "Account 1", 100.00d).getId();
+		Long testIncomeCategoryId = insertTestCategoryForUser(testUser, CategoryType.INCOME, "Category 1").getId();
+		Long testExpenseCategoryId = insertTestCategoryForUser(testUser, CategoryType.EXPENSES, "Category 2").getId();
+
+		String json = "[" +
+			getTestTransactionJson("CATEGORY", testIncomeCategoryId, "ACCOUNT", testAccountId, 50.00d) + "," +
+			getTestTransactionJson("ACCOUNT", testAccountId, "CATEGORY", testExpenseCategoryId, 30.00d) + "," +
+			getTestTransactionJson("CATEGORY", testIncomeCategoryId, "CATEGORY", testExpenseCategoryId, 10.00d) + "," + // invalid
+			getTestTransactionJson("ACCOUNT", -1L, "CATEGORY", testExpenseCategoryId, 10.00d) + "," + // invalid
+			"{\"sum\":\"abc\"}" + // invalid
+		"]";
+
+		InputStream inputStream = new ByteArrayInputStream( json.getBytes(StandardCharsets.UTF_8) );
+		TransactionImportResult importResult = transactionImportService.importTransactionsFromJson(inputStream);
+
+		assertEquals( 5, importResult.getTotalRows() );
+		assertEquals( 2, importResult.getImportedRows() );
+		assertEquals( 3, importResult.getFailedRows() );
+		assertEquals( TransactionImportRowStatus.IMPORTED, importResult.getRows().get(0).getStatus() );
+		assertEquals( TransactionImportRowStatus.FAILED, importResult.getRows().get(2).getStatus() );
+
+		assertTrue( transactionRepository.count() == 2 );
+		assertTrue( accountRepository.findById(testAccountId).get().getBalance() == 120.00d );
+		assertTrue( categoryRepository.findById(testIncomeCategoryId).get().getCurrentPeriodSum() == 50.00d );
+		assertTrue( categoryRepository.findById(testExpenseCategoryId).get().getCurrentPeriodSum() == 30.00d );
+	}
+
+	/**
+	 * NOTE: The test is not run in the test's transaction, because the import's own transaction must be rolled back.
+	 * The inserted test data is removed at the end instead.
+	 */
+	@Test
+	@Transactional(propagation = Propagation.NOT_SUPPORTED)
+	@WithMockUser(username = TEST_USER_EMAIL)
+	public void importTransactionsFromJsonMethodShouldRollBackImportIfDataIsTruncated() throws Exception {
+		UserEntity testUser = insertTestUser(TEST_USER_EMAIL);
+		AccountEntity testAccount = insertTestAccountForUser(testUser, "Account 1", 100.00d);
+		CategoryEntity testIncomeCategory = insertTestCategoryForUser(testUser, CategoryType.INCOME, "Category 1");
+		long transactionCount = transactionRepository.count();
+
+		try {
+			String json = "[" +
+				getTestTransactionJson("CATEGORY", testIncomeCategory.getId(), "ACCOUNT", testAccount.getId(), 50.00d) + "," +
+				"{\"dateOfCompletion\":\"2020-03-03\",\"fromType\":"; // truncated
+
+			InputStream inputStream = new ByteArrayInputStream( json.getBytes(StandardCharsets.UTF_8) );
+			try {
+				transactionImportService.importTransactionsFromJson(inputStream);
+				fail("Truncated data should not be imported");
+			}
+			catch (IOException e) {
+				// expected
+			}
+
+			assertEquals( transactionCount, transactionRepository.count() );
+			assertTrue( accountRepository.findById( testAccount.getId() ).get().getBalance() == 100.00d );
+		}
+		finally {
+			categoryRepository.delete(testIncomeCategory);
+			accountRepository.delete(testAccount);
+			userRepository.delete(testUser);
+		}
+	}
+
+	/**
+	 * importTransactionsFromCsv() tests
+	 */
+
+	@Test
+	@WithMockUser(username = TEST_USER_EMAIL)
+	public void importTransactionsFromCsvMethodShouldCheckTransfersAgainstRunningBalance() throws Exception {
+		UserEntity testUser = insertTestUser(TEST_USER_EMAIL);
+		Long testFromAccountId = insertTestAccountForUser(testUser, "Account 1", 100.00d).getId();
+		Long testToAccountId = insertTestAccountForUser(testUser, "Account 2", 0.00d).getId();
+
+		String csv =
+			"dateOfCompletion,fromType,fromId,toType,toId,sum,description\n" +
+			"2020-03-03,ACCOUNT," + testFromAccountId + ",ACCOUNT," + testToAccountId + ",60,\"Rent, part 1\"\n" +
+			"2020-03-04,ACCOUNT," + testFromAccountId + ",ACCOUNT," + testToAccountId + ",60,\"Rent, part 2\"\n"; // insufficient balance
+
+		TransactionImportResult importResult = transactionImportService.importTransactionsFromCsv( new StringReader(csv) );
+
+		assertEquals( 1, importResult.getImportedRows() );
+		assertEquals( 1, importResult.getFailedRows() );
+		assertTrue( transactionRepository.count() == 1 );
+		assertTrue( accountRepository.findById(testFromAccountId).get().getBalance() == 40.00d );
+		assertTrue( accountRepository.findById(testToAccountId).get().getBalance() == 60.00d );
+	}
+
+}
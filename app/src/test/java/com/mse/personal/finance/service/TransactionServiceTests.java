@@ -1,9 +1,16 @@
 package com.mse.personal.finance.service;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 
+import java.nio.charset.StandardCharsets;
 import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
 import java.util.Date;
 import java.util.List;
 import java.util.NoSuchElementException;
@@ -20,6 +27,7 @@ import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.junit4.SpringRunner;
 import org.springframework.transaction.annotation.Transactional;
 
+import com.mse.personal.finance.db.QueryBudget;
 import com.mse.personal.finance.db.entity.AccountEntity;
 import com.mse.personal.finance.db.entity.CategoryEntity;
 import com.mse.personal.finance.db.entity.TransactionEntity;
@@ -34,6 +42,7 @@ import com.mse.personal.finance.model.FamilyStatusType;
 import com.mse.personal.finance.model.GenderType;
 import com.mse.personal.finance.model.Transaction;
 import com.mse.personal.finance.model.TransactionFromType;
+import com.mse.personal.finance.model.TransactionSlice;
 import com.mse.personal.finance.model.TransactionToType;
 import com.mse.personal.finance.model.request.TransactionRequest;
 import com.mse.personal.finance.rest.exception.InvalidDataException;
@@ -59,6 +68,9 @@ public class TransactionServiceTests {
 	
 	@Autowired
 	private TransactionRepository transactionRepository;
+
+	@Autowired
+	private TransactionDailySumService transactionDailySumService;
 	
 	@Autowired
 	private TransactionService transactionService;
@@ -102,6 +114,21 @@ public class TransactionServiceTests {
 		String transactionType, 
 		Date transactionDate,
 		String transactionDescription) 
+	{
+		return insertTestTransactionForUser(userEntity, transactionType, transactionDate, transactionDescription, 1L, 2L);
+	}
+	
+	/**
+	 * Inserts a test transaction with the specified from-ID & to-ID for the specified user 
+	 * and returns that transaction's data
+	 */
+	public TransactionEntity insertTestTransactionForUser(
+		UserEntity userEntity, 
+		String transactionType, 
+		Date transactionDate,
+		String transactionDescription,
+		Long fromId,
+		Long toId) 
 	{
 		TransactionEntity testTransactionEntity = new TransactionEntity();
 		
@@ -122,18 +149,39 @@ public class TransactionServiceTests {
 		default:
 			throw new InvalidDataException("Invalid transaction type!");
 		}
-		testTransactionEntity.setFromId(1L);
-		testTransactionEntity.setToId(2L);
+		testTransactionEntity.setFromId(fromId);
+		testTransactionEntity.setToId(toId);
 		testTransactionEntity.setSum(100.00d);
 		testTransactionEntity.setShouldBeAutomaticallyExecuted(false);
 		testTransactionEntity.setUser(userEntity);
 		testTransactionEntity.setDescription(transactionDescription);
 		
 		testTransactionEntity = transactionRepository.save(testTransactionEntity);
+		transactionDailySumService.addTransaction(testTransactionEntity);
 		
 		return testTransactionEntity;
 	}
 	
+	/**
+	 * Returns the descriptions of the transactions in the passed slices (in order).
+	 */
+	public List<String> getDescriptionsOfSlices(TransactionSlice... slices) {
+		List<String> descriptions = new ArrayList<>();
+		for (TransactionSlice slice : slices) {
+			for (Transaction transaction : slice.getContent()) {
+				descriptions.add( transaction.getDescription() );
+			}
+		}
+		return descriptions;
+	}
+	
+	/**
+	 * Encodes the passed string the way the cursors are encoded (used to create malformed cursors).
+	 */
+	public String encodeCursorString(String cursorString) {
+		return Base64.getUrlEncoder().withoutPadding().encodeToString( cursorString.getBytes(StandardCharsets.UTF_8) );
+	}
+	
 	/**
 	 * Create and return a test transaction request
 	 */
@@ -419,6 +467,251 @@ public class TransactionServiceTests {
 		transactionService.getTotalTransactionsSumByType("INVALID-TRANSACTION-TYPE");
 	}
 	
+	/**
+	 * getTransactionsByCursor() tests
+	 */
+	
+	@Test
+	@WithMockUser(username = TEST_USER_EMAIL)
+	public void getTransactionsByCursorMethod_ShouldReturnAllTransactionsInSlicesNewestFirst() throws Exception {
+		UserEntity testUser = insertTestUser(TEST_USER_EMAIL);
+		
+		SimpleDateFormat dateFormatter = new SimpleDateFormat("dd.MM.yyyy");
+		
+		// Transactions with the same date are ordered by ID
+		TransactionEntity[] insertedTransactions = new TransactionEntity[7];
+		for (int i = 0; i < insertedTransactions.length; ++i) {
+			Date transactionDate = dateFormatter.parse( (i < 4) ? "01.03.2020" : "02.03.2020" );
+			insertedTransactions[i] = insertTestTransactionForUser(testUser, "EXPENSE", transactionDate, "Transaction " + i);
+		}
+		
+		TransactionSlice firstSlice = transactionService.getTransactionsByCursor("", 3, true);
+		TransactionSlice secondSlice = transactionService.getTransactionsByCursor(firstSlice.getNextCursor(), 3, false);
+		TransactionSlice thirdSlice = transactionService.getTransactionsByCursor(secondSlice.getNextCursor(), 3, false);
+		
+		assertTrue( firstSlice.getContent().size() == 3 && firstSlice.getHasNext() );
+		assertTrue( firstSlice.getTotalElements() == 7 );
+		assertTrue( secondSlice.getContent().size() == 3 && secondSlice.getHasNext() );
+		assertTrue( secondSlice.getTotalElements() == null );
+		assertTrue( thirdSlice.getContent().size() == 1 && !thirdSlice.getHasNext() );
+		assertTrue( thirdSlice.getNextCursor() == null );
+		
+		int i = insertedTransactions.length - 1;
+		for (TransactionSlice slice : new TransactionSlice[] { firstSlice, secondSlice, thirdSlice }) {
+			for (Transaction transaction : slice.getContent()) {
+				assertEquals( insertedTransactions[i].getDescription(), transaction.getDescription() );
+				i--;
+			}
+		}
+	}
+	
+	@Test(expected = InvalidDataException.class)
+	@WithMockUser(username = TEST_USER_EMAIL)
+	public void getTransactionsByCursorMethod_ShouldThrowExceptionBecauseOfInvalidCursor() {
+		insertTestUser(TEST_USER_EMAIL);
+		transactionService.getTransactionsByCursor("not-a-valid-cursor", 3, false);
+	}
+	
+	@Test
+	@WithMockUser(username = TEST_USER_EMAIL)
+	public void getTransactionsByTypeAndCursorMethod_ShouldReturnOnlyTransactionsOfType() {
+		UserEntity testUser = insertTestUser(TEST_USER_EMAIL);
+		
+		insertTestTransactionForUser(testUser, "INCOME", new Date(), "My income transaction");
+		insertTestTransactionForUser(testUser, "EXPENSE", new Date(), "My expense transaction");
+		insertTestTransactionForUser(testUser, "TRANSFER", new Date(), "My transfer transaction");
+		
+		TransactionSlice sliceOfTransactions = transactionService.getTransactionsByTypeAndCursor("EXPENSE", "", 5, true);
+		assertTrue( sliceOfTransactions.getContent().size() == 1 );
+		assertTrue( sliceOfTransactions.getTotalElements() == 1 );
+		assertEquals( "My expense transaction", sliceOfTransactions.getContent().get(0).getDescription() );
+	}
+	
+	@Test(expected = InvalidDataException.class)
+	@WithMockUser(username = TEST_USER_EMAIL)
+	public void getTransactionsByTypeAndCursorMethod_ShouldThrowExceptionBecauseOfInvalidType() {
+		insertTestUser(TEST_USER_EMAIL);
+		transactionService.getTransactionsByTypeAndCursor("INVALID-TRANSACTION-TYPE", "", 5, false);
+	}
+	
+	/**
+	 * getTransactionsBetweenDatesByTypeAndCursor() tests
+	 */
+	
+	@Test
+	@WithMockUser(username = TEST_USER_EMAIL)
+	public void getTransactionsBetweenDatesByTypeAndCursorMethod_ShouldReturnTransactionsBetweenDatesInSlicesAcrossEqualDates() throws Exception {
+		UserEntity testUser = insertTestUser(TEST_USER_EMAIL);
+		
+		SimpleDateFormat dateFormatter = new SimpleDateFormat("dd.MM.yyyy");
+		
+		// Should be returned (the ones with the same date are ordered by ID)
+		for (int i = 0; i < 5; ++i) {
+			insertTestTransactionForUser(testUser, "INCOME", dateFormatter.parse("10.03.2020"), "Income " + i);
+		}
+		insertTestTransactionForUser(testUser, "INCOME", dateFormatter.parse("12.03.2020"), "Latest income");
+		
+		// Should not be returned (not of proper type or in date range)
+		insertTestTransactionForUser(testUser, "INCOME", dateFormatter.parse("09.03.2020"), "Earlier income");
+		insertTestTransactionForUser(testUser, "INCOME", dateFormatter.parse("13.03.2020"), "Later income");
+		insertTestTransactionForUser(testUser, "EXPENSE", dateFormatter.parse("10.03.2020"), "Expense");
+		
+		Date startDate = dateFormatter.parse("10.03.2020");
+		Date endDate = dateFormatter.parse("12.03.2020");
+		TransactionSlice firstSlice = transactionService.getTransactionsBetweenDatesByTypeAndCursor("INCOME", startDate, endDate, "", 4, true);
+		TransactionSlice secondSlice = transactionService.getTransactionsBetweenDatesByTypeAndCursor("INCOME", startDate, endDate, firstSlice.getNextCursor(), 4, false);
+		
+		assertTrue( firstSlice.getHasNext() );
+		assertNotNull( firstSlice.getNextCursor() );
+		assertTrue( firstSlice.getTotalElements() == 6 );
+		assertTrue( !secondSlice.getHasNext() );
+		assertNull( secondSlice.getNextCursor() );
+		assertNull( secondSlice.getTotalElements() );
+		assertEquals( 
+			Arrays.asList("Latest income", "Income 4", "Income 3", "Income 2", "Income 1", "Income 0"), 
+			getDescriptionsOfSlices(firstSlice, secondSlice) 
+		);
+	}
+	
+	@Test(expected = InvalidDataException.class)
+	@WithMockUser(username = TEST_USER_EMAIL)
+	public void getTransactionsBetweenDatesByTypeAndCursorMethod_ShouldThrowExceptionBecauseOfInvalidCursor() throws Exception {
+		insertTestUser(TEST_USER_EMAIL);
+		
+		SimpleDateFormat dateFormatter = new SimpleDateFormat("dd.MM.yyyy");
+		transactionService.getTransactionsBetweenDatesByTypeAndCursor(
+			"INCOME", dateFormatter.parse("10.03.2020"), dateFormatter.parse("12.03.2020"), "not-a-valid-cursor", 4, false
+		);
+	}
+	
+	/**
+	 * getTransactionsByFromDataAndCursor() tests
+	 */
+	
+	@Test
+	@WithMockUser(username = TEST_USER_EMAIL)
+	public void getTransactionsByFromDataAndCursorMethod_ShouldReturnTransactionsOfFromDataInSlicesAcrossEqualDates() throws Exception {
+		UserEntity testUser = insertTestUser(TEST_USER_EMAIL);
+		
+		SimpleDateFormat dateFormatter = new SimpleDateFormat("dd.MM.yyyy");
+		Date transactionDate = dateFormatter.parse("10.03.2020");
+		
+		// Should be returned (all with the same date, so they are ordered by ID only)
+		for (int i = 0; i < 4; ++i) {
+			insertTestTransactionForUser(testUser, (i % 2 == 0) ? "EXPENSE" : "TRANSFER", transactionDate, "From account " + i, 5L, 2L);
+		}
+		
+		// Should not be returned (other from-ID or from-type)
+		insertTestTransactionForUser(testUser, "EXPENSE", transactionDate, "From other account", 6L, 2L);
+		insertTestTransactionForUser(testUser, "INCOME", transactionDate, "From category", 5L, 2L);
+		
+		TransactionSlice firstSlice = transactionService.getTransactionsByFromDataAndCursor(TransactionFromType.ACCOUNT, 5L, "", 2, true);
+		TransactionSlice secondSlice = transactionService.getTransactionsByFromDataAndCursor(TransactionFromType.ACCOUNT, 5L, firstSlice.getNextCursor(), 2, false);
+		
+		assertTrue( firstSlice.getHasNext() );
+		assertNotNull( firstSlice.getNextCursor() );
+		assertTrue( firstSlice.getTotalElements() == 4 );
+		// The last slice is full, but there are no more transactions after it
+		assertTrue( secondSlice.getContent().size() == 2 && !secondSlice.getHasNext() );
+		assertNull( secondSlice.getNextCursor() );
+		assertEquals( 
+			Arrays.asList("From account 3", "From account 2", "From account 1", "From account 0"), 
+			getDescriptionsOfSlices(firstSlice, secondSlice) 
+		);
+	}
+	
+	@Test(expected = InvalidDataException.class)
+	@WithMockUser(username = TEST_USER_EMAIL)
+	public void getTransactionsByFromDataAndCursorMethod_ShouldThrowExceptionBecauseOfInvalidCursor() {
+		insertTestUser(TEST_USER_EMAIL);
+		transactionService.getTransactionsByFromDataAndCursor(TransactionFromType.ACCOUNT, 5L, "not-a-valid-cursor", 2, false);
+	}
+	
+	/**
+	 * getTransactionsByToDataAndCursor() tests
+	 */
+	
+	@Test
+	@WithMockUser(username = TEST_USER_EMAIL)
+	public void getTransactionsByToDataAndCursorMethod_ShouldReturnTransactionsOfToDataInSlicesAcrossEqualDates() throws Exception {
+		UserEntity testUser = insertTestUser(TEST_USER_EMAIL);
+		
+		SimpleDateFormat dateFormatter = new SimpleDateFormat("dd.MM.yyyy");
+		
+		// Should be returned (the ones with the same date are ordered by ID)
+		insertTestTransactionForUser(testUser, "TRANSFER", dateFormatter.parse("04.03.2020"), "Transfer to account", 1L, 7L);
+		for (int i = 0; i < 3; ++i) {
+			insertTestTransactionForUser(testUser, "INCOME", dateFormatter.parse("05.03.2020"), "Income to account " + i, 1L, 7L);
+		}
+		
+		// Should not be returned (other to-ID or to-type)
+		insertTestTransactionForUser(testUser, "INCOME", dateFormatter.parse("05.03.2020"), "Income to other account", 1L, 8L);
+		insertTestTransactionForUser(testUser, "EXPENSE", dateFormatter.parse("05.03.2020"), "Expense to category", 1L, 7L);
+		
+		TransactionSlice firstSlice = transactionService.getTransactionsByToDataAndCursor(TransactionToType.ACCOUNT, 7L, "", 2, true);
+		TransactionSlice secondSlice = transactionService.getTransactionsByToDataAndCursor(TransactionToType.ACCOUNT, 7L, firstSlice.getNextCursor(), 2, false);
+		
+		assertTrue( firstSlice.getHasNext() );
+		assertNotNull( firstSlice.getNextCursor() );
+		assertTrue( firstSlice.getTotalElements() == 4 );
+		assertTrue( !secondSlice.getHasNext() );
+		assertNull( secondSlice.getNextCursor() );
+		assertEquals( 
+			Arrays.asList("Income to account 2", "Income to account 1", "Income to account 0", "Transfer to account"), 
+			getDescriptionsOfSlices(firstSlice, secondSlice) 
+		);
+	}
+	
+	@Test(expected = InvalidDataException.class)
+	@WithMockUser(username = TEST_USER_EMAIL)
+	public void getTransactionsByToDataAndCursorMethod_ShouldThrowExceptionBecauseOfInvalidCursor() {
+		insertTestUser(TEST_USER_EMAIL);
+		transactionService.getTransactionsByToDataAndCursor(TransactionToType.ACCOUNT, 7L, "not-a-valid-cursor", 2, false);
+	}
+	
+	/**
+	 * TransactionCursor.encode() & TransactionCursor.decode() tests
+	 */
+	
+	@Test
+	public void decodeMethodShouldReturnStartOfEmptyCursor() {
+		assertSame( TransactionCursor.START, TransactionCursor.decode(null) );
+		assertSame( TransactionCursor.START, TransactionCursor.decode("") );
+		assertSame( TransactionCursor.START, TransactionCursor.decode("  ") );
+	}
+	
+	@Test
+	public void decodeMethodShouldReturnPositionOfEncodedTransaction() throws Exception {
+		TransactionEntity transactionEntity = new TransactionEntity();
+		transactionEntity.setId(42L);
+		transactionEntity.setDateOfCompletion( new SimpleDateFormat("dd.MM.yyyy").parse("10.03.2020") );
+		
+		TransactionCursor decodedCursor = TransactionCursor.decode( TransactionCursor.encode(transactionEntity) );
+		
+		assertEquals( transactionEntity.getDateOfCompletion().getTime(), decodedCursor.getDateOfCompletion().getTime() );
+		assertEquals( Long.valueOf(42L), decodedCursor.getId() );
+	}
+	
+	@Test(expected = InvalidDataException.class)
+	public void decodeMethodShouldThrowExceptionBecauseOfInvalidBase64() {
+		TransactionCursor.decode("%%%");
+	}
+	
+	@Test(expected = InvalidDataException.class)
+	public void decodeMethodShouldThrowExceptionBecauseOfMissingId() {
+		TransactionCursor.decode( encodeCursorString("1583798400000") );
+	}
+	
+	@Test(expected = InvalidDataException.class)
+	public void decodeMethodShouldThrowExceptionBecauseOfNonNumericDate() {
+		TransactionCursor.decode( encodeCursorString("yesterday:42") );
+	}
+	
+	@Test(expected = InvalidDataException.class)
+	public void decodeMethodShouldThrowExceptionBecauseOfNonNumericId() {
+		TransactionCursor.decode( encodeCursorString("1583798400000:last") );
+	}
+	
 	/**
 	 * getTransactionsBetweenDatesByTypeAndPageable() tests
 	 */
@@ -931,6 +1224,25 @@ public class TransactionServiceTests {
     	);
 	}
 	
+	@Test
+	@WithMockUser(username = TEST_USER_EMAIL)
+	public void createNewTransactionMethodShouldNotExceedStatementBudget() throws Exception {
+		UserEntity testUser = insertTestUser(TEST_USER_EMAIL);
+		Long testAccountId = this.insertTestAccountForUser(testUser, AccountType.ACTIVATED, "Account 1").getId();
+		Long testIncomeCategoryId = this.insertTestCategoryForUser(testUser, CategoryType.INCOME, "Category 1").getId();
+		TransactionRequest testTransactionRequest = this.getTestTransactionRequest("INCOME", "My income transaction", testIncomeCategoryId, testAccountId);
+		
+		// Write the test data before counting, so that only the operation's statements are counted
+		transactionRepository.flush();
+		
+		// user lookup + from/to entity loads + id sequence + 2 balance/sum updates + insert
+		// + daily sum update (+ daily sum insert, because it is the day's first transaction)
+		QueryBudget.assertMaxStatements(9, () -> {
+			transactionService.createNewTransaction(testTransactionRequest);
+			transactionRepository.flush();
+		});
+	}
+	
 	@Test(expected = InvalidDataException.class)
 	@WithMockUser(username = TEST_USER_EMAIL)
 	public void createNewTransactionMethodShouldThrowExceptionBecauseOfInvalidFromToData() throws Exception {
@@ -991,6 +1303,7 @@ public class TransactionServiceTests {
     	testTransaction.setFromId(testAccountId);
     	testTransaction.setToId(testExpenseCategoryId);
     	testTransaction = transactionRepository.save(testTransaction);
+    	transactionDailySumService.addTransaction(testTransaction);
     	Long testTransactionId = testTransaction.getId();
     	Double testTransactionSum = testTransaction.getSum();
     	
@@ -1008,7 +1321,7 @@ public class TransactionServiceTests {
     	
     	Transaction updatedTransaction = transactionService.updateTransactionById(testTransactionId, testTransactionRequest);
         assertTrue( updatedTransaction.getDescription().equals("My updated transaction") );
-        assertTrue( updatedTransaction.getSum() == updatedTransactionSum );
+        assertTrue( updatedTransaction.getSum().equals(updatedTransactionSum) );
 		
     	/*
          *  Test if transaction & from-to entity data has been updated
@@ -1092,6 +1405,7 @@ public class TransactionServiceTests {
     	testTransaction.setFromId(testAccountId);
     	testTransaction.setToId(testExpenseCategoryId);
     	testTransaction = transactionRepository.save(testTransaction);
+    	transactionDailySumService.addTransaction(testTransaction);
     	Long testTransactionId = testTransaction.getId();
     	Double testTransactionSum = testTransaction.getSum();
 		
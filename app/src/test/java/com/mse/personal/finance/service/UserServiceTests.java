@@ -1,8 +1,11 @@
 package com.mse.personal.finance.service;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
+import java.sql.Date;
+
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -14,9 +17,12 @@ import org.springframework.test.context.junit4.SpringRunner;
 import org.springframework.transaction.annotation.Transactional;
 
 import com.mse.personal.finance.db.entity.UserEntity;
+import com.mse.personal.finance.db.repository.TransactionDailySumRepository;
 import com.mse.personal.finance.db.repository.UserRepository;
 import com.mse.personal.finance.model.FamilyStatusType;
 import com.mse.personal.finance.model.GenderType;
+import com.mse.personal.finance.model.TransactionFromType;
+import com.mse.personal.finance.model.TransactionToType;
 import com.mse.personal.finance.model.User;
 import com.mse.personal.finance.model.request.UserCreateRequest;
 import com.mse.personal.finance.model.request.UserUpdateRequest;
@@ -45,6 +51,12 @@ public class UserServiceTests {
 	@Autowired
 	private UserRepository userRepository;
 	
+	@Autowired
+	private TransactionDailySumService transactionDailySumService;
+	
+	@Autowired
+	private TransactionDailySumRepository transactionDailySumRepository;
+	
 	@Autowired
 	private PasswordEncoder passwordEncoder;
 	
@@ -84,6 +96,22 @@ public class UserServiceTests {
     	return testUser;
 	}
 	
+	/**
+	 * Insert a test daily sum for the specified user
+	 */
+	public void insertTestDailySumForUser(UserEntity user) {
+		transactionDailySumService.addToDailySum(
+			user.getId(), 
+			Date.valueOf("2020-03-03"), 
+			TransactionFromType.CATEGORY, 
+			1L, 
+			TransactionToType.ACCOUNT, 
+			2L, 
+			1000L, 
+			1L
+		);
+	}
+	
 	/**
 	 * Create and return a test user update request
 	 */
@@ -244,6 +272,18 @@ public class UserServiceTests {
 		assertTrue( !userRepository.existsById(testUserId) );
 	}
 	
+	@Test
+	public void deleteUserByIdMethodShouldDeleteDailySumsOfUser() 
+		throws UserNotFoundException 
+	{
+		UserEntity testUser = insertTestUser();
+		insertTestDailySumForUser(testUser);
+		
+		userService.deleteUserById( testUser.getId() );
+		
+		assertEquals( 0, transactionDailySumRepository.findAllByUserId( testUser.getId() ).size() );
+	}
+	
 	@Test(expected = UserNotFoundException.class)
 	public void deleteUserByIdMethodShouldThrowUserNotFoundException() 
 		throws UserNotFoundException 
@@ -268,6 +308,18 @@ public class UserServiceTests {
 		assertTrue( !userRepository.existsByEmail(testUserEmail) );
 	}
 	
+	@Test
+	public void deleteUserByEmailMethodShouldDeleteDailySumsOfUser() 
+		throws UserNotFoundException 
+	{
+		UserEntity testUser = insertTestUser();
+		insertTestDailySumForUser(testUser);
+		
+		userService.deleteUserByEmail( testUser.getEmail() );
+		
+		assertEquals( 0, transactionDailySumRepository.findAllByUserId( testUser.getId() ).size() );
+	}
+	
 	@Test(expected = UserNotFoundException.class)
 	public void deleteUserByEmailMethodShouldThrowUserNotFoundException() 
 		throws UserNotFoundException 
@@ -0,0 +1,104 @@
+package com.mse.personal.finance.tracing;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.springframework.security.test.web.servlet.setup.SecurityMockMvcConfigurers.springSecurity;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.slf4j.MDC;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+/**
+ * This class implements tests for the RequestTracingFilter class.
+ *
+ * @author dvt32
+ */
+@RunWith(SpringRunner.class)
+@SpringBootTest
+@ActiveProfiles("test")
+public class RequestTracingFilterTests {
+
+	@Autowired
+	private WebApplicationContext context;
+
+	@Autowired
+	private RequestTracingFilter requestTracingFilter;
+
+	private MockMvc mockMvc;
+
+	@Before
+	public void setup() {
+		this.mockMvc = MockMvcBuilders
+			.webAppContextSetup(context)
+			.addFilters(requestTracingFilter)
+			.apply(springSecurity())
+			.build();
+	}
+
+	@Test
+	public void propagatedRequestIdShouldBeReturned() throws Exception {
+		MvcResult result = mockMvc
+			.perform( get("/accounts").header(RequestTracingFilter.REQUEST_ID_HEADER, "lb-1234.abcd") )
+			.andReturn();
+
+		assertEquals( "lb-1234.abcd", result.getResponse().getHeader(RequestTracingFilter.REQUEST_ID_HEADER) );
+	}
+
+	@Test
+	public void requestIdShouldBeGeneratedIfMissingOrInvalid() throws Exception {
+		String generatedRequestId = mockMvc
+			.perform( get("/accounts") )
+			.andReturn()
+			.getResponse()
+			.getHeader(RequestTracingFilter.REQUEST_ID_HEADER);
+		assertNotNull(generatedRequestId);
+
+		String invalidRequestId = "id with spaces\nand a new line";
+		String replacedRequestId = mockMvc
+			.perform( get("/accounts").header(RequestTracingFilter.REQUEST_ID_HEADER, invalidRequestId) )
+			.andReturn()
+			.getResponse()
+			.getHeader(RequestTracingFilter.REQUEST_ID_HEADER);
+		assertNotNull(replacedRequestId);
+		assertNotEquals(invalidRequestId, replacedRequestId);
+	}
+
+	@Test
+	public void traceAndMdcShouldBeClearedAfterRequest() throws Exception {
+		mockMvc.perform( get("/accounts") );
+
+		assertNull( RequestTrace.current() );
+		assertNull( MDC.get(RequestTracingFilter.REQUEST_ID_MDC_KEY) );
+		assertNull( MDC.get(RequestTracingFilter.USER_MDC_KEY) );
+	}
+
+	@Test
+	public void phaseTimesShouldNotIncludeSqlTime() {
+		RequestTrace requestTrace = RequestTrace.start("test");
+		try {
+			RequestTrace.PhaseTimer phaseTimer = RequestTrace.startPhase(RequestTrace.Phase.AUTHENTICATION);
+			RequestTrace.recordSqlStatement("select ?", Long.MAX_VALUE / 2);
+			phaseTimer.stop();
+
+			assertEquals( 0L, requestTrace.getAuthenticationTimeNanos() );
+			assertEquals( 1, requestTrace.getSqlStatementCount() );
+			assertEquals( Integer.valueOf(1), requestTrace.getSqlExecutionCounts().get("select ?") );
+		}
+		finally {
+			RequestTrace.end();
+		}
+	}
+
+}
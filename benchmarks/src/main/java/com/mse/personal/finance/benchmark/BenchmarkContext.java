@@ -0,0 +1,266 @@
+package com.mse.personal.finance.benchmark;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.boot.Banner;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.mse.personal.finance.PersonalFinanceApplication;
+import com.mse.personal.finance.db.entity.AccountEntity;
+import com.mse.personal.finance.db.entity.CategoryEntity;
+import com.mse.personal.finance.db.entity.TransactionEntity;
+import com.mse.personal.finance.db.entity.UserEntity;
+import com.mse.personal.finance.db.repository.AccountRepository;
+import com.mse.personal.finance.db.repository.CategoryRepository;
+import com.mse.personal.finance.db.repository.TransactionRepository;
+import com.mse.personal.finance.db.repository.UserRepository;
+import com.mse.personal.finance.model.AccountType;
+import com.mse.personal.finance.model.CategoryType;
+import com.mse.personal.finance.model.FamilyStatusType;
+import com.mse.personal.finance.model.GenderType;
+import com.mse.personal.finance.model.TransactionFromType;
+import com.mse.personal.finance.model.TransactionToType;
+import com.mse.personal.finance.model.UserAuthenticationDetails;
+
+/**
+ * The application (started against an in-memory H2 database) for the benchmarks with database access.
+ *
+ * The database is seeded through the repositories with the data of several users, each of which has:
+ * - 1) a few accounts (with realistic balances)
+ * - 2) income & expense categories
+ * - 3) income, expense & transfer transactions, which are evenly distributed among the last ~3 years
+ *
+ * The seeded volumes can be changed with the "benchmark.users" (50 by default),
+ * "benchmark.accounts-per-user" (5 by default), "benchmark.categories-per-user" (10 by default)
+ * and "benchmark.transactions-per-user" (1 000 by default) system properties.
+ * The data is generated deterministically, so the results of different runs can be compared.
+ *
+ * @author dvt32
+ */
+public class BenchmarkContext
+	implements AutoCloseable
+{
+
+	public static final String USER_PASSWORD = "123456";
+
+	private static final int USERS = Integer.getInteger("benchmark.users", 50);
+	private static final int ACCOUNTS_PER_USER = Integer.getInteger("benchmark.accounts-per-user", 5);
+	private static final int CATEGORIES_PER_USER = Integer.getInteger("benchmark.categories-per-user", 10);
+	private static final int TRANSACTIONS_PER_USER = Integer.getInteger("benchmark.transactions-per-user", 1_000);
+
+	private static final long TRANSACTIONS_PERIOD_MILLIS = TimeUnit.DAYS.toMillis(3 * 365);
+
+	private final ConfigurableApplicationContext applicationContext;
+	private final List<SeededUser> users = new ArrayList<>();
+
+	private BenchmarkContext(ConfigurableApplicationContext applicationContext) {
+		this.applicationContext = applicationContext;
+	}
+
+	/**
+	 * Starts the application with the "benchmark" profile (and the passed properties in the "key=value" format)
+	 * and seeds its database.
+	 */
+	public static BenchmarkContext start(String... properties) {
+		ConfigurableApplicationContext applicationContext =
+			new SpringApplicationBuilder(PersonalFinanceApplication.class)
+				.bannerMode(Banner.Mode.OFF)
+				.profiles("benchmark")
+				.properties(properties)
+				.run();
+
+		BenchmarkContext benchmarkContext = new BenchmarkContext(applicationContext);
+		benchmarkContext.seed();
+
+		return benchmarkContext;
+	}
+
+	public <T> T getBean(Class<T> type) {
+		return applicationContext.getBean(type);
+	}
+
+	public List<SeededUser> getUsers() {
+		return Collections.unmodifiableList(users);
+	}
+
+	/**
+	 * Authenticates the passed user on the current thread
+	 * (like the JWT filter does for each request, so no database query is needed to get the user's ID).
+	 */
+	public void logIn(SeededUser seededUser) {
+		UserEntity user = seededUser.getUser();
+		UserAuthenticationDetails userAuthenticationDetails = new UserAuthenticationDetails(
+			user.getId(),
+			user.getEmail(),
+			user.getPassword(),
+			user.getName()
+		);
+
+		SecurityContextHolder.getContext().setAuthentication(
+			new UsernamePasswordAuthenticationToken(
+				userAuthenticationDetails, 
+				userAuthenticationDetails.getPassword(), 
+				userAuthenticationDetails.getAuthorities()
+			)
+		);
+	}
+
+	@Override
+	public void close() {
+		SecurityContextHolder.clearContext();
+		applicationContext.close();
+	}
+
+	/**
+	 * Seeds the database (each user in its own database transaction).
+	 */
+	private void seed() {
+		long startTime = System.nanoTime();
+
+		// The password is hashed once, because hashing is slow by design
+		String encodedPassword = getBean(PasswordEncoder.class).encode(USER_PASSWORD);
+		TransactionTemplate transactionTemplate = getBean(TransactionTemplate.class);
+		Random random = new Random(42);
+
+		for (int i = 0; i < USERS; ++i) {
+			int userIndex = i;
+			SeededUser seededUser = transactionTemplate.execute( status -> seedUser(userIndex, encodedPassword, random) );
+			users.add(seededUser);
+		}
+
+		System.out.printf(
+			"Seeded %d users with %d accounts, %d categories & %d transactions each in %d ms%n",
+			USERS,
+			ACCOUNTS_PER_USER,
+			CATEGORIES_PER_USER,
+			TRANSACTIONS_PER_USER,
+			TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime)
+		);
+	}
+
+	private SeededUser seedUser(int userIndex, String encodedPassword, Random random) {
+		UserEntity user = getBean(UserRepository.class).save(
+			new UserEntity(
+				"User " + userIndex,
+				encodedPassword,
+				"user" + userIndex + "@pfm.com",
+				(userIndex % 2 == 0) ? GenderType.MALE : GenderType.FEMALE,
+				FamilyStatusType.SINGLE,
+				20 + userIndex % 50,
+				"Master's Degree"
+			)
+		);
+
+		List<AccountEntity> accounts = new ArrayList<>();
+		for (int i = 0; i < ACCOUNTS_PER_USER; ++i) {
+			double balance = 500.00d + random.nextInt(1_000_000) / 100.0d;
+			accounts.add( new AccountEntity("Account " + i, balance, 20_000.00d, AccountType.ACTIVATED, user, null) );
+		}
+		accounts = getBean(AccountRepository.class).saveAll(accounts);
+
+		List<CategoryEntity> incomeCategories = new ArrayList<>();
+		List<CategoryEntity> expenseCategories = new ArrayList<>();
+		for (int i = 0; i < CATEGORIES_PER_USER; ++i) {
+			boolean isIncomeCategory = ( i < Math.max(CATEGORIES_PER_USER / 4, 1) );
+			CategoryType type = isIncomeCategory ? CategoryType.INCOME : CategoryType.EXPENSES;
+			CategoryEntity category = new CategoryEntity("Category " + i, type, 0.00d, "1000", user);
+			(isIncomeCategory ? incomeCategories : expenseCategories).add(category);
+		}
+		incomeCategories = getBean(CategoryRepository.class).saveAll(incomeCategories);
+		expenseCategories = getBean(CategoryRepository.class).saveAll(expenseCategories);
+
+		List<TransactionEntity> transactions = new ArrayList<>();
+		long now = System.currentTimeMillis();
+		for (int i = 0; i < TRANSACTIONS_PER_USER; ++i) {
+			TransactionEntity transaction = new TransactionEntity()
+				.setDateOfCompletion( new Date(now - (long) (random.nextDouble() * TRANSACTIONS_PERIOD_MILLIS)) )
+				.setSum( 1.00d + random.nextInt(50_000) / 100.0d )
+				.setDescription("Transaction " + i)
+				.setShouldBeAutomaticallyExecuted(false)
+				.setUser(user);
+
+			AccountEntity account = accounts.get( random.nextInt(accounts.size()) );
+			if (i % 3 == 0) {
+				// Income
+				transaction
+					.setFromType(TransactionFromType.CATEGORY)
+					.setFromId( incomeCategories.get( random.nextInt(incomeCategories.size()) ).getId() )
+					.setToType(TransactionToType.ACCOUNT)
+					.setToId( account.getId() );
+			}
+			else if (i % 3 == 1 || accounts.size() == 1) {
+				// Expense
+				transaction
+					.setFromType(TransactionFromType.ACCOUNT)
+					.setFromId( account.getId() )
+					.setToType(TransactionToType.CATEGORY)
+					.setToId( expenseCategories.get( random.nextInt(expenseCategories.size()) ).getId() );
+			}
+			else {
+				// Transfer
+				AccountEntity otherAccount = accounts.get( (accounts.indexOf(account) + 1) % accounts.size() );
+				transaction
+					.setFromType(TransactionFromType.ACCOUNT)
+					.setFromId( account.getId() )
+					.setToType(TransactionToType.ACCOUNT)
+					.setToId( otherAccount.getId() );
+			}
+
+			transactions.add(transaction);
+		}
+		getBean(TransactionRepository.class).saveAll(transactions);
+
+		return new SeededUser(user, accounts, incomeCategories, expenseCategories);
+	}
+
+	/**
+	 * A seeded user with its accounts & categories (loaded at the time of seeding).
+	 */
+	public static class SeededUser {
+
+		private final UserEntity user;
+		private final List<AccountEntity> accounts;
+		private final List<CategoryEntity> incomeCategories;
+		private final List<CategoryEntity> expenseCategories;
+
+		private SeededUser(
+			UserEntity user, 
+			List<AccountEntity> accounts, 
+			List<CategoryEntity> incomeCategories, 
+			List<CategoryEntity> expenseCategories) 
+		{
+			this.user = user;
+			this.accounts = accounts;
+			this.incomeCategories = incomeCategories;
+			this.expenseCategories = expenseCategories;
+		}
+
+		public UserEntity getUser() {
+			return this.user;
+		}
+
+		public List<AccountEntity> getAccounts() {
+			return this.accounts;
+		}
+
+		public List<CategoryEntity> getIncomeCategories() {
+			return this.incomeCategories;
+		}
+
+		public List<CategoryEntity> getExpenseCategories() {
+			return this.expenseCategories;
+		}
+
+	}
+
+}
@@ -0,0 +1,56 @@
+package com.mse.personal.finance.benchmark;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the JMH benchmarks of the module and writes their results as JSON, so that the results of different runs can be compared
+ * (e.g. with https://jmh.morethan.net/ or by diffing the scores).
+ *
+ * It is the main class of the module's executable JAR, which accepts the JMH command line options, e.g.:
+ * - java -jar benchmarks/target/benchmarks.jar (runs all benchmarks)
+ * - java -jar benchmarks/target/benchmarks.jar JwtTokenProviderBenchmark -rff jwt.json (runs the matching benchmarks)
+ *
+ * The results are written to "jmh-result.json", unless another file (or format) is passed with the "-rff" (or "-rf") option.
+ *
+ * @author dvt32
+ */
+public class BenchmarkRunner {
+
+	private static final String DEFAULT_RESULT_FILE = "jmh-result.json";
+
+	public static void main(String[] args)
+		throws Exception
+	{
+		CommandLineOptions commandLineOptions = new CommandLineOptions(args);
+		run(commandLineOptions, DEFAULT_RESULT_FILE);
+	}
+
+	/**
+	 * Runs the benchmarks of the passed class (used by the benchmark classes' main methods)
+	 * and writes their results to "<class name>.json".
+	 */
+	public static void run(Class<?> benchmarkClass)
+		throws Exception
+	{
+		CommandLineOptions commandLineOptions = new CommandLineOptions( benchmarkClass.getName() );
+		run( commandLineOptions, benchmarkClass.getSimpleName() + ".json" );
+	}
+
+	private static void run(CommandLineOptions commandLineOptions, String defaultResultFile)
+		throws RunnerException
+	{
+		Options options = new OptionsBuilder()
+			.parent(commandLineOptions)
+			.resultFormat( commandLineOptions.getResultFormat().orElse(ResultFormatType.JSON) )
+			.result( commandLineOptions.getResult().orElse(defaultResultFile) )
+			.build();
+
+		new Runner(options).run();
+	}
+
+}
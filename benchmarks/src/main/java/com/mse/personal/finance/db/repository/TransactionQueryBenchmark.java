@@ -0,0 +1,248 @@
+package com.mse.personal.finance.db.repository;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+
+import javax.persistence.Index;
+import javax.persistence.Table;
+
+import com.mse.personal.finance.db.entity.TransactionEntity;
+
+/**
+ * Repeatable benchmark for the query shapes used by the {@link TransactionRepository}.
+ *
+ * The benchmark:
+ * - 1) creates the "transactions" table in an in-memory H2 database (in PostgreSQL mode)
+ * - 2) seeds it with generated transactions of many users
+ * - 3) prints the execution plan & latency of each query without any indexes
+ * - 4) creates the indexes declared on {@link TransactionEntity}
+ * - 5) prints the execution plan & latency of each query again
+ *
+ * It is not a JMH benchmark (so it is not run by {@link com.mse.personal.finance.benchmark.BenchmarkRunner}),
+ * it is run via its main method, e.g. from the module's executable JAR:
+ * java -cp benchmarks/target/benchmarks.jar com.mse.personal.finance.db.repository.TransactionQueryBenchmark
+ *
+ * The number of seeded rows and users can be changed with the
+ * "benchmark.rows" (2 000 000 by default) and "benchmark.users" (2 000 by default) system properties.
+ * The data is generated deterministically, so the results of different runs can be compared.
+ *
+ * @author dvt32
+ */
+public class TransactionQueryBenchmark {
+
+	private static final String JDBC_URL = "jdbc:h2:mem:benchmark;MODE=PostgreSQL;DB_CLOSE_DELAY=-1";
+
+	private static final int ROWS = Integer.getInteger("benchmark.rows", 2_000_000);
+	private static final int USERS = Integer.getInteger("benchmark.users", 2_000);
+	private static final int WARMUP_ITERATIONS = 20;
+	private static final int MEASURED_ITERATIONS = 200;
+
+	/**
+	 * The benchmarked queries (equivalent to the repository's JPQL queries).
+	 * The parameters are: user ID, from/to ID (where needed).
+	 */
+	private static final Map<String, String> QUERIES = new LinkedHashMap<>();
+	static {
+		QUERIES.put("findAllByUser (first page)",
+			"SELECT * FROM transactions WHERE user_id = ? ORDER BY date_of_completion DESC, id DESC LIMIT 21");
+		QUERIES.put("findAllByUserAfterCursor (deep slice)",
+			"SELECT * FROM transactions WHERE user_id = ? "
+			+ "AND (date_of_completion < DATE '2017-01-01' OR (date_of_completion = DATE '2017-01-01' AND id < 9223372036854775807)) "
+			+ "ORDER BY date_of_completion DESC, id DESC LIMIT 21");
+		QUERIES.put("findAllIncomeTransactions",
+			"SELECT * FROM transactions WHERE from_type = 'CATEGORY' AND to_type = 'ACCOUNT' AND user_id = ? LIMIT 20");
+		QUERIES.put("getTotalIncomeTransactionsSum",
+			"SELECT SUM(sum) FROM transactions WHERE from_type = 'CATEGORY' AND to_type = 'ACCOUNT' AND user_id = ?");
+		QUERIES.put("findAllExpenseTransactionsBetweenDates",
+			"SELECT * FROM transactions WHERE from_type = 'ACCOUNT' AND to_type = 'CATEGORY' AND user_id = ? "
+			+ "AND date_of_completion BETWEEN DATE '2019-01-01' AND DATE '2019-12-31' LIMIT 20");
+		QUERIES.put("getTotalTransferTransactionsSumBetweenDates",
+			"SELECT SUM(sum) FROM transactions WHERE from_type = 'ACCOUNT' AND to_type = 'ACCOUNT' AND user_id = ? "
+			+ "AND date_of_completion BETWEEN DATE '2019-01-01' AND DATE '2019-12-31'");
+		QUERIES.put("findAllByUserAndFromTypeAndFromId",
+			"SELECT * FROM transactions WHERE user_id = ? AND from_type = 'ACCOUNT' AND from_id = ? LIMIT 20");
+		QUERIES.put("findAllByUserAndToTypeAndToId",
+			"SELECT * FROM transactions WHERE user_id = ? AND to_type = 'CATEGORY' AND to_id = ? LIMIT 20");
+		QUERIES.put("getTotalExpenseSumBetweenDatesForAccountById",
+			"SELECT SUM(sum) FROM transactions WHERE user_id = ? AND date_of_completion BETWEEN DATE '2019-01-01' AND DATE '2019-12-31' "
+			+ "AND ((from_type = 'ACCOUNT' AND to_type = 'CATEGORY' AND from_id = ?) OR (from_type = 'ACCOUNT' AND to_type = 'ACCOUNT' AND from_id = ?))");
+		QUERIES.put("getTotalAddedSumBetweenDatesForExpenseCategoryById",
+			"SELECT SUM(sum) FROM transactions WHERE user_id = ? AND date_of_completion BETWEEN DATE '2019-01-01' AND DATE '2019-12-31' "
+			+ "AND from_type = 'ACCOUNT' AND to_type = 'CATEGORY' AND to_id = ?");
+	}
+
+	public static void main(String[] args)
+		throws Exception
+	{
+		try ( Connection connection = DriverManager.getConnection(JDBC_URL, "sa", "") ) {
+			createTable(connection);
+			seedTransactions(connection);
+
+			System.out.println("=== WITHOUT INDEXES ===");
+			runQueries(connection);
+
+			long startTime = System.nanoTime();
+			createIndexes(connection);
+			System.out.printf("%nIndexes created in %d ms%n%n", (System.nanoTime() - startTime) / 1_000_000);
+
+			System.out.println("=== WITH INDEXES ===");
+			runQueries(connection);
+		}
+	}
+
+	/**
+	 * Creates the "transactions" table (with the same columns as the ones generated for TransactionEntity).
+	 */
+	private static void createTable(Connection connection)
+		throws SQLException
+	{
+		try ( Statement statement = connection.createStatement() ) {
+			statement.execute(
+				"CREATE TABLE transactions ("
+				+ "id BIGINT PRIMARY KEY, "
+				+ "date_of_completion DATE NOT NULL, "
+				+ "from_id BIGINT NOT NULL, "
+				+ "to_id BIGINT NOT NULL, "
+				+ "from_type VARCHAR(255), "
+				+ "to_type VARCHAR(255), "
+				+ "sum DOUBLE NOT NULL, "
+				+ "recurring VARCHAR(255), "
+				+ "description VARCHAR(255), "
+				+ "should_be_automatically_executed BOOLEAN, "
+				+ "user_id BIGINT, "
+				+ "next_execution_date DATE"
+				+ ")"
+			);
+		}
+	}
+
+	/**
+	 * Seeds the table with transactions, which are evenly distributed
+	 * among the users, the transaction types and the last ~5 years.
+	 * Each user has 10 accounts and 10 categories.
+	 */
+	private static void seedTransactions(Connection connection)
+		throws SQLException
+	{
+		long startTime = System.nanoTime();
+
+		try ( Statement statement = connection.createStatement() ) {
+			statement.execute(
+				"INSERT INTO transactions "
+				+ "SELECT "
+				+ "X, "
+				+ "DATEADD('DAY', -MOD(X * 7, 1800), DATE '2021-01-01'), "
+				+ "MOD(X, 10), "
+				+ "MOD(X / 10, 10), "
+				+ "CASE MOD(X, 3) WHEN 0 THEN 'CATEGORY' ELSE 'ACCOUNT' END, "
+				+ "CASE MOD(X, 3) WHEN 1 THEN 'CATEGORY' ELSE 'ACCOUNT' END, "
+				+ "MOD(X * 13, 1000) + 0.5, "
+				+ "NULL, "
+				+ "'Transaction ' || X, "
+				+ "FALSE, "
+				+ "MOD(X, " + USERS + "), "
+				+ "NULL "
+				+ "FROM SYSTEM_RANGE(1, " + ROWS + ")"
+			);
+			statement.execute("ANALYZE");
+		}
+
+		System.out.printf("Seeded %d transactions of %d users in %d ms%n%n", ROWS, USERS, (System.nanoTime() - startTime) / 1_000_000);
+	}
+
+	/**
+	 * Creates the indexes declared on TransactionEntity (the ones Hibernate creates with the application's schema).
+	 */
+	private static void createIndexes(Connection connection)
+		throws SQLException
+	{
+		Table table = TransactionEntity.class.getAnnotation(Table.class);
+
+		try ( Statement statement = connection.createStatement() ) {
+			for (Index index : table.indexes()) {
+				statement.execute( "CREATE INDEX " + index.name() + " ON " + table.name() + " (" + index.columnList() + ")" );
+			}
+			statement.execute("ANALYZE");
+		}
+	}
+
+	/**
+	 * Prints the execution plan and the latency percentiles of each benchmarked query.
+	 */
+	private static void runQueries(Connection connection)
+		throws SQLException
+	{
+		Random random = new Random(42);
+
+		for (Map.Entry<String, String> query : QUERIES.entrySet()) {
+			String queryName = query.getKey();
+			String sql = query.getValue();
+
+			try ( PreparedStatement explainStatement = connection.prepareStatement("EXPLAIN " + sql) ) {
+				setParameters(explainStatement, 1L, 1L);
+				try ( ResultSet resultSet = explainStatement.executeQuery() ) {
+					resultSet.next();
+					System.out.println(queryName);
+					System.out.println( "  plan: " + resultSet.getString(1).replaceAll("\\s+", " ") );
+				}
+			}
+
+			long[] latencies = new long[MEASURED_ITERATIONS];
+			try ( PreparedStatement preparedStatement = connection.prepareStatement(sql) ) {
+				for (int i = 0; i < WARMUP_ITERATIONS + MEASURED_ITERATIONS; ++i) {
+					setParameters( preparedStatement, (long) random.nextInt(USERS), (long) random.nextInt(10) );
+
+					long startTime = System.nanoTime();
+					try ( ResultSet resultSet = preparedStatement.executeQuery() ) {
+						while (resultSet.next()) {
+							// Consume all rows
+						}
+					}
+					long latency = System.nanoTime() - startTime;
+
+					if (i >= WARMUP_ITERATIONS) {
+						latencies[i - WARMUP_ITERATIONS] = latency;
+					}
+				}
+			}
+
+			Arrays.sort(latencies);
+			System.out.printf(
+				"  latency: p50 = %.3f ms, p95 = %.3f ms, p99 = %.3f ms%n",
+				percentile(latencies, 0.50),
+				percentile(latencies, 0.95),
+				percentile(latencies, 0.99)
+			);
+		}
+	}
+
+	/**
+	 * Sets the user ID as the first parameter and the from/to ID as the remaining ones.
+	 */
+	private static void setParameters(PreparedStatement preparedStatement, Long userId, Long entityId)
+		throws SQLException
+	{
+		int parameterCount = preparedStatement.getParameterMetaData().getParameterCount();
+		preparedStatement.setLong(1, userId);
+		for (int i = 2; i <= parameterCount; ++i) {
+			preparedStatement.setLong(i, entityId);
+		}
+	}
+
+	/**
+	 * Returns the passed percentile (in milliseconds) of the sorted latencies (in nanoseconds).
+	 */
+	private static double percentile(long[] sortedLatencies, double percentile) {
+		int index = (int) Math.ceil(percentile * sortedLatencies.length) - 1;
+		return sortedLatencies[ Math.max(index, 0) ] / 1_000_000.0d;
+	}
+
+}
@@ -0,0 +1,58 @@
+package com.mse.personal.finance.db.validation;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.mse.personal.finance.benchmark.BenchmarkRunner;
+
+/**
+ * JMH benchmark of the {@link EmailValidator}, which validates the email of every registered & updated user.
+ *
+ * The validated emails are a typical valid email, a long valid email (with several subdomains)
+ * and an invalid email (without "@"), which is rejected only after backtracking.
+ *
+ * It is run via its main method or via {@link BenchmarkRunner} (the results are written to "EmailValidatorBenchmark.json").
+ *
+ * @author dvt32
+ */
+@State(Scope.Thread)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class EmailValidatorBenchmark {
+
+	@Param({
+		"john.doe@pfm.com",
+		"john.doe-1987+finance@mail.students.uni-sofia.bg",
+		"john.doe.finance.manager.pfm.com"
+	})
+	private String email;
+
+	private final EmailValidator emailValidator = new EmailValidator();
+
+	public static void main(String[] args)
+		throws Exception
+	{
+		BenchmarkRunner.run(EmailValidatorBenchmark.class);
+	}
+
+	@Benchmark
+	@Threads(4)
+	public boolean isValid() {
+		return emailValidator.isValid(email, null);
+	}
+
+}
@@ -0,0 +1,118 @@
+package com.mse.personal.finance.security.jwt;
+
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.mse.personal.finance.benchmark.BenchmarkContext;
+import com.mse.personal.finance.benchmark.BenchmarkRunner;
+
+/**
+ * JMH benchmark of the {@link JwtSessionManager} with each of the session stores
+ * (the JDBC store uses the in-memory H2 database of {@link BenchmarkContext}).
+ *
+ * The benchmarked operations are:
+ * - checking if an active session has expired (done on every authenticated request)
+ * - updating a session (done on every login)
+ * - refreshing an active session (done on every authenticated request)
+ *
+ * It is run via its main method or via {@link BenchmarkRunner} (the results are written to "JwtSessionManagerBenchmark.json").
+ *
+ * @author dvt32
+ */
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class JwtSessionManagerBenchmark {
+
+	/**
+	 * Length of the generated JWT strings (similar to the length of the application's JWTs).
+	 */
+	private static final int TOKEN_STRING_LENGTH = 180;
+	private static final String TOKEN_STRING_CHARACTERS = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789-_";
+	private static final String TEST_USERNAME = "benchmark@pfm.com";
+
+	@Param({"in-memory", "jdbc"})
+	private String storeType;
+
+	@Param({"10000"})
+	private int sessionCount;
+
+	private BenchmarkContext benchmarkContext;
+	private JwtSessionManager jwtSessionManager;
+	private String[] tokenStrings;
+
+	public static void main(String[] args)
+		throws Exception
+	{
+		BenchmarkRunner.run(JwtSessionManagerBenchmark.class);
+	}
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		benchmarkContext = BenchmarkContext.start("security.jwt.session-store.type=" + storeType);
+		jwtSessionManager = benchmarkContext.getBean(JwtSessionManager.class);
+
+		Random random = new Random(42);
+		tokenStrings = new String[sessionCount];
+		for (int i = 0; i < sessionCount; ++i) {
+			tokenStrings[i] = generateTokenString(random);
+			jwtSessionManager.updateSession(tokenStrings[i], TEST_USERNAME);
+		}
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		benchmarkContext.close();
+	}
+
+	@Benchmark
+	@Threads(4)
+	public boolean isExpired() {
+		return jwtSessionManager.isExpired( randomTokenString() );
+	}
+
+	@Benchmark
+	@Threads(4)
+	public void updateSession() {
+		jwtSessionManager.updateSession( randomTokenString(), TEST_USERNAME );
+	}
+
+	@Benchmark
+	@Threads(4)
+	public void refreshSession() {
+		jwtSessionManager.refreshSession( randomTokenString() );
+	}
+
+	private String randomTokenString() {
+		return tokenStrings[ ThreadLocalRandom.current().nextInt(sessionCount) ];
+	}
+
+	private static String generateTokenString(Random random) {
+		StringBuilder tokenString = new StringBuilder(TOKEN_STRING_LENGTH);
+		for (int i = 0; i < TOKEN_STRING_LENGTH; ++i) {
+			tokenString.append( TOKEN_STRING_CHARACTERS.charAt( random.nextInt( TOKEN_STRING_CHARACTERS.length() ) ) );
+		}
+
+		return tokenString.toString();
+	}
+
+}
@@ -0,0 +1,103 @@
+package com.mse.personal.finance.security.jwt;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import com.mse.personal.finance.benchmark.BenchmarkContext;
+import com.mse.personal.finance.benchmark.BenchmarkRunner;
+import com.mse.personal.finance.db.entity.UserEntity;
+import com.mse.personal.finance.model.UserAuthenticationDetails;
+
+import io.jsonwebtoken.Claims;
+
+/**
+ * JMH benchmark of the {@link JwtTokenProvider}.
+ *
+ * The benchmarked operations are:
+ * - parsing (verifying) a JWT, which is done on every authenticated request, whose user is not cached
+ * - generating a JWT, which is done on every login
+ * - resolving the user of a JWT (parsing it and loading the user from the seeded database, see {@link BenchmarkContext})
+ *
+ * It is run via its main method or via {@link BenchmarkRunner} (the results are written to "JwtTokenProviderBenchmark.json").
+ *
+ * @author dvt32
+ */
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class JwtTokenProviderBenchmark {
+
+	private BenchmarkContext benchmarkContext;
+	private JwtTokenProvider jwtTokenProvider;
+
+	private UserAuthenticationDetails[] userAuthenticationDetails;
+	private String[] tokenStrings;
+
+	public static void main(String[] args)
+		throws Exception
+	{
+		BenchmarkRunner.run(JwtTokenProviderBenchmark.class);
+	}
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		benchmarkContext = BenchmarkContext.start();
+		jwtTokenProvider = benchmarkContext.getBean(JwtTokenProvider.class);
+
+		List<BenchmarkContext.SeededUser> users = benchmarkContext.getUsers();
+		userAuthenticationDetails = new UserAuthenticationDetails[ users.size() ];
+		tokenStrings = new String[ users.size() ];
+		for (int i = 0; i < users.size(); ++i) {
+			UserEntity user = users.get(i).getUser();
+			userAuthenticationDetails[i] = new UserAuthenticationDetails( user.getId(), user.getEmail(), user.getPassword(), user.getName() );
+			tokenStrings[i] = jwtTokenProvider.generateTokenStringFromDetails( userAuthenticationDetails[i] );
+		}
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		benchmarkContext.close();
+	}
+
+	@Benchmark
+	@Threads(4)
+	public Claims parseTokenString() {
+		return jwtTokenProvider.parseTokenString( tokenStrings[ randomUserIndex() ] );
+	}
+
+	@Benchmark
+	@Threads(4)
+	public String generateTokenString() {
+		return jwtTokenProvider.generateTokenStringFromDetails( userAuthenticationDetails[ randomUserIndex() ] );
+	}
+
+	@Benchmark
+	@Threads(4)
+	public UserDetails resolveUserDetailsFromTokenString() {
+		return jwtTokenProvider.resolveUserDetailsFromTokenString( tokenStrings[ randomUserIndex() ] );
+	}
+
+	private int randomUserIndex() {
+		return ThreadLocalRandom.current().nextInt(tokenStrings.length);
+	}
+
+}
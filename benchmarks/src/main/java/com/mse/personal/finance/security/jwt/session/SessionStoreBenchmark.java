@@ -0,0 +1,282 @@
+package com.mse.personal.finance.security.jwt.session;
+
+import java.sql.Connection;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.mse.personal.finance.benchmark.BenchmarkRunner;
+import com.zaxxer.hikari.HikariDataSource;
+
+import liquibase.Contexts;
+import liquibase.LabelExpression;
+import liquibase.Liquibase;
+import liquibase.database.Database;
+import liquibase.database.DatabaseFactory;
+import liquibase.database.jvm.JdbcConnection;
+import liquibase.resource.ClassLoaderResourceAccessor;
+
+/**
+ * JMH benchmark of the {@link SessionStore} implementations
+ * and of the ConcurrentHashMap of LocalDateTime values, which was used by the JwtSessionManager before them.
+ *
+ * The benchmarked operations are:
+ * - touching an active session (done on login and, before the touches were coalesced, on every authenticated request)
+ * - refreshing an active session (done on every authenticated request)
+ * - reading an active session's last access time (done on every authenticated request)
+ * - removing the expired sessions (done periodically)
+ *
+ * The JDBC store uses an in-memory H2 database (so the results do not include any network latency).
+ *
+ * It is run via its main method or via {@link BenchmarkRunner} (the results are written to "SessionStoreBenchmark.json").
+ *
+ * @author dvt32
+ */
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class SessionStoreBenchmark {
+
+	private static final String JDBC_URL = "jdbc:h2:mem:session-store-benchmark;MODE=PostgreSQL;DB_CLOSE_DELAY=-1";
+	private static final String CHANGELOG = "com/mse/personal/finance/db/changelog/changelog-mse-0.2.xml";
+
+	private static final long SESSION_EXPIRATION_MILLIS = TimeUnit.MINUTES.toMillis(30);
+	private static final long SESSION_TOUCH_GRANULARITY_MILLIS = TimeUnit.SECONDS.toMillis(10);
+	private static final String TEST_USERNAME = "benchmark@pfm.com";
+
+	@Param({"concurrent-hash-map", "in-memory", "jdbc"})
+	private String storeType;
+
+	@Param({"10000"})
+	private int sessionCount;
+
+	private HikariDataSource dataSource;
+	private SessionStore sessionStore;
+	private String[] tokenStrings;
+
+	public static void main(String[] args)
+		throws Exception
+	{
+		BenchmarkRunner.run(SessionStoreBenchmark.class);
+	}
+
+	@Setup(Level.Trial)
+	public void setUp()
+		throws Exception
+	{
+		sessionStore = createSessionStore();
+
+		tokenStrings = new String[sessionCount];
+		long now = System.currentTimeMillis();
+		for (int i = 0; i < sessionCount; i++) {
+			tokenStrings[i] = generateTokenString(i);
+			sessionStore.touch(tokenStrings[i], TEST_USERNAME, now);
+		}
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		if (dataSource != null) {
+			new JdbcTemplate(dataSource).update("DELETE FROM jwt_sessions");
+			dataSource.close();
+		}
+	}
+
+	@Benchmark
+	@Threads(4)
+	@BenchmarkMode(Mode.Throughput)
+	@OutputTimeUnit(TimeUnit.MILLISECONDS)
+	public void touchActiveSession() {
+		sessionStore.touch( randomTokenString(), TEST_USERNAME, System.currentTimeMillis() );
+	}
+
+	/**
+	 * Refreshes one of a few sessions from all threads
+	 * (like the parallel requests of a few active users).
+	 */
+	@Benchmark
+	@Threads(4)
+	@BenchmarkMode(Mode.Throughput)
+	@OutputTimeUnit(TimeUnit.MILLISECONDS)
+	public void refreshHotSession() {
+		String tokenString = tokenStrings[ ThreadLocalRandom.current().nextInt(4) ];
+		sessionStore.refresh( tokenString, System.currentTimeMillis(), SESSION_TOUCH_GRANULARITY_MILLIS );
+	}
+
+	@Benchmark
+	@Threads(4)
+	@BenchmarkMode(Mode.Throughput)
+	@OutputTimeUnit(TimeUnit.MILLISECONDS)
+	public long getLastAccessTimeOfActiveSession() {
+		return sessionStore.getLastAccessTime( randomTokenString() );
+	}
+
+	/**
+	 * Prunes the sessions once per (simulated) second.
+	 *
+	 * Each session is accessed once per session expiration time,
+	 * so the number of sessions stays the same and each invocation accesses the same number of sessions
+	 * (the ones, whose index matches the current second).
+	 * The in-memory store's timing wheel is advanced by one tick,
+	 * while the other stores scan (or query) all sessions.
+	 */
+	@Benchmark
+	@BenchmarkMode(Mode.AverageTime)
+	@OutputTimeUnit(TimeUnit.MICROSECONDS)
+	public int removeExpiredSessions(PruningState pruningState) {
+		long now = pruningState.nextSecond();
+
+		int secondsPerExpiration = (int) TimeUnit.MILLISECONDS.toSeconds(SESSION_EXPIRATION_MILLIS);
+		for (int i = pruningState.second % secondsPerExpiration; i < sessionCount; i += secondsPerExpiration) {
+			sessionStore.touch(tokenStrings[i], TEST_USERNAME, now);
+		}
+
+		return sessionStore.removeExpiredSessions(now);
+	}
+
+	/**
+	 * The simulated time of the pruning.
+	 */
+	@State(Scope.Thread)
+	public static class PruningState {
+
+		private final long startTime = System.currentTimeMillis();
+		private int second;
+
+		private long nextSecond() {
+			second++;
+			return startTime + TimeUnit.SECONDS.toMillis(second);
+		}
+
+	}
+
+	private String randomTokenString() {
+		return tokenStrings[ ThreadLocalRandom.current().nextInt(sessionCount) ];
+	}
+
+	private SessionStore createSessionStore()
+		throws Exception
+	{
+		switch (storeType) {
+			case "concurrent-hash-map":
+				return new ConcurrentHashMapSessionStore(SESSION_EXPIRATION_MILLIS);
+			case "in-memory":
+				return new InMemorySessionStore(SESSION_EXPIRATION_MILLIS);
+			case "jdbc":
+				dataSource = new HikariDataSource();
+				dataSource.setJdbcUrl(JDBC_URL);
+				dataSource.setUsername("sa");
+				createSessionsTable();
+				return new JdbcSessionStore( new JdbcTemplate(dataSource), SESSION_EXPIRATION_MILLIS );
+			default:
+				throw new IllegalArgumentException("Unknown store type: " + storeType);
+		}
+	}
+
+	/**
+	 * Creates the "jwt_sessions" table by running the Liquibase changelog.
+	 */
+	private void createSessionsTable()
+		throws Exception
+	{
+		try ( Connection connection = dataSource.getConnection() ) {
+			Database database = DatabaseFactory.getInstance().findCorrectDatabaseImplementation( new JdbcConnection(connection) );
+			Liquibase liquibase = new Liquibase( CHANGELOG, new ClassLoaderResourceAccessor(), database );
+			liquibase.update( new Contexts(), new LabelExpression() );
+		}
+	}
+
+	/**
+	 * Generates a string with the length of a typical JWT.
+	 */
+	private static String generateTokenString(int index) {
+		StringBuilder tokenString = new StringBuilder("eyJhbGciOiJIUzI1NiJ9.");
+		while (tokenString.length() < 180) {
+			tokenString.append( Integer.toHexString( ThreadLocalRandom.current().nextInt() ) );
+		}
+		return tokenString.append('.').append(index).toString();
+	}
+
+	/**
+	 * The session storage used before the {@link SessionStore} implementations
+	 * (a single map, whose values are replaced on each access - regardless of the granularity - and which is fully scanned on pruning).
+	 */
+	private static class ConcurrentHashMapSessionStore
+		implements SessionStore
+	{
+
+		private final long sessionExpirationMillis;
+		private final Map<String, LocalDateTime> sessionMap = new ConcurrentHashMap<>();
+
+		private ConcurrentHashMapSessionStore(long sessionExpirationMillis) {
+			this.sessionExpirationMillis = sessionExpirationMillis;
+		}
+
+		@Override
+		public void touch(String tokenString, String username, long accessTime) {
+			sessionMap.put( tokenString, toLocalDateTime(accessTime) );
+		}
+
+		@Override
+		public void refresh(String tokenString, long accessTime, long granularityMillis) {
+			sessionMap.put( tokenString, toLocalDateTime(accessTime) );
+		}
+
+		@Override
+		public long getLastAccessTime(String tokenString) {
+			LocalDateTime lastAccessTime = sessionMap.get(tokenString);
+			return (lastAccessTime != null) ? lastAccessTime.atZone( ZoneId.systemDefault() ).toInstant().toEpochMilli() : NO_SESSION;
+		}
+
+		@Override
+		public void remove(String tokenString) {
+			sessionMap.remove(tokenString);
+		}
+
+		@Override
+		public int removeUserSessions(String username) {
+			// The sessions of the old storage had no users (and were only removed on logout & expiration)
+			return 0;
+		}
+
+		@Override
+		public int removeExpiredSessions(long now) {
+			int sizeBefore = sessionMap.size();
+			LocalDateTime expirationThreshold = toLocalDateTime(now).minusNanos( TimeUnit.MILLISECONDS.toNanos(sessionExpirationMillis) );
+			sessionMap.values().removeIf( lastAccessTime -> lastAccessTime.isBefore(expirationThreshold) );
+			return sizeBefore - sessionMap.size();
+		}
+
+		@Override
+		public long size() {
+			return sessionMap.size();
+		}
+
+		private static LocalDateTime toLocalDateTime(long epochMillis) {
+			return LocalDateTime.ofInstant( Instant.ofEpochMilli(epochMillis), ZoneId.systemDefault() );
+		}
+
+	}
+
+}
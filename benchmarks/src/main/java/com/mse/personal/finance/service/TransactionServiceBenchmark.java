@@ -0,0 +1,233 @@
+package com.mse.personal.finance.service;
+
+import java.util.Date;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.mse.personal.finance.benchmark.BenchmarkContext;
+import com.mse.personal.finance.benchmark.BenchmarkRunner;
+import com.mse.personal.finance.db.entity.AccountEntity;
+import com.mse.personal.finance.db.entity.BaseEntity;
+import com.mse.personal.finance.db.entity.CategoryEntity;
+import com.mse.personal.finance.db.repository.AccountRepository;
+import com.mse.personal.finance.db.repository.CategoryRepository;
+import com.mse.personal.finance.model.TransactionFromType;
+import com.mse.personal.finance.model.TransactionToType;
+import com.mse.personal.finance.model.request.TransactionRequest;
+
+/**
+ * JMH benchmark of the validation of the transactions' from-to data
+ * ({@link TransactionService#containsValidFromToData(TransactionRequest, BaseEntity, BaseEntity, Double)}),
+ * which is done on every creation, update & import of a transaction.
+ *
+ * The benchmarked operations are:
+ * - validating an income/expense/transfer transaction with already loaded from/to entities
+ * - loading the from/to accounts of a transfer transaction through the repositories and validating it
+ *   (like a transaction's creation does - the accounts are usually in the second-level cache)
+ *
+ * The validated requests reference random accounts & categories of one of the seeded users (see {@link BenchmarkContext}).
+ *
+ * It is run via its main method or via {@link BenchmarkRunner} (the results are written to "TransactionServiceBenchmark.json").
+ *
+ * @author dvt32
+ */
+@State(Scope.Thread)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class TransactionServiceBenchmark {
+
+	private static final int REQUEST_COUNT = 1024;
+
+	public static void main(String[] args)
+		throws Exception
+	{
+		BenchmarkRunner.run(TransactionServiceBenchmark.class);
+	}
+
+	/**
+	 * The seeded application and the validated requests (shared by all benchmark threads).
+	 */
+	@State(Scope.Benchmark)
+	public static class SeededApplication {
+
+		private BenchmarkContext benchmarkContext;
+		private BenchmarkContext.SeededUser seededUser;
+		private TransactionService transactionService;
+		private AccountRepository accountRepository;
+		private CategoryRepository categoryRepository;
+
+		private ValidatedRequest[] incomeRequests;
+		private ValidatedRequest[] expenseRequests;
+		private ValidatedRequest[] transferRequests;
+
+		@Setup(Level.Trial)
+		public void setUp() {
+			benchmarkContext = BenchmarkContext.start();
+			seededUser = benchmarkContext.getUsers().get(0);
+			transactionService = benchmarkContext.getBean(TransactionService.class);
+			accountRepository = benchmarkContext.getBean(AccountRepository.class);
+			categoryRepository = benchmarkContext.getBean(CategoryRepository.class);
+
+			Random random = new Random(42);
+			List<AccountEntity> accounts = seededUser.getAccounts();
+			List<CategoryEntity> incomeCategories = seededUser.getIncomeCategories();
+			List<CategoryEntity> expenseCategories = seededUser.getExpenseCategories();
+
+			incomeRequests = new ValidatedRequest[REQUEST_COUNT];
+			expenseRequests = new ValidatedRequest[REQUEST_COUNT];
+			transferRequests = new ValidatedRequest[REQUEST_COUNT];
+			for (int i = 0; i < REQUEST_COUNT; ++i) {
+				AccountEntity account = pick(accounts, random);
+				AccountEntity otherAccount = accounts.get( (accounts.indexOf(account) + 1) % accounts.size() );
+				CategoryEntity incomeCategory = pick(incomeCategories, random);
+				CategoryEntity expenseCategory = pick(expenseCategories, random);
+
+				incomeRequests[i] = new ValidatedRequest(
+					createRequest(TransactionFromType.CATEGORY, incomeCategory.getId(), TransactionToType.ACCOUNT, account.getId(), random),
+					incomeCategory,
+					account
+				);
+				expenseRequests[i] = new ValidatedRequest(
+					createRequest(TransactionFromType.ACCOUNT, account.getId(), TransactionToType.CATEGORY, expenseCategory.getId(), random),
+					account,
+					expenseCategory
+				);
+				transferRequests[i] = new ValidatedRequest(
+					createRequest(TransactionFromType.ACCOUNT, account.getId(), TransactionToType.ACCOUNT, otherAccount.getId(), random),
+					account,
+					otherAccount
+				);
+			}
+		}
+
+		@TearDown(Level.Trial)
+		public void tearDown() {
+			benchmarkContext.close();
+		}
+
+	}
+
+	/**
+	 * Logs the user in on each benchmark thread (the security context is thread-local).
+	 */
+	@Setup(Level.Trial)
+	public void logIn(SeededApplication application) {
+		application.benchmarkContext.logIn(application.seededUser);
+	}
+
+	@Benchmark
+	@Threads(4)
+	public boolean validateIncomeTransaction(SeededApplication application) {
+		return validate( application, randomRequest(application.incomeRequests) );
+	}
+
+	@Benchmark
+	@Threads(4)
+	public boolean validateExpenseTransaction(SeededApplication application) {
+		return validate( application, randomRequest(application.expenseRequests) );
+	}
+
+	@Benchmark
+	@Threads(4)
+	public boolean validateTransferTransaction(SeededApplication application) {
+		return validate( application, randomRequest(application.transferRequests) );
+	}
+
+	@Benchmark
+	@Threads(4)
+	public boolean loadAndValidateIncomeTransaction(SeededApplication application) {
+		TransactionRequest transactionRequest = randomRequest(application.incomeRequests).transactionRequest;
+		CategoryEntity fromCategory = application.categoryRepository.findById( transactionRequest.getFromId() ).orElse(null);
+		AccountEntity toAccount = application.accountRepository.findById( transactionRequest.getToId() ).orElse(null);
+
+		return application.transactionService.containsValidFromToData(transactionRequest, fromCategory, toAccount, null);
+	}
+
+	@Benchmark
+	@Threads(4)
+	public boolean loadAndValidateTransferTransaction(SeededApplication application) {
+		TransactionRequest transactionRequest = randomRequest(application.transferRequests).transactionRequest;
+		AccountEntity fromAccount = application.accountRepository.findById( transactionRequest.getFromId() ).orElse(null);
+		AccountEntity toAccount = application.accountRepository.findById( transactionRequest.getToId() ).orElse(null);
+
+		return application.transactionService.containsValidFromToData(transactionRequest, fromAccount, toAccount, fromAccount.getBalance());
+	}
+
+	private static boolean validate(SeededApplication application, ValidatedRequest validatedRequest) {
+		Double fromAccountBalance = (validatedRequest.fromEntity instanceof AccountEntity) 
+			? ( (AccountEntity) validatedRequest.fromEntity ).getBalance() 
+			: null;
+
+		return application.transactionService.containsValidFromToData(
+			validatedRequest.transactionRequest, 
+			validatedRequest.fromEntity, 
+			validatedRequest.toEntity, 
+			fromAccountBalance
+		);
+	}
+
+	private static ValidatedRequest randomRequest(ValidatedRequest[] requests) {
+		return requests[ ThreadLocalRandom.current().nextInt(requests.length) ];
+	}
+
+	private static <T> T pick(List<T> entities, Random random) {
+		return entities.get( random.nextInt(entities.size()) );
+	}
+
+	private static TransactionRequest createRequest(
+		TransactionFromType fromType, 
+		Long fromId, 
+		TransactionToType toType, 
+		Long toId, 
+		Random random) 
+	{
+		TransactionRequest transactionRequest = new TransactionRequest();
+		transactionRequest.setDateOfCompletion( new Date() );
+		transactionRequest.setFromType(fromType);
+		transactionRequest.setFromId(fromId);
+		transactionRequest.setToType(toType);
+		transactionRequest.setToId(toId);
+		transactionRequest.setSum( 1.00d + random.nextInt(20_000) / 100.0d );
+		transactionRequest.setShouldBeAutomaticallyExecuted(false);
+		transactionRequest.setDescription("Benchmark transaction");
+
+		return transactionRequest;
+	}
+
+	/**
+	 * A transaction request with its (already loaded) from/to entities.
+	 */
+	private static class ValidatedRequest {
+
+		private final TransactionRequest transactionRequest;
+		private final BaseEntity fromEntity;
+		private final BaseEntity toEntity;
+
+		private ValidatedRequest(TransactionRequest transactionRequest, BaseEntity fromEntity, BaseEntity toEntity) {
+			this.transactionRequest = transactionRequest;
+			this.fromEntity = fromEntity;
+			this.toEntity = toEntity;
+		}
+
+	}
+
+}
@@ -0,0 +1,114 @@
+package com.mse.personal.finance.service.mapper;
+
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+
+import com.mse.personal.finance.benchmark.BenchmarkContext;
+import com.mse.personal.finance.benchmark.BenchmarkRunner;
+import com.mse.personal.finance.db.entity.TransactionEntity;
+import com.mse.personal.finance.db.repository.TransactionRepository;
+import com.mse.personal.finance.model.Transaction;
+import com.mse.personal.finance.model.TransactionFromType;
+import com.mse.personal.finance.model.TransactionToType;
+import com.mse.personal.finance.model.request.TransactionRequest;
+import com.mse.personal.finance.service.TransactionService;
+
+/**
+ * JMH benchmark of the (MapStruct-generated) {@link TransactionMapper},
+ * which maps every returned transaction & every transaction request.
+ *
+ * The benchmarked operations are:
+ * - mapping a transaction entity to a transaction
+ * - mapping a page of transaction entities (as returned by the repository for a listing) to a page of transactions
+ * - mapping a transaction request to a transaction entity
+ *
+ * The entities are loaded from the seeded database (see {@link BenchmarkContext}) before the measurements.
+ *
+ * It is run via its main method or via {@link BenchmarkRunner} (the results are written to "TransactionMapperBenchmark.json").
+ *
+ * @author dvt32
+ */
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class TransactionMapperBenchmark {
+
+	private BenchmarkContext benchmarkContext;
+	private TransactionMapper transactionMapper;
+
+	private Page<TransactionEntity> transactionEntityPage;
+	private List<TransactionEntity> transactionEntities;
+	private TransactionRequest transactionRequest;
+
+	public static void main(String[] args)
+		throws Exception
+	{
+		BenchmarkRunner.run(TransactionMapperBenchmark.class);
+	}
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		benchmarkContext = BenchmarkContext.start();
+		transactionMapper = benchmarkContext.getBean(TransactionMapper.class);
+
+		transactionEntityPage = benchmarkContext.getBean(TransactionRepository.class).findAllByUser(
+			benchmarkContext.getUsers().get(0).getUser(),
+			PageRequest.of( 0, TransactionService.DEFAULT_SLICE_SIZE, Sort.by(Sort.Direction.DESC, "dateOfCompletion", "id") )
+		);
+		transactionEntities = transactionEntityPage.getContent();
+
+		transactionRequest = new TransactionRequest();
+		transactionRequest.setDateOfCompletion( new Date() );
+		transactionRequest.setFromType(TransactionFromType.ACCOUNT);
+		transactionRequest.setFromId(1L);
+		transactionRequest.setToType(TransactionToType.CATEGORY);
+		transactionRequest.setToId(2L);
+		transactionRequest.setSum(42.50d);
+		transactionRequest.setRecurring("monthly");
+		transactionRequest.setShouldBeAutomaticallyExecuted(false);
+		transactionRequest.setDescription("Benchmark transaction");
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		benchmarkContext.close();
+	}
+
+	@Benchmark
+	public Transaction mapEntityToTransaction() {
+		TransactionEntity transactionEntity = transactionEntities.get( ThreadLocalRandom.current().nextInt( transactionEntities.size() ) );
+		return transactionMapper.fromEntity(transactionEntity);
+	}
+
+	@Benchmark
+	public Page<Transaction> mapPageOfEntitiesToTransactions() {
+		return transactionEntityPage.map(transactionMapper::fromEntity);
+	}
+
+	@Benchmark
+	public TransactionEntity mapRequestToEntity() {
+		return transactionMapper.toEntity(transactionRequest);
+	}
+
+}
@@ -0,0 +1,55 @@
+package com.mse.personal.finance.loadtest;
+
+import java.util.Arrays;
+
+/**
+ * The latencies (in nanoseconds) & the number of failed requests of an endpoint, which are recorded by the virtual users.
+ *
+ * @author dvt32
+ */
+public class EndpointStatistics {
+
+	private long[] latencies = new long[1024];
+	private int requestCount = 0;
+	private long failedRequestCount = 0;
+
+	public synchronized void record(long latency, boolean failed) {
+		if (requestCount == latencies.length) {
+			latencies = Arrays.copyOf(latencies, latencies.length * 2);
+		}
+		latencies[requestCount++] = latency;
+
+		if (failed) {
+			failedRequestCount++;
+		}
+	}
+
+	public synchronized int getRequestCount() {
+		return requestCount;
+	}
+
+	public synchronized long getFailedRequestCount() {
+		return failedRequestCount;
+	}
+
+	/**
+	 * Returns a sorted copy of the recorded latencies.
+	 */
+	public synchronized long[] getSortedLatencies() {
+		long[] sortedLatencies = Arrays.copyOf(latencies, requestCount);
+		Arrays.sort(sortedLatencies);
+		return sortedLatencies;
+	}
+
+	/**
+	 * Returns the passed percentile of the sorted latencies (0 if there are no latencies).
+	 */
+	public static long percentile(long[] sortedLatencies, double percentile) {
+		if (sortedLatencies.length == 0) {
+			return 0L;
+		}
+		int index = (int) Math.ceil(percentile * sortedLatencies.length) - 1;
+		return sortedLatencies[ Math.max(0, index) ];
+	}
+
+}
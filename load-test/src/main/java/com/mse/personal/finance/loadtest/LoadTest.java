@@ -0,0 +1,254 @@
+package com.mse.personal.finance.loadtest;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.boot.Banner;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.mse.personal.finance.PersonalFinanceApplication;
+
+/**
+ * End-to-end load test, which replays user journeys (see {@link UserJourney}) against the REST API
+ * with a number of virtual users (each with its own data & think times between the pages).
+ *
+ * By default the test starts the application (on a random port) with the "load-test" profile (an in-memory H2 database).
+ * It can be started against a local PostgreSQL database (e.g. with -Dloadtest.profiles=default
+ * and the application's "--spring.datasource.*" arguments passed as the program's arguments)
+ * or it can target an already running server (with -Dloadtest.base-url=http://host:port).
+ *
+ * After the users are set up and the warmup has passed, the test measures the journeys and prints:
+ * - the throughput (journeys & requests per second) and the number of failed requests
+ * - the throughput and the latency percentiles (p50/p95/p99/max) of each endpoint
+ * - the average number of SQL statements per request of each endpoint
+ *   (counted by {@link StatementCountingFilter}, so only for the embedded application)
+ *
+ * It is run via its main method, e.g. (in the "load-test" directory, after the application is installed with "mvn install" in the "app" directory):
+ * mvn exec:java -Dloadtest.virtual-users=100
+ *
+ * The test can be configured with the following system properties:
+ * - "loadtest.virtual-users" - the number of virtual users (50 by default)
+ * - "loadtest.think-time" - the average think time between the pages in milliseconds (1 000 by default)
+ * - "loadtest.transactions-per-user" - the number of transactions imported for each user before the test (500 by default)
+ * - "loadtest.warmup" - the warmup duration in seconds (15 by default)
+ * - "loadtest.duration" - the measured duration in seconds (60 by default)
+ * - "loadtest.profiles" - the profiles of the embedded application ("load-test" by default)
+ * - "loadtest.base-url" - the URL of a running server (the embedded application is not started if it is set)
+ *
+ * The pool of the application (Tomcat threads, database connections) can be sized by raising the number of virtual users
+ * until the latencies grow - the throughput of N users with a think time T is at most N / T journey pages per second.
+ *
+ * @author dvt32
+ */
+public class LoadTest {
+
+	private static final int VIRTUAL_USERS = Integer.getInteger("loadtest.virtual-users", 50);
+	private static final long THINK_TIME_MILLIS = Long.getLong("loadtest.think-time", 1_000L);
+	private static final int TRANSACTIONS_PER_USER = Integer.getInteger("loadtest.transactions-per-user", 500);
+	private static final int WARMUP_SECONDS = Integer.getInteger("loadtest.warmup", 15);
+	private static final int DURATION_SECONDS = Integer.getInteger("loadtest.duration", 60);
+	private static final String PROFILES = System.getProperty("loadtest.profiles", "load-test");
+	private static final String BASE_URL = System.getProperty("loadtest.base-url");
+
+	public static void main(String[] args)
+		throws Exception
+	{
+		// Keep a connection per virtual user alive (instead of the default 5)
+		System.setProperty( "http.maxConnections", String.valueOf(VIRTUAL_USERS) );
+
+		if (BASE_URL != null) {
+			run(BASE_URL, null);
+			return;
+		}
+
+		ConfigurableApplicationContext applicationContext = new SpringApplicationBuilder(PersonalFinanceApplication.class)
+			.bannerMode(Banner.Mode.OFF)
+			.profiles( PROFILES.split(",") )
+			.properties("server.port=0")
+			.run(args);
+
+		try {
+			String baseUrl = "http://localhost:" + applicationContext.getEnvironment().getProperty("local.server.port");
+			run( baseUrl, applicationContext.getBean(StatementCountingFilter.class) );
+		}
+		finally {
+			applicationContext.close();
+		}
+	}
+
+	/**
+	 * Sets up the virtual users, runs their journeys and prints the results.
+	 *
+	 * @param statementCountingFilter the filter of the embedded application (null if another server is targeted)
+	 */
+	private static void run(String baseUrl, StatementCountingFilter statementCountingFilter)
+		throws Exception
+	{
+		Phase phase = new Phase();
+		Map<String, EndpointStatistics> endpointStatistics = new ConcurrentHashMap<>();
+		LongAdder journeyCount = new LongAdder();
+		LongAdder errorCount = new LongAdder();
+
+		List<UserJourney> userJourneys = new ArrayList<>();
+		for (int i = 0; i < VIRTUAL_USERS; ++i) {
+			userJourneys.add( new UserJourney(i, baseUrl, endpointStatistics, phase, THINK_TIME_MILLIS, journeyCount, errorCount) );
+		}
+		setUpUsers(userJourneys);
+
+		ExecutorService virtualUserExecutor = Executors.newFixedThreadPool(VIRTUAL_USERS);
+		userJourneys.forEach(virtualUserExecutor::execute);
+
+		System.out.printf("Warming up for %d seconds...%n", WARMUP_SECONDS);
+		TimeUnit.SECONDS.sleep(WARMUP_SECONDS);
+
+		if (statementCountingFilter != null) {
+			statementCountingFilter.reset();
+		}
+		phase.startMeasurement();
+		long startTime = System.nanoTime();
+		System.out.printf("Measuring for %d seconds...%n", DURATION_SECONDS);
+		TimeUnit.SECONDS.sleep(DURATION_SECONDS);
+		phase.stop();
+		double measuredSeconds = (System.nanoTime() - startTime) / 1_000_000_000.0d;
+
+		virtualUserExecutor.shutdown();
+		if ( !virtualUserExecutor.awaitTermination(1, TimeUnit.MINUTES) ) {
+			virtualUserExecutor.shutdownNow();
+		}
+
+		Map<String, Double> averageStatementCounts = (statementCountingFilter != null) 
+			? statementCountingFilter.getAverageStatementCounts() 
+			: Collections.emptyMap();
+		printResults(endpointStatistics, averageStatementCounts, journeyCount.sum(), errorCount.sum(), measuredSeconds);
+	}
+
+	/**
+	 * Sets up the virtual users in parallel (by as many threads as there are processors,
+	 * so the registrations & logins do not exceed the capacity of the password hashing).
+	 */
+	private static void setUpUsers(List<UserJourney> userJourneys)
+		throws Exception
+	{
+		long startTime = System.nanoTime();
+
+		ExecutorService setUpExecutor = Executors.newFixedThreadPool( Runtime.getRuntime().availableProcessors() );
+		try {
+			List<Future<?>> setUps = new ArrayList<>();
+			for (UserJourney userJourney : userJourneys) {
+				setUps.add( setUpExecutor.submit(() -> {
+					userJourney.setUp(TRANSACTIONS_PER_USER);
+					return null;
+				}) );
+			}
+			for (Future<?> setUp : setUps) {
+				setUp.get();
+			}
+		}
+		finally {
+			setUpExecutor.shutdown();
+		}
+
+		System.out.printf(
+			"Set up %d virtual users with %d transactions each in %d ms%n",
+			userJourneys.size(),
+			TRANSACTIONS_PER_USER,
+			TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime)
+		);
+	}
+
+	private static void printResults(
+		Map<String, EndpointStatistics> endpointStatistics,
+		Map<String, Double> averageStatementCounts,
+		long journeyCount,
+		long errorCount,
+		double measuredSeconds)
+	{
+		long requestCount = 0;
+		long failedRequestCount = 0;
+		for (EndpointStatistics statistics : endpointStatistics.values()) {
+			requestCount += statistics.getRequestCount();
+			failedRequestCount += statistics.getFailedRequestCount();
+		}
+
+		System.out.printf(
+			"%n%d virtual users, %d ms think time, %.1f seconds measured%n"
+			+ "journeys: %d (%.2f/s)%n"
+			+ "requests: %d (%.1f/s), %d failed, %d I/O errors%n%n",
+			VIRTUAL_USERS,
+			THINK_TIME_MILLIS,
+			measuredSeconds,
+			journeyCount,
+			journeyCount / measuredSeconds,
+			requestCount,
+			requestCount / measuredSeconds,
+			failedRequestCount,
+			errorCount
+		);
+
+		System.out.printf(
+			"%-30s %9s %7s %9s %9s %9s %9s %9s %12s%n",
+			"endpoint", "requests", "failed", "req/s", "p50 ms", "p95 ms", "p99 ms", "max ms", "queries/req"
+		);
+		for (Map.Entry<String, EndpointStatistics> entry : new TreeMap<>(endpointStatistics).entrySet()) {
+			EndpointStatistics statistics = entry.getValue();
+			long[] latencies = statistics.getSortedLatencies();
+			Double averageStatementCount = averageStatementCounts.get( entry.getKey() );
+
+			System.out.printf(
+				"%-30s %9d %7d %9.1f %9.2f %9.2f %9.2f %9.2f %12s%n",
+				entry.getKey(),
+				latencies.length,
+				statistics.getFailedRequestCount(),
+				latencies.length / measuredSeconds,
+				toMillis( EndpointStatistics.percentile(latencies, 0.50) ),
+				toMillis( EndpointStatistics.percentile(latencies, 0.95) ),
+				toMillis( EndpointStatistics.percentile(latencies, 0.99) ),
+				toMillis( EndpointStatistics.percentile(latencies, 1.00) ),
+				(averageStatementCount != null) ? String.format("%.1f", averageStatementCount) : "n/a"
+			);
+		}
+	}
+
+	private static double toMillis(long nanos) {
+		return nanos / 1_000_000.0d;
+	}
+
+	/**
+	 * The phase of the load test, which is shared by the virtual users
+	 * (the requests are only measured after the warmup, until the test is stopped).
+	 */
+	public static final class Phase {
+
+		private volatile boolean measured = false;
+		private volatile boolean stopped = false;
+
+		public boolean isMeasured() {
+			return measured;
+		}
+
+		public boolean isStopped() {
+			return stopped;
+		}
+
+		private void startMeasurement() {
+			measured = true;
+		}
+
+		private void stop() {
+			measured = false;
+			stopped = true;
+		}
+
+	}
+
+}
@@ -0,0 +1,121 @@
+package com.mse.personal.finance.loadtest;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+/**
+ * HTTP client of a virtual user, which sends JSON requests to the REST API
+ * and records their latencies per endpoint (while the measurement is running).
+ *
+ * @author dvt32
+ */
+public class LoadTestClient {
+
+	private final String baseUrl;
+	private final Map<String, EndpointStatistics> endpointStatistics;
+	private final LoadTest.Phase phase;
+
+	private String tokenString;
+
+	public LoadTestClient(String baseUrl, Map<String, EndpointStatistics> endpointStatistics, LoadTest.Phase phase) {
+		this.baseUrl = baseUrl;
+		this.endpointStatistics = endpointStatistics;
+		this.phase = phase;
+	}
+
+	/**
+	 * Sets the JWT, which is sent with the following requests (null for none).
+	 */
+	public void setTokenString(String tokenString) {
+		this.tokenString = tokenString;
+	}
+
+	/**
+	 * Sends a request and returns its response.
+	 *
+	 * @param endpoint the endpoint (the method & path pattern, e.g. "GET /transactions/{id}"), under which the latency is recorded
+	 * @param path the request's path (with the query string)
+	 * @param jsonBody the request's body (null for none)
+	 */
+	public Response send(String endpoint, String path, String jsonBody)
+		throws IOException
+	{
+		String method = endpoint.substring( 0, endpoint.indexOf(' ') );
+
+		long startTime = System.nanoTime();
+		Response response = sendRequest(method, path, jsonBody);
+		long latency = System.nanoTime() - startTime;
+
+		if ( phase.isMeasured() ) {
+			endpointStatistics.computeIfAbsent( endpoint, key -> new EndpointStatistics() ).record( latency, !response.isSuccessful() );
+		}
+
+		return response;
+	}
+
+	private Response sendRequest(String method, String path, String jsonBody)
+		throws IOException
+	{
+		HttpURLConnection connection = (HttpURLConnection) new URL(baseUrl + path).openConnection();
+		connection.setRequestMethod(method);
+		if (tokenString != null) {
+			connection.setRequestProperty("Authorization", "Bearer " + tokenString);
+		}
+		if (jsonBody != null) {
+			connection.setDoOutput(true);
+			connection.setRequestProperty("Content-Type", "application/json");
+			try ( OutputStream outputStream = connection.getOutputStream() ) {
+				outputStream.write( jsonBody.getBytes(StandardCharsets.UTF_8) );
+			}
+		}
+
+		int status = connection.getResponseCode();
+		InputStream inputStream = (status < 400) ? connection.getInputStream() : connection.getErrorStream();
+		String body = "";
+		if (inputStream != null) {
+			// The body is always fully read, so the connection can be reused
+			try (InputStream responseStream = inputStream) {
+				ByteArrayOutputStream bodyBytes = new ByteArrayOutputStream();
+				byte[] buffer = new byte[8192];
+				int readBytes;
+				while ( (readBytes = responseStream.read(buffer)) != -1 ) {
+					bodyBytes.write(buffer, 0, readBytes);
+				}
+				body = new String( bodyBytes.toByteArray(), StandardCharsets.UTF_8 );
+			}
+		}
+
+		return new Response(status, body);
+	}
+
+	public static final class Response {
+
+		private final int status;
+		private final String body;
+
+		private Response(int status, String body) {
+			this.status = status;
+			this.body = body;
+		}
+
+		public int getStatus() {
+			return status;
+		}
+
+		public String getBody() {
+			return body;
+		}
+
+		public boolean isSuccessful() {
+			return status / 100 == 2;
+		}
+
+	}
+
+}
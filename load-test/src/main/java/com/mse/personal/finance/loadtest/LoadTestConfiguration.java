@@ -0,0 +1,33 @@
+package com.mse.personal.finance.loadtest;
+
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+/**
+ * Configuration of the embedded application, which is started by {@link LoadTest}
+ * (it is only on the load test module's classpath).
+ *
+ * @author dvt32
+ */
+@Configuration
+public class LoadTestConfiguration {
+
+	@Bean
+	public StatementCountingFilter statementCountingFilter() {
+		return new StatementCountingFilter();
+	}
+
+	/**
+	 * Registers the statement counting filter right after the request tracing filter,
+	 * whose trace counts the statements, and before all other filters (including the security filters).
+	 */
+	@Bean
+	public FilterRegistrationBean<StatementCountingFilter> statementCountingFilterRegistration(StatementCountingFilter statementCountingFilter) {
+		FilterRegistrationBean<StatementCountingFilter> filterRegistration = new FilterRegistrationBean<>(statementCountingFilter);
+		filterRegistration.setOrder(Ordered.HIGHEST_PRECEDENCE + 1);
+		return filterRegistration;
+	}
+
+}
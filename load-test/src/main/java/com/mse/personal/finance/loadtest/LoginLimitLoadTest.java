@@ -0,0 +1,130 @@
+package com.mse.personal.finance.loadtest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+import com.mse.personal.finance.service.LoginLimitService;
+
+/**
+ * Load test of the LoginLimitService's memory usage during a credential-stuffing attack
+ * (failed logins from many distinct IPs, each with a different username).
+ *
+ * The test runs the attack against:
+ * - the Guava LoadingCache, which was used by the LoginLimitService before (unbounded, with a 10 minute expireAfterWrite)
+ * - the LoginLimitService (with its default limits)
+ *
+ * and prints the retained heap & the number of tracked IPs after each run.
+ * The heap of the LoginLimitService should stay the same, no matter how many IPs are used.
+ *
+ * It is run via its main method, e.g. (in the "load-test" directory):
+ * mvn exec:java -Dexec.mainClass=com.mse.personal.finance.loadtest.LoginLimitLoadTest
+ *
+ * The number of distinct IPs and the number of attacking threads can be changed with the
+ * "benchmark.ips" (1 000 000 by default) and "benchmark.threads" (8 by default) system properties.
+ *
+ * @author dvt32
+ */
+public class LoginLimitLoadTest {
+
+	private static final int IPS = Integer.getInteger("benchmark.ips", 1_000_000);
+	private static final int THREADS = Integer.getInteger("benchmark.threads", 8);
+
+	public static void main(String[] args)
+		throws Exception
+	{
+		System.out.printf("Failed logins from %d distinct IPs (%d threads)%n%n", IPS, THREADS);
+
+		long baselineHeap = getRetainedHeap();
+
+		LoadingCache<String, Integer> loginAttemptsCache = CacheBuilder.newBuilder()
+			.expireAfterWrite(10, TimeUnit.MINUTES)
+			.build(
+				new CacheLoader<String, Integer>() {
+					public Integer load(String key) {
+						return 0;
+					}
+				}
+			);
+		long guavaTime = runAttack(ipAddress -> {
+			// The previous implementation: isBlockedIpAddress() (get) & loginFailed() (get & put)
+			loginAttemptsCache.getUnchecked(ipAddress);
+			loginAttemptsCache.put( ipAddress, loginAttemptsCache.getUnchecked(ipAddress) + 1 );
+		});
+		printResult("Guava LoadingCache", guavaTime, loginAttemptsCache.size(), getRetainedHeap() - baselineHeap);
+
+		loginAttemptsCache.invalidateAll();
+		loginAttemptsCache.cleanUp();
+		baselineHeap = getRetainedHeap();
+
+		LoginLimitService loginLimitService = new LoginLimitService(3, 10, 10, 100_000);
+		long loginLimitServiceTime = runAttack(ipAddress -> {
+			String username = ipAddress + "@pfm.com";
+			if ( !loginLimitService.isBlockedIpAddress(ipAddress) && !loginLimitService.isBlockedAccount(username) ) {
+				loginLimitService.loginFailed(ipAddress, username);
+			}
+		});
+		printResult("LoginLimitService", loginLimitServiceTime, loginLimitService.getTrackedIpAddressCount(), getRetainedHeap() - baselineHeap);
+		System.out.printf("  evicted keys: %d%n", loginLimitService.getEvictedKeyCount());
+	}
+
+	/**
+	 * Runs failed logins from all IPs (split between the threads) and returns the elapsed time in milliseconds.
+	 */
+	private static long runAttack(Consumer<String> failedLogin)
+		throws Exception
+	{
+		ExecutorService executorService = Executors.newFixedThreadPool(THREADS);
+		long startTime = System.nanoTime();
+
+		List<Future<?>> futures = new ArrayList<>();
+		for (int thread = 0; thread < THREADS; thread++) {
+			int firstIp = thread;
+			futures.add( executorService.submit(() -> {
+				for (int ip = firstIp; ip < IPS; ip += THREADS) {
+					failedLogin.accept( toIpAddress(ip) );
+				}
+			}) );
+		}
+		for (Future<?> future : futures) {
+			future.get();
+		}
+
+		long elapsedTime = TimeUnit.NANOSECONDS.toMillis( System.nanoTime() - startTime );
+		executorService.shutdown();
+		return elapsedTime;
+	}
+
+	private static String toIpAddress(int ip) {
+		return (10 + (ip >>> 24)) + "." + ((ip >>> 16) & 0xFF) + "." + ((ip >>> 8) & 0xFF) + "." + (ip & 0xFF);
+	}
+
+	/**
+	 * Returns the used heap after garbage collection (in bytes).
+	 */
+	private static long getRetainedHeap()
+		throws InterruptedException
+	{
+		Runtime runtime = Runtime.getRuntime();
+		for (int i = 0; i < 3; i++) {
+			System.gc();
+			Thread.sleep(100);
+		}
+		return runtime.totalMemory() - runtime.freeMemory();
+	}
+
+	private static void printResult(String name, long elapsedTime, long trackedIps, long retainedHeap) {
+		System.out.printf(
+			"%s:%n  time: %d ms%n  tracked IPs: %d%n  retained heap: %d MB%n",
+			name, elapsedTime, trackedIps, retainedHeap / (1024 * 1024)
+		);
+	}
+
+}
@@ -0,0 +1,263 @@
+package com.mse.personal.finance.loadtest;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.boot.Banner;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mse.personal.finance.PersonalFinanceApplication;
+
+/**
+ * Load test, which compares the request execution modes of the REST layer:
+ * - Tomcat's pool of platform threads (the default)
+ * - a virtual thread per request (the "virtual-threads" profile, see VirtualThreadConfiguration - requires Java 21)
+ *
+ * For each mode the test starts the application (on a random port), registers & logs in a user
+ * and then sends authenticated GET requests (accounts, categories, transactions, dashboard summary)
+ * from many concurrent clients without any think time.
+ * It prints the throughput, the number of failed requests and the latency percentiles of each mode.
+ *
+ * It is run via its main method, e.g. (in the "load-test" directory):
+ * mvn exec:java -Dexec.mainClass=com.mse.personal.finance.loadtest.RequestExecutionModeLoadTest
+ *
+ * The test can be configured with the following system properties:
+ * - "benchmark.clients" - the number of concurrent clients (400 by default, more than Tomcat's 200 threads)
+ * - "benchmark.duration" - the measured duration of each mode in seconds (30 by default, after a 5 second warmup)
+ * - "benchmark.profiles" - the base profiles of the application ("load-test" by default, i.e. an in-memory H2 database)
+ *
+ * With the in-memory H2 database the requests barely block, so the difference between the modes is small;
+ * for realistic results run it against PostgreSQL (e.g. with -Dbenchmark.profiles=default
+ * and the application's "--spring.datasource.*" arguments passed as the program's arguments).
+ * The virtual threads, which pin their carrier threads, are printed if the JVM option "-Djdk.tracePinnedThreads=full"
+ * is passed as well (e.g. in MAVEN_OPTS, because exec:java runs the test in Maven's JVM).
+ *
+ * @author dvt32
+ */
+public class RequestExecutionModeLoadTest {
+
+	private static final int CLIENTS = Integer.getInteger("benchmark.clients", 400);
+	private static final int DURATION_SECONDS = Integer.getInteger("benchmark.duration", 30);
+	private static final int WARMUP_SECONDS = 5;
+	private static final String PROFILES = System.getProperty("benchmark.profiles", "load-test");
+
+	private static final String[] ENDPOINTS = { "/accounts", "/categories", "/transactions", "/dashboard/summary" };
+
+	private static final String TEST_USER_EMAIL = "load-test@pfm.com";
+	private static final String TEST_USER_PASSWORD = "123456";
+
+	private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+	public static void main(String[] args)
+		throws Exception
+	{
+		// Keep a connection per client alive (instead of the default 5)
+		System.setProperty( "http.maxConnections", String.valueOf(CLIENTS) );
+
+		System.out.printf("%d clients, %d seconds per mode%n%n", CLIENTS, DURATION_SECONDS);
+
+		runMode("platform-threads", PROFILES, args);
+		runMode("virtual-threads", PROFILES + ",virtual-threads", args);
+	}
+
+	private static void runMode(String mode, String profiles, String[] args)
+		throws Exception
+	{
+		ConfigurableApplicationContext applicationContext = new SpringApplicationBuilder(PersonalFinanceApplication.class)
+			.bannerMode(Banner.Mode.OFF)
+			.profiles( profiles.split(",") )
+			.properties("server.port=0")
+			.run(args);
+
+		try {
+			String baseUrl = "http://localhost:" + applicationContext.getEnvironment().getProperty("local.server.port");
+			String tokenString = registerAndLogin(baseUrl);
+
+			runLoad(baseUrl, tokenString, WARMUP_SECONDS);
+			LoadResult loadResult = runLoad(baseUrl, tokenString, DURATION_SECONDS);
+
+			long[] latencies = loadResult.latencies;
+			Arrays.sort(latencies);
+			System.out.printf(
+				"%s:%n  requests: %d (%d failed)%n  throughput: %.1f requests/s%n  latency p50/p95/p99/max: %.2f / %.2f / %.2f / %.2f ms%n%n",
+				mode,
+				latencies.length,
+				loadResult.failedRequests,
+				latencies.length / (double) DURATION_SECONDS,
+				toMillis( percentile(latencies, 0.50) ),
+				toMillis( percentile(latencies, 0.95) ),
+				toMillis( percentile(latencies, 0.99) ),
+				toMillis( (latencies.length > 0) ? latencies[latencies.length - 1] : 0L )
+			);
+		}
+		finally {
+			applicationContext.close();
+		}
+	}
+
+	/**
+	 * Sends requests from all clients for the passed duration and returns their latencies (in nanoseconds).
+	 */
+	private static LoadResult runLoad(String baseUrl, String tokenString, int durationSeconds)
+		throws Exception
+	{
+		ExecutorService clientExecutor = Executors.newFixedThreadPool(CLIENTS);
+		long endTime = System.nanoTime() + TimeUnit.SECONDS.toNanos(durationSeconds);
+		AtomicLong failedRequests = new AtomicLong();
+
+		List<Future<long[]>> clientLatencies = new ArrayList<>();
+		for (int client = 0; client < CLIENTS; client++) {
+			int firstEndpoint = client;
+			clientLatencies.add( clientExecutor.submit(() -> {
+				long[] latencies = new long[1024];
+				int requestCount = 0;
+
+				while (System.nanoTime() < endTime) {
+					String endpoint = ENDPOINTS[ (firstEndpoint + requestCount) % ENDPOINTS.length ];
+					long startTime = System.nanoTime();
+					int status = sendRequest("GET", baseUrl + endpoint, tokenString, null).status;
+					long latency = System.nanoTime() - startTime;
+
+					if (status / 100 != 2) {
+						failedRequests.incrementAndGet();
+					}
+					if (requestCount == latencies.length) {
+						latencies = Arrays.copyOf(latencies, latencies.length * 2);
+					}
+					latencies[requestCount++] = latency;
+				}
+
+				return Arrays.copyOf(latencies, requestCount);
+			}) );
+		}
+
+		List<long[]> allLatencies = new ArrayList<>();
+		int requestCount = 0;
+		for (Future<long[]> latencies : clientLatencies) {
+			allLatencies.add( latencies.get() );
+			requestCount += allLatencies.get(allLatencies.size() - 1).length;
+		}
+		clientExecutor.shutdown();
+
+		long[] latencies = new long[requestCount];
+		int offset = 0;
+		for (long[] clientLatency : allLatencies) {
+			System.arraycopy(clientLatency, 0, latencies, offset, clientLatency.length);
+			offset += clientLatency.length;
+		}
+
+		return new LoadResult( latencies, failedRequests.get() );
+	}
+
+	/**
+	 * Registers the test user (if it does not exist yet) and returns a JWT for it.
+	 */
+	private static String registerAndLogin(String baseUrl)
+		throws IOException
+	{
+		String userJson = OBJECT_MAPPER.createObjectNode()
+			.put("name", "Load Test")
+			.put("email", TEST_USER_EMAIL)
+			.put("password", TEST_USER_PASSWORD)
+			.toString();
+		sendRequest("POST", baseUrl + "/users", null, userJson);
+
+		String loginJson = OBJECT_MAPPER.createObjectNode()
+			.put("username", TEST_USER_EMAIL)
+			.put("password", TEST_USER_PASSWORD)
+			.toString();
+		Response loginResponse = sendRequest("POST", baseUrl + "/auth/login", null, loginJson);
+		if (loginResponse.status != 200) {
+			throw new IllegalStateException("Login failed with status " + loginResponse.status + ": " + loginResponse.body);
+		}
+
+		return OBJECT_MAPPER.readTree(loginResponse.body).get("tokenString").asText();
+	}
+
+	private static Response sendRequest(String method, String url, String tokenString, String jsonBody)
+		throws IOException
+	{
+		HttpURLConnection connection = (HttpURLConnection) new URL(url).openConnection();
+		connection.setRequestMethod(method);
+		if (tokenString != null) {
+			connection.setRequestProperty("Authorization", "Bearer " + tokenString);
+		}
+		if (jsonBody != null) {
+			connection.setDoOutput(true);
+			connection.setRequestProperty("Content-Type", "application/json");
+			try ( OutputStream outputStream = connection.getOutputStream() ) {
+				outputStream.write( jsonBody.getBytes(StandardCharsets.UTF_8) );
+			}
+		}
+
+		int status = connection.getResponseCode();
+		InputStream inputStream = (status < 400) ? connection.getInputStream() : connection.getErrorStream();
+		String body = "";
+		if (inputStream != null) {
+			// The body is always fully read, so the connection can be reused
+			try (InputStream responseStream = inputStream) {
+				ByteArrayOutputStream bodyBytes = new ByteArrayOutputStream();
+				byte[] buffer = new byte[8192];
+				int readBytes;
+				while ( (readBytes = responseStream.read(buffer)) != -1 ) {
+					bodyBytes.write(buffer, 0, readBytes);
+				}
+				body = new String( bodyBytes.toByteArray(), StandardCharsets.UTF_8 );
+			}
+		}
+
+		return new Response(status, body);
+	}
+
+	private static long percentile(long[] sortedValues, double percentile) {
+		if (sortedValues.length == 0) {
+			return 0L;
+		}
+		int index = (int) Math.ceil(percentile * sortedValues.length) - 1;
+		return sortedValues[ Math.max(0, index) ];
+	}
+
+	private static double toMillis(long nanos) {
+		return nanos / 1_000_000.0d;
+	}
+
+	private static final class Response {
+
+		private final int status;
+		private final String body;
+
+		private Response(int status, String body) {
+			this.status = status;
+			this.body = body;
+		}
+
+	}
+
+	private static final class LoadResult {
+
+		private final long[] latencies;
+		private final long failedRequests;
+
+		private LoadResult(long[] latencies, long failedRequests) {
+			this.latencies = latencies;
+			this.failedRequests = failedRequests;
+		}
+
+	}
+
+}
@@ -0,0 +1,99 @@
+package com.mse.personal.finance.loadtest;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import com.mse.personal.finance.tracing.RequestTrace;
+import com.mse.personal.finance.tracing.RequestTracingFilter;
+
+/**
+ * Filter of the embedded application, which counts the SQL statements of each request
+ * (the statements executed through the data source's proxy, as counted by the request's {@link RequestTrace})
+ * per endpoint - the request's method & the matched path pattern, e.g. "GET /transactions/{id}".
+ *
+ * It has to run right after the {@link RequestTracingFilter} (which starts & ends the trace)
+ * and before the security filters, so the statements of the authentication are counted as well.
+ *
+ * @author dvt32
+ */
+public class StatementCountingFilter
+	extends OncePerRequestFilter
+{
+
+	private final ConcurrentMap<String, EndpointStatementCount> statementCounts = new ConcurrentHashMap<>();
+
+	@Override
+	protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+		throws ServletException, IOException
+	{
+		RequestTrace requestTrace = RequestTrace.current();
+		if (requestTrace == null) {
+			filterChain.doFilter(request, response);
+			return;
+		}
+
+		try {
+			filterChain.doFilter(request, response);
+		}
+		finally {
+			long statementCount = requestTrace.getSqlStatementCount();
+			statementCounts.computeIfAbsent( getEndpoint(request), endpoint -> new EndpointStatementCount() ).add(statementCount);
+		}
+	}
+
+	/**
+	 * Returns the average number of statements per request of each endpoint (since the last reset).
+	 */
+	public Map<String, Double> getAverageStatementCounts() {
+		Map<String, Double> averageStatementCounts = new TreeMap<>();
+		statementCounts.forEach( (endpoint, statementCount) -> averageStatementCounts.put(endpoint, statementCount.getAverage()) );
+		return averageStatementCounts;
+	}
+
+	/**
+	 * Discards the counted statements (e.g. the ones of the warmup).
+	 */
+	public void reset() {
+		statementCounts.clear();
+	}
+
+	/**
+	 * Returns the request's method & matched path pattern
+	 * (or its URI, if no handler was matched, e.g. when the authentication failed).
+	 */
+	public static String getEndpoint(HttpServletRequest request) {
+		Object pathPattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+		String path = (pathPattern != null) ? pathPattern.toString() : request.getRequestURI();
+		return request.getMethod() + " " + path;
+	}
+
+	private static final class EndpointStatementCount {
+
+		private final LongAdder requestCount = new LongAdder();
+		private final LongAdder statementCount = new LongAdder();
+
+		private void add(long statements) {
+			requestCount.increment();
+			statementCount.add(statements);
+		}
+
+		private double getAverage() {
+			long requests = requestCount.sum();
+			return (requests > 0) ? statementCount.sum() / (double) requests : 0.0d;
+		}
+
+	}
+
+}
@@ -0,0 +1,258 @@
+package com.mse.personal.finance.loadtest;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+/**
+ * A virtual user, which repeats a scripted journey through the REST API (with think times between the pages):
+ * - 1) logs in
+ * - 2) opens the dashboard (its summary & the accounts' balance sum)
+ * - 3) lists the first two pages of its transactions
+ * - 4) creates, updates & deletes a transaction
+ * - 5) logs out
+ *
+ * Before the journeys, the user is registered and gets accounts, categories & imported transactions (see {@link #setUp(int)}).
+ *
+ * @author dvt32
+ */
+public class UserJourney
+	implements Runnable
+{
+
+	private static final String PASSWORD = "123456";
+	private static final String TRANSACTIONS_PAGE_PATH = "/transactions?size=20&sort=dateOfCompletion,desc&page=";
+	private static final long DAY_MILLIS = TimeUnit.DAYS.toMillis(1);
+
+	private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+	private final String email;
+	private final LoadTestClient client;
+	private final LoadTest.Phase phase;
+	private final long thinkTimeMillis;
+	private final LongAdder journeyCount;
+	private final LongAdder errorCount;
+	private final Random random;
+
+	private final List<Long> accountIds = new ArrayList<>();
+	private final List<Long> expenseCategoryIds = new ArrayList<>();
+	private Long incomeCategoryId;
+
+	public UserJourney(
+		int userIndex,
+		String baseUrl,
+		Map<String, EndpointStatistics> endpointStatistics,
+		LoadTest.Phase phase,
+		long thinkTimeMillis,
+		LongAdder journeyCount,
+		LongAdder errorCount)
+	{
+		this.email = "load-test-" + userIndex + "@pfm.com";
+		this.client = new LoadTestClient(baseUrl, endpointStatistics, phase);
+		this.phase = phase;
+		this.thinkTimeMillis = thinkTimeMillis;
+		this.journeyCount = journeyCount;
+		this.errorCount = errorCount;
+		this.random = new Random(userIndex);
+	}
+
+	/**
+	 * Registers the user (if it does not exist yet) and creates its accounts & categories
+	 * and the passed number of transactions (with a bulk import), so that its pages contain realistic volumes.
+	 */
+	public void setUp(int transactionCount)
+		throws IOException
+	{
+		String userJson = OBJECT_MAPPER.createObjectNode()
+			.put("name", "Load Test User")
+			.put("email", email)
+			.put("password", PASSWORD)
+			.toString();
+		client.send("POST /users", "/users", userJson);
+		logIn();
+
+		for (int i = 0; i < 3; ++i) {
+			String accountJson = OBJECT_MAPPER.createObjectNode()
+				.put("name", "Account " + i)
+				.put("balance", 5_000.00d)
+				.put("goal", 20_000.00d)
+				.put("type", "ACTIVATED")
+				.toString();
+			accountIds.add( readId( client.send("POST /accounts", "/accounts", accountJson) ) );
+		}
+
+		incomeCategoryId = createCategory("Salary", "INCOME");
+		for (int i = 0; i < 4; ++i) {
+			expenseCategoryIds.add( createCategory("Expenses " + i, "EXPENSES") );
+		}
+
+		ArrayNode transactionsJson = OBJECT_MAPPER.createArrayNode();
+		for (int i = 0; i < transactionCount; ++i) {
+			transactionsJson.add( (i % 5 == 0) ? createIncomeTransactionJson(730) : createExpenseTransactionJson(730) );
+		}
+		LoadTestClient.Response importResponse = client.send("POST /transactions/import", "/transactions/import", transactionsJson.toString());
+		checkSuccessful(importResponse, "import transactions");
+
+		logOut();
+	}
+
+	/**
+	 * Repeats the journey until the load test is stopped (or the thread is interrupted).
+	 */
+	@Override
+	public void run() {
+		while ( !phase.isStopped() && !Thread.currentThread().isInterrupted() ) {
+			try {
+				runJourney();
+			}
+			catch (IOException e) {
+				errorCount.increment();
+				client.setTokenString(null);
+				think();
+			}
+		}
+	}
+
+	private void runJourney()
+		throws IOException
+	{
+		if ( !logIn() ) {
+			think();
+			return;
+		}
+		think();
+
+		// Dashboard (the page loads both without a pause)
+		client.send("GET /dashboard/summary", "/dashboard/summary", null);
+		client.send("GET /accounts/balance-sum", "/accounts/balance-sum", null);
+		think();
+
+		client.send("GET /transactions", TRANSACTIONS_PAGE_PATH + 0, null);
+		think();
+		client.send("GET /transactions", TRANSACTIONS_PAGE_PATH + 1, null);
+		think();
+
+		LoadTestClient.Response createResponse = client.send("POST /transactions", "/transactions", createExpenseTransactionJson(30).toString());
+		think();
+		if ( createResponse.isSuccessful() ) {
+			Long transactionId = readId(createResponse);
+			client.send("PUT /transactions/{id}", "/transactions/" + transactionId, createExpenseTransactionJson(30).toString());
+			think();
+			client.send("DELETE /transactions/{id}", "/transactions/" + transactionId, null);
+			think();
+		}
+
+		logOut();
+		if ( phase.isMeasured() ) {
+			journeyCount.increment();
+		}
+		think();
+	}
+
+	private boolean logIn()
+		throws IOException
+	{
+		String loginJson = OBJECT_MAPPER.createObjectNode()
+			.put("username", email)
+			.put("password", PASSWORD)
+			.toString();
+		LoadTestClient.Response loginResponse = client.send("POST /auth/login", "/auth/login", loginJson);
+		if ( !loginResponse.isSuccessful() ) {
+			return false;
+		}
+
+		client.setTokenString( OBJECT_MAPPER.readTree( loginResponse.getBody() ).get("tokenString").asText() );
+		return true;
+	}
+
+	private void logOut()
+		throws IOException
+	{
+		client.send("GET /auth/logout", "/auth/logout", null);
+		client.setTokenString(null);
+	}
+
+	private Long createCategory(String name, String type)
+		throws IOException
+	{
+		String categoryJson = OBJECT_MAPPER.createObjectNode()
+			.put("name", name)
+			.put("type", type)
+			.put("currentPeriodSum", 0.00d)
+			.put("limit", "1000")
+			.toString();
+		return readId( client.send("POST /categories", "/categories", categoryJson) );
+	}
+
+	/**
+	 * Returns the JSON of an income transaction (from the income category to a random account)
+	 * within the passed number of past days.
+	 */
+	private ObjectNode createIncomeTransactionJson(int days) {
+		return createTransactionJson("CATEGORY", incomeCategoryId, "ACCOUNT", randomElement(accountIds), 1_000.00d, days);
+	}
+
+	/**
+	 * Returns the JSON of an expense transaction (from a random account to a random expenses category)
+	 * within the passed number of past days.
+	 */
+	private ObjectNode createExpenseTransactionJson(int days) {
+		return createTransactionJson("ACCOUNT", randomElement(accountIds), "CATEGORY", randomElement(expenseCategoryIds), 100.00d, days);
+	}
+
+	private ObjectNode createTransactionJson(String fromType, Long fromId, String toType, Long toId, double maxSum, int days) {
+		long dateOfCompletion = System.currentTimeMillis() - (long) ( random.nextDouble() * days * DAY_MILLIS );
+		double sum = 1.00d + Math.round( random.nextDouble() * maxSum * 100 ) / 100.0d;
+
+		return OBJECT_MAPPER.createObjectNode()
+			.put("dateOfCompletion", dateOfCompletion)
+			.put("fromType", fromType)
+			.put("fromId", fromId)
+			.put("toType", toType)
+			.put("toId", toId)
+			.put("sum", sum)
+			.put("description", "Load test transaction")
+			.put("shouldBeAutomaticallyExecuted", false);
+	}
+
+	/**
+	 * Waits for a random think time (between 50% and 150% of the configured one).
+	 */
+	private void think() {
+		long thinkTime = (long) ( thinkTimeMillis * (0.5d + random.nextDouble()) );
+		try {
+			Thread.sleep(thinkTime);
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	private Long randomElement(List<Long> ids) {
+		return ids.get( random.nextInt( ids.size() ) );
+	}
+
+	private static Long readId(LoadTestClient.Response response)
+		throws IOException
+	{
+		checkSuccessful(response, "create resource");
+		return OBJECT_MAPPER.readTree( response.getBody() ).get("id").asLong();
+	}
+
+	private static void checkSuccessful(LoadTestClient.Response response, String operation)
+		throws IOException
+	{
+		if ( !response.isSuccessful() ) {
+			throw new IOException("Failed to " + operation + " (status " + response.getStatus() + "): " + response.getBody());
+		}
+	}
+
+}